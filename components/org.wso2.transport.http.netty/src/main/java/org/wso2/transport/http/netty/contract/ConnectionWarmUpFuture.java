@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contract;
+
+/**
+ * Future of a connection warm up started through {@link HttpClientConnector#warmUp}.
+ */
+public interface ConnectionWarmUpFuture {
+
+    /**
+     * Sets the listener to be notified once all connection attempts have completed. If they have already completed,
+     * the listener is notified immediately.
+     *
+     * @param warmUpListener the listener of the warm up
+     */
+    void setConnectionWarmUpListener(ConnectionWarmUpListener warmUpListener);
+
+    /**
+     * Waits until all connection attempts have completed.
+     *
+     * @return this future
+     * @throws InterruptedException if interrupted while waiting
+     */
+    ConnectionWarmUpFuture sync() throws InterruptedException;
+
+    /**
+     * Gets the number of connections established so far.
+     *
+     * @return the number of established connections
+     */
+    int getEstablishedConnectionCount();
+
+    /**
+     * Gets the number of connection attempts that failed so far.
+     *
+     * @return the number of failed connection attempts
+     */
+    int getFailedConnectionCount();
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contract;
+
+/**
+ * Listener of a connection warm up.
+ */
+public interface ConnectionWarmUpListener {
+
+    /**
+     * Invoked once all connection attempts of the warm up have completed.
+     *
+     * @param establishedConnections the number of connections that are ready for use
+     * @param failedConnections      the number of connection attempts that failed
+     */
+    void onComplete(int establishedConnections, int failedConnections);
+}
@@ -18,6 +18,7 @@ package org.wso2.transport.http.netty.contract;
 import io.netty.util.AttributeKey;
 import io.netty.util.concurrent.EventExecutorGroup;
 import org.wso2.transport.http.netty.contractimpl.DefaultHttpClientConnector;
+import org.wso2.transport.http.netty.contractimpl.common.FlushCoalescer;
 import org.wso2.transport.http.netty.contractimpl.sender.channel.TargetChannel;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 
@@ -37,6 +38,19 @@ public final class Constants {
     public static final String CLIENT_BOOTSTRAP_SO_REUSE = "client.bootstrap.socket.reuse";
     public static final String CLIENT_BOOTSTRAP_SO_TIMEOUT = "client.bootstrap.socket.timeout";
     public static final String CLIENT_BOOTSTRAP_WORKER_GROUP_SIZE = "client.bootstrap.worker.group.size";
+    public static final String CLIENT_BOOTSTRAP_ALLOCATOR = "client.bootstrap.allocator";
+    public static final String CLIENT_BOOTSTRAP_ALLOCATOR_PREFER_DIRECT = "client.bootstrap.allocator.preferdirect";
+    public static final String CLIENT_BOOTSTRAP_RECEIVE_ALLOCATOR = "client.bootstrap.receive.allocator";
+    public static final String CLIENT_BOOTSTRAP_RECEIVE_BUFFER_MINIMUM = "client.bootstrap.receive.buffer.minimum";
+    public static final String CLIENT_BOOTSTRAP_RECEIVE_BUFFER_INITIAL = "client.bootstrap.receive.buffer.initial";
+    public static final String CLIENT_BOOTSTRAP_RECEIVE_BUFFER_MAXIMUM = "client.bootstrap.receive.buffer.maximum";
+    public static final String CLIENT_BOOTSTRAP_WRITE_BUFFER_LOW_MARK = "client.bootstrap.writebuffer.lowwatermark";
+    public static final String CLIENT_BOOTSTRAP_WRITE_BUFFER_HIGH_MARK = "client.bootstrap.writebuffer.highwatermark";
+    public static final String CLIENT_BOOTSTRAP_SO_LINGER = "client.bootstrap.socket.linger";
+    // Native epoll transport only
+    public static final String CLIENT_BOOTSTRAP_TCP_FASTOPEN = "client.bootstrap.tcp.fastopen";
+    public static final String CLIENT_BOOTSTRAP_TCP_QUICKACK = "client.bootstrap.tcp.quickack";
+    public static final String CLIENT_BOOTSTRAP_SO_BUSY_POLL = "client.bootstrap.socket.busypoll";
 
     //Server side SSL Parameters
     public static final String SSL_HANDLER = "ssl";
@@ -55,6 +69,19 @@ public final class Constants {
     public static final String SERVER_BOOTSTRAP_SO_REUSE = "server.bootstrap.socket.reuse";
     public static final String SERVER_BOOTSTRAP_SO_BACKLOG = "server.bootstrap.socket.backlog";
     public static final String SERVER_BOOTSTRAP_SO_TIMEOUT = "server.bootstrap.socket.timeout";
+    public static final String SERVER_BOOTSTRAP_ALLOCATOR = "server.bootstrap.allocator";
+    public static final String SERVER_BOOTSTRAP_ALLOCATOR_PREFER_DIRECT = "server.bootstrap.allocator.preferdirect";
+    public static final String SERVER_BOOTSTRAP_RECEIVE_ALLOCATOR = "server.bootstrap.receive.allocator";
+    public static final String SERVER_BOOTSTRAP_RECEIVE_BUFFER_MINIMUM = "server.bootstrap.receive.buffer.minimum";
+    public static final String SERVER_BOOTSTRAP_RECEIVE_BUFFER_INITIAL = "server.bootstrap.receive.buffer.initial";
+    public static final String SERVER_BOOTSTRAP_RECEIVE_BUFFER_MAXIMUM = "server.bootstrap.receive.buffer.maximum";
+    public static final String SERVER_BOOTSTRAP_WRITE_BUFFER_LOW_MARK = "server.bootstrap.writebuffer.lowwatermark";
+    public static final String SERVER_BOOTSTRAP_WRITE_BUFFER_HIGH_MARK = "server.bootstrap.writebuffer.highwatermark";
+    public static final String SERVER_BOOTSTRAP_SO_LINGER = "server.bootstrap.socket.linger";
+    // Native epoll transport only
+    public static final String SERVER_BOOTSTRAP_TCP_FASTOPEN = "server.bootstrap.tcp.fastopen";
+    public static final String SERVER_BOOTSTRAP_TCP_QUICKACK = "server.bootstrap.tcp.quickack";
+    public static final String SERVER_BOOTSTRAP_SO_BUSY_POLL = "server.bootstrap.socket.busypoll";
     // Boss group size of the server bootstrap
     public static final String SERVER_BOOTSTRAP_BOSS_GROUP_SIZE = "server.bootstrap.boss.group.size";
     //Worker group size of the server bootstrap
@@ -194,6 +221,8 @@ public final class Constants {
     public static final int WEBSOCKET_STATUS_CODE_INVALD_DATA = 1007;
     public static final int WEBSOCKET_STATUS_CODE_UNEXPECTED_CONDITION = 1011;
     public static final int WEBSOCKET_REQUEST_SIZE = 8192;
+    // Maximum number of frames pushed to a WebSocket connection before a flush, within an event loop turn
+    public static final int WEBSOCKET_MAX_FRAMES_PER_FLUSH = 16;
 
     // Callback related parameters
     public static final String HTTP_CONNECTION_CLOSE = "close";
@@ -217,11 +246,17 @@ public final class Constants {
     public static final String HTTP2_PATH = ":path";
     public static final String HTTP2_AUTHORITY = ":authority";
     public static final String HTTP2_SCHEME = ":scheme";
+    public static final String HTTP2_PROTOCOL = ":protocol";
+    public static final char HTTP2_SETTINGS_ENABLE_CONNECT_PROTOCOL = 0x8;
 
     public static final String HTTP_SOURCE_HANDLER = "SourceHandler";
     public static final String HTTP_ENCODER = "encoder";
     public static final String HTTP_COMPRESSOR = "compressor";
     public static final String HTTP_CHUNK_WRITER = "chunkWriter";
+    public static final String LAZY_PIPELINE_ASSEMBLER = "lazyPipelineAssembler";
+    public static final String ADMISSION_CONTROL_HANDLER = "admissionControlHandler";
+    public static final String URI_HEADER_LENGTH_VALIDATOR = "uriLengthValidator";
+    public static final String MAX_ENTITY_BODY_VALIDATOR = "maxEntityBodyValidator";
     public static final String HTTP_DECODER = "decoder";
     public static final String HTTP_CLIENT_CODEC = "codec";
     public static final String HTTP_SERVER_CODEC = "ServerCodec";
@@ -245,6 +280,10 @@ public final class Constants {
     public static final String HTTP_ACCESS_LOG_HANDLER = "http-access-logger";
     public static final String WEBSOCKET_SERVER_HANDSHAKE_HANDLER = "websocket-server-handshake-handler";
     public static final String WEBSOCKET_CLIENT_HANDSHAKE_HANDLER = "websocket-client-handshake-handler";
+    public static final String WEBSOCKET_HEARTBEAT_HANDLER = "websocket-heartbeat-handler";
+    public static final String WEBSOCKET_SPLICE_HANDLER = "websocket-splice-handler";
+    public static final String WEBSOCKET_HTTP2_STREAMS = "websocket-http2-streams";
+    public static final String WRITABILITY_NOTIFIER = "writability-notifier";
 
     public static final AttributeKey<Integer> REDIRECT_COUNT = AttributeKey.valueOf("REDIRECT_COUNT");
     public static final AttributeKey<String> RESOLVED_REQUESTED_URI_ATTR = AttributeKey
@@ -272,6 +311,7 @@ public final class Constants {
 
     public static final AttributeKey<String> MUTUAL_SSL_RESULT_ATTRIBUTE = AttributeKey
             .valueOf("MUTUAL_SSL_HANDSHAKE_RESULT");
+    public static final AttributeKey<FlushCoalescer> FLUSH_COALESCER = AttributeKey.valueOf("FLUSH_COALESCER");
 
     public static final long EXPECTED_SEQUENCE_NUMBER = 1L;
     public static final int NUMBER_OF_INITIAL_EVENTS_HELD = 3;
@@ -279,6 +319,22 @@ public final class Constants {
     public static final int UNBOUNDED_RESPONSE_QUEUE = -1;
     public static final String PIPELINING_THREAD_POOL_NAME = "pipelining-thread-pool";
     public static final int PIPELINING_THREAD_COUNT = 2;
+    public static final String WEBSOCKET_COMPRESSION_THREAD_POOL_NAME = "websocket-compression-thread-pool";
+    public static final String WEBSOCKET_HEARTBEAT_TIMER_NAME = "websocket-heartbeat-timer";
+    public static final long WEBSOCKET_HEARTBEAT_TICK_DURATION_MILLIS = 100;
+    public static final int WEBSOCKET_HEARTBEAT_TICKS_PER_WHEEL = 512;
+
+    // Server-Sent Events related properties
+    public static final String EVENT_STREAM_RESPONSE = "EVENT_STREAM_RESPONSE";
+    public static final String TEXT_EVENT_STREAM = "text/event-stream";
+    public static final int SSE_MAX_PENDING_EVENTS = 1024;
+
+    // Response compression related properties
+    /**
+     * Response property that marks the content as already encoded by the application with the coding given in the
+     * Content-Encoding header, so that the transport sends it as it is.
+     */
+    public static final String PRECOMPRESSED_CONTENT = "PRECOMPRESSED_CONTENT";
 
     public static final String UTF8 = "UTF-8";
     public static final String URL_AUTHORITY = "://";
@@ -294,11 +350,18 @@ public final class Constants {
     // Trace Logger related parameters
     public static final String TRACE_LOG_UPSTREAM = "http.tracelog.upstream";
     public static final String TRACE_LOG_DOWNSTREAM = "http.tracelog.downstream";
+    public static final int TRACE_LOG_QUEUE_SIZE = 8192;
+    public static final String TRACE_LOG_WRITER_THREAD_NAME = "http-trace-log-writer";
 
     // Access Logger related parameters
     public static final String ACCESS_LOG = "http.accesslog";
     public static final String ACCESS_LOG_FORMAT =
             "%1$s - - [%2$td/%2$tb/%2$tY:%2$tT %2$tz] \"%3$s %4$s %5$s\" %6$d %7$d \"%8$s\" \"%9$s\"";
+    public static final String ACCESS_LOG_TIMESTAMP_PATTERN = "dd/MMM/yyyy:HH:mm:ss Z";
+    public static final String ACCESS_LOG_WRITER_THREAD_NAME = "http-access-log-writer";
+
+    // Inbound memory budget shared by all connections, in bytes
+    public static final String INBOUND_MEMORY_BUDGET = "transport.http.inbound.memory.budget";
 
     public static final String LISTENER_PORT = "LISTENER_PORT";
 
@@ -382,6 +445,7 @@ public final class Constants {
             = "Promised stream is already rejected or stream is no longer valid";
 
     public static final String MAXIMUM_WAIT_TIME_EXCEED = "Could not obtain a connection within maximum wait time";
+    public static final String CONCURRENCY_LIMIT_EXCEEDED = "Concurrency limit exceeded for the route ";
 
     public static final String JMX_AGENT_NAME = "jmx.agent.name";
 
@@ -395,6 +459,10 @@ public final class Constants {
 
     public static final int HTTP_CARBON_MESSAGE_PROPERTIES_MAP_DEFAULT_SIZE = 64;
 
+    // Bytes of entity body buffered under ChunkConfig.AUTO before falling back to chunked encoding. Zero chunks
+    // streamed bodies right away, so that buffering is only done when a user opts in.
+    public static final int DEFAULT_CHUNKING_THRESHOLD = 0;
+
 
     private Constants() {
     }
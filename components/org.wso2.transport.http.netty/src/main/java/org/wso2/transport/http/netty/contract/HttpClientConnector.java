@@ -19,10 +19,14 @@
 
 package org.wso2.transport.http.netty.contract;
 
+import org.wso2.transport.http.netty.contractimpl.DefaultConnectionWarmUpFuture;
 import org.wso2.transport.http.netty.message.Http2PushPromise;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 import org.wso2.transport.http.netty.message.ResponseHandle;
 
+import java.net.InetSocketAddress;
+import java.util.List;
+
 /**
  * Allows to send outbound messages.
  */
@@ -93,4 +97,21 @@ public interface HttpClientConnector {
      * @return returns the status of the asynchronous push response fetch action
      */
     HttpResponseFuture getPushResponse(Http2PushPromise pushPromise);
+
+    /**
+     * Opens connections to the given endpoints ahead of the first requests so that the requests do not pay for the
+     * TCP and TLS setup. Connections are opened with the scheme and HTTP version of this connector. HTTP/1.1
+     * connections are added to the idle connections of the pool, while HTTP/2 connections negotiated with ALPN or
+     * prior knowledge are handed to the HTTP/2 connection manager.
+     *
+     * <br><b>Note: By default no connections are opened and the returned future is already complete.</b>
+     *
+     * @param endpoints              the endpoints to connect to
+     * @param connectionsPerEndpoint the number of connections to open to each endpoint, capped by the maximum
+     *                               active connections of the pool
+     * @return the future that is completed once all connection attempts have completed
+     */
+    default ConnectionWarmUpFuture warmUp(List<InetSocketAddress> endpoints, int connectionsPerEndpoint) {
+        return new DefaultConnectionWarmUpFuture(0);
+    }
 }
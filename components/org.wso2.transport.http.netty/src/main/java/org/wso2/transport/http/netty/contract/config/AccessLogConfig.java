@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contract.config;
+
+/**
+ * Configuration of the access log of a listener. Access log records are buffered and written by a background thread,
+ * so that the event loops do not wait for the logging framework.
+ */
+public class AccessLogConfig {
+
+    private int bufferSize = 8192;
+    private AccessLogOverflowPolicy overflowPolicy = AccessLogOverflowPolicy.DROP;
+    private int sampleRate = 10;
+
+    /**
+     * @return the number of records the buffer holds until they are written, rounded up to a power of two
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public AccessLogOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(AccessLogOverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * @return one in how many records is kept while the buffer is under pressure with
+     * {@link AccessLogOverflowPolicy#SAMPLE}
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+}
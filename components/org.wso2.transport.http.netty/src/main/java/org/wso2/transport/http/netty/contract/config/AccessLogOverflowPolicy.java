@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contract.config;
+
+/**
+ * Contains the values for configuring what happens to an access log record when the access log buffer is full.
+ */
+public enum AccessLogOverflowPolicy {
+    /**
+     * The record is dropped and counted, so that the event loop never waits for the access log.
+     */
+    DROP,
+    /**
+     * The caller waits until the access log writer frees a slot, so that no record is lost. Event loops never wait,
+     * hence records logged on an event loop are dropped and counted as with {@link #DROP}.
+     */
+    BLOCK,
+    /**
+     * Once the buffer is half full only one in every {@link AccessLogConfig#getSampleRate()} records is kept, and the
+     * rest are dropped and counted. Records are dropped as well if the buffer gets full regardless.
+     */
+    SAMPLE
+}
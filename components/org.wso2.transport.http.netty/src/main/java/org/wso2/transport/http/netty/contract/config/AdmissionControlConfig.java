@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contract.config;
+
+/**
+ * Configuration for the admission control of inbound requests.
+ */
+public class AdmissionControlConfig {
+
+    private boolean enabled = false;
+    private AdmissionControlMode mode = AdmissionControlMode.STATIC;
+    private int maxInFlightRequests = -1;
+    private long maxEventLoopLatency = -1;
+    private int maxPendingTasks = -1;
+    private long targetLatency = 5;
+    private long interval = 100;
+    private int rejectionStatusCode = 503;
+    private int retryAfter = 1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public AdmissionControlMode getMode() {
+        return mode;
+    }
+
+    public void setMode(AdmissionControlMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * @return the maximum number of requests the listener processes at a time, or -1 for no limit
+     */
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    public void setMaxInFlightRequests(int maxInFlightRequests) {
+        this.maxInFlightRequests = maxInFlightRequests;
+    }
+
+    /**
+     * @return the event loop latency in milliseconds above which requests are rejected in
+     * {@link AdmissionControlMode#STATIC} mode, or -1 for no limit
+     */
+    public long getMaxEventLoopLatency() {
+        return maxEventLoopLatency;
+    }
+
+    public void setMaxEventLoopLatency(long maxEventLoopLatency) {
+        this.maxEventLoopLatency = maxEventLoopLatency;
+    }
+
+    /**
+     * @return the number of tasks queued in an event loop above which requests are rejected, or -1 for no limit
+     */
+    public int getMaxPendingTasks() {
+        return maxPendingTasks;
+    }
+
+    public void setMaxPendingTasks(int maxPendingTasks) {
+        this.maxPendingTasks = maxPendingTasks;
+    }
+
+    /**
+     * @return the acceptable event loop latency in milliseconds in {@link AdmissionControlMode#ADAPTIVE} mode
+     */
+    public long getTargetLatency() {
+        return targetLatency;
+    }
+
+    public void setTargetLatency(long targetLatency) {
+        this.targetLatency = targetLatency;
+    }
+
+    /**
+     * @return the interval in milliseconds over which the minimum latency is observed in
+     * {@link AdmissionControlMode#ADAPTIVE} mode
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * @return the status code of the response sent for rejected requests, either 503 or 429
+     */
+    public int getRejectionStatusCode() {
+        return rejectionStatusCode;
+    }
+
+    public void setRejectionStatusCode(int rejectionStatusCode) {
+        this.rejectionStatusCode = rejectionStatusCode;
+    }
+
+    /**
+     * @return the value of the Retry-After header in seconds of the rejection response, or -1 to omit the header
+     */
+    public int getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(int retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contract.config;
+
+/**
+ * Contains the values for configuring how the admission controller decides that an event loop is overloaded.
+ */
+public enum AdmissionControlMode {
+    /**
+     * Requests are rejected when the event loop latency or the pending task count exceeds the configured limits.
+     */
+    STATIC,
+    /**
+     * Requests are rejected CoDel style. While the minimum event loop latency of the last interval stays above the
+     * target latency, requests that waited longer than the target latency are rejected. Otherwise only requests that
+     * waited longer than an interval are rejected.
+     */
+    ADAPTIVE
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contract.config;
+
+import io.netty.channel.ChannelHandler;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Configuration of the content compression applied to HTTP/1.x responses of a listener.
+ */
+public class HttpCompressionConfig {
+
+    private boolean enabled = true;
+    private int compressionLevel = 6;
+    private long minResponseSize;
+    private Set<String> compressibleContentTypes = new LinkedHashSet<>();
+    private Set<String> excludedContentTypes = new LinkedHashSet<>(Arrays.asList(
+            "image/*", "video/*", "audio/*", "font/woff", "font/woff2", "application/zip", "application/gzip",
+            "application/x-gzip", "application/x-bzip2", "application/x-7z-compressed", "text/event-stream"));
+    private Map<String, Supplier<ChannelHandler>> contentEncoders = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the gzip and deflate compression level from 0 to 9
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * @return the content length in bytes below which responses are sent uncompressed. Responses of unknown length
+     * are always compressed
+     */
+    public long getMinResponseSize() {
+        return minResponseSize;
+    }
+
+    public void setMinResponseSize(long minResponseSize) {
+        this.minResponseSize = minResponseSize;
+    }
+
+    /**
+     * @return the content types that are compressed, or an empty set to compress every type that is not excluded.
+     * An entry ending with {@code /*} matches all subtypes
+     */
+    public Set<String> getCompressibleContentTypes() {
+        return compressibleContentTypes;
+    }
+
+    public void setCompressibleContentTypes(Set<String> compressibleContentTypes) {
+        this.compressibleContentTypes = compressibleContentTypes;
+    }
+
+    /**
+     * @return the content types that are never compressed. By default these are media and archive types that are
+     * already compressed, and event streams that must not be held back by the compressor
+     */
+    public Set<String> getExcludedContentTypes() {
+        return excludedContentTypes;
+    }
+
+    public void setExcludedContentTypes(Set<String> excludedContentTypes) {
+        this.excludedContentTypes = excludedContentTypes;
+    }
+
+    /**
+     * Adds a content encoding such as {@code br} or {@code zstd} on top of gzip and deflate. The supplier creates a
+     * handler that turns the {@link io.netty.buffer.ByteBuf}s written to it into encoded ones, and is called for
+     * each response that is sent with the encoding. Encodings added here are preferred over gzip and deflate when the
+     * client accepts both with the same quality.
+     *
+     * @param contentEncoding the content coding token as used in the Accept-Encoding header
+     * @param encoderSupplier creates the encoder of a response
+     */
+    public void addContentEncoder(String contentEncoding, Supplier<ChannelHandler> encoderSupplier) {
+        contentEncoders.put(contentEncoding, encoderSupplier);
+    }
+
+    public Map<String, Supplier<ChannelHandler>> getContentEncoders() {
+        return contentEncoders;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contract.config;
+
+/**
+ * Configuration of the inbound content buffered for a single message. Once the content of a message that is not yet
+ * consumed reaches the high water mark, the connection is not read until the consumer brings it down to the low
+ * water mark.
+ */
+public class InboundBufferConfig {
+
+    private int highWaterMark = 2097152;
+    private int lowWaterMark = 1048576;
+
+    /**
+     * @return the buffered bytes of a message at which reading from the connection stops
+     */
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public void setHighWaterMark(int highWaterMark) {
+        this.highWaterMark = highWaterMark;
+    }
+
+    /**
+     * @return the buffered bytes of a message below which reading from the connection resumes
+     */
+    public int getLowWaterMark() {
+        return lowWaterMark;
+    }
+
+    public void setLowWaterMark(int lowWaterMark) {
+        this.lowWaterMark = lowWaterMark;
+    }
+}
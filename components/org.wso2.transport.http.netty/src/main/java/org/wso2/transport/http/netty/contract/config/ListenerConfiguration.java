@@ -18,6 +18,9 @@
  */
 package org.wso2.transport.http.netty.contract.config;
 
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -42,16 +45,26 @@ public class ListenerConfiguration extends SslConfiguration {
     private String host = "0.0.0.0";
     private int port = 9090;
     private ChunkConfig chunkingConfig = ChunkConfig.AUTO;
+    private int chunkingThreshold = Constants.DEFAULT_CHUNKING_THRESHOLD;
     private KeepAliveConfig keepAliveConfig = KeepAliveConfig.AUTO;
     private boolean bindOnStartup = false;
     private String version = "1.1";
     private long socketIdleTimeout;
     private String messageProcessorId;
     private boolean httpTraceLogEnabled;
+    private TraceLogConfig traceLogConfig = new TraceLogConfig();
     private boolean httpAccessLogEnabled;
+    private AccessLogConfig accessLogConfig = new AccessLogConfig();
+    private InboundBufferConfig inboundBufferConfig = new InboundBufferConfig();
     private String serverHeader = "wso2-http-transport";
     private List<Parameter> parameters = getDefaultParameters();
     private RequestSizeValidationConfig requestSizeValidationConfig = new RequestSizeValidationConfig();
+    private AdmissionControlConfig admissionControlConfig = new AdmissionControlConfig();
+    private WebSocketBufferMode webSocketBufferMode = WebSocketBufferMode.COPY;
+    private WebSocketCompressionConfig webSocketCompressionConfig = new WebSocketCompressionConfig();
+    private WebSocketHeartbeatConfig webSocketHeartbeatConfig;
+    private HttpCompressionConfig httpCompressionConfig = new HttpCompressionConfig();
+    private boolean webSocketOverHttp2Enabled;
     private boolean pipeliningEnabled;
     private long pipeliningLimit;
 
@@ -137,6 +150,22 @@ public class ListenerConfiguration extends SslConfiguration {
         this.httpTraceLogEnabled = httpTraceLogEnabled;
     }
 
+    public TraceLogConfig getTraceLogConfig() {
+        return traceLogConfig;
+    }
+
+    public void setTraceLogConfig(TraceLogConfig traceLogConfig) {
+        this.traceLogConfig = traceLogConfig;
+    }
+
+    public InboundBufferConfig getInboundBufferConfig() {
+        return inboundBufferConfig;
+    }
+
+    public void setInboundBufferConfig(InboundBufferConfig inboundBufferConfig) {
+        this.inboundBufferConfig = inboundBufferConfig;
+    }
+
     public boolean isHttpAccessLogEnabled() {
         return httpAccessLogEnabled;
     }
@@ -145,6 +174,14 @@ public class ListenerConfiguration extends SslConfiguration {
         this.httpAccessLogEnabled = httpAccessLogEnabled;
     }
 
+    public AccessLogConfig getAccessLogConfig() {
+        return accessLogConfig;
+    }
+
+    public void setAccessLogConfig(AccessLogConfig accessLogConfig) {
+        this.accessLogConfig = accessLogConfig;
+    }
+
     public RequestSizeValidationConfig getRequestSizeValidationConfig() {
         return requestSizeValidationConfig;
     }
@@ -153,6 +190,72 @@ public class ListenerConfiguration extends SslConfiguration {
         this.requestSizeValidationConfig = requestSizeValidationConfig;
     }
 
+    public AdmissionControlConfig getAdmissionControlConfig() {
+        return admissionControlConfig;
+    }
+
+    public void setAdmissionControlConfig(AdmissionControlConfig admissionControlConfig) {
+        this.admissionControlConfig = admissionControlConfig;
+    }
+
+    public WebSocketBufferMode getWebSocketBufferMode() {
+        return webSocketBufferMode;
+    }
+
+    /**
+     * Sets how the payload of inbound WebSocket binary and control frames is handed over to the listener.
+     *
+     * @param webSocketBufferMode {@link WebSocketBufferMode#COPY} to copy the payload, which is the default, or
+     *                            {@link WebSocketBufferMode#RETAINED} to expose the network buffer without copying.
+     */
+    public void setWebSocketBufferMode(WebSocketBufferMode webSocketBufferMode) {
+        this.webSocketBufferMode = webSocketBufferMode;
+    }
+
+    public WebSocketCompressionConfig getWebSocketCompressionConfig() {
+        return webSocketCompressionConfig;
+    }
+
+    public void setWebSocketCompressionConfig(WebSocketCompressionConfig webSocketCompressionConfig) {
+        this.webSocketCompressionConfig = webSocketCompressionConfig;
+    }
+
+    public HttpCompressionConfig getHttpCompressionConfig() {
+        return httpCompressionConfig;
+    }
+
+    public void setHttpCompressionConfig(HttpCompressionConfig httpCompressionConfig) {
+        this.httpCompressionConfig = httpCompressionConfig;
+    }
+
+    /**
+     * @return the heartbeat configuration of WebSocket connections, or null if pings are left to the application and
+     * idle timeouts are handled per connection
+     */
+    public WebSocketHeartbeatConfig getWebSocketHeartbeatConfig() {
+        return webSocketHeartbeatConfig;
+    }
+
+    public void setWebSocketHeartbeatConfig(WebSocketHeartbeatConfig webSocketHeartbeatConfig) {
+        this.webSocketHeartbeatConfig = webSocketHeartbeatConfig;
+    }
+
+    public boolean isWebSocketOverHttp2Enabled() {
+        return webSocketOverHttp2Enabled;
+    }
+
+    /**
+     * Sets whether WebSockets can be opened over HTTP/2 connections with the extended CONNECT method of RFC 8441.
+     * When enabled, the listener advertises SETTINGS_ENABLE_CONNECT_PROTOCOL on its HTTP/2 connections. The HPACK
+     * decoder of Netty does not know the :protocol pseudo-header, hence the validation of inbound HTTP/2 header
+     * names is turned off on these connections.
+     *
+     * @param webSocketOverHttp2Enabled true to accept WebSockets over HTTP/2 streams
+     */
+    public void setWebSocketOverHttp2Enabled(boolean webSocketOverHttp2Enabled) {
+        this.webSocketOverHttp2Enabled = webSocketOverHttp2Enabled;
+    }
+
     public ChunkConfig getChunkConfig() {
         return chunkingConfig;
     }
@@ -161,6 +264,31 @@ public class ListenerConfiguration extends SslConfiguration {
         this.chunkingConfig = chunkConfig;
     }
 
+    /**
+     * Returns the number of entity body bytes buffered under {@link ChunkConfig#AUTO} while deciding between a
+     * Content-Length and chunked encoding.
+     *
+     * @return the chunking threshold in bytes
+     */
+    public int getChunkingThreshold() {
+        return chunkingThreshold;
+    }
+
+    /**
+     * Sets the number of entity body bytes buffered under {@link ChunkConfig#AUTO}. A message whose body ends within
+     * the threshold is sent with a Content-Length, while a longer one switches to chunked encoding once the threshold
+     * is reached and streams the rest. Zero, the default, chunks every message that has more than one content right
+     * away, which does not delay the first bytes of a streamed body.
+     *
+     * @param chunkingThreshold the chunking threshold in bytes
+     */
+    public void setChunkingThreshold(int chunkingThreshold) {
+        if (chunkingThreshold < 0) {
+            throw new IllegalArgumentException("Chunking threshold must not be negative : " + chunkingThreshold);
+        }
+        this.chunkingThreshold = chunkingThreshold;
+    }
+
     public KeepAliveConfig getKeepAliveConfig() {
         return keepAliveConfig;
     }
@@ -18,6 +18,7 @@
  */
 package org.wso2.transport.http.netty.contract.config;
 
+import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.PoolConfiguration;
 
 /**
@@ -41,7 +42,10 @@ public class SenderConfiguration extends SslConfiguration {
     private String id = DEFAULT_KEY;
     private int socketIdleTimeout = 60000;
     private boolean httpTraceLogEnabled;
+    private TraceLogConfig traceLogConfig = new TraceLogConfig();
+    private InboundBufferConfig inboundBufferConfig = new InboundBufferConfig();
     private ChunkConfig chunkingConfig = ChunkConfig.AUTO;
+    private int chunkingThreshold = Constants.DEFAULT_CHUNKING_THRESHOLD;
     private KeepAliveConfig keepAliveConfig = KeepAliveConfig.AUTO;
     private boolean forceHttp2 = false;
     private String httpVersion = "1.1";
@@ -86,6 +90,22 @@ public class SenderConfiguration extends SslConfiguration {
         this.httpTraceLogEnabled = httpTraceLogEnabled;
     }
 
+    public TraceLogConfig getTraceLogConfig() {
+        return traceLogConfig;
+    }
+
+    public void setTraceLogConfig(TraceLogConfig traceLogConfig) {
+        this.traceLogConfig = traceLogConfig;
+    }
+
+    public InboundBufferConfig getInboundBufferConfig() {
+        return inboundBufferConfig;
+    }
+
+    public void setInboundBufferConfig(InboundBufferConfig inboundBufferConfig) {
+        this.inboundBufferConfig = inboundBufferConfig;
+    }
+
     public ChunkConfig getChunkingConfig() {
         return chunkingConfig;
     }
@@ -94,6 +114,31 @@ public class SenderConfiguration extends SslConfiguration {
         this.chunkingConfig = chunkingConfig;
     }
 
+    /**
+     * Returns the number of entity body bytes buffered under {@link ChunkConfig#AUTO} while deciding between a
+     * Content-Length and chunked encoding.
+     *
+     * @return the chunking threshold in bytes
+     */
+    public int getChunkingThreshold() {
+        return chunkingThreshold;
+    }
+
+    /**
+     * Sets the number of entity body bytes buffered under {@link ChunkConfig#AUTO}. A message whose body ends within
+     * the threshold is sent with a Content-Length, while a longer one switches to chunked encoding once the threshold
+     * is reached and streams the rest. Zero, the default, chunks every message that has more than one content right
+     * away, which does not delay the first bytes of a streamed body.
+     *
+     * @param chunkingThreshold the chunking threshold in bytes
+     */
+    public void setChunkingThreshold(int chunkingThreshold) {
+        if (chunkingThreshold < 0) {
+            throw new IllegalArgumentException("Chunking threshold must not be negative : " + chunkingThreshold);
+        }
+        this.chunkingThreshold = chunkingThreshold;
+    }
+
     public KeepAliveConfig getKeepAliveConfig() {
         return keepAliveConfig;
     }
@@ -15,7 +15,11 @@
 
 package org.wso2.transport.http.netty.contract.config;
 
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.WriteBufferWaterMark;
 import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contractimpl.common.ChannelOptions;
 import org.wso2.transport.http.netty.contractimpl.common.Util;
 
 import java.util.Map;
@@ -33,6 +37,13 @@ public class ServerBootstrapConfiguration {
     private int sendBufferSize;
     private int soBackLog;
     private int socketTimeOut;
+    private ByteBufAllocator byteBufAllocator;
+    private RecvByteBufAllocator recvByteBufAllocator;
+    private WriteBufferWaterMark writeBufferWaterMark;
+    private int soLinger;
+    private int tcpFastOpen;
+    private boolean tcpQuickAck;
+    private int soBusyPoll;
 
     public ServerBootstrapConfiguration(Map<String, Object> properties) {
 
@@ -57,6 +68,36 @@ public class ServerBootstrapConfiguration {
         soBackLog = Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_SO_BACKLOG, 100);
 
         socketTimeOut = Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_SO_TIMEOUT, 15);
+
+        byteBufAllocator = ChannelOptions.createByteBufAllocator(
+                Util.getStringProperty(properties, Constants.SERVER_BOOTSTRAP_ALLOCATOR,
+                                       ChannelOptions.ALLOCATOR_DEFAULT),
+                Util.getBooleanProperty(properties, Constants.SERVER_BOOTSTRAP_ALLOCATOR_PREFER_DIRECT, true));
+
+        recvByteBufAllocator = ChannelOptions.createRecvByteBufAllocator(
+                Util.getStringProperty(properties, Constants.SERVER_BOOTSTRAP_RECEIVE_ALLOCATOR,
+                                       ChannelOptions.RECEIVE_ALLOCATOR_ADAPTIVE),
+                Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_RECEIVE_BUFFER_MINIMUM,
+                                    ChannelOptions.DEFAULT_RECEIVE_BUFFER_MINIMUM),
+                Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_RECEIVE_BUFFER_INITIAL,
+                                    ChannelOptions.DEFAULT_RECEIVE_BUFFER_INITIAL),
+                Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_RECEIVE_BUFFER_MAXIMUM,
+                                    ChannelOptions.DEFAULT_RECEIVE_BUFFER_MAXIMUM));
+
+        writeBufferWaterMark = ChannelOptions.createWriteBufferWaterMark(
+                Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_WRITE_BUFFER_LOW_MARK, -1),
+                Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_WRITE_BUFFER_HIGH_MARK, -1));
+
+        soLinger = ChannelOptions.validateSoLinger(
+                Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_SO_LINGER, -1));
+
+        tcpFastOpen = ChannelOptions.validateNonNegative(Constants.SERVER_BOOTSTRAP_TCP_FASTOPEN,
+                Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_TCP_FASTOPEN, 0));
+
+        tcpQuickAck = Util.getBooleanProperty(properties, Constants.SERVER_BOOTSTRAP_TCP_QUICKACK, false);
+
+        soBusyPoll = ChannelOptions.validateNonNegative(Constants.SERVER_BOOTSTRAP_SO_BUSY_POLL,
+                Util.getIntProperty(properties, Constants.SERVER_BOOTSTRAP_SO_BUSY_POLL, 0));
     }
 
     public boolean isTcpNoDelay() {
@@ -90,4 +131,41 @@ public class ServerBootstrapConfiguration {
     public int getSoTimeOut() {
         return socketTimeOut;
     }
+
+    public ByteBufAllocator getByteBufAllocator() {
+        return byteBufAllocator;
+    }
+
+    public RecvByteBufAllocator getRecvByteBufAllocator() {
+        return recvByteBufAllocator;
+    }
+
+    /**
+     * @return the write buffer water mark, or null if Netty's default applies
+     */
+    public WriteBufferWaterMark getWriteBufferWaterMark() {
+        return writeBufferWaterMark;
+    }
+
+    public int getSoLinger() {
+        return soLinger;
+    }
+
+    /**
+     * @return the TCP fast open queue length of the server socket, or 0 if fast open is not enabled
+     */
+    public int getTcpFastOpen() {
+        return tcpFastOpen;
+    }
+
+    public boolean isTcpQuickAck() {
+        return tcpQuickAck;
+    }
+
+    /**
+     * @return the busy poll time in microseconds, or 0 if busy polling is not enabled
+     */
+    public int getSoBusyPoll() {
+        return soBusyPoll;
+    }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contract.config;
+
+/**
+ * Configuration of the HTTP wire trace logs. Traces are written by a background thread, and can be limited to a
+ * sample of the connections or requests and to the first bytes of each payload, so that they can stay enabled on a
+ * production listener.
+ */
+public class TraceLogConfig {
+
+    private double samplingPercentage = 100;
+    private int connectionSampleRate = 1;
+    private String sampleHeaderName;
+    private String sampleHeaderValue;
+    private String sampleUriPrefix;
+    private int maxPayloadBytes = -1;
+
+    /**
+     * @return the percentage of connections that are traced, from 0 to 100
+     */
+    public double getSamplingPercentage() {
+        return samplingPercentage;
+    }
+
+    public void setSamplingPercentage(double samplingPercentage) {
+        this.samplingPercentage = samplingPercentage;
+    }
+
+    /**
+     * @return one in how many connections is traced. Applies on top of the sampling percentage
+     */
+    public int getConnectionSampleRate() {
+        return connectionSampleRate;
+    }
+
+    public void setConnectionSampleRate(int connectionSampleRate) {
+        this.connectionSampleRate = connectionSampleRate;
+    }
+
+    /**
+     * @return the header an HTTP/1.x request must carry for its exchange to be traced, or null to trace all requests
+     * of a sampled connection
+     */
+    public String getSampleHeaderName() {
+        return sampleHeaderName;
+    }
+
+    public void setSampleHeaderName(String sampleHeaderName) {
+        this.sampleHeaderName = sampleHeaderName;
+    }
+
+    /**
+     * @return the value the sample header must have, ignoring case, or null to accept any value
+     */
+    public String getSampleHeaderValue() {
+        return sampleHeaderValue;
+    }
+
+    public void setSampleHeaderValue(String sampleHeaderValue) {
+        this.sampleHeaderValue = sampleHeaderValue;
+    }
+
+    /**
+     * @return the prefix the URI of an HTTP/1.x request must start with for its exchange to be traced, or null to
+     * trace all requests of a sampled connection
+     */
+    public String getSampleUriPrefix() {
+        return sampleUriPrefix;
+    }
+
+    public void setSampleUriPrefix(String sampleUriPrefix) {
+        this.sampleUriPrefix = sampleUriPrefix;
+    }
+
+    /**
+     * @return the number of payload bytes dumped for each message, or -1 to dump whole payloads
+     */
+    public int getMaxPayloadBytes() {
+        return maxPayloadBytes;
+    }
+
+    public void setMaxPayloadBytes(int maxPayloadBytes) {
+        this.maxPayloadBytes = maxPayloadBytes;
+    }
+}
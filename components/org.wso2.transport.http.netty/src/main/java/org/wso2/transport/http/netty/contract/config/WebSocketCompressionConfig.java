@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contract.config;
+
+/**
+ * Configuration of the permessage-deflate extension (RFC 7692) of WebSocket connections.
+ */
+public class WebSocketCompressionConfig {
+
+    private boolean enabled = true;
+    private int compressionLevel = 6;
+    private int windowBits = 15;
+    private int peerWindowBits = 15;
+    private int memLevel = 8;
+    private boolean noContextTakeover;
+    private boolean peerNoContextTakeover;
+    private int minCompressionSize;
+    private int offloadThreshold = -1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the deflate compression level from 0 to 9
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * @return the base two logarithm of the LZ77 window used to compress outbound messages, from 9 to 15. Values
+     * other than 15 need JZlib in the class path and are ignored otherwise
+     */
+    public int getWindowBits() {
+        return windowBits;
+    }
+
+    public void setWindowBits(int windowBits) {
+        this.windowBits = windowBits;
+    }
+
+    /**
+     * @return the base two logarithm of the LZ77 window the peer is asked to use for its messages, from 9 to 15
+     */
+    public int getPeerWindowBits() {
+        return peerWindowBits;
+    }
+
+    public void setPeerWindowBits(int peerWindowBits) {
+        this.peerWindowBits = peerWindowBits;
+    }
+
+    /**
+     * @return the memory level of the compressor from 1 to 9. Values other than 8 need JZlib in the class path and
+     * are ignored otherwise
+     */
+    public int getMemLevel() {
+        return memLevel;
+    }
+
+    public void setMemLevel(int memLevel) {
+        this.memLevel = memLevel;
+    }
+
+    /**
+     * @return true if the compression context is discarded after each outbound message, so that an idle connection
+     * does not hold a compressor
+     */
+    public boolean isNoContextTakeover() {
+        return noContextTakeover;
+    }
+
+    public void setNoContextTakeover(boolean noContextTakeover) {
+        this.noContextTakeover = noContextTakeover;
+    }
+
+    /**
+     * @return true if the peer is asked to discard its compression context after each message, so that an idle
+     * connection does not hold a decompressor
+     */
+    public boolean isPeerNoContextTakeover() {
+        return peerNoContextTakeover;
+    }
+
+    public void setPeerNoContextTakeover(boolean peerNoContextTakeover) {
+        this.peerNoContextTakeover = peerNoContextTakeover;
+    }
+
+    /**
+     * @return the payload size in bytes below which outbound messages are sent uncompressed
+     */
+    public int getMinCompressionSize() {
+        return minCompressionSize;
+    }
+
+    public void setMinCompressionSize(int minCompressionSize) {
+        this.minCompressionSize = minCompressionSize;
+    }
+
+    /**
+     * @return the payload size in bytes from which outbound frames are compressed off the event loop, or -1 to
+     * compress every frame on the event loop
+     */
+    public int getOffloadThreshold() {
+        return offloadThreshold;
+    }
+
+    public void setOffloadThreshold(int offloadThreshold) {
+        this.offloadThreshold = offloadThreshold;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contract.config;
+
+/**
+ * Configuration of the built-in heartbeat of WebSocket connections. When it is set, pings and idle timeouts of all
+ * connections are driven by a hashed-wheel timer shared by the connector factory instead of a scheduled task per
+ * connection.
+ */
+public class WebSocketHeartbeatConfig {
+
+    private boolean enabled = true;
+    private long pingIntervalInMillis = 30000;
+    private long pingJitterInMillis = 3000;
+    private int maxMissedPongs = 3;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the interval between two pings of a connection, or 0 if only idle timeouts should be handled
+     */
+    public long getPingIntervalInMillis() {
+        return pingIntervalInMillis;
+    }
+
+    public void setPingIntervalInMillis(long pingIntervalInMillis) {
+        this.pingIntervalInMillis = pingIntervalInMillis;
+    }
+
+    /**
+     * @return the upper bound of the random delay added to each ping interval, which spreads the pings of connections
+     * opened together
+     */
+    public long getPingJitterInMillis() {
+        return pingJitterInMillis;
+    }
+
+    public void setPingJitterInMillis(long pingJitterInMillis) {
+        this.pingJitterInMillis = pingJitterInMillis;
+    }
+
+    /**
+     * @return the number of consecutive pings left unanswered after which the connection is closed. Pongs are only
+     * seen while frames are read from the connection
+     */
+    public int getMaxMissedPongs() {
+        return maxMissedPongs;
+    }
+
+    public void setMaxMissedPongs(int maxMissedPongs) {
+        this.maxMissedPongs = maxMissedPongs;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contract.sse;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.util.CharsetUtil;
+
+/**
+ * An event of a Server-Sent Events stream. Only the data of an event is mandatory.
+ */
+public class ServerSentEvent {
+
+    private final String data;
+    private String id;
+    private String event;
+    private long retryInMillis = -1;
+
+    public ServerSentEvent(String data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Event data cannot be null");
+        }
+        this.data = data;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id of the event, which the client sends back in the Last-Event-ID header when it reconnects.
+     *
+     * @param id the event id, which cannot contain line breaks
+     */
+    public void setId(String id) {
+        validateSingleLine("Event id", id);
+        this.id = id;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    /**
+     * Sets the type of the event. Clients dispatch events without a type as message events.
+     *
+     * @param event the event type, which cannot contain line breaks
+     */
+    public void setEvent(String event) {
+        validateSingleLine("Event type", event);
+        this.event = event;
+    }
+
+    public long getRetryInMillis() {
+        return retryInMillis;
+    }
+
+    /**
+     * Sets the time the client should wait before reconnecting once the stream is lost.
+     *
+     * @param retryInMillis the reconnection time in milliseconds
+     */
+    public void setRetryInMillis(long retryInMillis) {
+        if (retryInMillis < 0) {
+            throw new IllegalArgumentException("Retry time cannot be negative: " + retryInMillis);
+        }
+        this.retryInMillis = retryInMillis;
+    }
+
+    /**
+     * Encodes the event in the text/event-stream format. Each line of the data becomes a data field.
+     *
+     * @param allocator the allocator of the buffer
+     * @return a buffer holding the encoded event, which the caller should release
+     */
+    public ByteBuf encode(ByteBufAllocator allocator) {
+        ByteBuf buffer = allocator.buffer(data.length() + 16);
+        if (id != null) {
+            writeField(buffer, "id: ", id);
+        }
+        if (event != null) {
+            writeField(buffer, "event: ", event);
+        }
+        if (retryInMillis >= 0) {
+            writeField(buffer, "retry: ", Long.toString(retryInMillis));
+        }
+        int lineStart = 0;
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (c == '\n' || c == '\r') {
+                writeField(buffer, "data: ", data.substring(lineStart, i));
+                if (c == '\r' && i + 1 < data.length() && data.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        writeField(buffer, "data: ", data.substring(lineStart));
+        buffer.writeByte('\n');
+        return buffer;
+    }
+
+    /**
+     * Encodes a comment, which clients ignore. Comments are used to keep idle streams alive.
+     *
+     * @param allocator the allocator of the buffer
+     * @param comment   the comment, which cannot contain line breaks
+     * @return a buffer holding the encoded comment, which the caller should release
+     */
+    public static ByteBuf encodeComment(ByteBufAllocator allocator, String comment) {
+        if (comment == null) {
+            comment = "";
+        }
+        validateSingleLine("Comment", comment);
+        ByteBuf buffer = allocator.buffer(comment.length() + 3);
+        writeField(buffer, ":", comment);
+        buffer.writeByte('\n');
+        return buffer;
+    }
+
+    private static void writeField(ByteBuf buffer, String field, String value) {
+        buffer.writeCharSequence(field, CharsetUtil.US_ASCII);
+        ByteBufUtil.writeUtf8(buffer, value);
+        buffer.writeByte('\n');
+    }
+
+    private static void validateSingleLine(String name, String value) {
+        if (value != null && (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0)) {
+            throw new IllegalArgumentException(name + " cannot contain line breaks");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contract.sse;
+
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+/**
+ * Fans out Server-Sent Events to many subscribers. Each event is encoded once and the encoded buffer is shared by all
+ * the subscriber streams. Idle streams are kept alive with heartbeat comments driven by the timer shared by the
+ * connector factory.
+ */
+public interface ServerSentEventBroadcaster {
+
+    /**
+     * Responds to the request with an event stream and adds it to the subscribers.
+     *
+     * @param request the inbound request of the subscriber
+     * @return the event stream of the subscriber
+     * @throws ServerConnectorException if the response cannot be sent
+     */
+    ServerSentEventStream subscribe(HttpCarbonMessage request) throws ServerConnectorException;
+
+    /**
+     * Sends the event to all the subscribers. Can be called from any thread.
+     *
+     * @param event the event to be sent
+     */
+    void broadcast(ServerSentEvent event);
+
+    /**
+     * @return the number of open subscriber streams
+     */
+    int getSubscriberCount();
+
+    /**
+     * Stops the heartbeat and closes all the subscriber streams.
+     */
+    void close();
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contract.sse;
+
+import org.wso2.transport.http.netty.contract.HttpResponseFuture;
+
+/**
+ * The response stream of a Server-Sent Events subscriber. Works over both HTTP/1.1 and HTTP/2.
+ * <p>
+ * Sending never blocks. Events are written while the connection is writable and queued while it is not. A
+ * subscriber that falls too far behind is treated as a slow consumer and its stream is closed; the client can then
+ * reconnect and resume from the id it last received.
+ */
+public interface ServerSentEventStream {
+
+    /**
+     * Sends an event to the subscriber. Can be called from any thread.
+     *
+     * @param event the event to be sent
+     */
+    void send(ServerSentEvent event);
+
+    /**
+     * Sends a comment, which the client ignores but which keeps intermediaries from timing the stream out.
+     *
+     * @param comment the comment, which cannot contain line breaks
+     */
+    void sendComment(String comment);
+
+    /**
+     * @return the value of the Last-Event-ID header sent by a reconnecting client, or null if there is none
+     */
+    String getLastEventId();
+
+    /**
+     * @return true if the stream has not been closed by either side
+     */
+    boolean isOpen();
+
+    /**
+     * Ends the response once the events already sent are written.
+     */
+    void close();
+
+    /**
+     * @return the future that is notified about the status of the response
+     */
+    HttpResponseFuture getResponseFuture();
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contract.websocket;
+
+import io.netty.channel.ChannelFuture;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fragment writer of connections that do not provide their own, which pushes each fragment as a frame of the
+ * connection. Text fragments are decoded as UTF-8, and the bytes of a character split between two fragments are
+ * carried over to the next one.
+ */
+class PushingWebSocketFragmentWriter implements WebSocketFragmentWriter {
+
+    private final WebSocketConnection webSocketConnection;
+    private final CharsetDecoder decoder;
+    private ByteBuffer pendingBytes;
+    private boolean complete;
+
+    PushingWebSocketFragmentWriter(WebSocketConnection webSocketConnection, WebSocketFrameType frameType) {
+        this.webSocketConnection = webSocketConnection;
+        this.decoder = frameType == WebSocketFrameType.TEXT ? StandardCharsets.UTF_8.newDecoder() : null;
+    }
+
+    @Override
+    public synchronized ChannelFuture write(ByteBuffer data, boolean finalFragment) {
+        if (complete) {
+            throw new IllegalStateException("Final fragment already written. Cannot write more fragments.");
+        }
+        complete = finalFragment;
+        if (decoder == null) {
+            return webSocketConnection.pushBinary(data, finalFragment);
+        }
+        return webSocketConnection.pushText(decode(data, finalFragment), finalFragment);
+    }
+
+    private String decode(ByteBuffer data, boolean finalFragment) {
+        ByteBuffer input = data.duplicate();
+        if (pendingBytes != null) {
+            input = ByteBuffer.allocate(pendingBytes.remaining() + data.remaining()).put(pendingBytes).put(input);
+            input.flip();
+            pendingBytes = null;
+        }
+        CharBuffer output = CharBuffer.allocate(input.remaining());
+        try {
+            CoderResult result = decoder.decode(input, output, finalFragment);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (finalFragment) {
+                decoder.flush(output);
+            }
+        } catch (CharacterCodingException e) {
+            throw new IllegalArgumentException("Text fragment is not valid UTF-8", e);
+        }
+        if (input.hasRemaining()) {
+            pendingBytes = ByteBuffer.allocate(input.remaining()).put(input);
+            pendingBytes.flip();
+        }
+        output.flip();
+        return output.toString();
+    }
+
+    @Override
+    public boolean isWritable() {
+        return webSocketConnection.isWritable();
+    }
+
+    @Override
+    public void onWritable(Runnable callback) {
+        webSocketConnection.onWritable(callback);
+    }
+
+    @Override
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+}
@@ -48,4 +48,22 @@ public interface WebSocketBinaryMessage extends WebSocketMessage {
      * @return true if the received binary data is a final fragment.
      */
     boolean isFinalFragment();
+
+    /**
+     * Keep the payload of the message beyond the listener callback. This only has an effect when the message was
+     * received in {@link WebSocketBufferMode#RETAINED} mode, where the payload is otherwise released as soon as the
+     * callback returns. A retained message must be released with {@link #release()}.
+     *
+     * @return this message.
+     */
+    default WebSocketBinaryMessage retain() {
+        return this;
+    }
+
+    /**
+     * Release the payload of a message retained with {@link #retain()}. The payload must not be accessed afterwards.
+     * Calling this more than once or on a copied message has no effect.
+     */
+    default void release() {
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contract.websocket;
+
+/**
+ * How the payload of inbound WebSocket binary and control frames is handed over to the listener.
+ */
+public enum WebSocketBufferMode {
+
+    /**
+     * The payload is copied into a heap buffer owned by the message. This is the default and suits listeners that
+     * keep the message around after the callback returns.
+     */
+    COPY,
+
+    /**
+     * The message exposes a read-only view of the pooled network buffer. The buffer is released as soon as the
+     * listener callback returns unless the listener calls {@link WebSocketBinaryMessage#retain()}, in which case it
+     * must call {@link WebSocketBinaryMessage#release()} once it is done with the payload. This also applies when the
+     * payload is written back to a connection, since the write completes after the callback returns.
+     */
+    RETAINED
+}
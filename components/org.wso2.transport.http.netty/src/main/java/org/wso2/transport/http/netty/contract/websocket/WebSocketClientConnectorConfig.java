@@ -23,6 +23,8 @@ import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.HttpHeaders;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.config.SslConfiguration;
+import org.wso2.transport.http.netty.contract.config.WebSocketCompressionConfig;
+import org.wso2.transport.http.netty.contract.config.WebSocketHeartbeatConfig;
 
 import java.net.URI;
 import java.util.Arrays;
@@ -40,6 +42,10 @@ public class WebSocketClientConnectorConfig extends SslConfiguration {
     private boolean autoRead;
     private final HttpHeaders headers;
     private int maxFrameSize = 65536;
+    private WebSocketBufferMode bufferMode = WebSocketBufferMode.COPY;
+    private WebSocketCompressionConfig compressionConfig = new WebSocketCompressionConfig();
+    private WebSocketHeartbeatConfig heartbeatConfig;
+    private boolean http2Enabled = false;
 
     public WebSocketClientConnectorConfig(String remoteAddress) {
         this.remoteAddress = remoteAddress;
@@ -159,4 +165,53 @@ public class WebSocketClientConnectorConfig extends SslConfiguration {
     public void setMaxFrameSize(int maxFrameSize) {
         this.maxFrameSize = maxFrameSize;
     }
+
+    public WebSocketBufferMode getBufferMode() {
+        return bufferMode;
+    }
+
+    /**
+     * Sets how the payload of inbound binary and control frames is handed over to the listener.
+     *
+     * @param bufferMode {@link WebSocketBufferMode#COPY} to copy the payload, which is the default, or
+     *                   {@link WebSocketBufferMode#RETAINED} to expose the network buffer without copying.
+     */
+    public void setBufferMode(WebSocketBufferMode bufferMode) {
+        this.bufferMode = bufferMode;
+    }
+
+    public WebSocketCompressionConfig getCompressionConfig() {
+        return compressionConfig;
+    }
+
+    public void setCompressionConfig(WebSocketCompressionConfig compressionConfig) {
+        this.compressionConfig = compressionConfig;
+    }
+
+    /**
+     * @return the heartbeat configuration of the connection, or null if pings are left to the application and the
+     * idle timeout is handled by the connection itself
+     */
+    public WebSocketHeartbeatConfig getHeartbeatConfig() {
+        return heartbeatConfig;
+    }
+
+    public void setHeartbeatConfig(WebSocketHeartbeatConfig heartbeatConfig) {
+        this.heartbeatConfig = heartbeatConfig;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    /**
+     * Sets whether the connection may be opened as a stream of an existing HTTP/2 connection to the same host, as
+     * per RFC 8441. This is only done when the server advertised support for the extended CONNECT method on that
+     * connection. Otherwise a dedicated HTTP/1.1 connection is opened as usual.
+     *
+     * @param http2Enabled true to open the WebSocket over HTTP/2 when possible.
+     */
+    public void setHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+    }
 }
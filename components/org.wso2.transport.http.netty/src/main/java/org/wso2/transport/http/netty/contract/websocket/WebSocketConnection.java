@@ -51,6 +51,15 @@ public interface WebSocketConnection {
      */
     String getNegotiatedSubProtocol();
 
+    /**
+     * Retrieve the round trip time measured with the last heartbeat ping answered by the remote endpoint.
+     *
+     * @return the round trip time in nanoseconds, or -1 if the heartbeat is disabled or no ping has been answered yet
+     */
+    default long getRoundTripTimeInNanos() {
+        return -1;
+    }
+
     /**
      * Reading WebSocket frames after successful handshake is blocked by default in transport level.
      * In order to read the next frame from wire this method should be called.
@@ -75,7 +84,28 @@ public interface WebSocketConnection {
     void stopReadingFrames();
 
     /**
-     * Push text frame to the WebSocket connection asynchronously.
+     * Request the given number of frames in addition to the frames already requested. Frames are read from the wire
+     * only while there is outstanding demand, hence a listener that requests frames as it processes them is never
+     * flooded by a fast remote endpoint.
+     *
+     * <br><b>Note: This should not be combined with startReadingFrames(), which reads frames regardless of the
+     * demand.</b>
+     *
+     * <br><b>Note: By default the connection starts reading frames as startReadingFrames() does. The requested
+     * frames are delivered, but frames beyond the demand are not held back.</b>
+     *
+     * @param count number of frames to be delivered
+     */
+    default void requestFrames(long count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Requested frame count must be positive: " + count);
+        }
+        startReadingFrames();
+    }
+
+    /**
+     * Push text frame to the WebSocket connection asynchronously. Frames pushed in the same I/O thread turn are
+     * flushed to the wire together.
      *
      * @param text text to be sent
      * @return Future to represent the completion of asynchronous frame sending
@@ -108,6 +138,49 @@ public interface WebSocketConnection {
      */
     ChannelFuture pushBinary(ByteBuffer data, boolean finalFrame);
 
+    /**
+     * Check if the connection is writable. A connection stops being writable once the frames pushed but not yet
+     * written to the wire exceed the high water mark, and becomes writable again when they drop below the low water
+     * mark. A producer that stops pushing while the connection is not writable does not build up memory.
+     *
+     * @return true if frames pushed now would be written without being buffered beyond the high water mark
+     */
+    default boolean isWritable() {
+        return true;
+    }
+
+    /**
+     * Register a callback that is invoked once in the I/O thread of the connection when the connection becomes
+     * writable. The callback is invoked right away if the connection is already writable.
+     *
+     * @param callback callback to be invoked
+     */
+    default void onWritable(Runnable callback) {
+        callback.run();
+    }
+
+    /**
+     * Set the water marks of the bytes buffered for the connection which decide {@link #isWritable()}.
+     *
+     * @param lowWaterMark  the connection becomes writable again once the buffered bytes drop below this
+     * @param highWaterMark the connection stops being writable once the buffered bytes exceed this
+     */
+    default void setWriteBufferWaterMark(int lowWaterMark, int highWaterMark) {
+    }
+
+    /**
+     * Create a writer that sends a single message of the given type as a sequence of fragments.
+     *
+     * <br><b>Note: By default each fragment is pushed with {@link #pushText(String, boolean)} or
+     * {@link #pushBinary(ByteBuffer, boolean)}, and the writability of the writer is that of the connection.</b>
+     *
+     * @param frameType type of the message
+     * @return a writer for the fragments of the message
+     */
+    default WebSocketFragmentWriter createFragmentWriter(WebSocketFrameType frameType) {
+        return new PushingWebSocketFragmentWriter(this, frameType);
+    }
+
     /**
      * Ping remote endpoint asynchronously.
      *
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contract.websocket;
+
+import io.netty.channel.ChannelFuture;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes one WebSocket message as a sequence of fragments, so that a large message never has to be held in memory
+ * as a whole. Fragments are held back while the channel is not writable; a producer that waits for the future of
+ * each fragment, or for {@link #onWritable(Runnable)}, before producing the next one runs in constant memory.
+ * <p>
+ * Other data frames cannot be pushed to the connection until the final fragment is written.
+ */
+public interface WebSocketFragmentWriter {
+
+    /**
+     * Write the next fragment of the message asynchronously. The data must not be modified until the returned future
+     * completes.
+     *
+     * @param data data of the fragment
+     * @param finalFragment true if this is the last fragment of the message
+     * @return Future to represent the completion of writing the fragment to the wire
+     */
+    ChannelFuture write(ByteBuffer data, boolean finalFragment);
+
+    /**
+     * Check if a fragment written now would be sent to the wire without being held back.
+     *
+     * @return true if the channel is writable and no fragments are held back
+     */
+    boolean isWritable();
+
+    /**
+     * Register a callback that is invoked once in the I/O thread of the connection when the writer becomes writable.
+     * The callback is invoked right away if the writer is already writable.
+     *
+     * @param callback callback to be invoked
+     */
+    void onWritable(Runnable callback);
+
+    /**
+     * Check if the final fragment of the message has been written.
+     *
+     * @return true if the final fragment has been written
+     */
+    boolean isComplete();
+}
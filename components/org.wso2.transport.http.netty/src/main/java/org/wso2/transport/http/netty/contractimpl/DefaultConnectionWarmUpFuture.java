@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.ConnectionWarmUpFuture;
+import org.wso2.transport.http.netty.contract.ConnectionWarmUpListener;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the connection warm up future.
+ */
+public class DefaultConnectionWarmUpFuture implements ConnectionWarmUpFuture {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultConnectionWarmUpFuture.class);
+
+    private final CountDownLatch pendingConnections;
+    private final AtomicInteger establishedConnections = new AtomicInteger();
+    private final AtomicInteger failedConnections = new AtomicInteger();
+    private final AtomicInteger notified = new AtomicInteger();
+    private volatile ConnectionWarmUpListener warmUpListener;
+
+    public DefaultConnectionWarmUpFuture(int connections) {
+        this.pendingConnections = new CountDownLatch(connections);
+    }
+
+    @Override
+    public void setConnectionWarmUpListener(ConnectionWarmUpListener warmUpListener) {
+        this.warmUpListener = warmUpListener;
+        notifyIfComplete();
+    }
+
+    void notifySuccess() {
+        establishedConnections.incrementAndGet();
+        pendingConnections.countDown();
+        notifyIfComplete();
+    }
+
+    void notifyFailure(Throwable cause) {
+        LOG.warn("Couldn't warm up a connection : {}", cause.getMessage());
+        failedConnections.incrementAndGet();
+        pendingConnections.countDown();
+        notifyIfComplete();
+    }
+
+    private void notifyIfComplete() {
+        ConnectionWarmUpListener listener = warmUpListener;
+        if (listener != null && pendingConnections.getCount() == 0 && notified.compareAndSet(0, 1)) {
+            listener.onComplete(establishedConnections.get(), failedConnections.get());
+        }
+    }
+
+    @Override
+    public ConnectionWarmUpFuture sync() throws InterruptedException {
+        pendingConnections.await();
+        return this;
+    }
+
+    @Override
+    public int getEstablishedConnectionCount() {
+        return establishedConnections.get();
+    }
+
+    @Override
+    public int getFailedConnectionCount() {
+        return failedConnections.get();
+    }
+}
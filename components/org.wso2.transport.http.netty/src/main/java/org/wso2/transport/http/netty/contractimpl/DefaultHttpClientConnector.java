@@ -32,6 +32,8 @@ import io.netty.util.CharsetUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.ClientConnectorException;
+import org.wso2.transport.http.netty.contract.ConcurrencyLimitExceededException;
+import org.wso2.transport.http.netty.contract.ConnectionWarmUpFuture;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.HttpClientConnector;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
@@ -46,6 +48,7 @@ import org.wso2.transport.http.netty.contractimpl.listener.http2.Http2SourceHand
 import org.wso2.transport.http.netty.contractimpl.sender.ConnectionAvailabilityListener;
 import org.wso2.transport.http.netty.contractimpl.sender.channel.BootstrapConfiguration;
 import org.wso2.transport.http.netty.contractimpl.sender.channel.TargetChannel;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.AdaptiveConcurrencyLimiter;
 import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.ConnectionManager;
 import org.wso2.transport.http.netty.contractimpl.sender.http2.Http2ClientChannel;
 import org.wso2.transport.http.netty.contractimpl.sender.http2.Http2ConnectionManager;
@@ -56,6 +59,8 @@ import org.wso2.transport.http.netty.message.Http2Reset;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 import org.wso2.transport.http.netty.message.ResponseHandle;
 
+import java.net.InetSocketAddress;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import static org.wso2.transport.http.netty.contract.Constants.COLON;
@@ -75,6 +80,7 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
     private int socketIdleTimeout;
     private String httpVersion;
     private ChunkConfig chunkConfig;
+    private int chunkingThreshold;
     private KeepAliveConfig keepAliveConfig;
     private boolean isHttp2;
     private ForwardedExtensionConfig forwardedExtensionConfig;
@@ -170,6 +176,7 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
                               + " Message is not originated from the HTTP Server connector");
         }
 
+        AdaptiveConcurrencyLimiter.Permit concurrencyPermit = null;
         try {
             /*
              * First try to get a channel from the http2 connection manager. If it is not available
@@ -178,6 +185,17 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
              * in case of the connection get upgraded to a HTTP/2 connection.
              */
             final HttpRoute route = getTargetRoute(senderConfiguration.getScheme(), httpOutboundRequest);
+            AdaptiveConcurrencyLimiter concurrencyLimiter = connectionManager.getConcurrencyLimiter(route);
+            if (concurrencyLimiter != null) {
+                concurrencyPermit = concurrencyLimiter.tryAcquire();
+                if (concurrencyPermit == null) {
+                    return notifyListenerAndGetErrorResponseFuture(new ConcurrencyLimitExceededException(
+                            Constants.CONCURRENCY_LIMIT_EXCEEDED + route,
+                            HttpResponseStatus.SERVICE_UNAVAILABLE.code()));
+                }
+                ((DefaultHttpResponseFuture) outboundMsgHolder.getResponseFuture()).setConcurrencyPermit(
+                        concurrencyPermit);
+            }
             if (isHttp2) {
                 // See whether an already upgraded HTTP/2 connection is available
                 Http2ClientChannel activeHttp2ClientChannel = http2ConnectionManager.borrowChannel(route);
@@ -208,7 +226,8 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
                                   route.toString() + " " + "Original Channel ID is : " + channelFuture.channel().id());
                     }
 
-                    if (Constants.HTTP_SCHEME.equalsIgnoreCase(protocol) && http1xSrcHandlder != null) {
+                    if (Constants.HTTP_SCHEME.equalsIgnoreCase(protocol) && http1xSrcHandlder != null
+                            && channelFuture.channel().eventLoop() != http1xSrcHandlder.getEventLoop()) {
                         channelFuture.channel().deregister().addListener(future ->
                                                                              http1xSrcHandlder.getEventLoop()
                                                                                  .register(channelFuture.channel())
@@ -216,7 +235,9 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
                                                                                      future1 ->
                                                                                          startExecutingOutboundRequest(
                                                                                          protocol, channelFuture)));
-                    } else if (Constants.HTTP_SCHEME.equalsIgnoreCase(protocol) && http2SrcHandler != null) {
+                    } else if (Constants.HTTP_SCHEME.equalsIgnoreCase(protocol) && http2SrcHandler != null
+                            && channelFuture.channel().eventLoop() != http2SrcHandler.getChannelHandlerContext()
+                            .channel().eventLoop()) {
                         channelFuture.channel().deregister().addListener(future ->
                                                                              http2SrcHandler.getChannelHandlerContext()
                                                                                  .channel().eventLoop()
@@ -225,6 +246,7 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
                                                                                          startExecutingOutboundRequest(
                                                                                          protocol, channelFuture)));
                     } else {
+                        // Either there is no source event loop to move to or the channel is already on it
                         startExecutingOutboundRequest(protocol, channelFuture);
                     }
                 }
@@ -246,11 +268,7 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
                 }
 
                 private void prepareTargetChannelForHttp2() {
-                    freshHttp2ClientChannel.setSocketIdleTimeout(socketIdleTimeout);
-                    connectionManager.getHttp2ConnectionManager().
-                            addHttp2ClientChannel(route, freshHttp2ClientChannel);
-                    freshHttp2ClientChannel.addDataEventListener(Constants.IDLE_STATE_HANDLER,
-                            new TimeoutHandler(socketIdleTimeout, freshHttp2ClientChannel));
+                    addHttp2ClientChannel(route, freshHttp2ClientChannel);
 
                     freshHttp2ClientChannel.getChannel().eventLoop().execute(
                             () -> freshHttp2ClientChannel.getChannel().write(outboundMsgHolder));
@@ -269,6 +287,7 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
                     targetChannel.setCorrelationIdForLogging();
                     targetChannel.setHttpVersion(httpVersion);
                     targetChannel.setChunkConfig(chunkConfig);
+                    targetChannel.setChunkingThreshold(chunkingThreshold);
                     handleOutboundConnectionHeader(keepAliveConfig, httpOutboundRequest);
                     targetChannel
                             .setForwardedExtension(forwardedExtensionConfig, httpOutboundRequest);
@@ -283,13 +302,90 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
             if ("Timeout waiting for idle object".equals(failedCause.getMessage())) {
                 failedCause = new NoSuchElementException(Constants.MAXIMUM_WAIT_TIME_EXCEED);
             }
+            failConcurrencyPermit(concurrencyPermit);
             return notifyListenerAndGetErrorResponseFuture(failedCause);
         } catch (Exception failedCause) {
+            failConcurrencyPermit(concurrencyPermit);
             return notifyListenerAndGetErrorResponseFuture(failedCause);
         }
         return httpResponseFuture;
     }
 
+    private void addHttp2ClientChannel(HttpRoute route, Http2ClientChannel http2ClientChannel) {
+        http2ClientChannel.setSocketIdleTimeout(socketIdleTimeout);
+        connectionManager.getHttp2ConnectionManager().addHttp2ClientChannel(route, http2ClientChannel);
+        http2ClientChannel.addDataEventListener(Constants.IDLE_STATE_HANDLER,
+                                                new TimeoutHandler(socketIdleTimeout, http2ClientChannel));
+    }
+
+    @Override
+    public ConnectionWarmUpFuture warmUp(List<InetSocketAddress> endpoints, int connectionsPerEndpoint) {
+        int maxActive = senderConfiguration.getPoolConfiguration().getMaxActivePerPool();
+        // Borrowing more than the pool allows would block the caller until the maximum wait time elapses
+        int connections = maxActive > -1 ? Math.min(connectionsPerEndpoint, maxActive) : connectionsPerEndpoint;
+        DefaultConnectionWarmUpFuture warmUpFuture = new DefaultConnectionWarmUpFuture(
+                endpoints.size() * connections);
+        for (InetSocketAddress endpoint : endpoints) {
+            HttpRoute route = new HttpRoute(senderConfiguration.getScheme(), endpoint.getHostString(),
+                                            endpoint.getPort());
+            for (int i = 0; i < connections; i++) {
+                warmUpConnection(route, warmUpFuture);
+            }
+        }
+        return warmUpFuture;
+    }
+
+    private void warmUpConnection(HttpRoute route, DefaultConnectionWarmUpFuture warmUpFuture) {
+        TargetChannel targetChannel;
+        try {
+            targetChannel = connectionManager.borrowTargetChannel(route, null, null, senderConfiguration,
+                                                                  bootstrapConfig, clientEventGroup);
+        } catch (Exception e) {
+            warmUpFuture.notifyFailure(e);
+            return;
+        }
+        targetChannel.getConnenctionReadyFuture().setListener(new ConnectionAvailabilityListener() {
+            @Override
+            public void onSuccess(String protocol, ChannelFuture channelFuture) {
+                try {
+                    if (protocol.equalsIgnoreCase(Constants.HTTP2_CLEARTEXT_PROTOCOL)
+                            || protocol.equalsIgnoreCase(Constants.HTTP2_TLS_PROTOCOL)) {
+                        addHttp2ClientChannel(route, targetChannel.getHttp2ClientChannel());
+                        // The connection is now shared through the HTTP/2 connection manager, so it must not keep
+                        // counting as an active connection of the pool
+                        connectionManager.removeTargetChannel(targetChannel);
+                    } else {
+                        targetChannel.setChannel(channelFuture.channel());
+                        connectionManager.returnChannel(targetChannel);
+                    }
+                } catch (Exception e) {
+                    warmUpFuture.notifyFailure(e);
+                    return;
+                }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Warmed up connection {} to {}", channelFuture.channel().id(), route);
+                }
+                warmUpFuture.notifySuccess();
+            }
+
+            @Override
+            public void onFailure(ClientConnectorException cause) {
+                try {
+                    connectionManager.removeTargetChannel(targetChannel);
+                } catch (Exception e) {
+                    LOG.debug("Couldn't remove the failed warm up channel from the pool", e);
+                }
+                warmUpFuture.notifyFailure(cause);
+            }
+        });
+    }
+
+    private static void failConcurrencyPermit(AdaptiveConcurrencyLimiter.Permit concurrencyPermit) {
+        if (concurrencyPermit != null) {
+            concurrencyPermit.onError();
+        }
+    }
+
     private HttpResponseFuture notifyListenerAndGetErrorResponseFuture(Exception failedCause) {
         HttpResponseFuture errorResponseFuture = new DefaultHttpResponseFuture();
         errorResponseFuture.notifyHttpListener(failedCause);
@@ -332,6 +428,7 @@ public class DefaultHttpClientConnector implements HttpClientConnector {
     private void initTargetChannelProperties(SenderConfiguration senderConfiguration) {
         this.httpVersion = senderConfiguration.getHttpVersion();
         this.chunkConfig = senderConfiguration.getChunkingConfig();
+        this.chunkingThreshold = senderConfiguration.getChunkingThreshold();
         this.socketIdleTimeout = senderConfiguration.getSocketIdleTimeout(Constants.ENDPOINT_TIMEOUT);
         this.sslConfig = senderConfiguration.getClientSSLConfig();
         this.keepAliveConfig = senderConfiguration.getKeepAliveConfig();
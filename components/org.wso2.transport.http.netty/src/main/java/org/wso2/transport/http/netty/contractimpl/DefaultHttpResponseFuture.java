@@ -19,9 +19,11 @@
 
 package org.wso2.transport.http.netty.contractimpl;
 
+import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.HttpClientConnectorListener;
 import org.wso2.transport.http.netty.contract.HttpConnectorListener;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.AdaptiveConcurrencyLimiter;
 import org.wso2.transport.http.netty.contractimpl.sender.http2.OutboundMsgHolder;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 import org.wso2.transport.http.netty.message.ResponseHandle;
@@ -46,6 +48,7 @@ public class DefaultHttpResponseFuture implements HttpResponseFuture {
     private HttpCarbonMessage httpCarbonMessage;
     private ResponseHandle responseHandle;
     private OutboundMsgHolder outboundMsgHolder;
+    private volatile AdaptiveConcurrencyLimiter.Permit concurrencyPermit;
 
     private Throwable throwable;
     private Throwable responseHandleError;
@@ -100,6 +103,7 @@ public class DefaultHttpResponseFuture implements HttpResponseFuture {
     public void notifyHttpListener(HttpCarbonMessage httpCarbonMessage) {
         responseLock.lock();
         try {
+            completeConcurrencyPermit(httpCarbonMessage);
             this.httpCarbonMessage = httpCarbonMessage;
             if (executionWaitSem != null) {
                 executionWaitSem.release();
@@ -118,6 +122,9 @@ public class DefaultHttpResponseFuture implements HttpResponseFuture {
     public void notifyHttpListener(Throwable throwable) {
         responseLock.lock();
         try {
+            if (concurrencyPermit != null) {
+                concurrencyPermit.onError();
+            }
             this.throwable = throwable;
             returnError = throwable;
             if (executionWaitSem != null) {
@@ -133,6 +140,23 @@ public class DefaultHttpResponseFuture implements HttpResponseFuture {
         }
     }
 
+    /**
+     * Sets the concurrency limiter permit held by the request, which is completed once the response or an error
+     * arrives.
+     *
+     * @param concurrencyPermit the permit acquired for the request
+     */
+    public void setConcurrencyPermit(AdaptiveConcurrencyLimiter.Permit concurrencyPermit) {
+        this.concurrencyPermit = concurrencyPermit;
+    }
+
+    private void completeConcurrencyPermit(HttpCarbonMessage httpResponse) {
+        if (concurrencyPermit != null) {
+            Object statusCode = httpResponse.getProperty(Constants.HTTP_STATUS_CODE);
+            concurrencyPermit.onResponse(statusCode instanceof Integer ? (Integer) statusCode : 200);
+        }
+    }
+
     public HttpResponseFuture sync() throws InterruptedException {
         // sync operation is not synchronized with locks as it might cause a deadlock.
         // We may have to refactor this using conditions in ReentrantLock later.
@@ -23,6 +23,7 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.HashedWheelTimer;
 import io.netty.util.concurrent.DefaultEventExecutorGroup;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.concurrent.EventExecutorGroup;
@@ -34,21 +35,34 @@ import org.wso2.transport.http.netty.contract.ServerConnector;
 import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
 import org.wso2.transport.http.netty.contract.config.SenderConfiguration;
 import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contract.config.WebSocketCompressionConfig;
+import org.wso2.transport.http.netty.contract.config.WebSocketHeartbeatConfig;
+import org.wso2.transport.http.netty.contract.sse.ServerSentEventBroadcaster;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketClientConnector;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketClientConnectorConfig;
+import org.wso2.transport.http.netty.contractimpl.common.MBeanRegistrar;
 import org.wso2.transport.http.netty.contractimpl.common.ssl.SSLConfig;
 import org.wso2.transport.http.netty.contractimpl.common.ssl.SSLHandlerFactory;
 import org.wso2.transport.http.netty.contractimpl.listener.ServerConnectorBootstrap;
 import org.wso2.transport.http.netty.contractimpl.sender.channel.BootstrapConfiguration;
 import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.ConnectionManager;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.ConnectionPoolMetrics;
+import org.wso2.transport.http.netty.contractimpl.sse.DefaultServerSentEventBroadcaster;
 import org.wso2.transport.http.netty.contractimpl.websocket.DefaultWebSocketClientConnector;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatService;
 
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLException;
 
 import static org.wso2.transport.http.netty.contract.Constants.PIPELINING_THREAD_COUNT;
 import static org.wso2.transport.http.netty.contract.Constants.PIPELINING_THREAD_POOL_NAME;
+import static org.wso2.transport.http.netty.contract.Constants.WEBSOCKET_COMPRESSION_THREAD_POOL_NAME;
+import static org.wso2.transport.http.netty.contract.Constants.WEBSOCKET_HEARTBEAT_TICKS_PER_WHEEL;
+import static org.wso2.transport.http.netty.contract.Constants.WEBSOCKET_HEARTBEAT_TICK_DURATION_MILLIS;
+import static org.wso2.transport.http.netty.contract.Constants.WEBSOCKET_HEARTBEAT_TIMER_NAME;
 
 /**
  * Implementation of HttpWsConnectorFactory interface.
@@ -59,6 +73,12 @@ public class DefaultHttpWsConnectorFactory implements HttpWsConnectorFactory {
     private final EventLoopGroup workerGroup;
     private final EventLoopGroup clientGroup;
     private EventExecutorGroup pipeliningGroup;
+    private EventExecutorGroup webSocketCompressionGroup;
+    private HashedWheelTimer heartbeatTimer;
+    // Shared by the connection managers of the client connectors, so that a single MBean is registered per factory
+    private final ConnectionPoolMetrics clientPoolMetrics = new ConnectionPoolMetrics();
+    private final String poolMetricsId = "connector-factory-" + UUID.randomUUID().toString();
+    private boolean poolMetricsRegistered;
 
     private final ChannelGroup allChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
 
@@ -89,12 +109,25 @@ public class DefaultHttpWsConnectorFactory implements HttpWsConnectorFactory {
             serverConnectorBootstrap.setHttp2Enabled(true);
         }
         serverConnectorBootstrap.addHttpTraceLogHandler(listenerConfig.isHttpTraceLogEnabled());
+        serverConnectorBootstrap.addTraceLogConfig(listenerConfig.getTraceLogConfig());
+        serverConnectorBootstrap.addInboundBufferConfig(listenerConfig.getInboundBufferConfig());
         serverConnectorBootstrap.addHttpAccessLogHandler(listenerConfig.isHttpAccessLogEnabled());
+        serverConnectorBootstrap.addAccessLogConfig(listenerConfig.getAccessLogConfig());
         serverConnectorBootstrap.addThreadPools(bossGroup, workerGroup);
         serverConnectorBootstrap.addHeaderAndEntitySizeValidation(listenerConfig.getRequestSizeValidationConfig());
         serverConnectorBootstrap.addChunkingBehaviour(listenerConfig.getChunkConfig());
+        serverConnectorBootstrap.addChunkingThreshold(listenerConfig.getChunkingThreshold());
         serverConnectorBootstrap.addKeepAliveBehaviour(listenerConfig.getKeepAliveConfig());
         serverConnectorBootstrap.addServerHeader(listenerConfig.getServerHeader());
+        serverConnectorBootstrap.addAdmissionControl(listenerConfig.getAdmissionControlConfig());
+        serverConnectorBootstrap.addHttpCompression(listenerConfig.getHttpCompressionConfig());
+        serverConnectorBootstrap.addWebSocketBufferMode(listenerConfig.getWebSocketBufferMode());
+        WebSocketCompressionConfig webSocketCompressionConfig = listenerConfig.getWebSocketCompressionConfig();
+        serverConnectorBootstrap.addWebSocketCompression(webSocketCompressionConfig,
+                                                         getWebSocketCompressionGroup(webSocketCompressionConfig));
+        serverConnectorBootstrap.addWebSocketHeartbeat(
+                getWebSocketHeartbeatService(listenerConfig.getWebSocketHeartbeatConfig()));
+        serverConnectorBootstrap.setWebSocketOverHttp2Enabled(listenerConfig.isWebSocketOverHttp2Enabled());
 
         serverConnectorBootstrap.setPipeliningEnabled(listenerConfig.isPipeliningEnabled());
         serverConnectorBootstrap.setPipeliningLimit(listenerConfig.getPipeliningLimit());
@@ -142,7 +175,8 @@ public class DefaultHttpWsConnectorFactory implements HttpWsConnectorFactory {
     public HttpClientConnector createHttpClientConnector(
             Map<String, Object> transportProperties, SenderConfiguration senderConfiguration) {
         BootstrapConfiguration bootstrapConfig = new BootstrapConfiguration(transportProperties);
-        ConnectionManager connectionManager = new ConnectionManager(senderConfiguration.getPoolConfiguration());
+        ConnectionManager connectionManager = new ConnectionManager(senderConfiguration.getPoolConfiguration(),
+                                                                    getClientPoolMetrics());
         return new DefaultHttpClientConnector(connectionManager, senderConfiguration, bootstrapConfig, clientGroup);
     }
 
@@ -156,7 +190,71 @@ public class DefaultHttpWsConnectorFactory implements HttpWsConnectorFactory {
 
     @Override
     public WebSocketClientConnector createWsClientConnector(WebSocketClientConnectorConfig clientConnectorConfig) {
-        return new DefaultWebSocketClientConnector(clientConnectorConfig, clientGroup);
+        return new DefaultWebSocketClientConnector(clientConnectorConfig, clientGroup, getWebSocketCompressionGroup(
+                clientConnectorConfig.getCompressionConfig()), getWebSocketHeartbeatService(
+                clientConnectorConfig.getHeartbeatConfig()));
+    }
+
+    /**
+     * Returns the heartbeat service of the given configuration. All services share a single timer, which is created
+     * the first time a configuration enables the heartbeat.
+     */
+    private synchronized WebSocketHeartbeatService getWebSocketHeartbeatService(WebSocketHeartbeatConfig config) {
+        if (config == null || !config.isEnabled()) {
+            return null;
+        }
+        return new WebSocketHeartbeatService(config, getHeartbeatTimer());
+    }
+
+    /**
+     * Creates a broadcaster of Server-Sent Events. The heartbeat comments of all the broadcasters are driven by a
+     * timer shared with the WebSocket heartbeat.
+     *
+     * @param heartbeatIntervalInMillis interval of the heartbeat comments sent to keep idle streams open, or 0 to
+     *                                  disable the heartbeat
+     * @return the ServerSentEventBroadcaster
+     */
+    public ServerSentEventBroadcaster createServerSentEventBroadcaster(int heartbeatIntervalInMillis) {
+        return new DefaultServerSentEventBroadcaster(getHeartbeatTimer(), heartbeatIntervalInMillis);
+    }
+
+    /**
+     * Returns the connection pool metrics of the client connectors, registering them as an MBean on first use.
+     */
+    private synchronized ConnectionPoolMetrics getClientPoolMetrics() {
+        if (!poolMetricsRegistered) {
+            poolMetricsRegistered = MBeanRegistrar.getInstance().registerMBean(clientPoolMetrics, "ConnectionPool",
+                                                                               poolMetricsId);
+        }
+        return clientPoolMetrics;
+    }
+
+    /**
+     * Returns the timer that drives the WebSocket heartbeat and the Server-Sent Events heartbeat, creating it on
+     * first use.
+     */
+    private synchronized HashedWheelTimer getHeartbeatTimer() {
+        if (heartbeatTimer == null) {
+            heartbeatTimer = new HashedWheelTimer(new DefaultThreadFactory(WEBSOCKET_HEARTBEAT_TIMER_NAME),
+                    WEBSOCKET_HEARTBEAT_TICK_DURATION_MILLIS, TimeUnit.MILLISECONDS,
+                    WEBSOCKET_HEARTBEAT_TICKS_PER_WHEEL);
+        }
+        return heartbeatTimer;
+    }
+
+    /**
+     * Returns the executor that compresses large WebSocket frames off the event loop, creating it the first time a
+     * configuration offloads compression.
+     */
+    private synchronized EventExecutorGroup getWebSocketCompressionGroup(WebSocketCompressionConfig config) {
+        if (config == null || !config.isEnabled() || config.getOffloadThreshold() < 0) {
+            return null;
+        }
+        if (webSocketCompressionGroup == null) {
+            webSocketCompressionGroup = new DefaultEventExecutorGroup(Runtime.getRuntime().availableProcessors(),
+                    new DefaultThreadFactory(WEBSOCKET_COMPRESSION_THREAD_POOL_NAME));
+        }
+        return webSocketCompressionGroup;
     }
 
     @Override
@@ -168,5 +266,17 @@ public class DefaultHttpWsConnectorFactory implements HttpWsConnectorFactory {
         if (pipeliningGroup != null) {
             pipeliningGroup.shutdownGracefully().sync();
         }
+        if (webSocketCompressionGroup != null) {
+            webSocketCompressionGroup.shutdownGracefully().sync();
+        }
+        if (heartbeatTimer != null) {
+            heartbeatTimer.stop();
+        }
+        synchronized (this) {
+            if (poolMetricsRegistered) {
+                MBeanRegistrar.getInstance().unregisterMBean("ConnectionPool", poolMetricsId);
+                poolMetricsRegistered = false;
+            }
+        }
     }
 }
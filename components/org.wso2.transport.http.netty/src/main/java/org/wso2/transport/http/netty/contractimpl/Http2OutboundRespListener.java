@@ -29,6 +29,7 @@ import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.HttpConnectorListener;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contractimpl.common.Http2StreamWritabilityTracker;
 import org.wso2.transport.http.netty.contractimpl.common.states.Http2MessageStateContext;
 import org.wso2.transport.http.netty.contractimpl.listener.HttpServerChannelInitializer;
 import org.wso2.transport.http.netty.contractimpl.listener.states.http2.EntityBodyReceived;
@@ -36,7 +37,6 @@ import org.wso2.transport.http.netty.contractimpl.listener.states.http2.SendingH
 import org.wso2.transport.http.netty.message.Http2PushPromise;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 
-import java.util.Calendar;
 
 import static org.wso2.transport.http.netty.contract.Constants.PROMISED_STREAM_REJECTED_ERROR;
 import static org.wso2.transport.http.netty.contractimpl.common.states.Http2StateUtil.isValidStreamId;
@@ -58,7 +58,7 @@ public class Http2OutboundRespListener implements HttpConnectorListener {
     private String serverName;
     private HttpResponseFuture outboundRespStatusFuture;
     private HttpServerChannelInitializer serverChannelInitializer;
-    private Calendar inboundRequestArrivalTime;
+    private long inboundRequestArrivalTime;
     private String remoteAddress = "-";
 
     public Http2OutboundRespListener(HttpServerChannelInitializer serverChannelInitializer,
@@ -76,7 +76,7 @@ public class Http2OutboundRespListener implements HttpConnectorListener {
             this.remoteAddress = remoteAddress;
         }
         outboundRespStatusFuture = inboundRequestMsg.getHttpOutboundRespStatusFuture();
-        inboundRequestArrivalTime = Calendar.getInstance();
+        inboundRequestArrivalTime = System.currentTimeMillis();
         http2MessageStateContext = inboundRequestMsg.getHttp2MessageStateContext();
     }
 
@@ -122,6 +122,8 @@ public class Http2OutboundRespListener implements HttpConnectorListener {
 
     private void writeMessage(HttpCarbonMessage outboundResponseMsg, int streamId) {
         ResponseWriter writer = new ResponseWriter(streamId);
+        outboundResponseMsg.setOutboundWritability(
+                Http2StreamWritabilityTracker.streamWritability(ctx.channel(), streamId));
         ctx.channel().eventLoop().execute(() -> outboundResponseMsg.getHttpContentAsync().setMessageListener(
                 httpContent -> ctx.channel().eventLoop().execute(() -> {
                     try {
@@ -177,7 +179,7 @@ public class Http2OutboundRespListener implements HttpConnectorListener {
         return conn;
     }
 
-    public Calendar getInboundRequestArrivalTime() {
+    public long getInboundRequestArrivalTime() {
         return inboundRequestArrivalTime;
     }
 
@@ -23,10 +23,12 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.HttpContent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.HttpConnectorListener;
 import org.wso2.transport.http.netty.contract.config.ChunkConfig;
 import org.wso2.transport.http.netty.contract.config.KeepAliveConfig;
 import org.wso2.transport.http.netty.contractimpl.common.BackPressureHandler;
+import org.wso2.transport.http.netty.contractimpl.common.ChannelWritability;
 import org.wso2.transport.http.netty.contractimpl.common.Util;
 import org.wso2.transport.http.netty.contractimpl.common.states.MessageStateContext;
 import org.wso2.transport.http.netty.contractimpl.listener.RequestDataHolder;
@@ -54,6 +56,7 @@ public class HttpOutboundRespListener implements HttpConnectorListener {
     private HandlerExecutor handlerExecutor;
     private HttpCarbonMessage inboundRequestMsg;
     private ChunkConfig chunkConfig;
+    private int chunkingThreshold;
     private KeepAliveConfig keepAliveConfig;
     private String serverName;
 
@@ -63,6 +66,7 @@ public class HttpOutboundRespListener implements HttpConnectorListener {
         this.sourceHandler = sourceHandler;
         this.sourceContext = sourceHandler.getInboundChannelContext();
         this.chunkConfig = sourceHandler.getChunkConfig();
+        this.chunkingThreshold = sourceHandler.getChunkingThreshold();
         this.keepAliveConfig = sourceHandler.getKeepAliveConfig();
         this.handlerExecutor = HttpTransportContextHolder.getInstance().getHandlerExecutor();
         this.serverName = sourceHandler.getServerName();
@@ -71,15 +75,24 @@ public class HttpOutboundRespListener implements HttpConnectorListener {
 
     @Override
     public void onMessage(HttpCarbonMessage outboundResponseMsg) {
-        BackPressureHandler backpressureHandler = Util.getBackPressureHandler(sourceContext);
-        Util.setBackPressureListener(outboundResponseMsg.isPassthrough(), backpressureHandler,
-                                     outboundResponseMsg.getTargetContext());
+        // Event streams produce content in the event loop and handle writability themselves, hence must not block.
+        // Non-blocking producers wait on the outbound writability of the message instead.
+        boolean eventStream = outboundResponseMsg.getProperty(Constants.EVENT_STREAM_RESPONSE) != null;
+        boolean blocking = !eventStream && !outboundResponseMsg.isNonBlockingWrites();
+        BackPressureHandler backpressureHandler = blocking ? Util.getBackPressureHandler(sourceContext) : null;
+        if (blocking) {
+            Util.setBackPressureListener(outboundResponseMsg.isPassthrough(), backpressureHandler,
+                                         outboundResponseMsg.getTargetContext());
+        }
+        outboundResponseMsg.setOutboundWritability(new ChannelWritability(sourceContext.channel()));
         if (handlerExecutor != null) {
             handlerExecutor.executeAtSourceResponseReceiving(outboundResponseMsg);
         }
 
         outboundResponseMsg.getHttpContentAsync().setMessageListener(httpContent -> {
-            Util.checkUnWritabilityAndNotify(sourceContext, backpressureHandler);
+            if (blocking) {
+                Util.checkUnWritabilityAndNotify(sourceContext, backpressureHandler);
+            }
             this.sourceContext.channel().eventLoop().execute(() -> {
                 try {
                     writeOutboundResponse(outboundResponseMsg, httpContent);
@@ -124,6 +137,10 @@ public class HttpOutboundRespListener implements HttpConnectorListener {
         return chunkConfig;
     }
 
+    public int getChunkingThreshold() {
+        return chunkingThreshold;
+    }
+
     public HttpCarbonMessage getInboundRequestMsg() {
         return inboundRequestMsg;
     }
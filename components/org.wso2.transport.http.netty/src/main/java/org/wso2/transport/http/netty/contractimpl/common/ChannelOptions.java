@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.common;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.WriteBufferWaterMark;
+
+import java.util.Locale;
+
+/**
+ * Creates the buffer allocators and the channel options configured through the server and client bootstrap
+ * properties, validating the values as they are read.
+ * <p>
+ * TCP_FASTOPEN, TCP_QUICKACK and SO_BUSY_POLL are options of the native epoll transport. They are looked up by name
+ * so that this module does not depend on the native transport, and a channel that does not support them ignores
+ * them with a warning.
+ */
+public final class ChannelOptions {
+
+    public static final String ALLOCATOR_DEFAULT = "default";
+    public static final String ALLOCATOR_POOLED = "pooled";
+    public static final String ALLOCATOR_UNPOOLED = "unpooled";
+    public static final String RECEIVE_ALLOCATOR_ADAPTIVE = "adaptive";
+    public static final String RECEIVE_ALLOCATOR_FIXED = "fixed";
+
+    public static final int DEFAULT_RECEIVE_BUFFER_MINIMUM = 64;
+    public static final int DEFAULT_RECEIVE_BUFFER_INITIAL = 1024;
+    public static final int DEFAULT_RECEIVE_BUFFER_MAXIMUM = 65536;
+
+    private static final String EPOLL_CHANNEL_OPTION = "io.netty.channel.epoll.EpollChannelOption#";
+
+    public static final ChannelOption<Integer> TCP_FASTOPEN = ChannelOption.valueOf(
+            EPOLL_CHANNEL_OPTION + "TCP_FASTOPEN");
+    public static final ChannelOption<Boolean> TCP_FASTOPEN_CONNECT = ChannelOption.valueOf(
+            EPOLL_CHANNEL_OPTION + "TCP_FASTOPEN_CONNECT");
+    public static final ChannelOption<Boolean> TCP_QUICKACK = ChannelOption.valueOf(
+            EPOLL_CHANNEL_OPTION + "TCP_QUICKACK");
+    public static final ChannelOption<Integer> SO_BUSY_POLL = ChannelOption.valueOf(
+            EPOLL_CHANNEL_OPTION + "SO_BUSY_POLL");
+
+    private ChannelOptions() {
+    }
+
+    /**
+     * Returns the buffer allocator of the given type. Pooled allocators are shared by all the connectors, as each
+     * pooled allocator keeps its own arenas.
+     *
+     * @param type         one of default, pooled or unpooled
+     * @param preferDirect whether the allocator should prefer direct buffers
+     * @return the allocator
+     */
+    public static ByteBufAllocator createByteBufAllocator(String type, boolean preferDirect) {
+        switch (type.toLowerCase(Locale.ENGLISH)) {
+            case ALLOCATOR_DEFAULT:
+                return ByteBufAllocator.DEFAULT;
+            case ALLOCATOR_POOLED:
+                return preferDirect ? PooledByteBufAllocator.DEFAULT : PooledHeapAllocatorHolder.INSTANCE;
+            case ALLOCATOR_UNPOOLED:
+                return new UnpooledByteBufAllocator(preferDirect);
+            default:
+                throw new IllegalArgumentException("Buffer allocator must be one of " + ALLOCATOR_DEFAULT + ", "
+                                                           + ALLOCATOR_POOLED + " or " + ALLOCATOR_UNPOOLED + " : "
+                                                           + type);
+        }
+    }
+
+    /**
+     * Returns the allocator that sizes the buffers used to read from the socket. A fixed allocator reads into buffers
+     * of the initial size.
+     *
+     * @param type    adaptive or fixed
+     * @param minimum the minimum buffer size of the adaptive allocator
+     * @param initial the initial buffer size
+     * @param maximum the maximum buffer size of the adaptive allocator
+     * @return the receive buffer allocator
+     */
+    public static RecvByteBufAllocator createRecvByteBufAllocator(String type, int minimum, int initial,
+                                                                  int maximum) {
+        switch (type.toLowerCase(Locale.ENGLISH)) {
+            case RECEIVE_ALLOCATOR_ADAPTIVE:
+                if (minimum <= 0 || initial < minimum || maximum < initial) {
+                    throw new IllegalArgumentException(
+                            "Receive buffer sizes must satisfy 0 < minimum <= initial <= maximum : " + minimum + ", "
+                                    + initial + ", " + maximum);
+                }
+                return new AdaptiveRecvByteBufAllocator(minimum, initial, maximum);
+            case RECEIVE_ALLOCATOR_FIXED:
+                if (initial <= 0) {
+                    throw new IllegalArgumentException("Receive buffer size must be positive : " + initial);
+                }
+                return new FixedRecvByteBufAllocator(initial);
+            default:
+                throw new IllegalArgumentException("Receive buffer allocator must be one of "
+                                                           + RECEIVE_ALLOCATOR_ADAPTIVE + " or "
+                                                           + RECEIVE_ALLOCATOR_FIXED + " : " + type);
+        }
+    }
+
+    /**
+     * Returns the write buffer water mark, or null when neither mark is configured and Netty's default applies.
+     *
+     * @param low  the low water mark in bytes, or -1 if not configured
+     * @param high the high water mark in bytes, or -1 if not configured
+     * @return the water mark or null
+     */
+    public static WriteBufferWaterMark createWriteBufferWaterMark(int low, int high) {
+        if (low == -1 && high == -1) {
+            return null;
+        }
+        if (low < 0 || high < low) {
+            throw new IllegalArgumentException("Write buffer water marks must satisfy 0 <= low <= high : " + low
+                                                       + ", " + high);
+        }
+        return new WriteBufferWaterMark(low, high);
+    }
+
+    /**
+     * Validates the SO_LINGER value. A negative value other than -1 is rejected, -1 keeps lingering disabled.
+     *
+     * @param soLinger the linger time in seconds
+     * @return the validated value
+     */
+    public static int validateSoLinger(int soLinger) {
+        if (soLinger < -1) {
+            throw new IllegalArgumentException("Socket linger must be -1 or more : " + soLinger);
+        }
+        return soLinger;
+    }
+
+    /**
+     * Validates a non negative option value, where zero leaves the option unset.
+     *
+     * @param name  the property name
+     * @param value the value
+     * @return the validated value
+     */
+    public static int validateNonNegative(String name, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must not be negative : " + value);
+        }
+        return value;
+    }
+
+    private static class PooledHeapAllocatorHolder {
+        private static final ByteBufAllocator INSTANCE = new PooledByteBufAllocator(false);
+    }
+}
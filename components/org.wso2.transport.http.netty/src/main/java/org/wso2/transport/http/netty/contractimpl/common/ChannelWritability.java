@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.common;
+
+import io.netty.channel.Channel;
+import org.wso2.transport.http.netty.message.OutboundWritability;
+
+/**
+ * {@link OutboundWritability} of an HTTP/1.x connection, which follows the write buffer water marks of the channel.
+ */
+public class ChannelWritability implements OutboundWritability {
+
+    private final Channel channel;
+
+    public ChannelWritability(Channel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public boolean isWritable() {
+        return channel.isWritable() || !channel.isActive();
+    }
+
+    @Override
+    public void notifyWhenWritable(Runnable callback) {
+        // Always go through the event loop so that the check happens after the content written so far
+        channel.eventLoop().execute(() -> WritabilityNotifier.of(channel).onWritable(channel, callback));
+    }
+}
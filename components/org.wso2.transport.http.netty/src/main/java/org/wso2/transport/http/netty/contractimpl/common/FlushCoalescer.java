@@ -0,0 +1,70 @@
+/*
+ *  Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.common;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.Attribute;
+import org.wso2.transport.http.netty.contract.Constants;
+
+/**
+ * Coalesces the flushes of a channel so that all the content written to it within one run of the event loop goes out
+ * with a single flush. Streams that write many small pieces of content, like Server-Sent Events, use it instead of
+ * flushing each piece. Must only be used from the event loop of the channel.
+ */
+public class FlushCoalescer implements Runnable {
+
+    private final ChannelHandlerContext ctx;
+    private boolean flushScheduled;
+
+    private FlushCoalescer(ChannelHandlerContext ctx) {
+        this.ctx = ctx;
+    }
+
+    /**
+     * Returns the flush coalescer of the channel of the given context, creating it on first use.
+     *
+     * @param ctx the context that flushes the channel
+     * @return the flush coalescer of the channel
+     */
+    public static FlushCoalescer of(ChannelHandlerContext ctx) {
+        Attribute<FlushCoalescer> attribute = ctx.channel().attr(Constants.FLUSH_COALESCER);
+        FlushCoalescer flushCoalescer = attribute.get();
+        if (flushCoalescer == null) {
+            flushCoalescer = new FlushCoalescer(ctx);
+            attribute.set(flushCoalescer);
+        }
+        return flushCoalescer;
+    }
+
+    /**
+     * Flushes the channel once the tasks already queued in the event loop have been run.
+     */
+    public void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            ctx.channel().eventLoop().execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        flushScheduled = false;
+        ctx.flush();
+    }
+}
@@ -20,56 +20,142 @@ package org.wso2.transport.http.netty.contractimpl.common;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http2.Http2Flags;
 import io.netty.handler.codec.http2.Http2FrameLogger;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2Settings;
 import io.netty.handler.logging.LogLevel;
+import io.netty.util.internal.logging.InternalLogLevel;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
-
-import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
-
-import static io.netty.util.internal.StringUtil.NEWLINE;
+import org.wso2.transport.http.netty.contract.config.TraceLogConfig;
+import org.wso2.transport.http.netty.contractimpl.common.tracelog.TraceLogSampler;
+import org.wso2.transport.http.netty.contractimpl.common.tracelog.TraceLogWriter;
 
 /**
- * {@code FrameLogger} logs the HTTP/2 frames.
+ * {@code FrameLogger} logs the HTTP/2 frames of the connections picked by the {@link TraceLogSampler}. Data frames
+ * are rendered and written by the {@link TraceLogWriter}.
  */
 public class FrameLogger extends Http2FrameLogger {
 
     private final InternalLogger logger;
-    private LogLevel level;
+    private final InternalLogLevel internalLevel;
+    private final TraceLogSampler sampler;
 
     public FrameLogger(LogLevel level, String name) {
+        this(level, name, new TraceLogSampler(new TraceLogConfig()));
+    }
+
+    public FrameLogger(LogLevel level, String name, TraceLogSampler sampler) {
         super(level, name);
-        logger = InternalLoggerFactory.getInstance(name);
-        this.level = level;
+        this.logger = InternalLoggerFactory.getInstance(name);
+        this.internalLevel = level.toInternalLevel();
+        this.sampler = sampler;
+    }
+
+    private boolean isTraced(ChannelHandlerContext ctx) {
+        return sampler.isSampled(ctx.channel());
     }
 
     @Override
     public void logData(Http2FrameLogger.Direction direction, ChannelHandlerContext ctx, int streamId,
                         ByteBuf data, int padding, boolean endStream) {
-        logger.log(level.toInternalLevel(), "{} {} DATA: streamId={} padding={} endStream={} length={} data={}",
-                   ctx.channel(), direction.name(), streamId, padding, endStream, data.readableBytes(),
-                   formatPayload(data));
-    }
-
-    private String formatPayload(ByteBuf msg) {
-        int length = msg.readableBytes();
-        if (length == 0) {
-            return " 0B";
-        } else {
-            int rows = length / 16 + (length % 16 == 0 ? 0 : 1) + 4;
-            StringBuilder stringBuilder = new StringBuilder(10 + 1 + 2 + rows * 80);
-            stringBuilder.append(length).append('B').append(NEWLINE);
-            try {
-                CharsetDecoder decoder = Charset.forName("UTF8").newDecoder();
-                CharBuffer buffer = decoder.decode(msg.nioBuffer());
-                stringBuilder.append(buffer);
-            } catch (CharacterCodingException e) {
-                return "<< Payload could not be decoded >>";
-            }
-            return stringBuilder.toString();
+        if (logger.isEnabled(internalLevel) && isTraced(ctx)) {
+            String prefix = ctx.channel() + " " + direction.name() + " DATA: streamId=" + streamId + " padding="
+                    + padding + " endStream=" + endStream + " length=" + data.readableBytes() + " data=";
+            TraceLogWriter.getInstance().log(logger, internalLevel, prefix, data, sampler.getMaxPayloadBytes());
+        }
+    }
+
+    @Override
+    public void logHeaders(Direction direction, ChannelHandlerContext ctx, int streamId, Http2Headers headers,
+                           int padding, boolean endStream) {
+        if (isTraced(ctx)) {
+            super.logHeaders(direction, ctx, streamId, headers, padding, endStream);
+        }
+    }
+
+    @Override
+    public void logHeaders(Direction direction, ChannelHandlerContext ctx, int streamId, Http2Headers headers,
+                           int streamDependency, short weight, boolean exclusive, int padding, boolean endStream) {
+        if (isTraced(ctx)) {
+            super.logHeaders(direction, ctx, streamId, headers, streamDependency, weight, exclusive, padding,
+                             endStream);
+        }
+    }
+
+    @Override
+    public void logPriority(Direction direction, ChannelHandlerContext ctx, int streamId, int streamDependency,
+                            short weight, boolean exclusive) {
+        if (isTraced(ctx)) {
+            super.logPriority(direction, ctx, streamId, streamDependency, weight, exclusive);
+        }
+    }
+
+    @Override
+    public void logRstStream(Direction direction, ChannelHandlerContext ctx, int streamId, long errorCode) {
+        if (isTraced(ctx)) {
+            super.logRstStream(direction, ctx, streamId, errorCode);
+        }
+    }
+
+    @Override
+    public void logSettingsAck(Direction direction, ChannelHandlerContext ctx) {
+        if (isTraced(ctx)) {
+            super.logSettingsAck(direction, ctx);
+        }
+    }
+
+    @Override
+    public void logSettings(Direction direction, ChannelHandlerContext ctx, Http2Settings settings) {
+        if (isTraced(ctx)) {
+            super.logSettings(direction, ctx, settings);
+        }
+    }
+
+    @Override
+    public void logPing(Direction direction, ChannelHandlerContext ctx, long data) {
+        if (isTraced(ctx)) {
+            super.logPing(direction, ctx, data);
+        }
+    }
+
+    @Override
+    public void logPingAck(Direction direction, ChannelHandlerContext ctx, long data) {
+        if (isTraced(ctx)) {
+            super.logPingAck(direction, ctx, data);
+        }
+    }
+
+    @Override
+    public void logPushPromise(Direction direction, ChannelHandlerContext ctx, int streamId, int promisedStreamId,
+                               Http2Headers headers, int padding) {
+        if (isTraced(ctx)) {
+            super.logPushPromise(direction, ctx, streamId, promisedStreamId, headers, padding);
+        }
+    }
+
+    @Override
+    public void logGoAway(Direction direction, ChannelHandlerContext ctx, int lastStreamId, long errorCode,
+                          ByteBuf debugData) {
+        if (isTraced(ctx)) {
+            super.logGoAway(direction, ctx, lastStreamId, errorCode, debugData);
+        }
+    }
+
+    @Override
+    public void logWindowsUpdate(Direction direction, ChannelHandlerContext ctx, int streamId,
+                                 int windowSizeIncrement) {
+        if (isTraced(ctx)) {
+            super.logWindowsUpdate(direction, ctx, streamId, windowSizeIncrement);
+        }
+    }
+
+    @Override
+    public void logUnknownFrame(Direction direction, ChannelHandlerContext ctx, byte frameType, int streamId,
+                                Http2Flags flags, ByteBuf data) {
+        if (isTraced(ctx)) {
+            super.logUnknownFrame(direction, ctx, frameType, streamId, flags, data);
         }
     }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.common;
+
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http2.Http2Connection;
+import io.netty.handler.codec.http2.Http2ConnectionAdapter;
+import io.netty.handler.codec.http2.Http2RemoteFlowController;
+import io.netty.handler.codec.http2.Http2Stream;
+import io.netty.util.AttributeKey;
+import org.wso2.transport.http.netty.message.OutboundWritability;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the writability of the streams of an HTTP/2 connection as reported by the remote flow controller. A stream
+ * is unwritable while the data queued for it does not fit its flow control window, or while the connection itself
+ * is unwritable, which lets a producer of a single slow stream suspend without holding up the other streams.
+ * <p>
+ * The set of unwritable streams is safe to read from any thread, while the callbacks are only touched from the event
+ * loop of the connection.
+ */
+public class Http2StreamWritabilityTracker implements Http2RemoteFlowController.Listener {
+
+    private static final AttributeKey<Http2StreamWritabilityTracker> WRITABILITY_TRACKER =
+            AttributeKey.valueOf("http2StreamWritabilityTracker");
+
+    private final Channel channel;
+    private final Http2RemoteFlowController flowController;
+    private final Set<Integer> unwritableStreams = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, Queue<Runnable>> callbacks = new HashMap<>();
+
+    private Http2StreamWritabilityTracker(Channel channel, Http2RemoteFlowController flowController) {
+        this.channel = channel;
+        this.flowController = flowController;
+    }
+
+    /**
+     * Creates a tracker for the given connection and registers it as the listener of its remote flow controller.
+     *
+     * @param channel        the channel of the connection
+     * @param connection     the HTTP/2 connection
+     * @param flowController the remote flow controller of the connection
+     * @return the tracker of the connection
+     */
+    public static Http2StreamWritabilityTracker install(Channel channel, Http2Connection connection,
+                                                        Http2RemoteFlowController flowController) {
+        Http2StreamWritabilityTracker tracker = new Http2StreamWritabilityTracker(channel, flowController);
+        flowController.listener(tracker);
+        connection.addListener(new Http2ConnectionAdapter() {
+            @Override
+            public void onStreamClosed(Http2Stream stream) {
+                tracker.streamClosed(stream.id());
+            }
+        });
+        channel.attr(WRITABILITY_TRACKER).set(tracker);
+        return tracker;
+    }
+
+    /**
+     * Returns the writability of the given stream.
+     *
+     * @param channel  the channel of the HTTP/2 connection
+     * @param streamId the id of the stream
+     * @return the writability of the stream, or null if the connection has no tracker
+     */
+    public static OutboundWritability streamWritability(Channel channel, int streamId) {
+        Http2StreamWritabilityTracker tracker = channel.attr(WRITABILITY_TRACKER).get();
+        return tracker != null ? tracker.new StreamWritability(streamId) : null;
+    }
+
+    @Override
+    public void writabilityChanged(Http2Stream stream) {
+        Integer streamId = stream.id();
+        if (flowController.isWritable(stream)) {
+            unwritableStreams.remove(streamId);
+            runCallbacks(streamId);
+        } else {
+            unwritableStreams.add(streamId);
+        }
+    }
+
+    public boolean isWritable(int streamId) {
+        return !unwritableStreams.contains(streamId);
+    }
+
+    private void notifyWhenWritable(int streamId, Runnable callback) {
+        if (isWritable(streamId) || !channel.isActive()) {
+            callback.run();
+        } else {
+            callbacks.computeIfAbsent(streamId, id -> new ArrayDeque<>()).add(callback);
+        }
+    }
+
+    private void streamClosed(int streamId) {
+        // Producers waiting on a closed stream are released so that their next write fails
+        unwritableStreams.remove(streamId);
+        runCallbacks(streamId);
+    }
+
+    private void runCallbacks(Integer streamId) {
+        Queue<Runnable> streamCallbacks = callbacks.remove(streamId);
+        if (streamCallbacks != null) {
+            for (Runnable callback : streamCallbacks) {
+                callback.run();
+            }
+        }
+    }
+
+    /**
+     * {@link OutboundWritability} of a single stream.
+     */
+    private class StreamWritability implements OutboundWritability {
+
+        private final int streamId;
+
+        StreamWritability(int streamId) {
+            this.streamId = streamId;
+        }
+
+        @Override
+        public boolean isWritable() {
+            return Http2StreamWritabilityTracker.this.isWritable(streamId);
+        }
+
+        @Override
+        public void notifyWhenWritable(Runnable callback) {
+            // Always go through the event loop so that the check happens after the content written so far
+            channel.eventLoop().execute(() -> Http2StreamWritabilityTracker.this.notifyWhenWritable(streamId,
+                                                                                                   callback));
+        }
+    }
+}
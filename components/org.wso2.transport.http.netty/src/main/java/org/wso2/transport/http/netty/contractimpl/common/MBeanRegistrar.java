@@ -70,6 +70,26 @@ public class MBeanRegistrar {
         }
     }
 
+    /**
+     * Unregisters an MBean registered with {@link #registerMBean(Object, String, String)}, so that the MBean server
+     * no longer holds on to it once its owner is shut down.
+     *
+     * @param category the category the MBean was registered with
+     * @param id       the id the MBean was registered with
+     */
+    public void unregisterMBean(String category, String id) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(getObjectName(category, id));
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (MalformedObjectNameException | MBeanRegistrationException | InstanceNotFoundException e) {
+            LOG.warn("Error unregistering a MBean with name ' " + id + " ' and category name ' " + category
+                    + "' from JMX management", e);
+        }
+    }
+
     private String getObjectName(String category, String id) {
 
         String jmxAgentName = System.getProperty(Constants.JMX_AGENT_NAME);
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.common;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.wso2.transport.http.netty.contract.Constants;
+
+/**
+ * Marks a response whose content was encoded by the application, see {@link Constants#PRECOMPRESSED_CONTENT}. The
+ * response compressor passes such responses through along with their Content-Encoding header.
+ */
+public interface PrecompressedResponse {
+
+    /**
+     * Headers of a pre-compressed response that is followed by its content.
+     */
+    final class Headers extends DefaultHttpResponse implements PrecompressedResponse {
+
+        Headers(HttpVersion version, HttpResponseStatus status) {
+            super(version, status, false);
+        }
+    }
+
+    /**
+     * A pre-compressed response along with all of its content.
+     */
+    final class Full extends DefaultFullHttpResponse implements PrecompressedResponse {
+
+        Full(HttpVersion version, HttpResponseStatus status, ByteBuf content) {
+            super(version, status, content, false);
+        }
+    }
+}
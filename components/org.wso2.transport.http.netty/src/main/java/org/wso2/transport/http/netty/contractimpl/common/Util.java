@@ -47,6 +47,7 @@ import org.wso2.transport.http.netty.contract.ConfigurationException;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.contract.config.ChunkConfig;
+import org.wso2.transport.http.netty.contract.config.InboundBufferConfig;
 import org.wso2.transport.http.netty.contract.config.KeepAliveConfig;
 import org.wso2.transport.http.netty.contractimpl.common.ssl.SSLConfig;
 import org.wso2.transport.http.netty.contractimpl.common.ssl.SSLHandlerFactory;
@@ -63,7 +64,6 @@ import org.wso2.transport.http.netty.message.PassthroughBackPressureListener;
 import org.wso2.transport.http.netty.message.PooledDataStreamerFactory;
 
 import java.io.IOException;
-import java.net.InetSocketAddress;
 import java.nio.channels.ClosedChannelException;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -81,7 +81,6 @@ import static org.wso2.transport.http.netty.contract.Constants.HTTP_HOST;
 import static org.wso2.transport.http.netty.contract.Constants.HTTP_PORT;
 import static org.wso2.transport.http.netty.contract.Constants.HTTP_SCHEME;
 import static org.wso2.transport.http.netty.contract.Constants.IS_PROXY_ENABLED;
-import static org.wso2.transport.http.netty.contract.Constants.MUTUAL_SSL_HANDSHAKE_RESULT;
 import static org.wso2.transport.http.netty.contract.Constants.PROTOCOL;
 import static org.wso2.transport.http.netty.contract.Constants
         .REMOTE_CLIENT_CLOSED_WHILE_WRITING_OUTBOUND_RESPONSE_HEADERS;
@@ -123,7 +122,9 @@ public class Util {
 
         HttpVersion httpVersion = new HttpVersion(Constants.HTTP_VERSION_PREFIX + inboundReqHttpVersion, true);
         HttpResponseStatus httpResponseStatus = getHttpResponseStatus(outboundResponseMsg);
-        HttpResponse outboundNettyResponse = new DefaultHttpResponse(httpVersion, httpResponseStatus, false);
+        HttpResponse outboundNettyResponse = isPrecompressed(outboundResponseMsg) ?
+                new PrecompressedResponse.Headers(httpVersion, httpResponseStatus) :
+                new DefaultHttpResponse(httpVersion, httpResponseStatus, false);
 
         setOutboundRespHeaders(outboundResponseMsg, inboundReqHttpVersion, serverName, keepAlive,
                 outboundNettyResponse);
@@ -136,7 +137,8 @@ public class Util {
 
         HttpVersion httpVersion = new HttpVersion(Constants.HTTP_VERSION_PREFIX + inboundReqHttpVersion, true);
         HttpResponseStatus httpResponseStatus = getHttpResponseStatus(outboundResponseMsg);
-        HttpResponse outboundNettyResponse =
+        HttpResponse outboundNettyResponse = isPrecompressed(outboundResponseMsg) ?
+                new PrecompressedResponse.Full(httpVersion, httpResponseStatus, fullContent) :
                 new DefaultFullHttpResponse(httpVersion, httpResponseStatus, fullContent, false);
 
         setOutboundRespHeaders(outboundResponseMsg, inboundReqHttpVersion, serverName, keepAlive,
@@ -145,6 +147,11 @@ public class Util {
         return outboundNettyResponse;
     }
 
+    private static boolean isPrecompressed(HttpCarbonMessage outboundResponseMsg) {
+        return outboundResponseMsg.getProperty(Constants.PRECOMPRESSED_CONTENT) != null
+                && outboundResponseMsg.getHeader(HttpHeaderNames.CONTENT_ENCODING.toString()) != null;
+    }
+
     private static void setOutboundRespHeaders(HttpCarbonMessage outboundResponseMsg, String inboundReqHttpVersion,
                                                String serverName, boolean keepAlive,
                                                HttpResponse outboundNettyResponse) {
@@ -700,38 +707,11 @@ public class Util {
     public static HttpCarbonMessage createInboundReqCarbonMsg(HttpRequest httpRequestHeaders,
             ChannelHandlerContext ctx, SourceHandler sourceHandler) {
 
-        HttpCarbonMessage inboundRequestMsg =
-                new HttpCarbonRequest(httpRequestHeaders, new DefaultListener(ctx));
-        inboundRequestMsg.setProperty(Constants.POOLED_BYTE_BUFFER_FACTORY, new PooledDataStreamerFactory(ctx.alloc()));
-
-        inboundRequestMsg.setProperty(Constants.CHNL_HNDLR_CTX, ctx);
-        inboundRequestMsg.setProperty(Constants.SRC_HANDLER, sourceHandler);
-        HttpVersion protocolVersion = httpRequestHeaders.protocolVersion();
-        inboundRequestMsg.setProperty(Constants.HTTP_VERSION,
-                protocolVersion.majorVersion() + "." + protocolVersion.minorVersion());
-        inboundRequestMsg.setProperty(Constants.HTTP_METHOD, httpRequestHeaders.method().name());
-        InetSocketAddress localAddress = null;
-
-        //This check was added because in case of netty embedded channel, this could be of type 'EmbeddedSocketAddress'.
-        if (ctx.channel().localAddress() instanceof InetSocketAddress) {
-            localAddress = (InetSocketAddress) ctx.channel().localAddress();
-        }
-        inboundRequestMsg.setProperty(Constants.LISTENER_PORT, localAddress != null ? localAddress.getPort() : null);
-        inboundRequestMsg.setProperty(Constants.LISTENER_INTERFACE_ID, sourceHandler.getInterfaceId());
-        inboundRequestMsg.setProperty(Constants.PROTOCOL, Constants.HTTP_SCHEME);
-
-        boolean isSecuredConnection = false;
-        if (ctx.channel().pipeline().get(Constants.SSL_HANDLER) != null) {
-            isSecuredConnection = true;
-        }
-        inboundRequestMsg.setProperty(Constants.IS_SECURED_CONNECTION, isSecuredConnection);
-
-        inboundRequestMsg.setProperty(Constants.LOCAL_ADDRESS, ctx.channel().localAddress());
-        inboundRequestMsg.setProperty(Constants.REMOTE_ADDRESS, sourceHandler.getRemoteAddress());
-        inboundRequestMsg.setProperty(Constants.REQUEST_URL, httpRequestHeaders.uri());
-        inboundRequestMsg.setProperty(Constants.TO, httpRequestHeaders.uri());
-        inboundRequestMsg.setProperty(MUTUAL_SSL_HANDSHAKE_RESULT,
-                ctx.channel().attr(Constants.MUTUAL_SSL_RESULT_ATTRIBUTE).get());
+        HttpCarbonRequest inboundRequestMsg =
+                new HttpCarbonRequest(httpRequestHeaders,
+                                      new DefaultListener(ctx, sourceHandler.getInboundBufferConfig()));
+        // Connection related properties such as the addresses are derived from the connection on demand
+        inboundRequestMsg.setInboundConnection(ctx, sourceHandler);
 
         return inboundRequestMsg;
     }
@@ -741,12 +721,15 @@ public class Util {
      * @param ctx of the inbound response message
      * @param httpResponseHeaders of the inbound response message
      * @param outboundRequestMsg is the correlated outbound request message
+     * @param inboundBufferConfig the water marks of the content buffered for the response
      * @return HttpCarbon message
      */
     public static HttpCarbonMessage createInboundRespCarbonMsg(ChannelHandlerContext ctx,
                                                                HttpResponse httpResponseHeaders,
-                                                               HttpCarbonMessage outboundRequestMsg) {
-        HttpCarbonMessage inboundResponseMsg = new HttpCarbonResponse(httpResponseHeaders, new DefaultListener(ctx));
+                                                               HttpCarbonMessage outboundRequestMsg,
+                                                               InboundBufferConfig inboundBufferConfig) {
+        HttpCarbonMessage inboundResponseMsg = new HttpCarbonResponse(httpResponseHeaders,
+                                                                      new DefaultListener(ctx, inboundBufferConfig));
         inboundResponseMsg.setProperty(Constants.POOLED_BYTE_BUFFER_FACTORY,
                 new PooledDataStreamerFactory(ctx.alloc()));
 
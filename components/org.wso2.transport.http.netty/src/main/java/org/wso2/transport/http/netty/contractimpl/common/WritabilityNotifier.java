@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.common;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import org.wso2.transport.http.netty.contract.Constants;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Runs callbacks once the channel becomes writable again, for producers in the event loop that cannot block while
+ * the channel is not writable. The callbacks are also run when the channel closes so that they can release what they
+ * hold. The notifier is added to the head of the pipeline the first time it is needed, ahead of the handlers that
+ * consume the writability event.
+ */
+public class WritabilityNotifier extends ChannelInboundHandlerAdapter {
+
+    private final Queue<Runnable> callbacks = new ArrayDeque<>();
+
+    /**
+     * Returns the writability notifier of the given channel, adding it to the pipeline on first use. Must be called
+     * from the event loop of the channel.
+     *
+     * @param channel the channel to be observed
+     * @return the writability notifier of the channel
+     */
+    public static WritabilityNotifier of(Channel channel) {
+        ChannelPipeline pipeline = channel.pipeline();
+        WritabilityNotifier notifier = (WritabilityNotifier) pipeline.get(Constants.WRITABILITY_NOTIFIER);
+        if (notifier == null) {
+            notifier = new WritabilityNotifier();
+            pipeline.addFirst(Constants.WRITABILITY_NOTIFIER, notifier);
+        }
+        return notifier;
+    }
+
+    /**
+     * Runs the callback once the channel is writable or closed. The callback is run right away if it already is.
+     *
+     * @param channel  the observed channel
+     * @param callback the callback to be run in the event loop
+     */
+    public void onWritable(Channel channel, Runnable callback) {
+        if (channel.isWritable() || !channel.isActive()) {
+            callback.run();
+        } else {
+            callbacks.add(callback);
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        if (ctx.channel().isWritable()) {
+            runCallbacks();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        runCallbacks();
+        ctx.fireChannelInactive();
+    }
+
+    private void runCallbacks() {
+        // Callbacks registered while running are for the next change of writability
+        for (int i = callbacks.size(); i > 0; i--) {
+            callbacks.poll().run();
+        }
+    }
+}
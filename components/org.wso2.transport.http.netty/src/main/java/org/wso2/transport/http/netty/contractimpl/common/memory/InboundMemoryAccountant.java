@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.common.memory;
+
+import io.netty.util.internal.PlatformDependent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contractimpl.common.MBeanRegistrar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps track of the inbound content buffered by all the connections of the transport, in messages that are not yet
+ * consumed. Each message accounts for its content through an {@link Account}. When the total goes beyond the budget,
+ * the messages holding the most content are paused until the total drops below nine tenths of the budget again.
+ * <p>
+ * The budget of the shared accountant is read from the {@value Constants#INBOUND_MEMORY_BUDGET} system property and
+ * defaults to half of the maximum direct memory.
+ */
+public class InboundMemoryAccountant implements InboundMemoryAccountantMBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InboundMemoryAccountant.class);
+    // Over the budget, the accounts are looked through again only once the total grew by this share of the budget
+    private static final int RELIEF_STEPS_PER_BUDGET = 64;
+
+    private final Set<Account> accounts = ConcurrentHashMap.newKeySet();
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final AtomicLong peakBufferedBytes = new AtomicLong();
+    private final AtomicInteger pausedAccounts = new AtomicInteger();
+    private final LongAdder budgetPauses = new LongAdder();
+    private final ReentrantLock pressureLock = new ReentrantLock();
+    private volatile long budget;
+    // Total beyond which the next look for accounts to pause is made, guarded by the pressure lock for updates
+    private volatile long nextReliefTotal;
+
+    public InboundMemoryAccountant(long budget) {
+        setBudget(budget);
+    }
+
+    public static InboundMemoryAccountant getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Opens an account for the content of a message. The actions are run from the thread that allocated or released
+     * the memory that caused the account to be paused or resumed.
+     *
+     * @param pauseAction  called when the account is paused for the budget
+     * @param resumeAction called when the account is resumed after being paused for the budget
+     * @return the account
+     */
+    public Account newAccount(Runnable pauseAction, Runnable resumeAction) {
+        Account account = new Account(pauseAction, resumeAction);
+        accounts.add(account);
+        return account;
+    }
+
+    private void allocated(long bytes) {
+        long total = bufferedBytes.addAndGet(bytes);
+        long peak = peakBufferedBytes.get();
+        while (total > peak && !peakBufferedBytes.compareAndSet(peak, total)) {
+            peak = peakBufferedBytes.get();
+        }
+        if (total > budget && total >= nextReliefTotal) {
+            relievePressure();
+        }
+    }
+
+    private void released(long bytes) {
+        long total = bufferedBytes.addAndGet(-bytes);
+        if (total <= resumeThreshold()) {
+            if (pausedAccounts.get() > 0) {
+                resumePausedAccounts();
+            } else if (nextReliefTotal != 0) {
+                // The pressure went away without pausing, e.g. as paused accounts were closed
+                nextReliefTotal = 0;
+            }
+        }
+    }
+
+    private long resumeThreshold() {
+        return budget - budget / 10;
+    }
+
+    /**
+     * Pauses the unpaused accounts holding the most content, until the paused accounts hold at least as much as the
+     * total goes beyond the budget. Only one thread looks for accounts to pause at a time, the others carry on.
+     * Looking through the accounts is not cheap with many connections, so the next look is made only once the total
+     * grew by another step, or after the total dropped below the resume threshold.
+     */
+    private void relievePressure() {
+        if (!pressureLock.tryLock()) {
+            return;
+        }
+        try {
+            long total = bufferedBytes.get();
+            long excess = total - budget;
+            if (excess <= 0 || total < nextReliefTotal) {
+                return;
+            }
+            nextReliefTotal = total + Math.max(1, budget / RELIEF_STEPS_PER_BUDGET);
+            long pausedBytes = 0;
+            List<Account> candidates = new ArrayList<>();
+            for (Account account : accounts) {
+                if (account.paused) {
+                    pausedBytes += account.held;
+                } else if (account.held > 0) {
+                    candidates.add(account);
+                }
+            }
+            if (pausedBytes >= excess) {
+                return;
+            }
+            candidates.sort((first, second) -> Long.compare(second.held, first.held));
+            for (Account account : candidates) {
+                if (account.pause()) {
+                    account.pauseAction.run();
+                    pausedBytes += account.held;
+                    if (pausedBytes >= excess) {
+                        break;
+                    }
+                }
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Inbound memory budget of {} bytes exceeded by {} bytes, {} messages paused", budget,
+                          excess, pausedAccounts.get());
+            }
+        } finally {
+            pressureLock.unlock();
+        }
+    }
+
+    private void resumePausedAccounts() {
+        pressureLock.lock();
+        try {
+            if (bufferedBytes.get() > resumeThreshold()) {
+                return;
+            }
+            nextReliefTotal = 0;
+            for (Account account : accounts) {
+                account.resume();
+            }
+        } finally {
+            pressureLock.unlock();
+        }
+    }
+
+    @Override
+    public long getBudget() {
+        return budget;
+    }
+
+    @Override
+    public void setBudget(long budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("Inbound memory budget must be positive : " + budget);
+        }
+        this.budget = budget;
+        nextReliefTotal = 0;
+        if (pausedAccounts.get() > 0 && bufferedBytes.get() <= resumeThreshold()) {
+            resumePausedAccounts();
+        }
+    }
+
+    @Override
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    @Override
+    public long getPeakBufferedBytes() {
+        return peakBufferedBytes.get();
+    }
+
+    @Override
+    public int getAccountCount() {
+        return accounts.size();
+    }
+
+    @Override
+    public int getPausedAccountCount() {
+        return pausedAccounts.get();
+    }
+
+    @Override
+    public long getBudgetPauseCount() {
+        return budgetPauses.sum();
+    }
+
+    /**
+     * The content buffered for a single message. Content is allocated from the event loop of the connection and
+     * released by the consumer of the message, hence the account is guarded by its own lock.
+     */
+    public class Account {
+
+        private final Runnable pauseAction;
+        private final Runnable resumeAction;
+        private volatile long held;
+        private volatile boolean paused;
+        private boolean closed;
+
+        private Account(Runnable pauseAction, Runnable resumeAction) {
+            this.pauseAction = pauseAction;
+            this.resumeAction = resumeAction;
+        }
+
+        public void allocate(int bytes) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                held += bytes;
+            }
+            allocated(bytes);
+        }
+
+        public void release(int bytes) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                held -= bytes;
+            }
+            released(bytes);
+        }
+
+        /**
+         * Releases whatever the account still holds. Content allocated or released afterwards is not accounted.
+         */
+        public void close() {
+            long remaining;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                remaining = held;
+                held = 0;
+                if (paused) {
+                    paused = false;
+                    pausedAccounts.decrementAndGet();
+                }
+            }
+            accounts.remove(this);
+            released(remaining);
+        }
+
+        /**
+         * @return true if the message should not read more content until the budget recovers
+         */
+        public boolean isPaused() {
+            return paused;
+        }
+
+        public long getHeldBytes() {
+            return held;
+        }
+
+        private synchronized boolean pause() {
+            if (closed || paused) {
+                return false;
+            }
+            paused = true;
+            pausedAccounts.incrementAndGet();
+            budgetPauses.increment();
+            return true;
+        }
+
+        private void resume() {
+            synchronized (this) {
+                if (!paused) {
+                    return;
+                }
+                paused = false;
+                pausedAccounts.decrementAndGet();
+            }
+            resumeAction.run();
+        }
+    }
+
+    private static class Holder {
+        private static final InboundMemoryAccountant INSTANCE = new InboundMemoryAccountant(
+                Long.getLong(Constants.INBOUND_MEMORY_BUDGET, PlatformDependent.maxDirectMemory() / 2));
+
+        static {
+            MBeanRegistrar.getInstance().registerMBean(INSTANCE, "InboundMemory", "global");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.common.tracelog;
+
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import org.wso2.transport.http.netty.contract.config.TraceLogConfig;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which connections and requests get traced. Connections are sampled when they are first seen and the
+ * decision is kept on the channel, so that a connection is either traced as a whole or not at all. One sampler is
+ * shared by all the connections of a listener or a sender.
+ */
+public class TraceLogSampler {
+
+    private static final AttributeKey<Boolean> TRACE_LOG_SAMPLED = AttributeKey.valueOf("traceLogSampled");
+
+    private final double samplingPercentage;
+    private final int connectionSampleRate;
+    private final String sampleHeaderName;
+    private final String sampleHeaderValue;
+    private final String sampleUriPrefix;
+    private final int maxPayloadBytes;
+    private final AtomicLong connectionCount = new AtomicLong();
+
+    public TraceLogSampler(TraceLogConfig config) {
+        validate(config);
+        this.samplingPercentage = config.getSamplingPercentage();
+        this.connectionSampleRate = config.getConnectionSampleRate();
+        this.sampleHeaderName = config.getSampleHeaderName();
+        this.sampleHeaderValue = config.getSampleHeaderValue();
+        this.sampleUriPrefix = config.getSampleUriPrefix();
+        this.maxPayloadBytes = config.getMaxPayloadBytes();
+    }
+
+    private static void validate(TraceLogConfig config) {
+        if (config.getSamplingPercentage() < 0 || config.getSamplingPercentage() > 100) {
+            throw new IllegalArgumentException("Trace log sampling percentage must be between 0 and 100 : "
+                                                       + config.getSamplingPercentage());
+        }
+        if (config.getConnectionSampleRate() <= 0) {
+            throw new IllegalArgumentException("Trace log connection sample rate must be positive : "
+                                                       + config.getConnectionSampleRate());
+        }
+        if (config.getMaxPayloadBytes() < -1) {
+            throw new IllegalArgumentException("Trace log max payload bytes must be -1 or more : "
+                                                       + config.getMaxPayloadBytes());
+        }
+    }
+
+    /**
+     * Checks whether a connection is traced, sampling it if it was not seen before.
+     *
+     * @param channel the connection
+     * @return true if the connection is traced
+     */
+    public boolean isSampled(Channel channel) {
+        Attribute<Boolean> sampledAttribute = channel.attr(TRACE_LOG_SAMPLED);
+        Boolean sampled = sampledAttribute.get();
+        if (sampled == null) {
+            sampled = sampleConnection();
+            sampledAttribute.set(sampled);
+        }
+        return sampled;
+    }
+
+    private boolean sampleConnection() {
+        if (connectionSampleRate > 1 && connectionCount.getAndIncrement() % connectionSampleRate != 0) {
+            return false;
+        }
+        return samplingPercentage >= 100 || ThreadLocalRandom.current().nextDouble(100) < samplingPercentage;
+    }
+
+    /**
+     * @return true if only the exchanges of matching requests are traced
+     */
+    public boolean hasRequestFilter() {
+        return sampleHeaderName != null || sampleUriPrefix != null;
+    }
+
+    /**
+     * Checks a request against the configured header and URI prefix.
+     *
+     * @param request the request
+     * @return true if the exchange of the request is traced
+     */
+    public boolean matches(HttpRequest request) {
+        if (sampleUriPrefix != null && !request.uri().startsWith(sampleUriPrefix)) {
+            return false;
+        }
+        if (sampleHeaderName != null) {
+            String value = request.headers().get(sampleHeaderName);
+            return value != null && (sampleHeaderValue == null || sampleHeaderValue.equalsIgnoreCase(value));
+        }
+        return true;
+    }
+
+    public int getMaxPayloadBytes() {
+        return maxPayloadBytes;
+    }
+}
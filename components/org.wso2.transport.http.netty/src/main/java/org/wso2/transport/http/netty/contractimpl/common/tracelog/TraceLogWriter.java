@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.common.tracelog;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.logging.InternalLogLevel;
+import io.netty.util.internal.logging.InternalLogger;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contractimpl.common.MBeanRegistrar;
+
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.netty.util.internal.StringUtil.NEWLINE;
+
+/**
+ * Renders and writes the HTTP wire trace logs on a background thread. I/O threads only hand over the text they
+ * already have and a retained slice of each payload, through a bounded queue. Entries that do not fit in the queue
+ * are dropped, so that tracing never holds back an I/O thread.
+ */
+public final class TraceLogWriter implements TraceLogWriterMBean {
+
+    private static final TraceLogWriter INSTANCE = new TraceLogWriter();
+    private static final String UNDECODABLE_PAYLOAD = "<< Payload could not be decoded >>";
+
+    private final Queue<Entry> queue = PlatformDependent.newFixedMpscQueue(Constants.TRACE_LOG_QUEUE_SIZE);
+    private final LongAdder writtenEntries = new LongAdder();
+    private final LongAdder droppedEntries = new LongAdder();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private volatile Thread writerThread;
+    // Set by the writer thread while it waits for entries, so that only then the I/O threads have to wake it up
+    private volatile boolean sleeping;
+
+    private TraceLogWriter() {
+    }
+
+    public static TraceLogWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues a message that is already rendered.
+     *
+     * @param logger  the logger to write to
+     * @param level   the level to write with
+     * @param message the message
+     */
+    public void log(InternalLogger logger, InternalLogLevel level, String message) {
+        offer(new Entry(logger, level, message, -1, null, 0));
+    }
+
+    /**
+     * Queues a message with a payload, which is decoded on the background thread. At most the given number of bytes
+     * of the payload are retained and dumped.
+     *
+     * @param logger          the logger to write to
+     * @param level           the level to write with
+     * @param prefix          the text that precedes the payload
+     * @param payload         the payload, which is not released by this method
+     * @param maxPayloadBytes the number of bytes to dump, or -1 to dump the whole payload
+     */
+    public void log(InternalLogger logger, InternalLogLevel level, String prefix, ByteBuf payload,
+                    int maxPayloadBytes) {
+        int length = payload.readableBytes();
+        int dumpLength = maxPayloadBytes < 0 ? length : Math.min(length, maxPayloadBytes);
+        ByteBuf dump = dumpLength > 0 ? payload.retainedSlice(payload.readerIndex(), dumpLength) : null;
+        offer(new Entry(logger, level, prefix, length, dump, dumpLength));
+    }
+
+    private void offer(Entry entry) {
+        if (started.compareAndSet(false, true)) {
+            start();
+        }
+        if (!queue.offer(entry)) {
+            droppedEntries.increment();
+            entry.release();
+        } else if (sleeping) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void start() {
+        writerThread = new DefaultThreadFactory(Constants.TRACE_LOG_WRITER_THREAD_NAME, true).newThread(this::run);
+        writerThread.start();
+        MBeanRegistrar.getInstance().registerMBean(this, "TraceLog", Constants.TRACE_LOG_WRITER_THREAD_NAME);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Entry entry = queue.poll();
+            if (entry == null) {
+                awaitEntries();
+                continue;
+            }
+            try {
+                entry.logger.log(entry.level, render(entry));
+                writtenEntries.increment();
+            } catch (RuntimeException e) {
+                // A failing appender must not stop the writer, as the queue would then stay full.
+                droppedEntries.increment();
+            } finally {
+                entry.release();
+            }
+        }
+    }
+
+    /**
+     * Parks the writer thread until an entry is queued. The queue is checked again after announcing the wait, as an
+     * entry queued before that would not wake the thread up.
+     */
+    private void awaitEntries() {
+        sleeping = true;
+        if (queue.isEmpty()) {
+            LockSupport.park(this);
+        }
+        sleeping = false;
+    }
+
+    private String render(Entry entry) {
+        int length = entry.payloadLength;
+        if (length < 0) {
+            return entry.text;
+        }
+        if (entry.dump == null) {
+            return entry.text + length + 'B';
+        }
+        StringBuilder stringBuilder = new StringBuilder(entry.text.length() + 16 + entry.dumpLength);
+        stringBuilder.append(entry.text).append(length).append('B').append(NEWLINE);
+        CharBuffer decoded = decode(entry.dump, entry.dumpLength < length);
+        if (decoded == null) {
+            return entry.text + UNDECODABLE_PAYLOAD;
+        }
+        stringBuilder.append(decoded);
+        if (entry.dumpLength < length) {
+            stringBuilder.append(NEWLINE).append("... ").append(length - entry.dumpLength).append(" more bytes");
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Decodes a payload as UTF-8. A truncated payload may end in the middle of a character, in which case the
+     * incomplete character is left out.
+     */
+    private CharBuffer decode(ByteBuf dump, boolean truncated) {
+        int maxTrim = truncated ? Math.min(3, dump.readableBytes() - 1) : 0;
+        for (int trim = 0; trim <= maxTrim; trim++) {
+            try {
+                return decoder.reset().decode(dump.nioBuffer(dump.readerIndex(), dump.readableBytes() - trim));
+            } catch (CharacterCodingException e) {
+                // Try again without the last byte
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long getWrittenEntryCount() {
+        return writtenEntries.sum();
+    }
+
+    @Override
+    public long getDroppedEntryCount() {
+        return droppedEntries.sum();
+    }
+
+    @Override
+    public int getPendingEntryCount() {
+        return queue.size();
+    }
+
+    /**
+     * A trace log message waiting to be written.
+     */
+    private static final class Entry {
+
+        private final InternalLogger logger;
+        private final InternalLogLevel level;
+        private final String text;
+        private final int payloadLength;
+        private final ByteBuf dump;
+        private final int dumpLength;
+
+        private Entry(InternalLogger logger, InternalLogLevel level, String text, int payloadLength, ByteBuf dump,
+                      int dumpLength) {
+            this.logger = logger;
+            this.level = level;
+            this.text = text;
+            this.payloadLength = payloadLength;
+            this.dump = dump;
+            this.dumpLength = dumpLength;
+        }
+
+        private void release() {
+            if (dump != null) {
+                dump.release();
+            }
+        }
+    }
+}
@@ -1,46 +1,132 @@
 package org.wso2.transport.http.netty.contractimpl.listener;
 
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpContentCompressor;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObject;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import org.wso2.transport.http.netty.contractimpl.common.PrecompressedResponse;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Custom Http Content Compressor to handle the content-length and transfer encoding.
+ * Custom Http Content Compressor to handle the content-length and transfer encoding. Responses are compressed as
+ * decided by the {@link HttpCompressionPolicy} of the listener.
  */
 public class CustomHttpContentCompressor extends HttpContentCompressor {
 
+    private final HttpCompressionPolicy compressionPolicy;
+    private ChannelHandlerContext ctx;
     private HttpMethod method;
+    private boolean encoding;
 
     public CustomHttpContentCompressor() {
-        super();
+        this(null);
+    }
+
+    public CustomHttpContentCompressor(HttpCompressionPolicy compressionPolicy) {
+        super(compressionPolicy != null ? compressionPolicy.getCompressionLevel() : 6);
+        this.compressionPolicy = compressionPolicy;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+        super.handlerAdded(ctx);
     }
 
     @Override
     protected Result beginEncode(HttpResponse headers, String acceptEncoding) throws Exception {
+        Result result = selectEncoder(headers, acceptEncoding);
+        encoding = result != null;
+        if (compressionPolicy != null) {
+            if (encoding) {
+                compressionPolicy.getMetrics().onCompressed();
+            } else {
+                compressionPolicy.getMetrics().onSkipped();
+            }
+        }
+        return result;
+    }
+
+    private Result selectEncoder(HttpResponse headers, String acceptEncoding) throws Exception {
         String allowHeader = headers.headers().get(HttpHeaderNames.ALLOW);
         String contentLength = headers.headers().get(HttpHeaderNames.CONTENT_LENGTH);
         if (method == HttpMethod.OPTIONS && allowHeader != null && contentLength.equals("0")) {
             return null;
         }
+        if (headers instanceof PrecompressedResponse) {
+            // The content is already encoded by the application, hence sent as it is with its content-encoding.
+            return null;
+        }
         String contentEncoding = headers.headers().get(HttpHeaderNames.CONTENT_ENCODING);
         if (contentEncoding != null) {
             //When the response contains content-encoding header, override acceptEncoding value with it, which will
             //ultimately be used for compression and then remove the content-encoding header from response.
             acceptEncoding = contentEncoding;
             headers.headers().remove(HttpHeaderNames.CONTENT_ENCODING);
+        } else if (compressionPolicy != null && !compressionPolicy.isCompressible(headers)) {
+            return null;
+        }
+        String customEncoding = compressionPolicy != null ? compressionPolicy.selectEncoding(acceptEncoding) : null;
+        if (customEncoding != null) {
+            return new Result(customEncoding, new EmbeddedChannel(ctx.channel().id(),
+                                                                  ctx.channel().metadata().hasDisconnect(),
+                                                                  ctx.channel().config(),
+                                                                  compressionPolicy.newEncoder(customEncoding)));
         }
         return super.beginEncode(headers, acceptEncoding);
     }
 
+    @Override
+    protected void encode(ChannelHandlerContext ctx, HttpObject msg, List<Object> out) throws Exception {
+        if (compressionPolicy == null) {
+            super.encode(ctx, msg, out);
+            return;
+        }
+        long bytesIn = msg instanceof HttpContent ? ((HttpContent) msg).content().readableBytes() : 0;
+        long startTime = System.nanoTime();
+        super.encode(ctx, msg, out);
+        long elapsedNanos = System.nanoTime() - startTime;
+        if (encoding && msg instanceof HttpContent) {
+            long bytesOut = 0;
+            for (Object encoded : out) {
+                if (encoded instanceof HttpContent) {
+                    bytesOut += ((HttpContent) encoded).content().readableBytes();
+                }
+            }
+            compressionPolicy.getMetrics().onContentEncoded(bytesIn, bytesOut, elapsedNanos);
+        }
+        if (msg instanceof LastHttpContent) {
+            encoding = false;
+        }
+    }
+
     @Override
     protected void decode(ChannelHandlerContext ctx, HttpRequest msg, List<Object> out)
             throws Exception {
         this.method = msg.method();
         super.decode(ctx, msg, out);
     }
+
+    /**
+     * Registers a request that was read before this compressor was added to the pipeline, so that the next response
+     * gets matched with it.
+     *
+     * @param ctx     the context of this compressor
+     * @param request the request that is being responded to
+     * @throws Exception if the request cannot be registered
+     */
+    void registerRequest(ChannelHandlerContext ctx, HttpRequest request) throws Exception {
+        List<Object> out = new ArrayList<>(1);
+        decode(ctx, request, out);
+        out.forEach(ReferenceCountUtil::release);
+    }
 }
@@ -28,17 +28,18 @@ import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contractimpl.listener.accesslog.AccessLogWriter;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
-import java.util.Calendar;
 
 /**
- * Logging handler for HTTP access logs.
+ * Logging handler for HTTP access logs. The fields of each request are handed over to the {@link AccessLogWriter} of
+ * the listener, which formats and writes them off the event loop.
  */
 public class HttpAccessLoggingHandler extends LoggingHandler {
     private static final LogLevel LOG_LEVEL = LogLevel.INFO;
-    private static final String EVENT_WRITE = "WRITE";
+    private final AccessLogWriter accessLogWriter;
     private String inetAddress;
     private String method;
     private String uri;
@@ -46,11 +47,12 @@ public class HttpAccessLoggingHandler extends LoggingHandler {
     private String userAgent = "-";
     private String referrer = "-";
     private int status;
-    private Long contentLength = 0L;
-    private Calendar calendar;
+    private long contentLength = 0L;
+    private long requestTime;
 
-    public HttpAccessLoggingHandler(String name) {
+    public HttpAccessLoggingHandler(String name, AccessLogWriter accessLogWriter) {
         super(name, LOG_LEVEL);
+        this.accessLogWriter = accessLogWriter;
     }
 
     @Override
@@ -75,7 +77,7 @@ public class HttpAccessLoggingHandler extends LoggingHandler {
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         if (msg instanceof HttpRequest) {
             HttpRequest httpRequest = (HttpRequest) msg;
-            calendar = Calendar.getInstance();
+            requestTime = System.currentTimeMillis();
             // maybe this request was proxied or load balanced.
             // try and get the real originating IP
             if (httpRequest.headers().contains(Constants.HTTP_X_FORWARDED_FOR)) {
@@ -96,7 +98,7 @@ public class HttpAccessLoggingHandler extends LoggingHandler {
             }
             method = httpRequest.method().name();
             uri = httpRequest.uri();
-            protocol = httpRequest.protocolVersion().toString();
+            protocol = httpRequest.protocolVersion().text();
         }
         ctx.fireChannelRead(msg);
     }
@@ -108,31 +110,25 @@ public class HttpAccessLoggingHandler extends LoggingHandler {
             HttpResponse httpResponse = (HttpResponse) msg;
             status = httpResponse.status().code();
             if (httpResponse.headers().contains(HttpHeaderNames.CONTENT_LENGTH)) {
-                contentLength = Long.valueOf(httpResponse.headers().get(HttpHeaderNames.CONTENT_LENGTH));
-                if (logger.isEnabled(internalLevel)) {
-                    logger.log(internalLevel, format(ctx, EVENT_WRITE, msg));
-                }
+                contentLength = Long.parseLong(httpResponse.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+                log();
                 clearState();
             }
         } else if (msg instanceof HttpContent) {
             HttpContent httpContent = (HttpContent) msg;
             contentLength += httpContent.content().readableBytes();
             if (msg instanceof LastHttpContent) {
-                if (logger.isEnabled(internalLevel)) {
-                    logger.log(internalLevel, format(ctx, EVENT_WRITE, msg));
-                }
+                log();
                 clearState();
             }
         }
     }
 
-    @Override
-    protected String format(ChannelHandlerContext ctx, String eventName, Object arg) {
-        if (EVENT_WRITE.equals(eventName)) {
-            return String.format(Constants.ACCESS_LOG_FORMAT, inetAddress, calendar, method, uri, protocol, status,
-                                 contentLength, referrer, userAgent);
+    private void log() {
+        if (accessLogWriter.isEnabled()) {
+            accessLogWriter.log(inetAddress, requestTime, method, uri, protocol, status, contentLength, referrer,
+                                userAgent);
         }
-        return "";
     }
 
     private void clearState() {
@@ -141,7 +137,7 @@ public class HttpAccessLoggingHandler extends LoggingHandler {
         protocol = null;
         status = -1;
         contentLength = 0L;
-        calendar = null;
+        requestTime = 0L;
         userAgent = "-";
         referrer = "-";
     }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.listener;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the responses compressed by the listener, the bytes before and after compression and the time spent on
+ * compressing them.
+ */
+public class HttpCompressionMetrics implements HttpCompressionMetricsMBean {
+
+    private final AtomicLong compressedResponses = new AtomicLong();
+    private final AtomicLong skippedResponses = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private final AtomicLong compressionNanos = new AtomicLong();
+
+    void onCompressed() {
+        compressedResponses.incrementAndGet();
+    }
+
+    void onSkipped() {
+        skippedResponses.incrementAndGet();
+    }
+
+    void onContentEncoded(long bytesIn, long bytesOut, long elapsedNanos) {
+        uncompressedBytes.addAndGet(bytesIn);
+        compressedBytes.addAndGet(bytesOut);
+        compressionNanos.addAndGet(elapsedNanos);
+    }
+
+    @Override
+    public long getCompressedResponseCount() {
+        return compressedResponses.get();
+    }
+
+    /**
+     * Gets the number of responses sent uncompressed because of the size, the content type or because they were
+     * already encoded.
+     *
+     * @return the number of skipped responses
+     */
+    @Override
+    public long getSkippedResponseCount() {
+        return skippedResponses.get();
+    }
+
+    @Override
+    public long getUncompressedBytes() {
+        return uncompressedBytes.get();
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return compressedBytes.get();
+    }
+
+    /**
+     * Gets the size of the compressed content relative to the original content, or 1 if nothing was compressed.
+     *
+     * @return the compression ratio
+     */
+    @Override
+    public double getCompressionRatio() {
+        long in = uncompressedBytes.get();
+        return in == 0 ? 1 : (double) compressedBytes.get() / in;
+    }
+
+    /**
+     * Gets the time the event loops spent on compressing content. This is wall clock time of the compressing thread,
+     * which is close to the CPU time as compression does not block.
+     *
+     * @return the compression time in milliseconds
+     */
+    @Override
+    public long getCompressionTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(compressionNanos.get());
+    }
+}
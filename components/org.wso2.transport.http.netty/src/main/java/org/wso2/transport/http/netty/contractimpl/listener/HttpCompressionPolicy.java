@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.listener;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import org.wso2.transport.http.netty.contract.config.HttpCompressionConfig;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Decides which responses of a listener get compressed and with which encoding. A policy is built once from the
+ * {@link HttpCompressionConfig} of the listener and is shared by all its connections.
+ */
+public class HttpCompressionPolicy {
+
+    private final boolean enabled;
+    private final int compressionLevel;
+    private final long minResponseSize;
+    private final List<String> compressibleContentTypes;
+    private final List<String> excludedContentTypes;
+    private final Map<String, Supplier<ChannelHandler>> contentEncoders;
+    private final HttpCompressionMetrics metrics = new HttpCompressionMetrics();
+
+    public HttpCompressionPolicy(HttpCompressionConfig config) {
+        if (config.getCompressionLevel() < 0 || config.getCompressionLevel() > 9) {
+            throw new IllegalArgumentException(
+                    "compressionLevel: " + config.getCompressionLevel() + " (expected: 0-9)");
+        }
+        if (config.getMinResponseSize() < 0) {
+            throw new IllegalArgumentException(
+                    "minResponseSize: " + config.getMinResponseSize() + " (expected: >= 0)");
+        }
+        this.enabled = config.isEnabled();
+        this.compressionLevel = config.getCompressionLevel();
+        this.minResponseSize = config.getMinResponseSize();
+        this.compressibleContentTypes = normalize(config.getCompressibleContentTypes());
+        this.excludedContentTypes = normalize(config.getExcludedContentTypes());
+        this.contentEncoders = new LinkedHashMap<>();
+        config.getContentEncoders().forEach((encoding, supplier) -> {
+            if (encoding == null || encoding.trim().isEmpty() || supplier == null) {
+                throw new IllegalArgumentException("Content encoder of '" + encoding + "' is not valid");
+            }
+            contentEncoders.put(encoding.trim().toLowerCase(Locale.ENGLISH), supplier);
+        });
+    }
+
+    /**
+     * @return false if responses are only compressed when the application asks for it with a Content-Encoding header
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    HttpCompressionMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Checks the content length and the content type of a response, which does not ask for a content encoding of
+     * its own, against the policy.
+     *
+     * @param response the response headers
+     * @return true if the content of the response is worth compressing
+     */
+    boolean isCompressible(HttpResponse response) {
+        if (!enabled) {
+            return false;
+        }
+        long contentLength = HttpUtil.getContentLength(response, -1L);
+        if (contentLength >= 0 && contentLength < minResponseSize) {
+            return false;
+        }
+        String contentType = response.headers().get(HttpHeaderNames.CONTENT_TYPE);
+        if (contentType == null) {
+            return compressibleContentTypes.isEmpty();
+        }
+        String mimeType = mimeTypeOf(contentType);
+        if (matches(excludedContentTypes, mimeType)) {
+            return false;
+        }
+        return compressibleContentTypes.isEmpty() || matches(compressibleContentTypes, mimeType);
+    }
+
+    /**
+     * Picks one of the configured encoders, if the client prefers it over gzip and deflate. Only encodings the
+     * client names explicitly are considered, as a wildcard says nothing about support for newer codings.
+     *
+     * @param acceptEncoding the Accept-Encoding header of the request
+     * @return the chosen encoding, or null to leave the choice to the gzip and deflate encoders
+     */
+    String selectEncoding(String acceptEncoding) {
+        if (contentEncoders.isEmpty() || acceptEncoding == null) {
+            return null;
+        }
+        float builtInQuality = 0;
+        String selected = null;
+        float selectedQuality = 0;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String encoding = parts[0].trim().toLowerCase(Locale.ENGLISH);
+            float quality = parts.length > 1 ? qualityOf(parts[1]) : 1.0f;
+            if (contentEncoders.containsKey(encoding)) {
+                if (quality > selectedQuality) {
+                    selected = encoding;
+                    selectedQuality = quality;
+                }
+            } else if ("gzip".equals(encoding) || "deflate".equals(encoding) || "*".equals(encoding)) {
+                builtInQuality = Math.max(builtInQuality, quality);
+            }
+        }
+        return selected != null && selectedQuality >= builtInQuality ? selected : null;
+    }
+
+    ChannelHandler newEncoder(String encoding) {
+        return contentEncoders.get(encoding).get();
+    }
+
+    private static float qualityOf(String parameter) {
+        int equalsIndex = parameter.indexOf('=');
+        if (equalsIndex == -1 || !"q".equals(parameter.substring(0, equalsIndex).trim())) {
+            return 1.0f;
+        }
+        try {
+            return Float.parseFloat(parameter.substring(equalsIndex + 1).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String mimeTypeOf(String contentType) {
+        int separator = contentType.indexOf(';');
+        String mimeType = separator == -1 ? contentType : contentType.substring(0, separator);
+        return mimeType.trim().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static boolean matches(List<String> contentTypes, String mimeType) {
+        for (String contentType : contentTypes) {
+            if (contentType.endsWith("/") ? mimeType.startsWith(contentType) : mimeType.equals(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lower cases the configured types and turns wildcard subtypes into prefixes.
+     */
+    private static List<String> normalize(Set<String> contentTypes) {
+        List<String> normalized = new ArrayList<>();
+        if (contentTypes == null) {
+            return normalized;
+        }
+        for (String contentType : contentTypes) {
+            String type = contentType.trim().toLowerCase(Locale.ENGLISH);
+            normalized.add(type.endsWith("/*") ? type.substring(0, type.length() - 1) : type);
+        }
+        return normalized;
+    }
+}
@@ -26,6 +26,7 @@ import io.netty.handler.codec.http.HttpRequestDecoder;
 import io.netty.handler.codec.http.HttpResponseEncoder;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandshaker;
 import io.netty.handler.codec.http2.Http2CodecUtil;
 import io.netty.handler.codec.http2.Http2ServerUpgradeCodec;
 import io.netty.handler.ssl.ApplicationProtocolNames;
@@ -35,7 +36,6 @@ import io.netty.handler.ssl.ReferenceCountedOpenSslContext;
 import io.netty.handler.ssl.ReferenceCountedOpenSslEngine;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslHandler;
-import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.util.AsciiString;
 import io.netty.util.concurrent.EventExecutorGroup;
@@ -44,21 +44,36 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.AccessLogConfig;
+import org.wso2.transport.http.netty.contract.config.AdmissionControlConfig;
 import org.wso2.transport.http.netty.contract.config.ChunkConfig;
+import org.wso2.transport.http.netty.contract.config.HttpCompressionConfig;
+import org.wso2.transport.http.netty.contract.config.InboundBufferConfig;
 import org.wso2.transport.http.netty.contract.config.KeepAliveConfig;
 import org.wso2.transport.http.netty.contract.config.RequestSizeValidationConfig;
+import org.wso2.transport.http.netty.contract.config.TraceLogConfig;
+import org.wso2.transport.http.netty.contract.config.WebSocketCompressionConfig;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode;
 import org.wso2.transport.http.netty.contractimpl.common.BackPressureHandler;
 import org.wso2.transport.http.netty.contractimpl.common.certificatevalidation.CertificateVerificationException;
 import org.wso2.transport.http.netty.contractimpl.common.ssl.SSLConfig;
 import org.wso2.transport.http.netty.contractimpl.common.ssl.SSLHandlerFactory;
+import org.wso2.transport.http.netty.contractimpl.common.tracelog.TraceLogSampler;
+import org.wso2.transport.http.netty.contractimpl.listener.accesslog.AccessLogWriter;
+import org.wso2.transport.http.netty.contractimpl.listener.admission.AdmissionControlHandler;
+import org.wso2.transport.http.netty.contractimpl.listener.admission.AdmissionController;
 import org.wso2.transport.http.netty.contractimpl.listener.http2.Http2SourceConnectionHandlerBuilder;
 import org.wso2.transport.http.netty.contractimpl.listener.http2.Http2ToHttpFallbackHandler;
 import org.wso2.transport.http.netty.contractimpl.listener.http2.Http2WithPriorKnowledgeHandler;
 import org.wso2.transport.http.netty.contractimpl.sender.CertificateValidationHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateServerHandshaker;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatService;
+import org.wso2.transport.http.netty.message.DefaultListener;
 
 import java.io.IOException;
 import java.security.KeyStoreException;
 import java.security.cert.CertificateException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
@@ -79,8 +94,13 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
 
     private long socketIdleTimeout;
     private boolean httpTraceLogEnabled;
+    private TraceLogSampler traceLogSampler = new TraceLogSampler(new TraceLogConfig());
+    private InboundBufferConfig inboundBufferConfig = new InboundBufferConfig();
     private boolean httpAccessLogEnabled;
+    private AccessLogConfig accessLogConfig = new AccessLogConfig();
+    private volatile AccessLogWriter accessLogWriter;
     private ChunkConfig chunkConfig;
+    private int chunkingThreshold = Constants.DEFAULT_CHUNKING_THRESHOLD;
     private KeepAliveConfig keepAliveConfig;
     private String interfaceId;
     private String serverName;
@@ -100,6 +120,14 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
     private boolean pipeliningEnabled;
     private long pipeliningLimit;
     private EventExecutorGroup pipeliningGroup;
+    private volatile UriAndHeaderLengthValidator uriAndHeaderLengthValidator;
+    private AdmissionController admissionController;
+    private WebSocketBufferMode webSocketBufferMode = WebSocketBufferMode.COPY;
+    private WebSocketServerExtensionHandshaker webSocketCompressionHandshaker =
+            new PerMessageDeflateServerHandshaker(new WebSocketCompressionConfig(), null);
+    private WebSocketHeartbeatService webSocketHeartbeatService;
+    private boolean webSocketOverHttp2Enabled;
+    private HttpCompressionPolicy compressionPolicy = new HttpCompressionPolicy(new HttpCompressionConfig());
 
     @Override
     public void initChannel(SocketChannel ch) throws Exception {
@@ -200,35 +228,58 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
                                                           reqSizeValidationConfig.getMaxHeaderSize(),
                                                           reqSizeValidationConfig.getMaxChunkSize()));
 
-            serverPipeline.addLast(Constants.HTTP_COMPRESSOR, new CustomHttpContentCompressor());
-            serverPipeline.addLast(Constants.HTTP_CHUNK_WRITER, new ChunkedWriteHandler());
+            addAdmissionControlHandler(serverPipeline);
+            serverPipeline.addLast(Constants.LAZY_PIPELINE_ASSEMBLER, new LazyPipelineAssembler(
+                    this.serverConnectorFuture, this.interfaceId, this.serverName,
+                    reqSizeValidationConfig.getMaxEntityBodySize(), this.webSocketBufferMode,
+                    this.webSocketCompressionHandshaker, this.webSocketHeartbeatService, this.compressionPolicy));
 
             if (httpTraceLogEnabled) {
-                serverPipeline.addLast(HTTP_TRACE_LOG_HANDLER, new HttpTraceLoggingHandler(TRACE_LOG_DOWNSTREAM));
+                serverPipeline.addLast(HTTP_TRACE_LOG_HANDLER,
+                                       new HttpTraceLoggingHandler(TRACE_LOG_DOWNSTREAM, traceLogSampler));
             }
-            if (httpAccessLogEnabled) {
-                serverPipeline.addLast(HTTP_ACCESS_LOG_HANDLER, new HttpAccessLoggingHandler(ACCESS_LOG));
+            if (isHttpAccessLogEnabled()) {
+                serverPipeline.addLast(HTTP_ACCESS_LOG_HANDLER,
+                                       new HttpAccessLoggingHandler(ACCESS_LOG, accessLogWriter));
             }
+        } else {
+            // Compressor of the fallback pipeline is already in place, hence only the rest is assembled lazily.
+            addAdmissionControlHandler(serverPipeline);
+            serverPipeline.addLast(Constants.LAZY_PIPELINE_ASSEMBLER, new LazyPipelineAssembler(
+                    this.serverConnectorFuture, this.interfaceId, this.serverName,
+                    reqSizeValidationConfig.getMaxEntityBodySize(), this.webSocketBufferMode,
+                    this.webSocketCompressionHandshaker, this.webSocketHeartbeatService, this.compressionPolicy));
         }
-        serverPipeline.addLast("uriLengthValidator", new UriAndHeaderLengthValidator(this.serverName));
-        if (reqSizeValidationConfig.getMaxEntityBodySize() > -1) {
-            serverPipeline.addLast("maxEntityBodyValidator", new MaxEntityBodyValidator(this.serverName,
-                    reqSizeValidationConfig.getMaxEntityBodySize()));
-        }
-
-        serverPipeline.addLast(Constants.WEBSOCKET_SERVER_HANDSHAKE_HANDLER,
-                         new WebSocketServerHandshakeHandler(this.serverConnectorFuture, this.interfaceId));
+        serverPipeline.addLast(Constants.URI_HEADER_LENGTH_VALIDATOR, getUriAndHeaderLengthValidator());
+        // Entity body validator and WebSocket handshake handler are added by the LazyPipelineAssembler when needed
         serverPipeline.addLast(Constants.BACK_PRESSURE_HANDLER, new BackPressureHandler());
-        serverPipeline.addLast(Constants.HTTP_SOURCE_HANDLER,
-                               new SourceHandler(this.serverConnectorFuture, this.interfaceId, this.chunkConfig,
-                                                 keepAliveConfig, this.serverName, this.allChannels,
-                                       this.pipeliningEnabled, this.pipeliningLimit, this.pipeliningGroup));
+        SourceHandler sourceHandler = new SourceHandler(this.serverConnectorFuture, this.interfaceId, this.chunkConfig,
+                                                        keepAliveConfig, this.serverName, this.allChannels,
+                                                        this.pipeliningEnabled, this.pipeliningLimit,
+                                                        this.pipeliningGroup);
+        sourceHandler.setInboundBufferConfig(inboundBufferConfig);
+        sourceHandler.setChunkingThreshold(chunkingThreshold);
+        serverPipeline.addLast(Constants.HTTP_SOURCE_HANDLER, sourceHandler);
         if (socketIdleTimeout >= 0) {
             serverPipeline.addBefore(Constants.HTTP_SOURCE_HANDLER, Constants.IDLE_STATE_HANDLER,
                                      new IdleStateHandler(0, 0, socketIdleTimeout, TimeUnit.MILLISECONDS));
         }
     }
 
+    private void addAdmissionControlHandler(ChannelPipeline serverPipeline) {
+        if (admissionController != null) {
+            serverPipeline.addLast(Constants.ADMISSION_CONTROL_HANDLER,
+                                   new AdmissionControlHandler(admissionController, this.serverName));
+        }
+    }
+
+    private UriAndHeaderLengthValidator getUriAndHeaderLengthValidator() {
+        if (uriAndHeaderLengthValidator == null) {
+            uriAndHeaderLengthValidator = new UriAndHeaderLengthValidator(this.serverName);
+        }
+        return uriAndHeaderLengthValidator;
+    }
+
     /**
      * Configures HTTP/2 clear text pipeline.
      *
@@ -254,13 +305,13 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
             }
         };
         pipeline.addLast(Constants.HTTP_SERVER_CODEC, sourceCodec);
-        pipeline.addLast(Constants.HTTP_COMPRESSOR, new CustomHttpContentCompressor());
+        pipeline.addLast(Constants.HTTP_COMPRESSOR, new CustomHttpContentCompressor(compressionPolicy));
         if (httpTraceLogEnabled) {
             pipeline.addLast(HTTP_TRACE_LOG_HANDLER,
-                             new HttpTraceLoggingHandler(TRACE_LOG_DOWNSTREAM));
+                             new HttpTraceLoggingHandler(TRACE_LOG_DOWNSTREAM, traceLogSampler));
         }
-        if (httpAccessLogEnabled) {
-            pipeline.addLast(HTTP_ACCESS_LOG_HANDLER, new HttpAccessLoggingHandler(ACCESS_LOG));
+        if (isHttpAccessLogEnabled()) {
+            pipeline.addLast(HTTP_ACCESS_LOG_HANDLER, new HttpAccessLoggingHandler(ACCESS_LOG, accessLogWriter));
         }
         pipeline.addLast(Constants.HTTP2_UPGRADE_HANDLER,
                          new HttpServerUpgradeHandler(sourceCodec, upgradeCodecFactory, Integer.MAX_VALUE));
@@ -290,8 +341,58 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
         return httpTraceLogEnabled;
     }
 
+    void setTraceLogConfig(TraceLogConfig traceLogConfig) {
+        if (traceLogConfig != null) {
+            this.traceLogSampler = new TraceLogSampler(traceLogConfig);
+        }
+    }
+
+    public TraceLogSampler getTraceLogSampler() {
+        return traceLogSampler;
+    }
+
+    void setInboundBufferConfig(InboundBufferConfig inboundBufferConfig) {
+        if (inboundBufferConfig != null) {
+            DefaultListener.validate(inboundBufferConfig);
+            this.inboundBufferConfig = inboundBufferConfig;
+        }
+    }
+
     public boolean isHttpAccessLogEnabled() {
-        return httpAccessLogEnabled;
+        return httpAccessLogEnabled && accessLogWriter != null;
+    }
+
+    void setAccessLogConfig(AccessLogConfig accessLogConfig) {
+        if (accessLogConfig != null) {
+            this.accessLogConfig = accessLogConfig;
+        }
+    }
+
+    /**
+     * Starts the access log writer of the listener if access logs are enabled. A new writer is started each time the
+     * listener is started, as a stopped writer cannot be restarted.
+     *
+     * @return the started writer, or null if access logs are disabled
+     */
+    AccessLogWriter startAccessLogWriter() {
+        if (!httpAccessLogEnabled) {
+            return null;
+        }
+        AccessLogWriter writer = new AccessLogWriter(accessLogConfig);
+        writer.start();
+        this.accessLogWriter = writer;
+        return writer;
+    }
+
+    void stopAccessLogWriter() {
+        AccessLogWriter writer = accessLogWriter;
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    public AccessLogWriter getAccessLogWriter() {
+        return accessLogWriter;
     }
 
     void setInterfaceId(String interfaceId) {
@@ -326,6 +427,10 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
         this.chunkConfig = chunkConfig;
     }
 
+    void setChunkingThreshold(int chunkingThreshold) {
+        this.chunkingThreshold = chunkingThreshold;
+    }
+
     void setKeepAliveConfig(KeepAliveConfig keepAliveConfig) {
         this.keepAliveConfig = keepAliveConfig;
     }
@@ -371,6 +476,64 @@ public class HttpServerChannelInitializer extends ChannelInitializer<SocketChann
         this.pipeliningGroup = pipeliningGroup;
     }
 
+    void setAdmissionControlConfig(AdmissionControlConfig admissionControlConfig) {
+        if (admissionControlConfig != null && admissionControlConfig.isEnabled()) {
+            this.admissionController = new AdmissionController(admissionControlConfig);
+        }
+    }
+
+    AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    /**
+     * Sets up the permessage-deflate extension of WebSocket connections. The handshaker is shared by all connections,
+     * so the settings are validated once here.
+     */
+    void setWebSocketCompression(WebSocketCompressionConfig compressionConfig, Executor offloadExecutor) {
+        if (compressionConfig == null) {
+            return;
+        }
+        this.webSocketCompressionHandshaker = compressionConfig.isEnabled() ?
+                new PerMessageDeflateServerHandshaker(compressionConfig, offloadExecutor) : null;
+    }
+
+    void setHttpCompressionConfig(HttpCompressionConfig httpCompressionConfig) {
+        if (httpCompressionConfig != null) {
+            this.compressionPolicy = new HttpCompressionPolicy(httpCompressionConfig);
+        }
+    }
+
+    HttpCompressionPolicy getCompressionPolicy() {
+        return compressionPolicy;
+    }
+
+    void setWebSocketHeartbeatService(WebSocketHeartbeatService webSocketHeartbeatService) {
+        this.webSocketHeartbeatService = webSocketHeartbeatService;
+    }
+
+    public WebSocketHeartbeatService getWebSocketHeartbeatService() {
+        return webSocketHeartbeatService;
+    }
+
+    void setWebSocketBufferMode(WebSocketBufferMode webSocketBufferMode) {
+        if (webSocketBufferMode != null) {
+            this.webSocketBufferMode = webSocketBufferMode;
+        }
+    }
+
+    public WebSocketBufferMode getWebSocketBufferMode() {
+        return webSocketBufferMode;
+    }
+
+    void setWebSocketOverHttp2Enabled(boolean webSocketOverHttp2Enabled) {
+        this.webSocketOverHttp2Enabled = webSocketOverHttp2Enabled;
+    }
+
+    public boolean isWebSocketOverHttp2Enabled() {
+        return webSocketOverHttp2Enabled;
+    }
+
     /**
      * Handler which handles ALPN.
      */
@@ -22,54 +22,67 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufHolder;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
+import org.wso2.transport.http.netty.contract.config.TraceLogConfig;
+import org.wso2.transport.http.netty.contractimpl.common.tracelog.TraceLogSampler;
+import org.wso2.transport.http.netty.contractimpl.common.tracelog.TraceLogWriter;
 
 import java.net.SocketAddress;
-import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
-
-import static io.netty.util.internal.StringUtil.NEWLINE;
 
 /**
- * A custom LoggingHandler for the HTTP wire logs.
+ * A custom LoggingHandler for the HTTP wire logs. Only the connections and exchanges picked by the
+ * {@link TraceLogSampler} are traced, and the messages are rendered and written by the {@link TraceLogWriter}.
  */
 public class HttpTraceLoggingHandler extends LoggingHandler {
 
     private static final LogLevel LOG_LEVEL = LogLevel.TRACE;
+    private static final TraceLogSampler TRACE_ALL = new TraceLogSampler(new TraceLogConfig());
     private static final String EVENT_REGISTERED = "REGISTERED";
     private static final String EVENT_CONNECT = "CONNECT";
     private static final String EVENT_INBOUND = "INBOUND";
     private static final String EVENT_OUTBOUND = "OUTBOUND";
     private static final String ID_0X = "[id: 0x";
 
+    private final TraceLogSampler sampler;
     private String correlatedSourceId;
+    private String socketInfo;
+    private boolean exchangeTraced = true;
 
     public HttpTraceLoggingHandler(LogLevel level) {
         super(level);
         correlatedSourceId = "n/a";
+        sampler = TRACE_ALL;
     }
 
     public HttpTraceLoggingHandler(Class<?> clazz) {
         super(clazz);
         correlatedSourceId = "n/a";
+        sampler = TRACE_ALL;
     }
 
     public HttpTraceLoggingHandler(Class<?> clazz, LogLevel level) {
         super(clazz, level);
         correlatedSourceId = "n/a";
+        sampler = TRACE_ALL;
     }
 
     public HttpTraceLoggingHandler(String name) {
-        super(name, LOG_LEVEL);
-        correlatedSourceId = "n/a";
+        this(name, TRACE_ALL);
     }
 
     public HttpTraceLoggingHandler(String name, LogLevel level) {
         super(name, level);
         correlatedSourceId = "n/a";
+        sampler = TRACE_ALL;
+    }
+
+    public HttpTraceLoggingHandler(String name, TraceLogSampler sampler) {
+        super(name, LOG_LEVEL);
+        correlatedSourceId = "n/a";
+        this.sampler = sampler;
+        exchangeTraced = !sampler.hasRequestFilter();
     }
 
     public void setCorrelatedSourceId(String correlatedSourceId) {
@@ -77,21 +90,146 @@ public class HttpTraceLoggingHandler extends LoggingHandler {
     }
 
     @Override
-    public void channelRead(ChannelHandlerContext ctx, Object msg) {
-        if (logger.isEnabled(internalLevel)) {
-            logger.log(internalLevel, format(ctx, EVENT_INBOUND, msg));
+    public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
+        logEvent(ctx, EVENT_REGISTERED);
+        ctx.fireChannelRegistered();
+    }
+
+    @Override
+    public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
+        logEvent(ctx, "UNREGISTERED");
+        ctx.fireChannelUnregistered();
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        logEvent(ctx, "ACTIVE");
+        ctx.fireChannelActive();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        logEvent(ctx, "INACTIVE");
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        if (isTraced(ctx)) {
+            TraceLogWriter.getInstance().log(logger, internalLevel, format(ctx, "EXCEPTION", cause));
         }
+        ctx.fireExceptionCaught(cause);
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (isTraced(ctx)) {
+            TraceLogWriter.getInstance().log(logger, internalLevel, format(ctx, "USER_EVENT", evt));
+        }
+        ctx.fireUserEventTriggered(evt);
+    }
+
+    @Override
+    public void bind(ChannelHandlerContext ctx, SocketAddress localAddress, ChannelPromise promise) throws Exception {
+        if (isTraced(ctx)) {
+            TraceLogWriter.getInstance().log(logger, internalLevel, format(ctx, "BIND", localAddress));
+        }
+        ctx.bind(localAddress, promise);
+    }
+
+    @Override
+    public void connect(ChannelHandlerContext ctx, SocketAddress remoteAddress, SocketAddress localAddress,
+                        ChannelPromise promise) throws Exception {
+        if (isTraced(ctx)) {
+            TraceLogWriter.getInstance().log(logger, internalLevel,
+                                             format(ctx, EVENT_CONNECT, remoteAddress, localAddress));
+        }
+        ctx.connect(remoteAddress, localAddress, promise);
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        logEvent(ctx, "DISCONNECT");
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        logEvent(ctx, "CLOSE");
+        ctx.close(promise);
+    }
+
+    @Override
+    public void deregister(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        logEvent(ctx, "DEREGISTER");
+        ctx.deregister(promise);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        logEvent(ctx, "READ COMPLETE");
+        ctx.fireChannelReadComplete();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        logEvent(ctx, "WRITABILITY CHANGED");
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        logEvent(ctx, "FLUSH");
+        ctx.flush();
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        logMessage(ctx, EVENT_INBOUND, msg);
         ctx.fireChannelRead(msg);
     }
 
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
-        if (logger.isEnabled(internalLevel)) {
-            logger.log(internalLevel, format(ctx, EVENT_OUTBOUND, msg));
-        }
+        logMessage(ctx, EVENT_OUTBOUND, msg);
         ctx.write(msg, promise);
     }
 
+    private boolean isTraced(ChannelHandlerContext ctx) {
+        return logger.isEnabled(internalLevel) && sampler.isSampled(ctx.channel());
+    }
+
+    private void logEvent(ChannelHandlerContext ctx, String eventName) {
+        if (isTraced(ctx)) {
+            TraceLogWriter.getInstance().log(logger, internalLevel, format(ctx, eventName));
+        }
+    }
+
+    /**
+     * Hands a message over to the trace log writer. A request of a connection with a request filter decides
+     * whether the messages of its exchange are traced, i.e. the messages up to the next request.
+     */
+    private void logMessage(ChannelHandlerContext ctx, String eventName, Object msg) {
+        if (!isTraced(ctx)) {
+            return;
+        }
+        if (msg instanceof HttpRequest && sampler.hasRequestFilter()) {
+            exchangeTraced = sampler.matches((HttpRequest) msg);
+        }
+        if (!exchangeTraced) {
+            return;
+        }
+        if (msg instanceof ByteBuf) {
+            TraceLogWriter.getInstance().log(logger, internalLevel, format(ctx, eventName, ""),
+                                             (ByteBuf) msg, sampler.getMaxPayloadBytes());
+        } else if (msg instanceof ByteBufHolder) {
+            TraceLogWriter.getInstance().log(logger, internalLevel, format(ctx, eventName, msg.toString() + ", "),
+                                             ((ByteBufHolder) msg).content(), sampler.getMaxPayloadBytes());
+        } else {
+            TraceLogWriter.getInstance().log(logger, internalLevel, format(ctx, eventName, String.valueOf(msg)));
+        }
+    }
+
     @Override
     protected String format(ChannelHandlerContext ctx, String eventName, Object arg1, Object arg2) {
         String arg1Str = String.valueOf(arg1);
@@ -104,7 +242,7 @@ public class HttpTraceLoggingHandler extends LoggingHandler {
     @Override
     protected String format(ChannelHandlerContext ctx, String eventName) {
         String channelId = ctx.channel().id().asShortText();
-        String socketInfo = buildSocketInfo(ctx.channel().localAddress(), ctx.channel().remoteAddress());
+        String socketInfo = getSocketInfo(ctx);
 
         StringBuilder stringBuilder = new StringBuilder(
                 7 + channelId.length() + 14 + correlatedSourceId.length() + socketInfo.length() +
@@ -118,23 +256,15 @@ public class HttpTraceLoggingHandler extends LoggingHandler {
         }
     }
 
+    /**
+     * Formats an event with an argument that is already rendered. Payloads are not rendered here, but by the trace
+     * log writer.
+     */
     @Override
     protected String format(ChannelHandlerContext ctx, String eventName, Object msg) {
         String channelId = ctx.channel().id().asShortText();
-        String socketInfo = buildSocketInfo(ctx.channel().localAddress(), ctx.channel().remoteAddress());
-        String msgStr;
-
-        try {
-            if (msg instanceof ByteBuf) {
-                msgStr = formatPayload((ByteBuf) msg);
-            } else if (msg instanceof ByteBufHolder) {
-                msgStr = formatPayload((ByteBufHolder) msg);
-            } else {
-                msgStr = String.valueOf(msg);
-            }
-        } catch (CharacterCodingException e) {
-            msgStr = "<< Payload could not be decoded >>";
-        }
+        String socketInfo = getSocketInfo(ctx);
+        String msgStr = String.valueOf(msg);
 
         StringBuilder stringBuilder = new StringBuilder(
                 7 + channelId.length() + 14 + correlatedSourceId.length() + socketInfo.length() + 2 +
@@ -150,36 +280,18 @@ public class HttpTraceLoggingHandler extends LoggingHandler {
         }
     }
 
-    private static String formatPayload(ByteBuf msg) throws CharacterCodingException {
-        int length = msg.readableBytes();
-        if (length == 0) {
-            return " 0B";
-        } else {
-            int rows = length / 16 + (length % 16 == 0 ? 0 : 1) + 4;
-            StringBuilder stringBuilder = new StringBuilder(10 + 1 + 2 + rows * 80);
-
-            stringBuilder.append(length).append('B').append(NEWLINE);
-            appendPayload(stringBuilder, msg);
-            
-            return stringBuilder.toString();
+    /**
+     * The addresses of a connection do not change once it is connected, hence they are rendered once.
+     */
+    private String getSocketInfo(ChannelHandlerContext ctx) {
+        if (socketInfo != null) {
+            return socketInfo;
         }
-    }
-
-    private static String formatPayload(ByteBufHolder msg) throws CharacterCodingException {
-        String msgStr = msg.toString();
-        ByteBuf content = msg.content();
-        int length = content.readableBytes();
-        if (length == 0) {
-            return msgStr + ", 0B";
-        } else {
-            int rows = length / 16 + (length % 16 == 0 ? 0 : 1) + 4;
-            StringBuilder stringBuilder = new StringBuilder(2 + msgStr.length() + 2 + 10 + 1 + 2 + rows * 80);
-
-            stringBuilder.append(msgStr).append(", ").append(length).append('B').append(NEWLINE);
-            appendPayload(stringBuilder, content);
-
-            return stringBuilder.toString();
+        String info = buildSocketInfo(ctx.channel().localAddress(), ctx.channel().remoteAddress());
+        if (ctx.channel().isActive()) {
+            socketInfo = info;
         }
+        return info;
     }
 
     private static String buildSocketInfo(SocketAddress local, SocketAddress remote) {
@@ -194,10 +306,4 @@ public class HttpTraceLoggingHandler extends LoggingHandler {
 
         return stringBuilder.toString();
     }
-
-    private static void appendPayload(StringBuilder stringBuilder, ByteBuf content) throws CharacterCodingException {
-        CharsetDecoder decoder = Charset.forName("UTF8").newDecoder();
-        CharBuffer buffer = decoder.decode(content.nioBuffer());
-        stringBuilder.append(buffer);
-    }
 }
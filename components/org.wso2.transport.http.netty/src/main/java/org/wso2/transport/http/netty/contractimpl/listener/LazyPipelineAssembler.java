@@ -0,0 +1,189 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.listener;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandshaker;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode;
+import org.wso2.transport.http.netty.contractimpl.common.PrecompressedResponse;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatService;
+
+/**
+ * Assembles the optional parts of the HTTP/1.x server pipeline on demand.
+ * <p>
+ * The content compressor, chunked writer, entity body validator and WebSocket handshake handler are only needed by
+ * some requests, yet keeping them on every connection costs heap for each idle keep-alive connection. This handler
+ * sits in the place of the compressor and installs each of them the first time a request or a response needs it.
+ * Once installed a handler stays in the pipeline for the rest of the connection.
+ */
+public class LazyPipelineAssembler extends ChannelDuplexHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LazyPipelineAssembler.class);
+
+    private final ServerConnectorFuture serverConnectorFuture;
+    private final String interfaceId;
+    private final String serverName;
+    private final long maxEntityBodySize;
+    private final WebSocketBufferMode webSocketBufferMode;
+    private final WebSocketServerExtensionHandshaker webSocketCompressionHandshaker;
+    private final WebSocketHeartbeatService webSocketHeartbeatService;
+    private final HttpCompressionPolicy compressionPolicy;
+
+    private boolean compressorAdded;
+    private boolean chunkWriterAdded;
+    private boolean entityBodyValidatorAdded;
+    private boolean webSocketHandshakeHandlerAdded;
+    private boolean informationalResponse;
+    private int inFlightRequests;
+    private HttpMethod lastRequestMethod;
+
+    LazyPipelineAssembler(ServerConnectorFuture serverConnectorFuture, String interfaceId, String serverName,
+                          long maxEntityBodySize, WebSocketBufferMode webSocketBufferMode,
+                          WebSocketServerExtensionHandshaker webSocketCompressionHandshaker,
+                          WebSocketHeartbeatService webSocketHeartbeatService,
+                          HttpCompressionPolicy compressionPolicy) {
+        this.serverConnectorFuture = serverConnectorFuture;
+        this.interfaceId = interfaceId;
+        this.serverName = serverName;
+        this.maxEntityBodySize = maxEntityBodySize;
+        this.webSocketBufferMode = webSocketBufferMode;
+        this.webSocketCompressionHandshaker = webSocketCompressionHandshaker;
+        this.webSocketHeartbeatService = webSocketHeartbeatService;
+        this.compressionPolicy = compressionPolicy;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        // When the pipeline is configured after an upgrade or fallback, handlers might already be present.
+        ChannelPipeline pipeline = ctx.pipeline();
+        compressorAdded = pipeline.get(Constants.HTTP_COMPRESSOR) != null;
+        chunkWriterAdded = pipeline.get(Constants.HTTP_CHUNK_WRITER) != null;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof HttpRequest) {
+            HttpRequest httpRequest = (HttpRequest) msg;
+            lastRequestMethod = httpRequest.method();
+            if (!compressorAdded && compressionPolicy.isEnabled() && inFlightRequests == 0
+                    && httpRequest.headers().contains(HttpHeaderNames.ACCEPT_ENCODING)) {
+                // Request is added to the compressor only if no other response is pending, as the compressor
+                // matches responses to requests in order.
+                ctx.pipeline().addAfter(ctx.name(), Constants.HTTP_COMPRESSOR,
+                                        new CustomHttpContentCompressor(compressionPolicy));
+                compressorAdded = true;
+            }
+            if (!entityBodyValidatorAdded && maxEntityBodySize > -1 && hasEntityBody(httpRequest)) {
+                ctx.pipeline().addAfter(Constants.URI_HEADER_LENGTH_VALIDATOR, Constants.MAX_ENTITY_BODY_VALIDATOR,
+                                        new MaxEntityBodyValidator(serverName, maxEntityBodySize));
+                entityBodyValidatorAdded = true;
+            }
+            if (!webSocketHandshakeHandlerAdded && WebSocketServerHandshakeHandler.containsUpgradeHeaders(
+                    httpRequest)) {
+                String nextHandler = ctx.pipeline().get(Constants.BACK_PRESSURE_HANDLER) != null ?
+                        Constants.BACK_PRESSURE_HANDLER : Constants.HTTP_SOURCE_HANDLER;
+                ctx.pipeline().addBefore(nextHandler, Constants.WEBSOCKET_SERVER_HANDSHAKE_HANDLER,
+                                         new WebSocketServerHandshakeHandler(serverConnectorFuture, interfaceId,
+                                                                             webSocketBufferMode,
+                                                                             webSocketCompressionHandshaker,
+                                                                             webSocketHeartbeatService));
+                webSocketHandshakeHandlerAdded = true;
+            }
+            inFlightRequests++;
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof HttpResponse) {
+            HttpResponse httpResponse = (HttpResponse) msg;
+            informationalResponse = httpResponse.status().codeClass() == HttpStatusClass.INFORMATIONAL;
+            if (!compressorAdded && !informationalResponse && inFlightRequests <= 1
+                    && !(httpResponse instanceof PrecompressedResponse)
+                    && httpResponse.headers().contains(HttpHeaderNames.CONTENT_ENCODING)) {
+                addCompressorForResponse(ctx);
+            }
+        } else if (msg instanceof ChunkedInput) {
+            writeChunkedInput(ctx, msg, promise);
+            return;
+        }
+        if (msg instanceof LastHttpContent && !informationalResponse && inFlightRequests > 0) {
+            inFlightRequests--;
+        }
+        ctx.write(msg, promise);
+    }
+
+    /**
+     * The response requests a content encoding of its own, but the request was not seen by a compressor. Add the
+     * compressor ahead of this handler and register the pending request with it before the response reaches it.
+     */
+    private void addCompressorForResponse(ChannelHandlerContext ctx) throws Exception {
+        CustomHttpContentCompressor compressor = new CustomHttpContentCompressor(compressionPolicy);
+        ctx.pipeline().addBefore(ctx.name(), Constants.HTTP_COMPRESSOR, compressor);
+        HttpMethod method = lastRequestMethod != null ? lastRequestMethod : HttpMethod.GET;
+        compressor.registerRequest(ctx.pipeline().context(Constants.HTTP_COMPRESSOR),
+                                   new DefaultHttpRequest(HttpVersion.HTTP_1_1, method, "/"));
+        compressorAdded = true;
+    }
+
+    private void writeChunkedInput(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        ChannelPipeline pipeline = ctx.pipeline();
+        ChunkedWriteHandler chunkWriter;
+        if (chunkWriterAdded) {
+            chunkWriter = (ChunkedWriteHandler) pipeline.get(Constants.HTTP_CHUNK_WRITER);
+        } else {
+            // The chunk writer must be closer to the tail than the compressor so that the chunks get compressed.
+            String previousHandler = ctx.name();
+            if (compressorAdded && pipeline.names().indexOf(Constants.HTTP_COMPRESSOR) > pipeline.names()
+                    .indexOf(ctx.name())) {
+                previousHandler = Constants.HTTP_COMPRESSOR;
+            }
+            chunkWriter = new ChunkedWriteHandler();
+            pipeline.addAfter(previousHandler, Constants.HTTP_CHUNK_WRITER, chunkWriter);
+            chunkWriterAdded = true;
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Added chunk writer to the pipeline of channel {}", ctx.channel().id());
+            }
+        }
+        chunkWriter.write(pipeline.context(Constants.HTTP_CHUNK_WRITER), msg, promise);
+    }
+
+    private static boolean hasEntityBody(HttpRequest httpRequest) {
+        return HttpUtil.isContentLengthSet(httpRequest) || HttpUtil.isTransferEncodingChunked(httpRequest);
+    }
+}
@@ -18,25 +18,30 @@
 
 package org.wso2.transport.http.netty.contractimpl.listener;
 
+import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpMessage;
 import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpStatusClass;
 import io.netty.handler.codec.http.HttpUtil;
-import io.netty.handler.codec.http.LastHttpContent;
-import io.netty.util.ReferenceCounted;
+import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contractimpl.common.Util;
 
-import java.util.LinkedList;
-
 /**
  * Responsible for validating request entity body size before sending it to the application.
+ * <p>
+ * A request which declares a Content-Length over the limit is rejected before it reaches the application. Any other
+ * request is passed on right away and its content is counted as it streams through, so that nothing is buffered
+ * here. Once the limit is exceeded the rest of the request is discarded and the connection is closed, with a 413
+ * response unless the application has already started its response.
  */
-public class MaxEntityBodyValidator extends ChannelInboundHandlerAdapter {
+public class MaxEntityBodyValidator extends ChannelDuplexHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(MaxEntityBodyValidator.class);
 
@@ -44,51 +49,59 @@ public class MaxEntityBodyValidator extends ChannelInboundHandlerAdapter {
     private long maxEntityBodySize;
     private long currentSize;
     private HttpRequest inboundRequest;
-    private LinkedList<HttpContent> fullContent;
+    private boolean discarding;
+    private boolean responseStarted;
 
-    MaxEntityBodyValidator(String serverName, long maxEntityBodySize) {
+    public MaxEntityBodyValidator(String serverName, long maxEntityBodySize) {
         this.serverName = serverName;
         this.maxEntityBodySize = maxEntityBodySize;
-        this.fullContent = new LinkedList<>();
     }
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        if (ctx.channel().isActive()) {
-            if (msg instanceof HttpRequest) {
-                inboundRequest = (HttpRequest) msg;
-                if (isContentLengthInvalid(inboundRequest, maxEntityBodySize)) {
-                    sendEntityTooLargeResponse(ctx);
-                }
-                ctx.channel().read();
-            } else {
-                HttpContent inboundContent = (HttpContent) msg;
-                this.currentSize += inboundContent.content().readableBytes();
-                this.fullContent.add(inboundContent);
-                if (this.currentSize > maxEntityBodySize) {
-                    sendEntityTooLargeResponse(ctx);
-                } else {
-                    if (msg instanceof LastHttpContent) {
-                        super.channelRead(ctx, this.inboundRequest);
-                        while (!this.fullContent.isEmpty()) {
-                            super.channelRead(ctx, this.fullContent.pop());
-                        }
-                    } else {
-                        ctx.channel().read();
-                    }
-                }
+        if (!ctx.channel().isActive() || discarding) {
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+        if (msg instanceof HttpRequest) {
+            inboundRequest = (HttpRequest) msg;
+            currentSize = 0;
+            responseStarted = false;
+            if (isContentLengthInvalid(inboundRequest, maxEntityBodySize)) {
+                ReferenceCountUtil.release(msg);
+                rejectEntityBody(ctx);
+                return;
+            }
+        } else if (msg instanceof HttpContent) {
+            currentSize += ((HttpContent) msg).content().readableBytes();
+            if (currentSize > maxEntityBodySize) {
+                ReferenceCountUtil.release(msg);
+                rejectEntityBody(ctx);
+                return;
             }
         }
+        ctx.fireChannelRead(msg);
     }
 
-    private void sendEntityTooLargeResponse(ChannelHandlerContext ctx) {
-        Util.sendAndCloseNoEntityBodyResp(ctx, HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE,
-                inboundRequest.protocolVersion(), this.serverName);
-
-        this.fullContent.forEach(ReferenceCounted::release);
-        this.fullContent.forEach(httpContent -> this.fullContent.remove(httpContent));
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof HttpResponse
+                && ((HttpResponse) msg).status().codeClass() != HttpStatusClass.INFORMATIONAL) {
+            responseStarted = true;
+        }
+        ctx.write(msg, promise);
+    }
 
-        LOG.warn("Inbound request URI length exceeds the max uri length allowed for a request");
+    private void rejectEntityBody(ChannelHandlerContext ctx) {
+        discarding = true;
+        LOG.warn("Inbound request entity body exceeds the max entity body size allowed for a request");
+        if (responseStarted) {
+            // A 413 response can no longer be sent, hence closing the connection is the only way to abort
+            ctx.channel().close();
+        } else {
+            Util.sendAndCloseNoEntityBodyResp(ctx, HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE,
+                                              inboundRequest.protocolVersion(), this.serverName);
+        }
     }
 
     private boolean isContentLengthInvalid(HttpMessage start, long maxContentLength) {
@@ -26,13 +26,17 @@ import java.util.Queue;
 
 /**
  * This Handler is responsible for issuing frame by frame when the WebSocket connection is asked to read next frame
- * when autoRead is set to false.
+ * when autoRead is set to false. It also delivers frames against the demand requested by the application, keeping
+ * autoRead on only while there is outstanding demand so that a fast peer cannot flood a slow listener.
  */
 public class MessageQueueHandler extends ChannelInboundHandlerAdapter {
 
     private final Queue<Object> messageQueue;
     private ChannelHandlerContext ctx;
     private boolean readNext;
+    private boolean draining;
+    private boolean reading;
+    private long demand;
 
     public MessageQueueHandler() {
         this.messageQueue = new LinkedList<>();
@@ -45,12 +49,22 @@ public class MessageQueueHandler extends ChannelInboundHandlerAdapter {
 
     @Override
     public synchronized void channelRead(ChannelHandlerContext ctx, Object msg) {
+        reading = true;
         if (readNext) {
             readNext = false;
             ctx.fireChannelRead(msg);
             return;
         }
         messageQueue.add(msg);
+        if (demand > 0) {
+            drainQueue();
+        }
+    }
+
+    @Override
+    public synchronized void channelReadComplete(ChannelHandlerContext ctx) {
+        reading = false;
+        ctx.fireChannelReadComplete();
     }
 
     public synchronized void readNextFrame() {
@@ -64,4 +78,52 @@ public class MessageQueueHandler extends ChannelInboundHandlerAdapter {
         }
         ctx.fireChannelRead(messageQueue.poll());
     }
+
+    /**
+     * Adds to the number of frames the application is ready to receive. Queued frames are delivered first and the
+     * channel keeps reading from the wire until the demand is met.
+     *
+     * @param count number of additional frames to deliver
+     */
+    public synchronized void requestFrames(long count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Requested frame count must be positive: " + count);
+        }
+        if (ctx == null) {
+            throw new IllegalStateException("Cannot request frames without an initialized ChannelHandlerContext");
+        }
+        if (!ctx.executor().inEventLoop()) {
+            ctx.executor().execute(() -> requestFrames(count));
+            return;
+        }
+        demand = Long.MAX_VALUE - demand < count ? Long.MAX_VALUE : demand + count;
+        drainQueue();
+    }
+
+    /**
+     * Frames requested by a listener while it is notified are delivered by the outer loop, which keeps the stack
+     * flat when the listener requests one frame at a time. Queued frames delivered outside a read of the channel are
+     * followed by a read complete event, as handlers that batch their writes flush on that event.
+     */
+    private void drainQueue() {
+        if (draining) {
+            ctx.channel().config().setAutoRead(true);
+            return;
+        }
+        draining = true;
+        boolean delivered = false;
+        try {
+            while (demand > 0 && !messageQueue.isEmpty()) {
+                demand--;
+                delivered = true;
+                ctx.fireChannelRead(messageQueue.poll());
+            }
+        } finally {
+            draining = false;
+        }
+        ctx.channel().config().setAutoRead(demand > 0);
+        if (delivered && !reading) {
+            ctx.fireChannelReadComplete();
+        }
+    }
 }
@@ -31,18 +31,31 @@ import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.ServerConnector;
 import org.wso2.transport.http.netty.contract.ServerConnectorException;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.AccessLogConfig;
+import org.wso2.transport.http.netty.contract.config.AdmissionControlConfig;
 import org.wso2.transport.http.netty.contract.config.ChunkConfig;
+import org.wso2.transport.http.netty.contract.config.HttpCompressionConfig;
+import org.wso2.transport.http.netty.contract.config.InboundBufferConfig;
 import org.wso2.transport.http.netty.contract.config.KeepAliveConfig;
 import org.wso2.transport.http.netty.contract.config.RequestSizeValidationConfig;
 import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contract.config.TraceLogConfig;
+import org.wso2.transport.http.netty.contract.config.WebSocketCompressionConfig;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode;
 import org.wso2.transport.http.netty.contractimpl.HttpWsServerConnectorFuture;
+import org.wso2.transport.http.netty.contractimpl.common.ChannelOptions;
+import org.wso2.transport.http.netty.contractimpl.common.MBeanRegistrar;
 import org.wso2.transport.http.netty.contractimpl.common.Util;
 import org.wso2.transport.http.netty.contractimpl.common.ssl.SSLConfig;
 import org.wso2.transport.http.netty.contractimpl.common.ssl.SSLHandlerFactory;
+import org.wso2.transport.http.netty.contractimpl.listener.accesslog.AccessLogWriter;
+import org.wso2.transport.http.netty.contractimpl.listener.admission.AdmissionController;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatService;
 import org.wso2.transport.http.netty.internal.HandlerExecutor;
 import org.wso2.transport.http.netty.internal.HttpTransportContextHolder;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
 import javax.net.ssl.SSLContext;
 
 /**
@@ -85,6 +98,27 @@ public class ServerConnectorBootstrap {
         serverBootstrap.childOption(ChannelOption.SO_RCVBUF, serverBootstrapConfiguration.getReceiveBufferSize());
         serverBootstrap.childOption(ChannelOption.SO_SNDBUF, serverBootstrapConfiguration.getSendBufferSize());
 
+        serverBootstrap.option(ChannelOption.ALLOCATOR, serverBootstrapConfiguration.getByteBufAllocator());
+        serverBootstrap.childOption(ChannelOption.ALLOCATOR, serverBootstrapConfiguration.getByteBufAllocator());
+        serverBootstrap.childOption(ChannelOption.RCVBUF_ALLOCATOR,
+                                    serverBootstrapConfiguration.getRecvByteBufAllocator());
+        if (serverBootstrapConfiguration.getWriteBufferWaterMark() != null) {
+            serverBootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                                        serverBootstrapConfiguration.getWriteBufferWaterMark());
+        }
+        if (serverBootstrapConfiguration.getSoLinger() > -1) {
+            serverBootstrap.childOption(ChannelOption.SO_LINGER, serverBootstrapConfiguration.getSoLinger());
+        }
+        if (serverBootstrapConfiguration.getTcpFastOpen() > 0) {
+            serverBootstrap.option(ChannelOptions.TCP_FASTOPEN, serverBootstrapConfiguration.getTcpFastOpen());
+        }
+        if (serverBootstrapConfiguration.isTcpQuickAck()) {
+            serverBootstrap.childOption(ChannelOptions.TCP_QUICKACK, true);
+        }
+        if (serverBootstrapConfiguration.getSoBusyPoll() > 0) {
+            serverBootstrap.childOption(ChannelOptions.SO_BUSY_POLL, serverBootstrapConfiguration.getSoBusyPoll());
+        }
+
         if (LOG.isDebugEnabled()) {
             LOG.debug(String.format("Netty Server Socket BACKLOG %d", serverBootstrapConfiguration.getSoBackLog()));
             LOG.debug(String.format("Netty Server Socket TCP_NODELAY %s", serverBootstrapConfiguration.isTcpNoDelay()));
@@ -94,6 +128,13 @@ public class ServerConnectorBootstrap {
                                     serverBootstrapConfiguration.getReceiveBufferSize()));
             LOG.debug(String.format("Netty Server Socket SO_SNDBUF %d",
                                     serverBootstrapConfiguration.getSendBufferSize()));
+            LOG.debug(String.format("Netty Server Socket ALLOCATOR %s",
+                                    serverBootstrapConfiguration.getByteBufAllocator()));
+            LOG.debug(String.format("Netty Server Socket RCVBUF_ALLOCATOR %s",
+                                    serverBootstrapConfiguration.getRecvByteBufAllocator()));
+            LOG.debug(String.format("Netty Server Socket WRITE_BUFFER_WATER_MARK %s",
+                                    serverBootstrapConfiguration.getWriteBufferWaterMark()));
+            LOG.debug(String.format("Netty Server Socket SO_LINGER %d", serverBootstrapConfiguration.getSoLinger()));
         }
     }
 
@@ -120,10 +161,22 @@ public class ServerConnectorBootstrap {
         httpServerChannelInitializer.setHttpTraceLogEnabled(isHttpTraceLogEnabled);
     }
 
+    public void addTraceLogConfig(TraceLogConfig traceLogConfig) {
+        httpServerChannelInitializer.setTraceLogConfig(traceLogConfig);
+    }
+
+    public void addInboundBufferConfig(InboundBufferConfig inboundBufferConfig) {
+        httpServerChannelInitializer.setInboundBufferConfig(inboundBufferConfig);
+    }
+
     public void addHttpAccessLogHandler(Boolean isHttpAccessLogEnabled) {
         httpServerChannelInitializer.setHttpAccessLogEnabled(isHttpAccessLogEnabled);
     }
 
+    public void addAccessLogConfig(AccessLogConfig accessLogConfig) {
+        httpServerChannelInitializer.setAccessLogConfig(accessLogConfig);
+    }
+
     public void addSslHandlerFactory(SSLHandlerFactory sslHandlerFactory) {
         httpServerChannelInitializer.setSslHandlerFactory(sslHandlerFactory);
     }
@@ -164,6 +217,10 @@ public class ServerConnectorBootstrap {
         httpServerChannelInitializer.setChunkingConfig(chunkConfig);
     }
 
+    public void addChunkingThreshold(int chunkingThreshold) {
+        httpServerChannelInitializer.setChunkingThreshold(chunkingThreshold);
+    }
+
     public void addKeepAliveBehaviour(KeepAliveConfig keepAliveConfig) {
         httpServerChannelInitializer.setKeepAliveConfig(keepAliveConfig);
     }
@@ -184,6 +241,30 @@ public class ServerConnectorBootstrap {
         httpServerChannelInitializer.setPipeliningThreadGroup(pipeliningGroup);
     }
 
+    public void addAdmissionControl(AdmissionControlConfig admissionControlConfig) {
+        httpServerChannelInitializer.setAdmissionControlConfig(admissionControlConfig);
+    }
+
+    public void addHttpCompression(HttpCompressionConfig httpCompressionConfig) {
+        httpServerChannelInitializer.setHttpCompressionConfig(httpCompressionConfig);
+    }
+
+    public void addWebSocketBufferMode(WebSocketBufferMode webSocketBufferMode) {
+        httpServerChannelInitializer.setWebSocketBufferMode(webSocketBufferMode);
+    }
+
+    public void addWebSocketCompression(WebSocketCompressionConfig compressionConfig, Executor offloadExecutor) {
+        httpServerChannelInitializer.setWebSocketCompression(compressionConfig, offloadExecutor);
+    }
+
+    public void addWebSocketHeartbeat(WebSocketHeartbeatService heartbeatService) {
+        httpServerChannelInitializer.setWebSocketHeartbeatService(heartbeatService);
+    }
+
+    public void setWebSocketOverHttp2Enabled(boolean webSocketOverHttp2Enabled) {
+        httpServerChannelInitializer.setWebSocketOverHttp2Enabled(webSocketOverHttp2Enabled);
+    }
+
     class HttpServerConnector implements ServerConnector {
 
        private final Logger log = LoggerFactory.getLogger(HttpServerConnector.class);
@@ -203,6 +284,11 @@ public class ServerConnectorBootstrap {
 
         @Override
         public ServerConnectorFuture start() {
+            AccessLogWriter accessLogWriter = httpServerChannelInitializer.startAccessLogWriter();
+            AdmissionController admissionController = httpServerChannelInitializer.getAdmissionController();
+            if (admissionController != null) {
+                admissionController.start();
+            }
             channelFuture = bindInterface();
             serverConnectorFuture = new HttpWsServerConnectorFuture(channelFuture, allChannels);
             channelFuture.addListener(future -> {
@@ -214,6 +300,17 @@ public class ServerConnectorBootstrap {
                 }
             });
             httpServerChannelInitializer.setServerConnectorFuture(serverConnectorFuture);
+            if (admissionController != null) {
+                MBeanRegistrar.getInstance().registerMBean(admissionController, "AdmissionControl", connectorID);
+            }
+            HttpCompressionPolicy compressionPolicy = httpServerChannelInitializer.getCompressionPolicy();
+            if (compressionPolicy.isEnabled()) {
+                MBeanRegistrar.getInstance().registerMBean(compressionPolicy.getMetrics(), "HttpCompression",
+                                                           connectorID);
+            }
+            if (accessLogWriter != null) {
+                MBeanRegistrar.getInstance().registerMBean(accessLogWriter, "AccessLog", connectorID);
+            }
             return serverConnectorFuture;
         }
 
@@ -223,6 +320,11 @@ public class ServerConnectorBootstrap {
             
             try {
                 connectorStopped = unBindInterface();
+                AdmissionController admissionController = httpServerChannelInitializer.getAdmissionController();
+                if (admissionController != null) {
+                    admissionController.stop();
+                }
+                httpServerChannelInitializer.stopAccessLogWriter();
                 if (connectorStopped) {
                     serverConnectorFuture.notifyPortUnbindingEvent(this.connectorID, isHttps);
                 }
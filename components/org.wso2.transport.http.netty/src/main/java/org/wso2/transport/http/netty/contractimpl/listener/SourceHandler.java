@@ -40,6 +40,7 @@ import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.ServerConnectorException;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
 import org.wso2.transport.http.netty.contract.config.ChunkConfig;
+import org.wso2.transport.http.netty.contract.config.InboundBufferConfig;
 import org.wso2.transport.http.netty.contract.config.KeepAliveConfig;
 import org.wso2.transport.http.netty.contractimpl.common.states.MessageStateContext;
 import org.wso2.transport.http.netty.contractimpl.listener.states.ReceivingHeaders;
@@ -50,7 +51,6 @@ import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 import java.net.SocketAddress;
 import java.util.Map;
 import java.util.PriorityQueue;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static org.wso2.transport.http.netty.contract.Constants.EXPECTED_SEQUENCE_NUMBER;
@@ -67,12 +67,15 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
     private static final Logger LOG = LoggerFactory.getLogger(SourceHandler.class);
 
     private HttpCarbonMessage inboundRequestMsg;
-    private final Map<Integer, HttpCarbonMessage> requestSet = new ConcurrentHashMap<>();
+    // Per connection collections are created on first use to keep idle connections light
+    private Map<Integer, HttpCarbonMessage> requestSet;
     private HandlerExecutor handlerExecutor;
-    private Map<String, GenericObjectPool> targetChannelPool;
+    private volatile Map<String, GenericObjectPool> targetChannelPool;
     private ChunkConfig chunkConfig;
 
     private KeepAliveConfig keepAliveConfig;
+    private InboundBufferConfig inboundBufferConfig = new InboundBufferConfig();
+    private int chunkingThreshold = Constants.DEFAULT_CHUNKING_THRESHOLD;
     private ServerConnectorFuture serverConnectorFuture;
     private String interfaceId;
     private String serverName;
@@ -85,7 +88,6 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
     private boolean pipeliningEnabled; //Based on the pipelining config
     private long pipeliningLimit; //Max number of responses allowed to be queued when pipelining is enabled
     private long sequenceId = 1L; //Keep track of the request order for http 1.1 pipelining
-    private final Queue holdingQueue = new PriorityQueue<>(NUMBER_OF_INITIAL_EVENTS_HELD);
     private EventExecutorGroup pipeliningGroup;
 
     public SourceHandler(ServerConnectorFuture serverConnectorFuture, String interfaceId, ChunkConfig chunkConfig,
@@ -95,7 +97,6 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
         this.interfaceId = interfaceId;
         this.chunkConfig = chunkConfig;
         this.keepAliveConfig = keepAliveConfig;
-        this.targetChannelPool = new ConcurrentHashMap<>();
         this.idleTimeout = false;
         this.serverName = serverName;
         this.allChannels = allChannels;
@@ -110,6 +111,9 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
         if (msg instanceof HttpRequest) {
             setConnectedState(false);
             inboundRequestMsg = createInboundReqCarbonMsg((HttpRequest) msg, ctx, this);
+            if (requestSet == null) {
+                requestSet = new ConcurrentHashMap<>();
+            }
             if (requestSet.size() > this.pipeliningLimit) {
                 LOG.warn("Pipelining request limit exceeded hence closing the channel {}", ctx.channel().id());
                 closeChannel(ctx);
@@ -158,7 +162,7 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void channelInactive(ChannelHandlerContext ctx) {
         if (!idleTimeout) {
-            if (!requestSet.isEmpty()) {
+            if (hasPendingRequests()) {
                 requestSet.forEach((key, inboundMsg) -> inboundMsg.getMessageStateContext().getListenerState()
                         .handleAbruptChannelClosure(serverConnectorFuture));
             } else if (connectedState) {
@@ -172,7 +176,14 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    private boolean hasPendingRequests() {
+        return requestSet != null && !requestSet.isEmpty();
+    }
+
     private void closeTargetChannels() {
+        if (targetChannelPool == null) {
+            return;
+        }
         targetChannelPool.forEach((hostPortKey, genericObjectPool) -> {
             try {
                 targetChannelPool.remove(hostPortKey).close();
@@ -195,7 +206,7 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
         if (evt instanceof IdleStateEvent) {
             this.idleTimeout = true;
 
-            if (!requestSet.isEmpty()) {
+            if (hasPendingRequests()) {
                 requestSet.forEach((key, inboundMsg) -> {
                     ChannelFuture outboundRespFuture = inboundMsg.getMessageStateContext().getListenerState()
                             .handleIdleTimeoutConnectionClosure(serverConnectorFuture, ctx);
@@ -255,14 +266,18 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
     }
 
     /**
-     * Set pipeline related properties. These should be set only once per connection.
+     * Set pipeline related properties. These should be set only once per connection and only when pipelining is
+     * enabled for the listener.
      */
     private void setPipeliningProperties() {
+        if (!pipeliningEnabled) {
+            return;
+        }
         if (ctx.channel().attr(Constants.MAX_RESPONSES_ALLOWED_TO_BE_QUEUED).get() == null) {
             ctx.channel().attr(Constants.MAX_RESPONSES_ALLOWED_TO_BE_QUEUED).set(pipeliningLimit);
         }
         if (ctx.channel().attr(Constants.RESPONSE_QUEUE).get() == null) {
-            ctx.channel().attr(Constants.RESPONSE_QUEUE).set(holdingQueue);
+            ctx.channel().attr(Constants.RESPONSE_QUEUE).set(new PriorityQueue<>(NUMBER_OF_INITIAL_EVENTS_HELD));
         }
         if (ctx.channel().attr(Constants.NEXT_SEQUENCE_NUMBER).get() == null) {
             ctx.channel().attr(Constants.NEXT_SEQUENCE_NUMBER).set(EXPECTED_SEQUENCE_NUMBER);
@@ -289,7 +304,17 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
     }
 
     public Map<String, GenericObjectPool> getTargetChannelPool() {
-        return targetChannelPool;
+        Map<String, GenericObjectPool> pool = targetChannelPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = targetChannelPool;
+                if (pool == null) {
+                    pool = new ConcurrentHashMap<>();
+                    targetChannelPool = pool;
+                }
+            }
+        }
+        return pool;
     }
 
     public ChannelHandlerContext getInboundChannelContext() {
@@ -312,10 +337,26 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
         return chunkConfig;
     }
 
+    public int getChunkingThreshold() {
+        return chunkingThreshold;
+    }
+
+    void setChunkingThreshold(int chunkingThreshold) {
+        this.chunkingThreshold = chunkingThreshold;
+    }
+
     public KeepAliveConfig getKeepAliveConfig() {
         return keepAliveConfig;
     }
 
+    public InboundBufferConfig getInboundBufferConfig() {
+        return inboundBufferConfig;
+    }
+
+    void setInboundBufferConfig(InboundBufferConfig inboundBufferConfig) {
+        this.inboundBufferConfig = inboundBufferConfig;
+    }
+
     public String getServerName() {
         return serverName;
     }
@@ -325,7 +366,9 @@ public class SourceHandler extends ChannelInboundHandlerAdapter {
     }
 
     public void removeRequestEntry(HttpCarbonMessage inboundRequestMsg) {
-        this.requestSet.remove(inboundRequestMsg.hashCode());
+        if (this.requestSet != null) {
+            this.requestSet.remove(inboundRequestMsg.hashCode());
+        }
     }
 
     public void resetInboundRequestMsg() {
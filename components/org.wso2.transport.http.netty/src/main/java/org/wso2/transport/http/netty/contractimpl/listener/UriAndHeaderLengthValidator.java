@@ -18,6 +18,7 @@
 
 package org.wso2.transport.http.netty.contractimpl.listener;
 
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.TooLongFrameException;
@@ -32,6 +33,7 @@ import org.wso2.transport.http.netty.contractimpl.common.Util;
 /**
  * Responsible for validating the request before sending it to the application.
  */
+@ChannelHandler.Sharable
 public class UriAndHeaderLengthValidator extends ChannelInboundHandlerAdapter {
 
     private static final Logger LOG = LoggerFactory.getLogger(UriAndHeaderLengthValidator.class);
@@ -18,12 +18,11 @@
 
 package org.wso2.transport.http.netty.contractimpl.listener;
 
-import io.netty.handler.codec.compression.ZlibCodecFactory;
 import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandler;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandshaker;
 import io.netty.handler.codec.http.websocketx.extensions.compression.DeflateFrameServerExtensionHandshaker;
-import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateServerExtensionHandshaker;
-
-import static io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateServerExtensionHandshaker.MAX_WINDOW_SIZE;
+import org.wso2.transport.http.netty.contract.config.WebSocketCompressionConfig;
+import org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateServerHandshaker;
 
 /**
  * Extends <tt>io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketServerExtensionHandler</tt> to
@@ -32,14 +31,15 @@ import static io.netty.handler.codec.http.websocketx.extensions.compression.PerM
 public class WebSocketServerCompressionHandler extends WebSocketServerExtensionHandler {
 
     public WebSocketServerCompressionHandler() {
-        super(new PerMessageDeflateServerExtensionHandshaker(),
-              new PerMessageDeflateServerExtensionHandshaker(6, ZlibCodecFactory.isSupportingWindowSizeAndMemLevel(),
-                                                             MAX_WINDOW_SIZE, true, false),
-              new PerMessageDeflateServerExtensionHandshaker(6, ZlibCodecFactory.isSupportingWindowSizeAndMemLevel(),
-                                                             MAX_WINDOW_SIZE, false, true),
-              new PerMessageDeflateServerExtensionHandshaker(6, ZlibCodecFactory.isSupportingWindowSizeAndMemLevel(),
-                                                             MAX_WINDOW_SIZE, true, true),
-              new DeflateFrameServerExtensionHandshaker());
+        this(new PerMessageDeflateServerHandshaker(new WebSocketCompressionConfig(), null));
+    }
+
+    /**
+     * @param perMessageDeflateHandshaker handshaker of the permessage-deflate extension, shared by the connections
+     *                                    of a listener.
+     */
+    public WebSocketServerCompressionHandler(WebSocketServerExtensionHandshaker perMessageDeflateHandshaker) {
+        super(perMessageDeflateHandshaker, new DeflateFrameServerExtensionHandshaker());
     }
 
 }
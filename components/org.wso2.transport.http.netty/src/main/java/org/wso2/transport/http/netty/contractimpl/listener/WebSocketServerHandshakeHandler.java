@@ -37,11 +37,14 @@ import io.netty.handler.codec.http.HttpRequestDecoder;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.websocketx.Utf8FrameValidator;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandshaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorException;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatService;
 import org.wso2.transport.http.netty.contractimpl.websocket.message.DefaultWebSocketHandshaker;
 import org.wso2.transport.http.netty.message.DefaultListener;
 import org.wso2.transport.http.netty.message.HttpCarbonRequest;
@@ -61,10 +64,23 @@ public class WebSocketServerHandshakeHandler extends ChannelInboundHandlerAdapte
 
     private final ServerConnectorFuture serverConnectorFuture;
     private final String interfaceId;
+    private final WebSocketBufferMode bufferMode;
+    private final WebSocketServerExtensionHandshaker compressionHandshaker;
+    private final WebSocketHeartbeatService heartbeatService;
 
-    public WebSocketServerHandshakeHandler(ServerConnectorFuture serverConnectorFuture, String interfaceId) {
+    /**
+     * @param compressionHandshaker handshaker of the permessage-deflate extension, or null if compression is disabled.
+     * @param heartbeatService      heartbeat service of the connections, or null if the heartbeat is disabled.
+     */
+    public WebSocketServerHandshakeHandler(ServerConnectorFuture serverConnectorFuture, String interfaceId,
+                                           WebSocketBufferMode bufferMode,
+                                           WebSocketServerExtensionHandshaker compressionHandshaker,
+                                           WebSocketHeartbeatService heartbeatService) {
         this.serverConnectorFuture = serverConnectorFuture;
         this.interfaceId = interfaceId;
+        this.bufferMode = bufferMode;
+        this.compressionHandshaker = compressionHandshaker;
+        this.heartbeatService = heartbeatService;
     }
 
     @Override
@@ -87,9 +103,13 @@ public class WebSocketServerHandshakeHandler extends ChannelInboundHandlerAdapte
                     ChannelHandlerContext decoderCtx = pipeline.context(HttpRequestDecoder.class);
                     pipeline.addAfter(decoderCtx.name(), HTTP_OBJECT_AGGREGATOR,
                                       new HttpObjectAggregator(Constants.WEBSOCKET_REQUEST_SIZE));
-                    pipeline.addAfter(HTTP_OBJECT_AGGREGATOR, WEBSOCKET_COMPRESSION_HANDLER,
-                                      new WebSocketServerCompressionHandler());
-                    pipeline.addAfter(WEBSOCKET_COMPRESSION_HANDLER, Utf8FrameValidator.class.getName(),
+                    String validatorPredecessor = HTTP_OBJECT_AGGREGATOR;
+                    if (compressionHandshaker != null) {
+                        pipeline.addAfter(HTTP_OBJECT_AGGREGATOR, WEBSOCKET_COMPRESSION_HANDLER,
+                                          new WebSocketServerCompressionHandler(compressionHandshaker));
+                        validatorPredecessor = WEBSOCKET_COMPRESSION_HANDLER;
+                    }
+                    pipeline.addAfter(validatorPredecessor, Utf8FrameValidator.class.getName(),
                                       new Utf8FrameValidator());
                     pipeline.addAfter(Utf8FrameValidator.class.getName(), "handshake",
                                       new SimpleChannelInboundHandler<FullHttpRequest>() {
@@ -140,7 +160,7 @@ public class WebSocketServerHandshakeHandler extends ChannelInboundHandlerAdapte
      * @param httpRequest {@link HttpRequest} which is checked for WebSocket upgrade.
      * @return true if basic headers needed for WebSocket upgrade are contained in the request.
      */
-    private boolean containsUpgradeHeaders(HttpRequest httpRequest) {
+    static boolean containsUpgradeHeaders(HttpRequest httpRequest) {
         HttpHeaders headers = httpRequest.headers();
         return headers.containsValue(HttpHeaderNames.CONNECTION, HttpHeaderValues.UPGRADE, true) && headers
                 .containsValue(HttpHeaderNames.UPGRADE, HttpHeaderValues.WEBSOCKET, true);
@@ -156,7 +176,7 @@ public class WebSocketServerHandshakeHandler extends ChannelInboundHandlerAdapte
         String extensionsHeader = fullHttpRequest.headers().getAsString(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS);
         DefaultWebSocketHandshaker webSocketHandshaker =
                 new DefaultWebSocketHandshaker(ctx, serverConnectorFuture, fullHttpRequest, fullHttpRequest.uri(),
-                                               extensionsHeader != null);
+                                               extensionsHeader != null, bufferMode, heartbeatService);
 
         // Setting common properties to handshaker
         webSocketHandshaker.setHttpCarbonRequest(setupHttpCarbonRequest(fullHttpRequest, ctx));
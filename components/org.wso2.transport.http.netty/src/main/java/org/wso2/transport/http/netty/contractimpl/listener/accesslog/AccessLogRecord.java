@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.listener.accesslog;
+
+/**
+ * A slot of the access log buffer. Slots are allocated once and refilled for each request, so that logging does
+ * not allocate on the event loop.
+ * <p>
+ * The sequence tells who owns the slot: the producer that claims position {@code p} may fill the slot while the
+ * sequence is {@code p}, and the writer may read it once the sequence is {@code p + 1}.
+ */
+final class AccessLogRecord {
+
+    volatile long sequence;
+
+    String remoteAddress;
+    long timestamp;
+    String method;
+    String uri;
+    String protocol;
+    int status;
+    long contentLength;
+    String referrer;
+    String userAgent;
+
+    AccessLogRecord(long sequence) {
+        this.sequence = sequence;
+    }
+
+    void clear() {
+        remoteAddress = null;
+        method = null;
+        uri = null;
+        protocol = null;
+        referrer = null;
+        userAgent = null;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.listener.accesslog;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import io.netty.util.internal.MathUtil;
+import io.netty.util.internal.logging.InternalLogLevel;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.config.AccessLogConfig;
+import org.wso2.transport.http.netty.contract.config.AccessLogOverflowPolicy;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the access log of a listener on a background thread. Event loops hand the fields of each request over
+ * through a bounded lock-free buffer of pre-allocated records, and the writer thread formats them and passes them to
+ * the logging framework. One writer is shared by all the connections of a listener.
+ */
+public class AccessLogWriter implements AccessLogWriterMBean {
+
+    private static final InternalLogger ACCESS_LOGGER = InternalLoggerFactory.getInstance(Constants.ACCESS_LOG);
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private final AccessLogRecord[] records;
+    private final int mask;
+    private final AccessLogOverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder droppedRecords = new LongAdder();
+    private final DateTimeFormatter timestampFormatter;
+    private final Thread writerThread;
+
+    // Only the writer thread updates these
+    private volatile long head;
+    private final StringBuilder line = new StringBuilder(256);
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedTimestamp;
+
+    private volatile boolean stopped;
+    // Set by the writer thread while it waits for records, so that only then the event loops have to wake it up
+    private volatile boolean sleeping;
+
+    public AccessLogWriter(AccessLogConfig config) {
+        validate(config);
+        int capacity = MathUtil.safeFindNextPositivePowerOfTwo(config.getBufferSize());
+        this.records = new AccessLogRecord[capacity];
+        for (int i = 0; i < capacity; i++) {
+            records[i] = new AccessLogRecord(i);
+        }
+        this.mask = capacity - 1;
+        this.overflowPolicy = config.getOverflowPolicy();
+        this.sampleRate = config.getSampleRate();
+        this.timestampFormatter = DateTimeFormatter.ofPattern(Constants.ACCESS_LOG_TIMESTAMP_PATTERN)
+                .withZone(ZoneId.systemDefault());
+        this.writerThread = new DefaultThreadFactory(Constants.ACCESS_LOG_WRITER_THREAD_NAME, true)
+                .newThread(this::run);
+    }
+
+    private static void validate(AccessLogConfig config) {
+        if (config.getBufferSize() <= 0) {
+            throw new IllegalArgumentException("Access log buffer size must be positive : " + config.getBufferSize());
+        }
+        if (config.getOverflowPolicy() == null) {
+            throw new IllegalArgumentException("Access log overflow policy must not be null");
+        }
+        if (config.getSampleRate() <= 0) {
+            throw new IllegalArgumentException("Access log sample rate must be positive : " + config.getSampleRate());
+        }
+    }
+
+    public void start() {
+        writerThread.start();
+    }
+
+    /**
+     * Stops the writer once the records buffered so far are written.
+     */
+    public void stop() {
+        stopped = true;
+        LockSupport.unpark(writerThread);
+    }
+
+    public boolean isEnabled() {
+        return ACCESS_LOGGER.isEnabled(InternalLogLevel.INFO);
+    }
+
+    /**
+     * Buffers an access log record. Depending on the overflow policy the record is dropped, or the caller waits, if
+     * the buffer is full. Event loops never wait, so their records are dropped even with the blocking policy.
+     *
+     * @param remoteAddress the address of the client
+     * @param timestamp     the time the request arrived, in milliseconds since the epoch
+     * @param method        the request method
+     * @param uri           the request URI
+     * @param protocol      the protocol version of the request
+     * @param status        the response status code
+     * @param contentLength the number of bytes in the response body
+     * @param referrer      the referer header of the request, or "-"
+     * @param userAgent     the user agent header of the request, or "-"
+     */
+    public void log(String remoteAddress, long timestamp, String method, String uri, String protocol, int status,
+                    long contentLength, String referrer, String userAgent) {
+        if (overflowPolicy == AccessLogOverflowPolicy.SAMPLE && tail.get() - head > mask >> 1
+                && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            droppedRecords.increment();
+            return;
+        }
+        long position = claim();
+        if (position < 0) {
+            droppedRecords.increment();
+            return;
+        }
+        AccessLogRecord record = records[(int) position & mask];
+        record.remoteAddress = remoteAddress;
+        record.timestamp = timestamp;
+        record.method = method;
+        record.uri = uri;
+        record.protocol = protocol;
+        record.status = status;
+        record.contentLength = contentLength;
+        record.referrer = referrer;
+        record.userAgent = userAgent;
+        record.sequence = position + 1;
+        if (sleeping) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Claims the next position of the buffer.
+     *
+     * @return the claimed position, or -1 if the buffer is full and the record is to be dropped
+     */
+    private long claim() {
+        long position = tail.get();
+        while (true) {
+            long difference = records[(int) position & mask].sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (difference < 0) {
+                // The slot still holds a record of the previous lap, i.e. the buffer is full
+                if (overflowPolicy != AccessLogOverflowPolicy.BLOCK || stopped || isEventLoopThread()) {
+                    return -1;
+                }
+                LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+            }
+            position = tail.get();
+        }
+    }
+
+    /**
+     * Checks whether the caller runs on an event loop. The event loops of the transport run on the threads of the
+     * Netty thread factory, which parking would stall along with all the connections they serve.
+     */
+    private static boolean isEventLoopThread() {
+        return Thread.currentThread() instanceof FastThreadLocalThread;
+    }
+
+    private void run() {
+        long position = 0;
+        while (true) {
+            AccessLogRecord record = records[(int) position & mask];
+            if (record.sequence == position + 1) {
+                write(record);
+                record.clear();
+                record.sequence = position + records.length;
+                head = ++position;
+            } else if (stopped) {
+                return;
+            } else {
+                awaitRecord(record, position);
+            }
+        }
+    }
+
+    /**
+     * Parks the writer thread until the record at the given position is written or the writer is stopped. Both are
+     * checked again after announcing the wait, as a change made before that would not wake the thread up.
+     */
+    private void awaitRecord(AccessLogRecord record, long position) {
+        sleeping = true;
+        if (record.sequence != position + 1 && !stopped) {
+            LockSupport.park(this);
+        }
+        sleeping = false;
+    }
+
+    private void write(AccessLogRecord record) {
+        line.setLength(0);
+        line.append(record.remoteAddress).append(" - - [").append(timestampOf(record.timestamp)).append("] \"")
+                .append(record.method).append(' ').append(record.uri).append(' ').append(record.protocol)
+                .append("\" ").append(record.status).append(' ').append(record.contentLength)
+                .append(" \"").append(record.referrer).append("\" \"").append(record.userAgent).append('"');
+        try {
+            ACCESS_LOGGER.log(InternalLogLevel.INFO, line.toString());
+        } catch (RuntimeException e) {
+            // A failing appender must not stop the writer, as the event loops would then fill up the buffer.
+            droppedRecords.increment();
+        }
+    }
+
+    /**
+     * Formats the timestamp once per second, as all the records of a second share the same text.
+     */
+    private String timestampOf(long timestamp) {
+        long second = Math.floorDiv(timestamp, 1000);
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTimestamp = timestampFormatter.format(Instant.ofEpochMilli(timestamp));
+        }
+        return cachedTimestamp;
+    }
+
+    /**
+     * Gets the number of records written to the logging framework. Written records are the ones that left the buffer.
+     *
+     * @return the number of written records
+     */
+    @Override
+    public long getWrittenRecordCount() {
+        return head;
+    }
+
+    /**
+     * Gets the number of records lost because the buffer was full, because of sampling or because of errors in the
+     * logging framework.
+     *
+     * @return the number of dropped records
+     */
+    @Override
+    public long getDroppedRecordCount() {
+        return droppedRecords.sum();
+    }
+
+    @Override
+    public long getPendingRecordCount() {
+        return Math.max(0, tail.get() - head);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.listener.admission;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rejects inbound requests that the {@link AdmissionController} of the listener does not admit. The handler sits
+ * right after the HTTP decoder, so a rejected request is answered before any message is created for it. The rest of
+ * its body is discarded and the connection is kept alive if the client asked for it.
+ */
+public class AdmissionControlHandler extends ChannelDuplexHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdmissionControlHandler.class);
+
+    private final AdmissionController admissionController;
+    private final String serverName;
+    private int admittedRequests;
+    private boolean discardingContent;
+    private boolean informationalResponse;
+
+    public AdmissionControlHandler(AdmissionController admissionController, String serverName) {
+        this.admissionController = admissionController;
+        this.serverName = serverName;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof HttpRequest) {
+            HttpRequest httpRequest = (HttpRequest) msg;
+            if (admittedRequests > 0) {
+                // A pipelined request cannot be answered ahead of the pending responses
+                admissionController.admit();
+            } else if (!admissionController.tryAdmit(ctx.channel().eventLoop())) {
+                reject(ctx, httpRequest);
+                return;
+            }
+            admittedRequests++;
+        } else if (discardingContent) {
+            discardingContent = !(msg instanceof LastHttpContent);
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    private void reject(ChannelHandlerContext ctx, HttpRequest httpRequest) {
+        boolean keepAlive = HttpUtil.isKeepAlive(httpRequest);
+        discardingContent = !(httpRequest instanceof LastHttpContent);
+        ReferenceCountUtil.release(httpRequest);
+
+        FullHttpResponse response = new DefaultFullHttpResponse(httpRequest.protocolVersion(),
+                                                                admissionController.getRejectionStatus());
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, 0);
+        response.headers().set(HttpHeaderNames.SERVER, serverName);
+        if (admissionController.getRetryAfter() > -1) {
+            response.headers().set(HttpHeaderNames.RETRY_AFTER, admissionController.getRetryAfter());
+        }
+        if (!keepAlive) {
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+        }
+        ChannelFuture future = ctx.writeAndFlush(response);
+        if (!keepAlive) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Request rejected by admission control on channel {}", ctx.channel().id());
+        }
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        if (msg instanceof HttpResponse) {
+            HttpResponseStatus status = ((HttpResponse) msg).status();
+            informationalResponse = status.codeClass() == HttpStatusClass.INFORMATIONAL;
+            if (status.code() == HttpResponseStatus.SWITCHING_PROTOCOLS.code()) {
+                // The request is complete once the connection is upgraded
+                releaseRequest();
+            }
+        }
+        if (msg instanceof LastHttpContent && !informationalResponse) {
+            releaseRequest();
+        }
+        ctx.write(msg, promise);
+    }
+
+    private void releaseRequest() {
+        if (admittedRequests > 0) {
+            admittedRequests--;
+            admissionController.release();
+        }
+    }
+
+    private void releaseAllRequests() {
+        while (admittedRequests > 0) {
+            releaseRequest();
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        releaseAllRequests();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        releaseAllRequests();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.listener.admission;
+
+import io.netty.channel.EventLoop;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import org.wso2.transport.http.netty.contract.config.AdmissionControlConfig;
+import org.wso2.transport.http.netty.contract.config.AdmissionControlMode;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether a listener can take up another request, based on the number of requests in flight and on how far
+ * behind the event loop that read the request is. One controller is shared by all the connections of a listener.
+ */
+public class AdmissionController implements AdmissionControllerMBean {
+
+    private static final long DEFAULT_PROBE_PERIOD = 10;
+
+    private final AdmissionControlConfig config;
+    private final HttpResponseStatus rejectionStatus;
+    private final boolean adaptive;
+    private final boolean latencyMonitored;
+    private final long maxLatencyNanos;
+    private final long targetLatencyNanos;
+    private final long intervalNanos;
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final LongAdder admittedRequests = new LongAdder();
+    private final LongAdder rejectedRequests = new LongAdder();
+    private final Map<EventLoop, EventLoopLagMonitor> monitors = new ConcurrentHashMap<>();
+    private volatile boolean stopped;
+
+    public AdmissionController(AdmissionControlConfig config) {
+        validate(config);
+        this.config = config;
+        this.rejectionStatus = HttpResponseStatus.valueOf(config.getRejectionStatusCode());
+        this.adaptive = config.getMode() == AdmissionControlMode.ADAPTIVE;
+        this.latencyMonitored = adaptive || config.getMaxEventLoopLatency() > -1;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxEventLoopLatency());
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(config.getTargetLatency());
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getInterval());
+    }
+
+    private static void validate(AdmissionControlConfig config) {
+        int statusCode = config.getRejectionStatusCode();
+        if (statusCode != HttpResponseStatus.SERVICE_UNAVAILABLE.code()
+                && statusCode != HttpResponseStatus.TOO_MANY_REQUESTS.code()) {
+            throw new IllegalArgumentException("Admission control rejection status code must be 503 or 429 : "
+                                                       + statusCode);
+        }
+        if (config.getMode() == AdmissionControlMode.ADAPTIVE
+                && (config.getTargetLatency() <= 0 || config.getInterval() <= config.getTargetLatency())) {
+            throw new IllegalArgumentException("Admission control target latency must be positive and less than the "
+                                                       + "interval");
+        }
+    }
+
+    /**
+     * Tries to admit a request read by the given event loop. The caller must call {@link #release()} once the
+     * admitted request is completed.
+     *
+     * @param eventLoop the event loop of the connection that read the request
+     * @return true if the request is admitted
+     */
+    public boolean tryAdmit(EventLoop eventLoop) {
+        if (isEventLoopOverloaded(eventLoop)) {
+            rejectedRequests.increment();
+            return false;
+        }
+        int maxInFlightRequests = config.getMaxInFlightRequests();
+        if (inFlightRequests.incrementAndGet() > maxInFlightRequests && maxInFlightRequests > -1) {
+            inFlightRequests.decrementAndGet();
+            rejectedRequests.increment();
+            return false;
+        }
+        admittedRequests.increment();
+        return true;
+    }
+
+    /**
+     * Admits a request regardless of the load, e.g. a pipelined request that cannot be rejected out of order.
+     */
+    public void admit() {
+        inFlightRequests.incrementAndGet();
+        admittedRequests.increment();
+    }
+
+    public void release() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    private boolean isEventLoopOverloaded(EventLoop eventLoop) {
+        int maxPendingTasks = config.getMaxPendingTasks();
+        if (maxPendingTasks > -1 && eventLoop instanceof SingleThreadEventExecutor
+                && ((SingleThreadEventExecutor) eventLoop).pendingTasks() > maxPendingTasks) {
+            return true;
+        }
+        if (!latencyMonitored) {
+            return false;
+        }
+        EventLoopLagMonitor monitor = monitors.computeIfAbsent(eventLoop, this::startMonitor);
+        long latency = monitor.getLatencyNanos();
+        if (adaptive) {
+            // Requests are rejected once they have waited too long in the loop; the allowed wait is cut down to the
+            // target latency while the loop stays overloaded.
+            return latency > (monitor.isOverloaded() ? targetLatencyNanos : intervalNanos);
+        }
+        return latency > maxLatencyNanos;
+    }
+
+    private EventLoopLagMonitor startMonitor(EventLoop eventLoop) {
+        long probePeriod = adaptive ? config.getTargetLatency() : Math.min(DEFAULT_PROBE_PERIOD,
+                                                                             config.getMaxEventLoopLatency());
+        EventLoopLagMonitor monitor = new EventLoopLagMonitor(eventLoop, probePeriod, config.getTargetLatency(),
+                                                              config.getInterval());
+        if (!stopped) {
+            monitor.start();
+        }
+        return monitor;
+    }
+
+    /**
+     * Lets the event loops be monitored again, e.g. when the listener is restarted after {@link #stop()}. The monitors
+     * are started as requests arrive on each loop.
+     */
+    public void start() {
+        // Monitors created by requests that raced with stop() were never started, so they are dropped as well
+        monitors.clear();
+        stopped = false;
+    }
+
+    /**
+     * Stops monitoring the event loops.
+     */
+    public void stop() {
+        stopped = true;
+        monitors.values().forEach(EventLoopLagMonitor::stop);
+        monitors.clear();
+    }
+
+    HttpResponseStatus getRejectionStatus() {
+        return rejectionStatus;
+    }
+
+    int getRetryAfter() {
+        return config.getRetryAfter();
+    }
+
+    @Override
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    @Override
+    public long getAdmittedRequestCount() {
+        return admittedRequests.sum();
+    }
+
+    @Override
+    public long getRejectedRequestCount() {
+        return rejectedRequests.sum();
+    }
+
+    @Override
+    public long getMaxEventLoopLatencyMillis() {
+        long maxLatency = 0;
+        for (EventLoopLagMonitor monitor : monitors.values()) {
+            maxLatency = Math.max(maxLatency, monitor.getLatencyNanos());
+        }
+        return TimeUnit.NANOSECONDS.toMillis(maxLatency);
+    }
+
+    @Override
+    public boolean isOverloaded() {
+        for (EventLoopLagMonitor monitor : monitors.values()) {
+            if (monitor.isOverloaded()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.listener.admission;
+
+import io.netty.channel.EventLoop;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how late the tasks of an event loop run by periodically scheduling a probe on it. All the state other
+ * than the latest latency sample is only accessed from the event loop itself.
+ */
+class EventLoopLagMonitor implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventLoopLagMonitor.class);
+
+    private final EventLoop eventLoop;
+    private final long probePeriodNanos;
+    private final long targetLatencyNanos;
+    private final long intervalNanos;
+
+    private volatile long latencyNanos;
+    private volatile boolean overloaded;
+    private volatile boolean stopped;
+    private long expectedRunTime;
+    private long minLatencyInInterval = Long.MAX_VALUE;
+    private long intervalEnd;
+
+    EventLoopLagMonitor(EventLoop eventLoop, long probePeriodMillis, long targetLatencyMillis, long intervalMillis) {
+        this.eventLoop = eventLoop;
+        this.probePeriodNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, probePeriodMillis));
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    }
+
+    void start() {
+        intervalEnd = System.nanoTime() + intervalNanos;
+        scheduleProbe();
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        long latency = Math.max(0, now - expectedRunTime);
+        latencyNanos = latency;
+        minLatencyInInterval = Math.min(minLatencyInInterval, latency);
+        if (now >= intervalEnd) {
+            // CoDel: the loop is overloaded when even the best latency of a whole interval is above the target
+            overloaded = minLatencyInInterval > targetLatencyNanos;
+            minLatencyInInterval = Long.MAX_VALUE;
+            intervalEnd = now + intervalNanos;
+        }
+        scheduleProbe();
+    }
+
+    private void scheduleProbe() {
+        if (stopped || eventLoop.isShuttingDown()) {
+            return;
+        }
+        expectedRunTime = System.nanoTime() + probePeriodNanos;
+        try {
+            eventLoop.schedule(this, probePeriodNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Event loop is shutting down, hence stopped monitoring its latency");
+        }
+    }
+
+    long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    boolean isOverloaded() {
+        return overloaded;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.listener.http2;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersDecoder;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2Headers.PseudoHeaderName;
+import io.netty.util.AsciiString;
+import org.wso2.transport.http.netty.contract.Constants;
+
+import static io.netty.handler.codec.http2.Http2Error.PROTOCOL_ERROR;
+import static io.netty.handler.codec.http2.Http2Exception.connectionError;
+import static io.netty.handler.codec.http2.Http2Exception.streamError;
+
+/**
+ * Decodes the header blocks of a listener which accepts WebSockets over HTTP/2.
+ * <p>
+ * The HPACK decoder rejects the :protocol pseudo-header of extended CONNECT requests (RFC 8441). Hence the HPACK
+ * decoder does not validate the headers and the headers validate themselves while they are decoded. The validation
+ * is the same as that of the HPACK decoder, except that :protocol is accepted on CONNECT requests.
+ */
+class ExtendedConnectHeadersDecoder extends DefaultHttp2HeadersDecoder {
+
+    private int decodingStreamId;
+
+    ExtendedConnectHeadersDecoder(long maxHeaderListSize) {
+        super(false, maxHeaderListSize);
+    }
+
+    @Override
+    protected Http2Headers newHeaders() {
+        return new ValidatingHeaders(decodingStreamId);
+    }
+
+    @Override
+    public Http2Headers decodeHeaders(int streamId, ByteBuf headerBlock) throws Http2Exception {
+        decodingStreamId = streamId;
+        ValidatingHeaders headers = (ValidatingHeaders) super.decodeHeaders(streamId, headerBlock);
+        headers.completeValidation();
+        return headers;
+    }
+
+    /**
+     * Validates the headers in the order they are decoded. A violation is only raised once the whole block is
+     * decoded, so that the HPACK state stays in sync with the peer.
+     */
+    private static final class ValidatingHeaders extends DefaultHttp2Headers {
+
+        private final int streamId;
+        private boolean decoded;
+        private boolean regularHeaderFound;
+        private boolean requestPseudoHeaderFound;
+        private boolean responsePseudoHeaderFound;
+        private Http2Exception validationException;
+
+        ValidatingHeaders(int streamId) {
+            super(false);
+            this.streamId = streamId;
+        }
+
+        @Override
+        public Http2Headers add(CharSequence name, CharSequence value) {
+            if (!decoded && validationException == null) {
+                validationException = validate(name);
+            }
+            return super.add(name, value);
+        }
+
+        private Http2Exception validate(CharSequence name) {
+            if (name == null || name.length() == 0) {
+                return connectionError(PROTOCOL_ERROR, "empty headers are not allowed [%s]", name);
+            }
+            if (!PseudoHeaderName.hasPseudoHeaderFormat(name)) {
+                for (int i = 0; i < name.length(); i++) {
+                    if (AsciiString.isUpperCase(name.charAt(i))) {
+                        return connectionError(PROTOCOL_ERROR, "invalid header name [%s]", name);
+                    }
+                }
+                regularHeaderFound = true;
+                return null;
+            }
+            if (regularHeaderFound) {
+                return streamError(streamId, PROTOCOL_ERROR, "Pseudo-header field '%s' found after regular header.",
+                                   name);
+            }
+            boolean requestPseudoHeader;
+            if (AsciiString.contentEquals(Constants.HTTP2_PROTOCOL, name)) {
+                requestPseudoHeader = true;
+            } else {
+                PseudoHeaderName pseudoHeader = PseudoHeaderName.getPseudoHeader(name);
+                if (pseudoHeader == null) {
+                    return streamError(streamId, PROTOCOL_ERROR, "Invalid HTTP/2 pseudo-header '%s' encountered.",
+                                       name);
+                }
+                requestPseudoHeader = pseudoHeader != PseudoHeaderName.STATUS;
+            }
+            if (requestPseudoHeader ? responsePseudoHeaderFound : requestPseudoHeaderFound) {
+                return streamError(streamId, PROTOCOL_ERROR, "Mix of request and response pseudo-headers.");
+            }
+            if (requestPseudoHeader) {
+                requestPseudoHeaderFound = true;
+            } else {
+                responsePseudoHeaderFound = true;
+            }
+            return null;
+        }
+
+        void completeValidation() throws Http2Exception {
+            decoded = true;
+            if (validationException != null) {
+                throw validationException;
+            }
+            CharSequence method = method();
+            if (contains(Constants.HTTP2_PROTOCOL)
+                    && (method == null || !HttpMethod.CONNECT.asciiName().contentEquals(method))) {
+                throw streamError(streamId, PROTOCOL_ERROR, "The :protocol pseudo-header is only allowed on CONNECT "
+                        + "requests.");
+            }
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contractimpl.common.Http2StreamWritabilityTracker;
 import org.wso2.transport.http.netty.contractimpl.listener.HttpServerChannelInitializer;
 import org.wso2.transport.http.netty.internal.HttpTransportContextHolder;
 import org.wso2.transport.http.netty.message.Http2DataFrame;
@@ -54,6 +55,7 @@ public class Http2SourceConnectionHandler extends Http2ConnectionHandler {
     private ServerConnectorFuture serverConnectorFuture;
     private String serverName;
     private HttpServerChannelInitializer serverChannelInitializer;
+    private Http2SourceHandler http2SourceHandler;
 
     Http2SourceConnectionHandler(HttpServerChannelInitializer serverChannelInitializer,
                                  Http2ConnectionDecoder decoder, Http2ConnectionEncoder encoder,
@@ -76,8 +78,9 @@ public class Http2SourceConnectionHandler extends Http2ConnectionHandler {
         // Remove unwanted handlers after upgrade
         safelyRemoveHandlers(ctx.pipeline(), Constants.HTTP2_TO_HTTP_FALLBACK_HANDLER, Constants.HTTP_COMPRESSOR,
                 Constants.HTTP_TRACE_LOG_HANDLER, Constants.HTTP_ACCESS_LOG_HANDLER);
+        Http2StreamWritabilityTracker.install(ctx.channel(), connection(), encoder.flowController());
         // Add HTTP2 Source handler
-        Http2SourceHandler http2SourceHandler = new Http2SourceHandler(serverChannelInitializer, encoder, interfaceId,
+        http2SourceHandler = new Http2SourceHandler(serverChannelInitializer, encoder, interfaceId,
                 connection(), serverConnectorFuture, serverName);
         ctx.pipeline().addLast(Constants.HTTP2_SOURCE_HANDLER, http2SourceHandler);
     }
@@ -122,7 +125,7 @@ public class Http2SourceConnectionHandler extends Http2ConnectionHandler {
     /**
      * {@code ServerFrameListener} listens to HTTP/2 Events received from the frontend and constructs HTTP/2 frames.
      */
-    private static class ServerFrameListener extends Http2EventAdapter {
+    private class ServerFrameListener extends Http2EventAdapter {
 
         @Override
         public void onHeadersRead(ChannelHandlerContext ctx, int streamId,
@@ -140,11 +143,13 @@ public class Http2SourceConnectionHandler extends Http2ConnectionHandler {
         @Override
         public int onDataRead(ChannelHandlerContext ctx, int streamId, ByteBuf data, int padding, boolean endOfStream) {
             int readableBytes = data.readableBytes();
+            // The stream channel of a WebSocket returns the bytes to the flow controller once it has read them
+            boolean webSocketStream = http2SourceHandler != null && http2SourceHandler.isWebSocketStream(streamId);
             ByteBuf forwardedData = data.copy();
             data.skipBytes(readableBytes);
             Http2DataFrame dataFrame = new Http2DataFrame(streamId, forwardedData, endOfStream);
             ctx.fireChannelRead(dataFrame);
-            return readableBytes + padding;
+            return webSocketStream ? padding : readableBytes + padding;
         }
     }
 }
@@ -20,15 +20,24 @@ package org.wso2.transport.http.netty.contractimpl.listener.http2;
 
 import io.netty.handler.codec.http2.AbstractHttp2ConnectionHandlerBuilder;
 import io.netty.handler.codec.http2.DefaultHttp2Connection;
+import io.netty.handler.codec.http2.DefaultHttp2ConnectionDecoder;
+import io.netty.handler.codec.http2.DefaultHttp2ConnectionEncoder;
+import io.netty.handler.codec.http2.DefaultHttp2FrameReader;
+import io.netty.handler.codec.http2.DefaultHttp2FrameWriter;
 import io.netty.handler.codec.http2.Http2Connection;
 import io.netty.handler.codec.http2.Http2ConnectionDecoder;
 import io.netty.handler.codec.http2.Http2ConnectionEncoder;
+import io.netty.handler.codec.http2.Http2FrameReader;
+import io.netty.handler.codec.http2.Http2FrameWriter;
+import io.netty.handler.codec.http2.Http2InboundFrameLogger;
+import io.netty.handler.codec.http2.Http2OutboundFrameLogger;
 import io.netty.handler.codec.http2.Http2Settings;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
 import org.wso2.transport.http.netty.contractimpl.common.FrameLogger;
 import org.wso2.transport.http.netty.contractimpl.listener.HttpServerChannelInitializer;
 
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_HEADER_LIST_SIZE;
 import static io.netty.handler.logging.LogLevel.TRACE;
 
 /**
@@ -55,10 +64,21 @@ public final class Http2SourceConnectionHandlerBuilder
     @Override
     public Http2SourceConnectionHandler build() {
         Http2Connection conn = new DefaultHttp2Connection(true);
+        FrameLogger frameLogger = null;
         if (serverChannelInitializer.isHttpTraceLogEnabled()) {
-            frameLogger(new FrameLogger(TRACE, Constants.TRACE_LOG_DOWNSTREAM));
+            frameLogger = new FrameLogger(TRACE, Constants.TRACE_LOG_DOWNSTREAM,
+                                          serverChannelInitializer.getTraceLogSampler());
+        }
+        if (serverChannelInitializer.isWebSocketOverHttp2Enabled()) {
+            // Lets clients open WebSockets with the extended CONNECT method (RFC 8441)
+            initialSettings().put(Constants.HTTP2_SETTINGS_ENABLE_CONNECT_PROTOCOL, Long.valueOf(1));
+            buildExtendedConnectCodec(conn, frameLogger);
+        } else {
+            if (frameLogger != null) {
+                frameLogger(frameLogger);
+            }
+            connection(conn);
         }
-        connection(conn);
         Http2SourceConnectionHandler connectionHandler = super.build();
         if (connectionHandler != null) {
             return connectionHandler;
@@ -66,6 +86,23 @@ public final class Http2SourceConnectionHandlerBuilder
         return null;
     }
 
+    /**
+     * Builds the codec the same way the parent builder does, but with a headers decoder which accepts the :protocol
+     * pseudo-header of extended CONNECT requests while the rest of the headers are still validated.
+     */
+    private void buildExtendedConnectCodec(Http2Connection conn, FrameLogger frameLogger) {
+        Long maxHeaderListSize = initialSettings().maxHeaderListSize();
+        Http2FrameReader reader = new DefaultHttp2FrameReader(new ExtendedConnectHeadersDecoder(
+                maxHeaderListSize == null ? DEFAULT_HEADER_LIST_SIZE : maxHeaderListSize));
+        Http2FrameWriter writer = new DefaultHttp2FrameWriter(headerSensitivityDetector());
+        if (frameLogger != null) {
+            reader = new Http2InboundFrameLogger(reader, frameLogger);
+            writer = new Http2OutboundFrameLogger(writer, frameLogger);
+        }
+        Http2ConnectionEncoder encoder = new DefaultHttp2ConnectionEncoder(conn, writer);
+        codec(new DefaultHttp2ConnectionDecoder(conn, encoder, reader), encoder);
+    }
+
     @Override
     public Http2SourceConnectionHandler build(Http2ConnectionDecoder decoder, Http2ConnectionEncoder encoder,
                                               Http2Settings initialSettings) {
@@ -28,15 +28,26 @@ import io.netty.handler.codec.http.HttpServerUpgradeHandler;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http2.Http2Connection;
 import io.netty.handler.codec.http2.Http2ConnectionEncoder;
+import io.netty.handler.codec.http2.Http2Error;
+import io.netty.handler.codec.http2.Http2EventAdapter;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2Stream;
 import io.netty.util.internal.PlatformDependent;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorException;
+import org.wso2.transport.http.netty.contractimpl.common.Util;
 import org.wso2.transport.http.netty.contractimpl.common.states.Http2MessageStateContext;
 import org.wso2.transport.http.netty.contractimpl.listener.HttpServerChannelInitializer;
 import org.wso2.transport.http.netty.contractimpl.listener.states.http2.ReceivingHeaders;
+import org.wso2.transport.http.netty.contractimpl.websocket.http2.Http2WebSocketHandshaker;
+import org.wso2.transport.http.netty.contractimpl.websocket.http2.Http2WebSocketStreamChannel;
+import org.wso2.transport.http.netty.contractimpl.websocket.http2.Http2WebSocketStreams;
+import org.wso2.transport.http.netty.contractimpl.websocket.http2.Http2WebSocketUtil;
 import org.wso2.transport.http.netty.message.Http2DataFrame;
 import org.wso2.transport.http.netty.message.Http2HeadersFrame;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
@@ -70,6 +81,8 @@ public final class Http2SourceHandler extends ChannelInboundHandlerAdapter {
     private String serverName;
     private String remoteAddress;
     private Map<String, GenericObjectPool> targetChannelPool; //Keeps only h1 target channels
+    // WebSocket streams opened with the extended CONNECT method, null if they are not enabled
+    private Http2WebSocketStreams webSocketStreams;
 
     Http2SourceHandler(HttpServerChannelInitializer serverChannelInitializer, Http2ConnectionEncoder encoder,
                        String interfaceId, Http2Connection conn, ServerConnectorFuture serverConnectorFuture,
@@ -81,6 +94,9 @@ public final class Http2SourceHandler extends ChannelInboundHandlerAdapter {
         this.conn = conn;
         this.serverName = serverName;
         this.targetChannelPool = new ConcurrentHashMap<>();
+        if (serverChannelInitializer.isWebSocketOverHttp2Enabled()) {
+            this.webSocketStreams = new Http2WebSocketStreams();
+        }
     }
 
     @Override
@@ -95,6 +111,14 @@ public final class Http2SourceHandler extends ChannelInboundHandlerAdapter {
                 remoteAddress = remoteAddress.substring(1);
             }
         }
+        if (webSocketStreams != null) {
+            conn.addListener(new Http2EventAdapter() {
+                @Override
+                public void onStreamClosed(Http2Stream stream) {
+                    webSocketStreams.onStreamClose(stream.id());
+                }
+            });
+        }
     }
 
     /**
@@ -124,12 +148,23 @@ public final class Http2SourceHandler extends ChannelInboundHandlerAdapter {
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         if (msg instanceof Http2HeadersFrame) {
             Http2HeadersFrame headersFrame = (Http2HeadersFrame) msg;
+            if (webSocketStreams != null && (webSocketStreams.contains(headersFrame.getStreamId())
+                    || Http2WebSocketUtil.isWebSocketConnect(headersFrame.getHeaders()))) {
+                readWebSocketHeaders(headersFrame);
+                return;
+            }
             Http2MessageStateContext http2MessageStateContext = new Http2MessageStateContext();
             http2MessageStateContext.setListenerState(new ReceivingHeaders(this, http2MessageStateContext));
             http2MessageStateContext.getListenerState().readInboundRequestHeaders(headersFrame);
         } else if (msg instanceof Http2DataFrame) {
             Http2DataFrame dataFrame = (Http2DataFrame) msg;
             int streamId = dataFrame.getStreamId();
+            if (webSocketStreams != null && !webSocketStreams.onDataRead(ctx, streamId, dataFrame.getData(),
+                                                                         dataFrame.isEndOfStream())) {
+                // The stream channel retains what it keeps
+                dataFrame.getData().release();
+                return;
+            }
             HttpCarbonMessage sourceReqCMsg = streamIdRequestMap.get(streamId);
             // CarbonMessage can be already removed from the map once the LastHttpContent is added because of receiving
             // a data frame when the outbound response is started to send. So, the data frames received after that
@@ -144,6 +179,51 @@ public final class Http2SourceHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    /**
+     * Handles the headers of a WebSocket stream (RFC 8441). The extended CONNECT request is handed over to the
+     * WebSocket listener as a handshake, while the headers of streams which are already open go to their channel.
+     */
+    private void readWebSocketHeaders(Http2HeadersFrame headersFrame) throws Http2Exception,
+            WebSocketConnectorException {
+        int streamId = headersFrame.getStreamId();
+        Http2Headers headers = headersFrame.getHeaders();
+        if (webSocketStreams.contains(streamId)) {
+            webSocketStreams.onHeadersRead(ctx, streamId, headers, headersFrame.isEndOfStream());
+            return;
+        }
+        if (headersFrame.isEndOfStream()) {
+            // A WebSocket cannot be opened over a stream which is already half closed
+            encoder.writeRstStream(ctx, streamId, Http2Error.PROTOCOL_ERROR.code(), ctx.newPromise());
+            ctx.flush();
+            return;
+        }
+        Http2WebSocketStreamChannel streamChannel = new Http2WebSocketStreamChannel(ctx, encoder, streamId);
+        streamChannel.registerWithConnection();
+        webSocketStreams.add(streamChannel);
+
+        // The :protocol pseudo-header has no HTTP/1.x counterpart
+        headers.remove(Constants.HTTP2_PROTOCOL);
+        HttpRequest httpRequest = Util.createHttpRequestFromHttp2Headers(headers, streamId);
+        Http2WebSocketHandshaker webSocketHandshaker = new Http2WebSocketHandshaker(
+                streamChannel, serverConnectorFuture, httpRequest, ctx.pipeline().get(Constants.SSL_HANDLER) != null,
+                serverChannelInitializer.getWebSocketBufferMode(),
+                serverChannelInitializer.getWebSocketHeartbeatService());
+        webSocketHandshaker.setHttpCarbonRequest(setupCarbonRequest(httpRequest, this));
+        serverConnectorFuture.notifyWebSocketListener(webSocketHandshaker);
+    }
+
+    boolean isWebSocketStream(int streamId) {
+        return webSocketStreams != null && webSocketStreams.contains(streamId);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        if (webSocketStreams != null) {
+            webSocketStreams.channelWritabilityChanged();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
     @Override
     public void channelInactive(ChannelHandlerContext ctx) {
         destroy();
@@ -159,6 +239,9 @@ public final class Http2SourceHandler extends ChannelInboundHandlerAdapter {
 
     private void destroy() {
         streamIdRequestMap.clear();
+        if (webSocketStreams != null) {
+            webSocketStreams.destroy();
+        }
     }
 
     private void closeTargetChannels() {
@@ -36,6 +36,7 @@ import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.contract.ServerConnectorException;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
 import org.wso2.transport.http.netty.contractimpl.HttpOutboundRespListener;
+import org.wso2.transport.http.netty.contractimpl.common.FlushCoalescer;
 import org.wso2.transport.http.netty.contractimpl.common.states.MessageStateContext;
 import org.wso2.transport.http.netty.contractimpl.listener.SourceHandler;
 import org.wso2.transport.http.netty.internal.HandlerExecutor;
@@ -50,11 +51,15 @@ import java.util.Queue;
 
 import static org.wso2.transport.http.netty.contract.Constants.HTTP_HEAD_METHOD;
 import static org.wso2.transport.http.netty.contract.Constants.IDLE_TIMEOUT_TRIGGERED_WHILE_WRITING_OUTBOUND_RESPONSE_BODY;
+import static org.wso2.transport.http.netty.contract.Constants.REMOTE_CLIENT_CLOSED_BEFORE_INITIATING_OUTBOUND_RESPONSE;
 import static org.wso2.transport.http.netty.contract.Constants.REMOTE_CLIENT_CLOSED_WHILE_WRITING_OUTBOUND_RESPONSE_BODY;
 import static org.wso2.transport.http.netty.contract.Constants.REMOTE_CLIENT_TO_HOST_CONNECTION_CLOSED;
 import static org.wso2.transport.http.netty.contractimpl.common.Util.createFullHttpResponse;
+import static org.wso2.transport.http.netty.contractimpl.common.Util.createHttpResponse;
+import static org.wso2.transport.http.netty.contractimpl.common.Util.setupChunkedRequest;
 import static org.wso2.transport.http.netty.contractimpl.common.Util.setupContentLengthRequest;
 import static org.wso2.transport.http.netty.contractimpl.common.states.StateUtil.ILLEGAL_STATE_ERROR;
+import static org.wso2.transport.http.netty.contractimpl.common.states.StateUtil.notifyIfHeaderWriteFailure;
 
 /**
  * State between start and end of outbound response entity body write.
@@ -66,6 +71,7 @@ public class SendingEntityBody implements ListenerState {
     private final HandlerExecutor handlerExecutor;
     private final HttpResponseFuture outboundRespStatusFuture;
     private final MessageStateContext messageStateContext;
+    private final int bufferLimit;
     private boolean headersWritten;
     private long contentLength = 0;
     private boolean headRequest;
@@ -74,11 +80,16 @@ public class SendingEntityBody implements ListenerState {
     private ChannelHandlerContext sourceContext;
     private SourceHandler sourceHandler;
 
+    /**
+     * @param bufferLimit bytes of the body buffered before switching to chunked encoding, or -1 to buffer the whole
+     *                    body when the headers are not written yet
+     */
     SendingEntityBody(MessageStateContext messageStateContext, HttpResponseFuture outboundRespStatusFuture,
-                      boolean headersWritten) {
+                      boolean headersWritten, int bufferLimit) {
         this.messageStateContext = messageStateContext;
         this.outboundRespStatusFuture = outboundRespStatusFuture;
         this.headersWritten = headersWritten;
+        this.bufferLimit = bufferLimit;
         this.handlerExecutor = HttpTransportContextHolder.getInstance().getHandlerExecutor();
     }
 
@@ -131,12 +142,47 @@ public class SendingEntityBody implements ListenerState {
                     httpContent.release();
                     return;
                 }
-                outboundRespListener.getSourceContext().writeAndFlush(httpContent);
+                if (outboundResponseMsg.getProperty(Constants.EVENT_STREAM_RESPONSE) != null) {
+                    sourceContext.write(httpContent);
+                    FlushCoalescer.of(sourceContext).scheduleFlush();
+                } else {
+                    sourceContext.writeAndFlush(httpContent);
+                }
             } else {
                 this.contentList.add(httpContent);
                 contentLength += httpContent.content().readableBytes();
+                if (bufferLimit > -1 && contentLength >= bufferLimit) {
+                    switchToChunking(outboundRespListener, outboundResponseMsg);
+                }
+            }
+        }
+    }
+
+    /**
+     * The body does not end within the chunking threshold. Write the headers for a chunked response followed by the
+     * content buffered so far, so that the rest of the body is streamed as it arrives.
+     */
+    private void switchToChunking(HttpOutboundRespListener outboundRespListener,
+                                  HttpCarbonMessage outboundResponseMsg) {
+        setupChunkedRequest(outboundResponseMsg);
+        HttpResponse response = createHttpResponse(outboundResponseMsg,
+                                                   outboundRespListener.getRequestDataHolder().getHttpVersion(),
+                                                   outboundRespListener.getServerName(),
+                                                   outboundRespListener.isKeepAlive());
+        ChannelFuture outboundHeaderFuture = sourceContext.write(response);
+        notifyIfHeaderWriteFailure(outboundRespStatusFuture, outboundHeaderFuture,
+                                   REMOTE_CLIENT_CLOSED_BEFORE_INITIATING_OUTBOUND_RESPONSE);
+        for (HttpContent cachedHttpContent : contentList) {
+            if (headRequest) {
+                cachedHttpContent.release();
+            } else {
+                sourceContext.write(cachedHttpContent);
             }
         }
+        sourceContext.flush();
+        contentList.clear();
+        contentLength = 0;
+        headersWritten = true;
     }
 
     @Override
@@ -221,11 +267,11 @@ public class SendingEntityBody implements ListenerState {
      */
     private void triggerPipeliningLogic(HttpCarbonMessage outboundResponseMsg) {
         String httpVersion = (String) inboundRequestMsg.getProperty(Constants.HTTP_VERSION);
-        if (outboundResponseMsg.isPipeliningEnabled() && Constants.HTTP_1_1_VERSION.equalsIgnoreCase
-                (httpVersion)) {
-            Queue responseQueue;
-            synchronized (sourceContext.channel().attr(Constants.RESPONSE_QUEUE).get()) {
-                responseQueue = sourceContext.channel().attr(Constants.RESPONSE_QUEUE).get();
+        // Response queue is only available when pipelining is enabled for the listener
+        Queue responseQueue = sourceContext.channel().attr(Constants.RESPONSE_QUEUE).get();
+        if (outboundResponseMsg.isPipeliningEnabled() && responseQueue != null && Constants.HTTP_1_1_VERSION
+                .equalsIgnoreCase(httpVersion)) {
+            synchronized (responseQueue) {
                 Long nextSequenceNumber = sourceContext.channel().attr(Constants.NEXT_SEQUENCE_NUMBER).get();
                 //IMPORTANT:Next sequence number should never be incremented for interim 100 continue response
                 //because the body of the request is yet to come. Only when the actual response is sent out, this
@@ -109,23 +109,30 @@ public class SendingHeaders implements ListenerState {
         if (isLastHttpContent(httpContent)) {
             if (chunkConfig == ChunkConfig.ALWAYS && checkChunkingCompatibility(httpVersion, chunkConfig)) {
                 writeHeaders(outboundResponseMsg, keepAlive, outboundRespStatusFuture);
-                writeResponse(outboundResponseMsg, httpContent, true);
+                writeResponse(outboundResponseMsg, httpContent, true, -1);
                 return;
             }
         } else {
-            if ((chunkConfig == ChunkConfig.ALWAYS || chunkConfig == ChunkConfig.AUTO) && (
-                    checkChunkingCompatibility(httpVersion, chunkConfig))) {
+            boolean chunkingCompatible = checkChunkingCompatibility(httpVersion, chunkConfig);
+            int chunkingThreshold = outboundResponseListener.getChunkingThreshold();
+            if (chunkingCompatible && (chunkConfig == ChunkConfig.ALWAYS
+                    || (chunkConfig == ChunkConfig.AUTO && chunkingThreshold == 0))) {
                 writeHeaders(outboundResponseMsg, keepAlive, outboundRespStatusFuture);
-                writeResponse(outboundResponseMsg, httpContent, true);
+                writeResponse(outboundResponseMsg, httpContent, true, -1);
                 return;
             }
+            // Under AUTO the body is buffered only up to the threshold, after which it is streamed chunked
+            int bufferLimit = chunkingCompatible && chunkConfig == ChunkConfig.AUTO ? chunkingThreshold : -1;
+            writeResponse(outboundResponseMsg, httpContent, false, bufferLimit);
+            return;
         }
-        writeResponse(outboundResponseMsg, httpContent, false);
+        writeResponse(outboundResponseMsg, httpContent, false, -1);
     }
 
-    private void writeResponse(HttpCarbonMessage outboundResponseMsg, HttpContent httpContent, boolean headersWritten) {
+    private void writeResponse(HttpCarbonMessage outboundResponseMsg, HttpContent httpContent, boolean headersWritten,
+                               int bufferLimit) {
         messageStateContext.setListenerState(
-                new SendingEntityBody(messageStateContext, outboundRespStatusFuture, headersWritten));
+                new SendingEntityBody(messageStateContext, outboundRespStatusFuture, headersWritten, bufferLimit));
         messageStateContext.getListenerState().writeOutboundResponseBody(outboundResponseListener, outboundResponseMsg,
                                                                          httpContent);
     }
@@ -31,26 +31,22 @@ import io.netty.handler.codec.http2.Http2Error;
 import io.netty.handler.codec.http2.Http2Exception;
 import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.HttpConversionUtil;
-import io.netty.util.internal.logging.InternalLogLevel;
-import io.netty.util.internal.logging.InternalLogger;
-import io.netty.util.internal.logging.InternalLoggerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.contractimpl.Http2OutboundRespListener;
+import org.wso2.transport.http.netty.contractimpl.common.FlushCoalescer;
 import org.wso2.transport.http.netty.contractimpl.common.Util;
 import org.wso2.transport.http.netty.contractimpl.common.states.Http2MessageStateContext;
 import org.wso2.transport.http.netty.contractimpl.listener.HttpServerChannelInitializer;
+import org.wso2.transport.http.netty.contractimpl.listener.accesslog.AccessLogWriter;
 import org.wso2.transport.http.netty.contractimpl.listener.http2.Http2SourceHandler;
 import org.wso2.transport.http.netty.message.Http2DataFrame;
 import org.wso2.transport.http.netty.message.Http2HeadersFrame;
 import org.wso2.transport.http.netty.message.Http2PushPromise;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 
-import java.util.Calendar;
-
-import static org.wso2.transport.http.netty.contract.Constants.ACCESS_LOG;
-import static org.wso2.transport.http.netty.contract.Constants.ACCESS_LOG_FORMAT;
 import static org.wso2.transport.http.netty.contract.Constants.HTTP_METHOD;
 import static org.wso2.transport.http.netty.contract.Constants.HTTP_VERSION;
 import static org.wso2.transport.http.netty.contract.Constants.HTTP_X_FORWARDED_FOR;
@@ -66,7 +62,6 @@ import static org.wso2.transport.http.netty.contractimpl.common.states.Http2Stat
 public class SendingEntityBody implements ListenerState {
 
     private static final Logger LOG = LoggerFactory.getLogger(SendingEntityBody.class);
-    private static final InternalLogger ACCESS_LOGGER = InternalLoggerFactory.getInstance(ACCESS_LOG);
 
     private final Http2MessageStateContext http2MessageStateContext;
     private final ChannelHandlerContext ctx;
@@ -75,10 +70,10 @@ public class SendingEntityBody implements ListenerState {
     private final Http2ConnectionEncoder encoder;
     private final HttpResponseFuture outboundRespStatusFuture;
     private final HttpCarbonMessage inboundRequestMsg;
-    private final Calendar inboundRequestArrivalTime;
+    private final long inboundRequestArrivalTime;
     private final int originalStreamId;
 
-    private Long contentLength = 0L;
+    private long contentLength = 0L;
     private String remoteAddress;
 
     SendingEntityBody(Http2OutboundRespListener http2OutboundRespListener,
@@ -141,7 +136,7 @@ public class SendingEntityBody implements ListenerState {
                 logAccessInfo(outboundResponseMsg, streamId);
             }
             boolean endStream = trailers.isEmpty();
-            writeData(lastContent, streamId, endStream);
+            writeData(lastContent, streamId, endStream, false);
             if (!trailers.isEmpty()) {
                 Http2Headers http2Trailers = HttpConversionUtil.toHttp2Headers(trailers, true);
                 // Write trailing headers.
@@ -150,17 +145,24 @@ public class SendingEntityBody implements ListenerState {
             http2MessageStateContext
                     .setListenerState(new ResponseCompleted(http2OutboundRespListener, http2MessageStateContext));
         } else {
-            writeData(httpContent, streamId, false);
+            writeData(httpContent, streamId, false,
+                      outboundResponseMsg.getProperty(Constants.EVENT_STREAM_RESPONSE) != null);
         }
     }
 
-    private void writeData(HttpContent httpContent, int streamId, boolean endStream) throws Http2Exception {
+    private void writeData(HttpContent httpContent, int streamId, boolean endStream, boolean coalesceFlushes)
+            throws Http2Exception {
         contentLength += httpContent.content().readableBytes();
         validatePromisedStreamState(originalStreamId, streamId, conn, inboundRequestMsg);
         ChannelFuture channelFuture = encoder.writeData(
                 ctx, streamId, httpContent.content(), 0, endStream, ctx.newPromise());
-        encoder.flowController().writePendingBytes();
-        ctx.flush();
+        if (coalesceFlushes) {
+            // Flushing the connection handler writes the pending bytes of all the streams
+            FlushCoalescer.of(ctx).scheduleFlush();
+        } else {
+            encoder.flowController().writePendingBytes();
+            ctx.flush();
+        }
         if (endStream) {
             Util.checkForResponseWriteStatus(inboundRequestMsg, outboundRespStatusFuture, channelFuture);
         } else {
@@ -169,7 +171,8 @@ public class SendingEntityBody implements ListenerState {
     }
 
     private void logAccessInfo(HttpCarbonMessage outboundResponseMsg, int streamId) {
-        if (!ACCESS_LOGGER.isEnabled(InternalLogLevel.INFO)) {
+        AccessLogWriter accessLogWriter = serverChannelInitializer.getAccessLogWriter();
+        if (!accessLogWriter.isEnabled()) {
             return;
         }
         if (originalStreamId != streamId) { // Skip access logs for server push messages
@@ -198,7 +201,7 @@ public class SendingEntityBody implements ListenerState {
         HttpMessage request = inboundRequestMsg.getNettyHttpRequest();
         String protocol;
         if (request != null) {
-            protocol = request.protocolVersion().toString();
+            protocol = request.protocolVersion().text();
         } else {
             protocol = (String) inboundRequestMsg.getProperty(HTTP_VERSION);
         }
@@ -206,8 +209,7 @@ public class SendingEntityBody implements ListenerState {
         // Populate response parameters
         int statusCode = Util.getHttpResponseStatus(outboundResponseMsg).code();
 
-        ACCESS_LOGGER.log(InternalLogLevel.INFO, String.format(
-                ACCESS_LOG_FORMAT, remoteAddress, inboundRequestArrivalTime, method, uri, protocol,
-                statusCode, contentLength, referrer, userAgent));
+        accessLogWriter.log(remoteAddress, inboundRequestArrivalTime, method, uri, protocol, statusCode, contentLength,
+                            referrer, userAgent);
     }
 }
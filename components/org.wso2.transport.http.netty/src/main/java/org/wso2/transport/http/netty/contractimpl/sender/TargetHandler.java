@@ -29,6 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
+import org.wso2.transport.http.netty.contract.config.InboundBufferConfig;
 import org.wso2.transport.http.netty.contract.config.KeepAliveConfig;
 import org.wso2.transport.http.netty.contractimpl.common.states.MessageStateContext;
 import org.wso2.transport.http.netty.contractimpl.sender.channel.TargetChannel;
@@ -58,6 +59,7 @@ public class TargetHandler extends ChannelInboundHandlerAdapter {
     private HttpCarbonMessage outboundRequestMsg;
     private HandlerExecutor handlerExecutor;
     private KeepAliveConfig keepAliveConfig;
+    private InboundBufferConfig inboundBufferConfig = new InboundBufferConfig();
     private boolean idleTimeoutTriggered;
     private ChannelHandlerContext context;
 
@@ -76,7 +78,8 @@ public class TargetHandler extends ChannelInboundHandlerAdapter {
         }
         if (targetChannel.isRequestHeaderWritten()) {
             if (msg instanceof HttpResponse) {
-                inboundResponseMsg = createInboundRespCarbonMsg(ctx, (HttpResponse) msg, outboundRequestMsg);
+                inboundResponseMsg = createInboundRespCarbonMsg(ctx, (HttpResponse) msg, outboundRequestMsg,
+                                                                inboundBufferConfig);
                 messageStateContext.getSenderState().readInboundResponseHeaders(this, (HttpResponse) msg);
             } else {
                 if (inboundResponseMsg != null) {
@@ -203,6 +206,10 @@ public class TargetHandler extends ChannelInboundHandlerAdapter {
         this.keepAliveConfig = keepAliveConfig;
     }
 
+    void setInboundBufferConfig(InboundBufferConfig inboundBufferConfig) {
+        this.inboundBufferConfig = inboundBufferConfig;
+    }
+
     public HttpResponseFuture getHttpResponseFuture() {
         return httpResponseFuture;
     }
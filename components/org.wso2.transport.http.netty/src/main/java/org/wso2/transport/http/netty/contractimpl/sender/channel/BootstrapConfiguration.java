@@ -15,9 +15,13 @@
 
 package org.wso2.transport.http.netty.contractimpl.sender.channel;
 
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.WriteBufferWaterMark;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contractimpl.common.ChannelOptions;
 import org.wso2.transport.http.netty.contractimpl.common.Util;
 
 import java.util.Map;
@@ -36,6 +40,13 @@ public class BootstrapConfiguration {
     private int receiveBufferSize;
     private int sendBufferSize;
     private int socketTimeout;
+    private ByteBufAllocator byteBufAllocator;
+    private RecvByteBufAllocator recvByteBufAllocator;
+    private WriteBufferWaterMark writeBufferWaterMark;
+    private int soLinger;
+    private boolean tcpFastOpen;
+    private boolean tcpQuickAck;
+    private int soBusyPoll;
 
     public BootstrapConfiguration(Map<String, Object> properties) {
 
@@ -59,6 +70,35 @@ public class BootstrapConfiguration {
         socketReuse = Util.getBooleanProperty(
                 properties, Constants.CLIENT_BOOTSTRAP_SO_REUSE, false);
 
+        byteBufAllocator = ChannelOptions.createByteBufAllocator(
+                Util.getStringProperty(properties, Constants.CLIENT_BOOTSTRAP_ALLOCATOR,
+                                       ChannelOptions.ALLOCATOR_DEFAULT),
+                Util.getBooleanProperty(properties, Constants.CLIENT_BOOTSTRAP_ALLOCATOR_PREFER_DIRECT, true));
+
+        recvByteBufAllocator = ChannelOptions.createRecvByteBufAllocator(
+                Util.getStringProperty(properties, Constants.CLIENT_BOOTSTRAP_RECEIVE_ALLOCATOR,
+                                       ChannelOptions.RECEIVE_ALLOCATOR_ADAPTIVE),
+                Util.getIntProperty(properties, Constants.CLIENT_BOOTSTRAP_RECEIVE_BUFFER_MINIMUM,
+                                    ChannelOptions.DEFAULT_RECEIVE_BUFFER_MINIMUM),
+                Util.getIntProperty(properties, Constants.CLIENT_BOOTSTRAP_RECEIVE_BUFFER_INITIAL,
+                                    ChannelOptions.DEFAULT_RECEIVE_BUFFER_INITIAL),
+                Util.getIntProperty(properties, Constants.CLIENT_BOOTSTRAP_RECEIVE_BUFFER_MAXIMUM,
+                                    ChannelOptions.DEFAULT_RECEIVE_BUFFER_MAXIMUM));
+
+        writeBufferWaterMark = ChannelOptions.createWriteBufferWaterMark(
+                Util.getIntProperty(properties, Constants.CLIENT_BOOTSTRAP_WRITE_BUFFER_LOW_MARK, -1),
+                Util.getIntProperty(properties, Constants.CLIENT_BOOTSTRAP_WRITE_BUFFER_HIGH_MARK, -1));
+
+        soLinger = ChannelOptions.validateSoLinger(
+                Util.getIntProperty(properties, Constants.CLIENT_BOOTSTRAP_SO_LINGER, -1));
+
+        tcpFastOpen = Util.getBooleanProperty(properties, Constants.CLIENT_BOOTSTRAP_TCP_FASTOPEN, false);
+
+        tcpQuickAck = Util.getBooleanProperty(properties, Constants.CLIENT_BOOTSTRAP_TCP_QUICKACK, false);
+
+        soBusyPoll = ChannelOptions.validateNonNegative(Constants.CLIENT_BOOTSTRAP_SO_BUSY_POLL,
+                Util.getIntProperty(properties, Constants.CLIENT_BOOTSTRAP_SO_BUSY_POLL, 0));
+
         String logValue = "{}:{}";
         LOG.debug(logValue, Constants.CLIENT_BOOTSTRAP_TCP_NO_DELY , tcpNoDelay);
         LOG.debug(logValue, Constants.CLIENT_BOOTSTRAP_CONNECT_TIME_OUT, connectTimeOut);
@@ -67,6 +107,9 @@ public class BootstrapConfiguration {
         LOG.debug(logValue, Constants.CLIENT_BOOTSTRAP_SO_TIMEOUT, socketTimeout);
         LOG.debug(logValue, Constants.CLIENT_BOOTSTRAP_KEEPALIVE, keepAlive);
         LOG.debug(logValue, Constants.CLIENT_BOOTSTRAP_SO_REUSE, socketReuse);
+        LOG.debug(logValue, Constants.CLIENT_BOOTSTRAP_ALLOCATOR, byteBufAllocator);
+        LOG.debug(logValue, Constants.CLIENT_BOOTSTRAP_RECEIVE_ALLOCATOR, recvByteBufAllocator);
+        LOG.debug(logValue, Constants.CLIENT_BOOTSTRAP_SO_LINGER, soLinger);
     }
 
     public boolean isTcpNoDelay() {
@@ -96,4 +139,38 @@ public class BootstrapConfiguration {
     public int getSocketTimeout() {
         return socketTimeout;
     }
+
+    public ByteBufAllocator getByteBufAllocator() {
+        return byteBufAllocator;
+    }
+
+    public RecvByteBufAllocator getRecvByteBufAllocator() {
+        return recvByteBufAllocator;
+    }
+
+    /**
+     * @return the write buffer water mark, or null if Netty's default applies
+     */
+    public WriteBufferWaterMark getWriteBufferWaterMark() {
+        return writeBufferWaterMark;
+    }
+
+    public int getSoLinger() {
+        return soLinger;
+    }
+
+    public boolean isTcpFastOpen() {
+        return tcpFastOpen;
+    }
+
+    public boolean isTcpQuickAck() {
+        return tcpQuickAck;
+    }
+
+    /**
+     * @return the busy poll time in microseconds, or 0 if busy polling is not enabled
+     */
+    public int getSoBusyPoll() {
+        return soBusyPoll;
+    }
 }
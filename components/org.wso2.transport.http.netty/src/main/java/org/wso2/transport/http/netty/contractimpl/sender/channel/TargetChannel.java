@@ -28,6 +28,7 @@ import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.contract.config.ChunkConfig;
 import org.wso2.transport.http.netty.contract.config.ForwardedExtensionConfig;
 import org.wso2.transport.http.netty.contractimpl.common.BackPressureHandler;
+import org.wso2.transport.http.netty.contractimpl.common.ChannelWritability;
 import org.wso2.transport.http.netty.contractimpl.common.HttpRoute;
 import org.wso2.transport.http.netty.contractimpl.common.Util;
 import org.wso2.transport.http.netty.contractimpl.common.states.MessageStateContext;
@@ -66,6 +67,7 @@ public class TargetChannel {
     private boolean requestHeaderWritten = false;
     private String httpVersion;
     private ChunkConfig chunkConfig;
+    private int chunkingThreshold;
     private HandlerExecutor handlerExecutor;
     private Http2ClientChannel http2ClientChannel;
 
@@ -96,6 +98,15 @@ public class TargetChannel {
         return channel;
     }
 
+    /**
+     * Checks whether the connection of a target channel that was never used is still pending or usable.
+     *
+     * @return false if the connection attempt failed or the connection is already closed
+     */
+    public boolean isConnectionUsable() {
+        return !channelFuture.isDone() || channelFuture.channel().isActive();
+    }
+
     public TargetChannel setChannel(Channel channel) {
         this.channel = channel;
         return this;
@@ -149,6 +160,10 @@ public class TargetChannel {
         this.chunkConfig = chunkConfig;
     }
 
+    public void setChunkingThreshold(int chunkingThreshold) {
+        this.chunkingThreshold = chunkingThreshold;
+    }
+
     public void configTargetHandler(HttpCarbonMessage httpCarbonMessage, HttpResponseFuture httpInboundResponseFuture) {
         this.setTargetHandler(this.getHttpClientChannelInitializer().getTargetHandler());
         TargetHandler handler = this.getTargetHandler();
@@ -202,10 +217,15 @@ public class TargetChannel {
     }
 
     public void writeContent(HttpCarbonMessage httpOutboundRequest) {
-        BackPressureHandler backpressureHandler = Util.getBackPressureHandler(targetHandler.getContext());
-
-        Util.setBackPressureListener(httpOutboundRequest.isPassthrough(), backpressureHandler,
-                                     httpOutboundRequest.getSourceContext());
+        // Non-blocking producers wait on the outbound writability of the message instead of being blocked
+        boolean blocking = !httpOutboundRequest.isNonBlockingWrites();
+        BackPressureHandler backpressureHandler = blocking ? Util.getBackPressureHandler(targetHandler.getContext())
+                : null;
+        if (blocking) {
+            Util.setBackPressureListener(httpOutboundRequest.isPassthrough(), backpressureHandler,
+                                         httpOutboundRequest.getSourceContext());
+        }
+        httpOutboundRequest.setOutboundWritability(new ChannelWritability(channel));
 
         if (handlerExecutor != null) {
             handlerExecutor.executeAtTargetRequestReceiving(httpOutboundRequest);
@@ -220,7 +240,7 @@ public class TargetChannel {
         }
         httpOutboundRequest.getMessageStateContext()
                 .setSenderState(new SendingHeaders(messageStateContext, this, httpVersion, chunkConfig,
-                                                   httpInboundResponseFuture));
+                                                   chunkingThreshold, httpInboundResponseFuture));
         httpOutboundRequest.getHttpContentAsync().setMessageListener((httpContent -> {
             Util.checkUnWritabilityAndNotify(targetHandler.getContext(), backpressureHandler);
             this.channel.eventLoop().execute(() -> {
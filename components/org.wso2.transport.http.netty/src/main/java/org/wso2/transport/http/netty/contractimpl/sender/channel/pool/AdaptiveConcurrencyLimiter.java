@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.sender.channel.pool;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the concurrent outbound requests of a route with an additive increase, multiplicative decrease (AIMD)
+ * algorithm. Each completed request is a sample: a failed, throttled or slow request shrinks the limit by the
+ * backoff ratio, while a timely response increases it by one if at least half of the limit was in use.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private final String route;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long maxLatencyNanos;
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+    private volatile int limit;
+
+    public AdaptiveConcurrencyLimiter(String route, ConcurrencyLimitConfiguration config) {
+        validate(config);
+        this.route = route;
+        this.minLimit = config.getMinLimit();
+        this.maxLimit = config.getMaxLimit();
+        this.backoffRatio = config.getBackoffRatio();
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxLatency());
+        this.limit = config.getInitialLimit();
+    }
+
+    private static void validate(ConcurrencyLimitConfiguration config) {
+        if (config.getMinLimit() < 1 || config.getMaxLimit() < config.getMinLimit()) {
+            throw new IllegalArgumentException("Concurrency limit bounds must satisfy 1 <= minLimit <= maxLimit : "
+                                                       + config.getMinLimit() + ", " + config.getMaxLimit());
+        }
+        if (config.getInitialLimit() < config.getMinLimit() || config.getInitialLimit() > config.getMaxLimit()) {
+            throw new IllegalArgumentException("Initial concurrency limit must be within the limit bounds : "
+                                                       + config.getInitialLimit());
+        }
+        if (config.getBackoffRatio() <= 0 || config.getBackoffRatio() >= 1) {
+            throw new IllegalArgumentException("Concurrency limit backoff ratio must be between 0 and 1 : "
+                                                       + config.getBackoffRatio());
+        }
+        if (config.getMaxLatency() <= 0) {
+            throw new IllegalArgumentException("Concurrency limit max latency must be positive : "
+                                                       + config.getMaxLatency());
+        }
+    }
+
+    /**
+     * Reserves a slot for a request if the current limit allows it.
+     *
+     * @return the permit to be completed with the outcome of the request, or null if the limit is reached
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlightRequests.get();
+            if (current >= limit) {
+                rejectedRequests.incrementAndGet();
+                return null;
+            }
+            if (inFlightRequests.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    private synchronized void onSample(long latencyNanos, int inFlightAtStart, boolean dropped) {
+        int previousLimit = limit;
+        if (dropped || latencyNanos > maxLatencyNanos) {
+            limit = Math.max(minLimit, (int) (previousLimit * backoffRatio));
+        } else if (inFlightAtStart * 2 >= previousLimit) {
+            limit = Math.min(maxLimit, previousLimit + 1);
+        }
+        if (LOG.isDebugEnabled() && limit != previousLimit) {
+            LOG.debug("Concurrency limit of route {} changed from {} to {}", route, previousLimit, limit);
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    public long getRejectedRequestCount() {
+        return rejectedRequests.get();
+    }
+
+    /**
+     * A slot held by a single outbound request. Only the first completion of a permit is taken into account.
+     */
+    public class Permit {
+
+        private final long startTime = System.nanoTime();
+        private final int inFlightAtStart;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Completes the permit with the status code of the received response.
+         *
+         * @param statusCode the response status code
+         */
+        public void onResponse(int statusCode) {
+            complete(statusCode == HttpResponseStatus.TOO_MANY_REQUESTS.code()
+                             || statusCode == HttpResponseStatus.SERVICE_UNAVAILABLE.code()
+                             || statusCode == HttpResponseStatus.GATEWAY_TIMEOUT.code());
+        }
+
+        /**
+         * Completes the permit of a request that failed without a response.
+         */
+        public void onError() {
+            complete(true);
+        }
+
+        private void complete(boolean dropped) {
+            if (completed.compareAndSet(false, true)) {
+                inFlightRequests.decrementAndGet();
+                onSample(System.nanoTime() - startTime, inFlightAtStart, dropped);
+            }
+        }
+    }
+}
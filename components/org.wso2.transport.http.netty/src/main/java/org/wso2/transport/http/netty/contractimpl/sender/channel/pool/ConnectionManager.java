@@ -44,11 +44,28 @@ public class ConnectionManager {
     private final String connectionManagerId;
     private final PoolConfiguration poolConfiguration;
     private final Map<String, GenericObjectPool> globalConnPool;
+    private final Map<EventLoopGroup, Map<String, GenericObjectPool>> eventLoopConnPool;
+    private final ConnectionPoolMetrics poolMetrics;
     private final Http2ConnectionManager http2ConnectionManager;
+    private final Map<String, AdaptiveConcurrencyLimiter> concurrencyLimiters;
 
     public ConnectionManager(PoolConfiguration poolConfiguration) {
+        this(poolConfiguration, new ConnectionPoolMetrics());
+    }
+
+    /**
+     * Creates a connection manager which records its connection reuse in the given metrics, which may be shared with
+     * other connection managers.
+     *
+     * @param poolConfiguration the pool configuration
+     * @param poolMetrics       the metrics to update
+     */
+    public ConnectionManager(PoolConfiguration poolConfiguration, ConnectionPoolMetrics poolMetrics) {
         this.poolConfiguration = poolConfiguration;
         globalConnPool = new ConcurrentHashMap<>();
+        eventLoopConnPool = new ConcurrentHashMap<>();
+        this.poolMetrics = poolMetrics;
+        concurrencyLimiters = new ConcurrentHashMap<>();
         http2ConnectionManager = new Http2ConnectionManager(poolConfiguration);
         connectionManagerId = "-" + UUID.randomUUID().toString();
     }
@@ -125,14 +142,26 @@ public class ConnectionManager {
                     createTrgHlrPoolInGlobalPool(httpRoute, senderConfig, bootstrapConfig,
                                                  clientEventGroup, eventLoopClass);
                 }
-                trgHlrConnPool = globalConnPool.get(httpRoute.toString());
-                trgHlrConnPool = createPoolForRoutePerSrcHndlr(trgHlrConnPool);
+                GenericObjectPool eventLoopPool = getEventLoopPool(httpRoute, clientEventGroup);
+                trgHlrConnPool = createPoolForRoutePerSrcHndlr(eventLoopPool, poolMetrics);
             }
             srcHlrConnPool.put(trgHlrConnPoolId, trgHlrConnPool);
         }
         return trgHlrConnPool;
     }
 
+    /**
+     * Gets the pool shared by all source handlers of an event loop for the given route. The per source handler pools
+     * borrow from it, and their idle connections are handed back to it when the inbound connection closes. The next
+     * inbound connection on the same event loop can then reuse them without reconnecting or re-registering the
+     * channel on another event loop.
+     */
+    private GenericObjectPool getEventLoopPool(HttpRoute httpRoute, EventLoopGroup eventLoop) {
+        return eventLoopConnPool.computeIfAbsent(eventLoop, loop -> new ConcurrentHashMap<>())
+                .computeIfAbsent(httpRoute.toString(), route -> createPoolForRoutePerSrcHndlr(
+                        globalConnPool.get(route), null));
+    }
+
     private void createTrgHlrPoolInGlobalPool(HttpRoute httpRoute, SenderConfiguration senderConfig,
                                               BootstrapConfiguration bootstrapConfig, EventLoopGroup clientEventGroup,
                                               Class eventLoopClass) {
@@ -147,6 +176,7 @@ public class ConnectionManager {
                                            GenericObjectPool trgHlrConnPool,
                                            String trgHlrConnPoolId) throws Exception {
         TargetChannel targetChannel = (TargetChannel) trgHlrConnPool.borrowObject();
+        poolMetrics.onBorrow();
         if (sourceHandler != null) {
             targetChannel.setCorrelatedSource(sourceHandler);
         } else if (http2SourceHandler != null) {
@@ -207,6 +237,24 @@ public class ConnectionManager {
         }
     }
 
+    /**
+     * Frees the slot taken in the pool by a target channel that never got a pooled connection, such as one whose
+     * connection has been handed to the HTTP/2 connection manager. That connection is left open.
+     *
+     * @param targetChannel the borrowed target channel
+     * @throws Exception if the target channel cannot be removed from the pool
+     */
+    public void removeTargetChannel(TargetChannel targetChannel) throws Exception {
+        GenericObjectPool pool = globalConnPool.get(targetChannel.getHttpRoute().toString());
+        if (pool != null) {
+            try {
+                pool.invalidateObject(targetChannel);
+            } catch (Exception e) {
+                throw new Exception("Cannot remove channel from pool", e);
+            }
+        }
+    }
+
     private Map<String, GenericObjectPool> getTargetPoolMap(TargetChannel targetChannel) {
         Map<String, GenericObjectPool> objectPoolMap = null;
         ChannelInboundHandlerAdapter correlatedSource = targetChannel.getCorrelatedSource();
@@ -220,24 +268,53 @@ public class ConnectionManager {
         return objectPoolMap;
     }
 
+    /**
+     * Gets the concurrency limiter of the given route. The limit applies to both HTTP/1.x and HTTP/2 requests.
+     *
+     * @param httpRoute Represents the endpoint address
+     * @return the concurrency limiter of the route or null if concurrency limiting is disabled
+     */
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter(HttpRoute httpRoute) {
+        ConcurrencyLimitConfiguration limitConfiguration = poolConfiguration.getConcurrencyLimitConfiguration();
+        if (limitConfiguration == null || !limitConfiguration.isEnabled()) {
+            return null;
+        }
+        return concurrencyLimiters.computeIfAbsent(httpRoute.toString(), route -> new AdaptiveConcurrencyLimiter(
+                route, limitConfiguration));
+    }
+
+    /**
+     * Gets the connection reuse statistics. The connection managers created by a connector factory share the metrics
+     * the factory registers as an MBean for monitoring.
+     *
+     * @return the pool metrics of this connection manager
+     */
+    public ConnectionPoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
     public Http2ConnectionManager getHttp2ConnectionManager() {
         return http2ConnectionManager;
     }
 
-    private GenericObjectPool createPoolForRoutePerSrcHndlr(GenericObjectPool genericObjectPool) {
-        return new GenericObjectPool(new PoolableTargetChannelFactoryPerSrcHndlr(genericObjectPool),
-                                     instantiateAndConfigureConfig());
+    private GenericObjectPool createPoolForRoutePerSrcHndlr(GenericObjectPool genericObjectPool,
+                                                            ConnectionPoolMetrics poolMetrics) {
+        // Minimum idle connections are kept by the route pool only. Nested pools keeping them too would take
+        // connections out of the route pool for each source handler.
+        return new GenericObjectPool(new PoolableTargetChannelFactoryPerSrcHndlr(genericObjectPool, poolMetrics),
+                                     instantiateAndConfigureConfig(0));
     }
 
     private GenericObjectPool createPoolForRoute(PoolableTargetChannelFactory poolableTargetChannelFactory) {
-        return new GenericObjectPool(poolableTargetChannelFactory, instantiateAndConfigureConfig());
+        return new GenericObjectPool(poolableTargetChannelFactory,
+                                     instantiateAndConfigureConfig(poolConfiguration.getMinIdlePerPool()));
     }
 
-    private GenericObjectPool.Config instantiateAndConfigureConfig() {
+    private GenericObjectPool.Config instantiateAndConfigureConfig(int minIdle) {
         GenericObjectPool.Config config = new GenericObjectPool.Config();
         config.maxActive = poolConfiguration.getMaxActivePerPool();
         config.maxIdle = poolConfiguration.getMaxIdlePerPool();
-        config.minIdle = poolConfiguration.getMinIdlePerPool();
+        config.minIdle = minIdle;
         config.testOnBorrow = poolConfiguration.isTestOnBorrow();
         config.testWhileIdle = poolConfiguration.isTestWhileIdle();
         config.timeBetweenEvictionRunsMillis = poolConfiguration.getTimeBetweenEvictionRuns();
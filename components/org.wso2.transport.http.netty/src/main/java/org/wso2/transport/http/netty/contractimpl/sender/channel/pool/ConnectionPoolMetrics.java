@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.sender.channel.pool;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how often outbound requests are served by a pooled connection rather than a new one.
+ */
+public class ConnectionPoolMetrics implements ConnectionPoolMetricsMBean {
+
+    private final AtomicLong borrowedConnections = new AtomicLong();
+    private final AtomicLong newConnections = new AtomicLong();
+    private final AtomicLong migratedConnections = new AtomicLong();
+
+    void onBorrow() {
+        borrowedConnections.incrementAndGet();
+    }
+
+    void onNewConnection() {
+        newConnections.incrementAndGet();
+    }
+
+    void onMigration() {
+        migratedConnections.incrementAndGet();
+    }
+
+    @Override
+    public long getNewConnectionCount() {
+        return newConnections.get();
+    }
+
+    @Override
+    public long getReusedConnectionCount() {
+        return Math.max(0, borrowedConnections.get() - newConnections.get());
+    }
+
+    /**
+     * Gets the number of idle connections handed over from the pool of an inbound connection to the event loop pool.
+     *
+     * @return the number of migrated connections
+     */
+    @Override
+    public long getMigratedConnectionCount() {
+        return migratedConnections.get();
+    }
+}
@@ -35,6 +35,7 @@ public class PoolConfiguration {
     private int eventGroupExecutorThreads = 15;
     private long maxWaitTime = 60000L;
     private int http2MaxActiveStreamsPerConnection = Integer.MAX_VALUE;
+    private ConcurrencyLimitConfiguration concurrencyLimitConfiguration = new ConcurrencyLimitConfiguration();
 
     public PoolConfiguration() {
     }
@@ -142,4 +143,12 @@ public class PoolConfiguration {
     public void setHttp2MaxActiveStreamsPerConnection(int http2MaxActiveStreamsPerConnection) {
         this.http2MaxActiveStreamsPerConnection = http2MaxActiveStreamsPerConnection;
     }
+
+    public ConcurrencyLimitConfiguration getConcurrencyLimitConfiguration() {
+        return concurrencyLimitConfiguration;
+    }
+
+    public void setConcurrencyLimitConfiguration(ConcurrencyLimitConfiguration concurrencyLimitConfiguration) {
+        this.concurrencyLimitConfiguration = concurrencyLimitConfiguration;
+    }
 }
@@ -23,6 +23,7 @@ import org.apache.commons.pool.PoolableObjectFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contractimpl.common.ChannelOptions;
 import org.wso2.transport.http.netty.contractimpl.common.HttpRoute;
 import org.wso2.transport.http.netty.contractimpl.sender.ConnectionAvailabilityFuture;
 import org.wso2.transport.http.netty.contractimpl.sender.HttpClientChannelInitializer;
@@ -71,6 +72,7 @@ public class PoolableTargetChannelFactory implements PoolableObjectFactory {
 
         TargetChannel targetChannel = createNewTargetChannel(clientBootstrap, connectionAvailabilityFuture,
                                                              httpClientChannelInitializer);
+        connectionManager.getPoolMetrics().onNewConnection();
 
         LOG.debug("Created channel: {}", httpRoute);
 
@@ -115,6 +117,24 @@ public class PoolableTargetChannelFactory implements PoolableObjectFactory {
         clientBootstrap.option(ChannelOption.TCP_NODELAY, bootstrapConfiguration.isTcpNoDelay());
         clientBootstrap.option(ChannelOption.SO_REUSEADDR, bootstrapConfiguration.isSocketReuse());
         clientBootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, bootstrapConfiguration.getConnectTimeOut());
+        clientBootstrap.option(ChannelOption.ALLOCATOR, bootstrapConfiguration.getByteBufAllocator());
+        clientBootstrap.option(ChannelOption.RCVBUF_ALLOCATOR, bootstrapConfiguration.getRecvByteBufAllocator());
+        if (bootstrapConfiguration.getWriteBufferWaterMark() != null) {
+            clientBootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                                   bootstrapConfiguration.getWriteBufferWaterMark());
+        }
+        if (bootstrapConfiguration.getSoLinger() > -1) {
+            clientBootstrap.option(ChannelOption.SO_LINGER, bootstrapConfiguration.getSoLinger());
+        }
+        if (bootstrapConfiguration.isTcpFastOpen()) {
+            clientBootstrap.option(ChannelOptions.TCP_FASTOPEN_CONNECT, true);
+        }
+        if (bootstrapConfiguration.isTcpQuickAck()) {
+            clientBootstrap.option(ChannelOptions.TCP_QUICKACK, true);
+        }
+        if (bootstrapConfiguration.getSoBusyPoll() > 0) {
+            clientBootstrap.option(ChannelOptions.SO_BUSY_POLL, bootstrapConfiguration.getSoBusyPoll());
+        }
         return clientBootstrap;
     }
 
@@ -133,6 +153,11 @@ public class PoolableTargetChannelFactory implements PoolableObjectFactory {
     @Override
     public void destroyObject(Object o) throws Exception {
         TargetChannel targetChannel = (TargetChannel) o;
+        // Connections handed to the HTTP/2 connection manager are never set on the target channel
+        if (targetChannel.getChannel() == null) {
+            LOG.debug("Destroying channel without a pooled connection: {}", httpRoute);
+            return;
+        }
         if (LOG.isDebugEnabled()) {
             LOG.debug("Destroying channel: {}", targetChannel.getChannel().id());
         }
@@ -149,7 +174,8 @@ public class PoolableTargetChannelFactory implements PoolableObjectFactory {
             LOG.debug("Validating channel: {} -> {}", targetChannel.getChannel().id(), answer);
             return answer;
         }
-        return true;
+        // Idle connections created to keep the minimum idle count have not been used yet
+        return targetChannel.isConnectionUsable();
     }
 
     @Override
@@ -30,9 +30,11 @@ public class PoolableTargetChannelFactoryPerSrcHndlr implements PoolableObjectFa
     private static final Logger LOG = LoggerFactory.getLogger(PoolableTargetChannelFactoryPerSrcHndlr.class);
 
     private final GenericObjectPool genericObjectPool;
+    private final ConnectionPoolMetrics poolMetrics;
 
-    PoolableTargetChannelFactoryPerSrcHndlr(GenericObjectPool genericObjectPool) {
+    PoolableTargetChannelFactoryPerSrcHndlr(GenericObjectPool genericObjectPool, ConnectionPoolMetrics poolMetrics) {
         this.genericObjectPool = genericObjectPool;
+        this.poolMetrics = poolMetrics;
     }
 
     @Override
@@ -49,6 +51,9 @@ public class PoolableTargetChannelFactoryPerSrcHndlr implements PoolableObjectFa
                 LOG.debug("Original Channel {} is returned to the pool. ", ((TargetChannel) o).getChannel().id());
             }
             this.genericObjectPool.returnObject(o);
+            if (poolMetrics != null) {
+                poolMetrics.onMigration();
+            }
         } else {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Original Channel is destroyed. ");
@@ -27,6 +27,7 @@ import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.Http2Settings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contractimpl.common.Util;
 import org.wso2.transport.http.netty.message.Http2DataFrame;
 import org.wso2.transport.http.netty.message.Http2HeadersFrame;
@@ -50,15 +51,17 @@ public class ClientFrameListener extends Http2EventAdapter {
                     endOfStream);
         }
 
+        // The stream channel of a WebSocket returns the bytes to the flow controller once it has read them
+        int processedBytes = http2ClientChannel.isWebSocketStream(streamId) ? padding : data.readableBytes() + padding;
         for (Http2DataEventListener listener : http2ClientChannel.getDataEventListeners()) {
             if (!listener.onDataRead(ctx, streamId, data, endOfStream)) {
-                return data.readableBytes() + padding;
+                return processedBytes;
             }
         }
 
         Http2DataFrame dataFrame = new Http2DataFrame(streamId, data, endOfStream);
         ctx.fireChannelRead(dataFrame);
-        return data.readableBytes() + padding;
+        return processedBytes;
     }
 
     @Override
@@ -88,6 +91,10 @@ public class ClientFrameListener extends Http2EventAdapter {
     public void onSettingsRead(ChannelHandlerContext ctx, Http2Settings settings)
             throws Http2Exception {
         LOG.debug("Http2FrameListenAdapter.onSettingRead()");
+        Long enableConnectProtocol = settings.get(Constants.HTTP2_SETTINGS_ENABLE_CONNECT_PROTOCOL);
+        if (enableConnectProtocol != null && http2ClientChannel != null) {
+            http2ClientChannel.setExtendedConnectEnabled(enableConnectProtocol == 1);
+        }
         ctx.fireChannelRead(settings);
         super.onSettingsRead(ctx, settings);
     }
@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contractimpl.common.HttpRoute;
+import org.wso2.transport.http.netty.contractimpl.websocket.http2.Http2WebSocketStreams;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -59,6 +60,9 @@ public class Http2ClientChannel {
     private int socketIdleTimeout = Constants.ENDPOINT_TIMEOUT;
     private Map<String, Http2DataEventListener> dataEventListeners;
     private StreamCloseListener streamCloseListener;
+    // Whether the server accepts WebSockets over the connection (SETTINGS_ENABLE_CONNECT_PROTOCOL of RFC 8441)
+    private volatile boolean extendedConnectEnabled;
+    private Http2WebSocketStreams webSocketStreams;
 
     public Http2ClientChannel(Http2ConnectionManager http2ConnectionManager, Http2Connection connection,
                               HttpRoute httpRoute, Channel channel) {
@@ -194,6 +198,16 @@ public class Http2ClientChannel {
         return activeStreams.incrementAndGet();
     }
 
+    /**
+     * Gives back a stream borrowed from the pool without opening it.
+     */
+    public void returnUnusedStream() {
+        activeStreams.decrementAndGet();
+        if (isExhausted.getAndSet(false)) {
+            http2ConnectionManager.returnClientChannel(httpRoute, this);
+        }
+    }
+
     /**
      * Marks the channel has reached the maximum number of active streams.
      */
@@ -220,6 +234,49 @@ public class Http2ClientChannel {
         return new ArrayList<>(dataEventListeners.values());
     }
 
+    /**
+     * Checks whether the server allows WebSockets to be opened over the connection with the extended CONNECT method.
+     *
+     * @return true if the server advertised SETTINGS_ENABLE_CONNECT_PROTOCOL
+     */
+    public boolean isExtendedConnectEnabled() {
+        return extendedConnectEnabled;
+    }
+
+    void setExtendedConnectEnabled(boolean extendedConnectEnabled) {
+        this.extendedConnectEnabled = extendedConnectEnabled;
+    }
+
+    /**
+     * Gets the WebSocket streams of the connection. The first call starts routing the frames of these streams away
+     * from the HTTP message flow. Must be called on the event loop of the channel.
+     *
+     * @return the WebSocket streams of the connection
+     */
+    public Http2WebSocketStreams getWebSocketStreams() {
+        if (webSocketStreams == null) {
+            webSocketStreams = new Http2WebSocketStreams();
+            addDataEventListener(Constants.WEBSOCKET_HTTP2_STREAMS, webSocketStreams);
+        }
+        return webSocketStreams;
+    }
+
+    /**
+     * Checks whether the given stream carries a WebSocket.
+     *
+     * @param streamId the id of the stream
+     * @return true if the stream carries a WebSocket
+     */
+    public boolean isWebSocketStream(int streamId) {
+        return webSocketStreams != null && webSocketStreams.contains(streamId);
+    }
+
+    void channelWritabilityChanged() {
+        if (webSocketStreams != null) {
+            webSocketStreams.channelWritabilityChanged();
+        }
+    }
+
     /**
      * Gets the socket idle timeout of the channel.
      *
@@ -29,6 +29,7 @@ import io.netty.handler.codec.http2.Http2Error;
 import io.netty.handler.codec.http2.Http2Exception;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contractimpl.common.Http2StreamWritabilityTracker;
 import org.wso2.transport.http.netty.contractimpl.common.states.Http2MessageStateContext;
 import org.wso2.transport.http.netty.contractimpl.sender.states.http2.RequestCompleted;
 import org.wso2.transport.http.netty.contractimpl.sender.states.http2.SendingEntityBody;
@@ -69,6 +70,14 @@ public class Http2TargetHandler extends ChannelDuplexHandler {
         }
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        if (http2ClientChannel != null) {
+            http2ClientChannel.channelWritabilityChanged();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
     /**
      * Terminates a stream.
      *
@@ -183,6 +192,8 @@ public class Http2TargetHandler extends ChannelDuplexHandler {
 
         public void setStreamId(int streamId) {
             this.streamId = streamId;
+            httpOutboundRequest.setOutboundWritability(
+                    Http2StreamWritabilityTracker.streamWritability(http2ClientChannel.getChannel(), streamId));
         }
     }
 
@@ -55,7 +55,8 @@ public class SendingEntityBody implements SenderState {
     private static final Logger LOG = LoggerFactory.getLogger(SendingEntityBody.class);
 
     private final MessageStateContext messageStateContext;
-    private final boolean headersWritten;
+    private final int bufferLimit;
+    private boolean headersWritten;
     private final HandlerExecutor handlerExecutor;
     private final TargetChannel targetChannel;
     private final HttpResponseFuture httpInboundResponseFuture;
@@ -63,11 +64,16 @@ public class SendingEntityBody implements SenderState {
     private long contentLength = 0;
     private List<HttpContent> contentList = new ArrayList<>();
 
+    /**
+     * @param bufferLimit bytes of the body buffered before switching to chunked encoding, or -1 to buffer the whole
+     *                    body when the headers are not written yet
+     */
     SendingEntityBody(MessageStateContext messageStateContext, TargetChannel targetChannel,
-                             boolean headersWritten, HttpResponseFuture httpInboundResponseFuture) {
+                      boolean headersWritten, int bufferLimit, HttpResponseFuture httpInboundResponseFuture) {
         this.messageStateContext = messageStateContext;
         this.targetChannel = targetChannel;
         this.headersWritten = headersWritten;
+        this.bufferLimit = bufferLimit;
         this.handlerExecutor = HttpTransportContextHolder.getInstance().getHandlerExecutor();
         this.httpInboundResponseFuture = httpInboundResponseFuture;
         this.httpVersion = targetChannel.getHttpVersion();
@@ -85,9 +91,7 @@ public class SendingEntityBody implements SenderState {
                 contentLength += httpContent.content().readableBytes();
                 Util.setupContentLengthRequest(httpOutboundRequest, contentLength);
                 writeRequestHeaders(httpOutboundRequest, httpInboundResponseFuture, httpVersion, targetChannel);
-                for (HttpContent cachedHttpContent : contentList) {
-                    this.targetChannel.getChannel().writeAndFlush(cachedHttpContent);
-                }
+                writeCachedContent();
             }
             writeOutboundRequestBody(httpContent);
 
@@ -101,10 +105,25 @@ public class SendingEntityBody implements SenderState {
             } else {
                 this.contentList.add(httpContent);
                 contentLength += httpContent.content().readableBytes();
+                if (bufferLimit > -1 && contentLength >= bufferLimit) {
+                    // The body does not end within the threshold, hence stream the rest of it chunked
+                    Util.setupChunkedRequest(httpOutboundRequest);
+                    writeRequestHeaders(httpOutboundRequest, httpInboundResponseFuture, httpVersion, targetChannel);
+                    writeCachedContent();
+                    this.targetChannel.getChannel().flush();
+                    headersWritten = true;
+                }
             }
         }
     }
 
+    private void writeCachedContent() {
+        for (HttpContent cachedHttpContent : contentList) {
+            this.targetChannel.getChannel().write(cachedHttpContent);
+        }
+        contentList.clear();
+    }
+
     @Override
     public void readInboundResponseHeaders(TargetHandler targetHandler, HttpResponse httpInboundResponse) {
         // If this method is called, it is an application error. Inbound response is receiving before the completion
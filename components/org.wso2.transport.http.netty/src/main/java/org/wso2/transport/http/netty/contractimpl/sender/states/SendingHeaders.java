@@ -55,16 +55,19 @@ public class SendingHeaders implements SenderState {
 
     private final String httpVersion;
     private final ChunkConfig chunkConfig;
+    private final int chunkingThreshold;
     private final TargetChannel targetChannel;
     private final MessageStateContext messageStateContext;
     private final HttpResponseFuture httpInboundResponseFuture;
 
     public SendingHeaders(MessageStateContext messageStateContext, TargetChannel targetChannel, String httpVersion,
-                          ChunkConfig chunkConfig, HttpResponseFuture httpInboundResponseFuture) {
+                          ChunkConfig chunkConfig, int chunkingThreshold,
+                          HttpResponseFuture httpInboundResponseFuture) {
         this.messageStateContext = messageStateContext;
         this.targetChannel = targetChannel;
         this.httpVersion = httpVersion;
         this.chunkConfig = chunkConfig;
+        this.chunkingThreshold = chunkingThreshold;
         this.httpInboundResponseFuture = httpInboundResponseFuture;
     }
 
@@ -80,16 +83,19 @@ public class SendingHeaders implements SenderState {
                 }
             }
             writeRequestHeaders(httpOutboundRequest, httpInboundResponseFuture, httpVersion, targetChannel);
-            writeResponse(httpOutboundRequest, httpContent, true);
+            writeResponse(httpOutboundRequest, httpContent, true, -1);
         } else {
-            if ((chunkConfig == ChunkConfig.ALWAYS || chunkConfig == ChunkConfig.AUTO) &&
-                    checkChunkingCompatibility(httpVersion, chunkConfig)) {
+            boolean chunkingCompatible = checkChunkingCompatibility(httpVersion, chunkConfig);
+            if (chunkingCompatible && (chunkConfig == ChunkConfig.ALWAYS
+                    || (chunkConfig == ChunkConfig.AUTO && chunkingThreshold == 0))) {
                 setupChunkedRequest(httpOutboundRequest);
                 writeRequestHeaders(httpOutboundRequest, httpInboundResponseFuture, httpVersion, targetChannel);
-                writeResponse(httpOutboundRequest, httpContent, true);
+                writeResponse(httpOutboundRequest, httpContent, true, -1);
                 return;
             }
-            writeResponse(httpOutboundRequest, httpContent, false);
+            // Under AUTO the body is buffered only up to the threshold, after which it is streamed chunked
+            int bufferLimit = chunkingCompatible && chunkConfig == ChunkConfig.AUTO ? chunkingThreshold : -1;
+            writeResponse(httpOutboundRequest, httpContent, false, bufferLimit);
         }
     }
 
@@ -125,9 +131,10 @@ public class SendingHeaders implements SenderState {
         LOG.error("Error in HTTP client: {}", IDLE_TIMEOUT_TRIGGERED_WHILE_WRITING_OUTBOUND_REQUEST_HEADERS);
     }
 
-    private void writeResponse(HttpCarbonMessage outboundResponseMsg, HttpContent httpContent, boolean headersWritten) {
+    private void writeResponse(HttpCarbonMessage outboundResponseMsg, HttpContent httpContent, boolean headersWritten,
+                               int bufferLimit) {
         messageStateContext.setSenderState(new SendingEntityBody(messageStateContext, targetChannel, headersWritten,
-                                                                 httpInboundResponseFuture));
+                                                                 bufferLimit, httpInboundResponseFuture));
         messageStateContext.getSenderState().writeOutboundRequestEntity(outboundResponseMsg, httpContent);
     }
 }
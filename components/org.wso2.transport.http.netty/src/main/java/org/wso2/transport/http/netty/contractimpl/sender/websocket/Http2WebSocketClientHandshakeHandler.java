@@ -0,0 +1,167 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.sender.websocket;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.websocketx.WebSocketHandshakeException;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.HttpConversionUtil;
+import io.netty.util.ReferenceCountUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode;
+import org.wso2.transport.http.netty.contractimpl.listener.MessageQueueHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.DefaultClientHandshakeFuture;
+import org.wso2.transport.http.netty.contractimpl.websocket.DefaultWebSocketConnection;
+import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketInboundFrameHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.http2.Http2WebSocketUtil;
+import org.wso2.transport.http.netty.message.DefaultListener;
+import org.wso2.transport.http.netty.message.HttpCarbonResponse;
+
+/**
+ * Handles the response to a WebSocket extended CONNECT request sent over a HTTP/2 stream.
+ */
+public class Http2WebSocketClientHandshakeHandler extends ChannelInboundHandlerAdapter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Http2WebSocketClientHandshakeHandler.class);
+
+    private final DefaultClientHandshakeFuture handshakeFuture;
+    private final String subProtocols;
+    private final boolean secure;
+    private final boolean autoRead;
+    private final String requestedUri;
+    private final int maxFrameSize;
+    private final int idleTimeout;
+    private final WebSocketBufferMode bufferMode;
+    private final WebSocketHeartbeatHandler heartbeatHandler;
+    private HttpCarbonResponse httpCarbonResponse;
+    private boolean handshakeDone;
+
+    public Http2WebSocketClientHandshakeHandler(DefaultClientHandshakeFuture handshakeFuture, String subProtocols,
+                                                boolean secure, boolean autoRead, String requestedUri,
+                                                int maxFrameSize, int idleTimeout, WebSocketBufferMode bufferMode,
+                                                WebSocketHeartbeatHandler heartbeatHandler) {
+        this.handshakeFuture = handshakeFuture;
+        this.subProtocols = subProtocols;
+        this.secure = secure;
+        this.autoRead = autoRead;
+        this.requestedUri = requestedUri;
+        this.maxFrameSize = maxFrameSize;
+        this.idleTimeout = idleTimeout;
+        this.bufferMode = bufferMode;
+        this.heartbeatHandler = heartbeatHandler;
+    }
+
+    public HttpCarbonResponse getHttpCarbonResponse() {
+        return httpCarbonResponse;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Http2Exception {
+        if (!(msg instanceof Http2Headers)) {
+            ReferenceCountUtil.release(msg);
+            throw new IllegalArgumentException("HTTP/2 response headers are expected");
+        }
+        Http2Headers headers = (Http2Headers) msg;
+        HttpResponseStatus status = HttpConversionUtil.parseStatus(headers.status());
+        HttpResponse handshakeResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status, false);
+        HttpConversionUtil.addHttp2ToHttpHeaders(-1, headers, handshakeResponse.headers(), HttpVersion.HTTP_1_1,
+                                                 false, false);
+        httpCarbonResponse = setUpCarbonMessage(ctx, handshakeResponse);
+        handshakeDone = true;
+
+        if (status.codeClass() != HttpStatusClass.SUCCESS) {
+            failHandshake(ctx, new WebSocketHandshakeException("Invalid handshake response status: " + status));
+            return;
+        }
+        String subProtocol = handshakeResponse.headers().get(HttpHeaderNames.SEC_WEBSOCKET_PROTOCOL);
+        if (subProtocol != null && !isRequestedSubProtocol(subProtocol)) {
+            failHandshake(ctx, new WebSocketHandshakeException(
+                    "Invalid subprotocol. Actual: " + subProtocol + ". Expected one of: " + subProtocols));
+            return;
+        }
+
+        WebSocketInboundFrameHandler inboundFrameHandler = new WebSocketInboundFrameHandler(
+                false, secure, requestedUri, subProtocol, handshakeFuture, new MessageQueueHandler(), bufferMode);
+        Http2WebSocketUtil.configureFramePipeline(ctx.channel(), false, maxFrameSize, idleTimeout, heartbeatHandler,
+                                                  inboundFrameHandler);
+        ctx.pipeline().remove(this);
+        DefaultWebSocketConnection webSocketConnection = inboundFrameHandler.getWebSocketConnection();
+        if (autoRead) {
+            webSocketConnection.startReadingFrames();
+        } else {
+            webSocketConnection.stopReadingFrames();
+        }
+        handshakeFuture.notifySuccess(webSocketConnection, httpCarbonResponse);
+        ctx.fireChannelActive();
+        LOG.debug("WebSocket client connected over HTTP/2 stream {}", ctx.channel().id());
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        if (!handshakeDone) {
+            handshakeDone = true;
+            handshakeFuture.notifyError(new WebSocketHandshakeException("Stream closed before the handshake response"),
+                                        null);
+        }
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        LOG.error("Caught exception", cause);
+        handshakeDone = true;
+        handshakeFuture.notifyError(cause, httpCarbonResponse);
+        ctx.close();
+    }
+
+    private void failHandshake(ChannelHandlerContext ctx, Throwable cause) {
+        handshakeFuture.notifyError(cause, httpCarbonResponse);
+        ctx.close();
+    }
+
+    private boolean isRequestedSubProtocol(String subProtocol) {
+        if (subProtocols == null) {
+            return false;
+        }
+        for (String requested : subProtocols.split(",")) {
+            if (requested.trim().equals(subProtocol)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private HttpCarbonResponse setUpCarbonMessage(ChannelHandlerContext ctx, HttpResponse msg) {
+        HttpCarbonResponse carbonResponse = new HttpCarbonResponse(msg, new DefaultListener(ctx));
+        carbonResponse.setProperty(Constants.DIRECTION, Constants.DIRECTION_RESPONSE);
+        carbonResponse.setProperty(Constants.HTTP_STATUS_CODE, msg.status().code());
+        return carbonResponse;
+    }
+}
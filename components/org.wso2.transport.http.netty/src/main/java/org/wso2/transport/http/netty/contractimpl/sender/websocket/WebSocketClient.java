@@ -20,6 +20,7 @@
 package org.wso2.transport.http.netty.contractimpl.sender.websocket;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
@@ -34,17 +35,28 @@ import io.netty.handler.codec.http.websocketx.Utf8FrameValidator;
 import io.netty.handler.codec.http.websocketx.WebSocketClientHandshaker;
 import io.netty.handler.codec.http.websocketx.WebSocketClientHandshakerFactory;
 import io.netty.handler.codec.http.websocketx.WebSocketVersion;
+import io.netty.handler.codec.http2.Http2Connection;
 import io.netty.handler.ssl.SslHandshakeCompletionEvent;
 import io.netty.handler.timeout.IdleStateHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.config.WebSocketCompressionConfig;
 import org.wso2.transport.http.netty.contract.websocket.ClientHandshakeFuture;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketClientConnectorConfig;
+import org.wso2.transport.http.netty.contractimpl.common.HttpRoute;
 import org.wso2.transport.http.netty.contractimpl.common.Util;
 import org.wso2.transport.http.netty.contractimpl.common.ssl.SSLConfig;
 import org.wso2.transport.http.netty.contractimpl.listener.MessageQueueHandler;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.PoolConfiguration;
+import org.wso2.transport.http.netty.contractimpl.sender.http2.Http2ClientChannel;
+import org.wso2.transport.http.netty.contractimpl.sender.http2.Http2ConnectionManager;
+import org.wso2.transport.http.netty.contractimpl.sender.http2.Http2TargetHandler;
 import org.wso2.transport.http.netty.contractimpl.websocket.DefaultClientHandshakeFuture;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatService;
+import org.wso2.transport.http.netty.contractimpl.websocket.http2.Http2WebSocketStreamChannel;
+import org.wso2.transport.http.netty.contractimpl.websocket.http2.Http2WebSocketUtil;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -52,6 +64,7 @@ import java.security.cert.CertificateExpiredException;
 import java.security.cert.CertificateNotYetValidException;
 import java.security.cert.X509Certificate;
 import java.util.Date;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLEngine;
@@ -75,12 +88,26 @@ public class WebSocketClient {
     private final EventLoopGroup wsClientEventLoopGroup;
     private final boolean autoRead;
     private final WebSocketClientConnectorConfig connectorConfig;
+    private final WebSocketClientCompressionHandler compressionHandler;
+    private final WebSocketHeartbeatService heartbeatService;
+    private final Http2ConnectionManager http2ConnectionManager;
 
     /**
      * @param wsClientEventLoopGroup of the client connector
      * @param connectorConfig        Connector configuration for WebSocket client.
      */
     public WebSocketClient(EventLoopGroup wsClientEventLoopGroup, WebSocketClientConnectorConfig connectorConfig) {
+        this(wsClientEventLoopGroup, connectorConfig, null, null);
+    }
+
+    /**
+     * @param wsClientEventLoopGroup of the client connector
+     * @param connectorConfig        Connector configuration for WebSocket client.
+     * @param compressionExecutor    executor to compress large frames on, or null if compression is not offloaded.
+     * @param heartbeatService       heartbeat service of the connection, or null if the heartbeat is disabled.
+     */
+    public WebSocketClient(EventLoopGroup wsClientEventLoopGroup, WebSocketClientConnectorConfig connectorConfig,
+                           Executor compressionExecutor, WebSocketHeartbeatService heartbeatService) {
         this.url = connectorConfig.getRemoteAddress();
         this.subProtocols = connectorConfig.getSubProtocolsAsCSV();
         this.idleTimeout = connectorConfig.getIdleTimeoutInMillis();
@@ -89,6 +116,18 @@ public class WebSocketClient {
         this.autoRead = connectorConfig.isAutoRead();
         this.maxFrameSize = connectorConfig.getMaxFrameSize();
         this.connectorConfig = connectorConfig;
+        this.heartbeatService = heartbeatService;
+        // HTTP/2 connection pools are shared, hence this manager sees the connections opened by the HTTP clients.
+        this.http2ConnectionManager = connectorConfig.isHttp2Enabled() ?
+                new Http2ConnectionManager(new PoolConfiguration()) : null;
+        WebSocketCompressionConfig compressionConfig = connectorConfig.getCompressionConfig();
+        if (compressionConfig == null) {
+            this.compressionHandler = WebSocketClientCompressionHandler.INSTANCE;
+        } else if (compressionConfig.isEnabled()) {
+            this.compressionHandler = new WebSocketClientCompressionHandler(compressionConfig, compressionExecutor);
+        } else {
+            this.compressionHandler = null;
+        }
     }
 
     /**
@@ -110,12 +149,19 @@ public class WebSocketClient {
             final String host = uri.getHost() == null ? "127.0.0.1" : uri.getHost();
             final int port = getPort(uri);
             final boolean ssl = Constants.WSS_SCHEME.equalsIgnoreCase(scheme);
+            if (http2ConnectionManager != null && handshakeOverHttp2(uri, host, port, ssl, handshakeFuture)) {
+                return handshakeFuture;
+            }
             WebSocketClientHandshaker webSocketHandshaker = WebSocketClientHandshakerFactory.newHandshaker(
                     uri, WebSocketVersion.V13, subProtocols, true, headers, maxFrameSize);
             MessageQueueHandler messageQueueHandler = new MessageQueueHandler();
+            WebSocketHeartbeatHandler heartbeatHandler = heartbeatService != null ?
+                    heartbeatService.newHandler(idleTimeout) : null;
             clientHandshakeHandler = new WebSocketClientHandshakeHandler(webSocketHandshaker, handshakeFuture,
                                                                          messageQueueHandler, ssl, autoRead, url,
-                                                                         handshakeFuture);
+                                                                         handshakeFuture,
+                                                                         connectorConfig.getBufferMode(),
+                                                                         heartbeatHandler);
             Bootstrap clientBootstrap = initClientBootstrap(host, port, handshakeFuture);
             clientBootstrap.connect(uri.getHost(), port).sync();
         } catch (Exception throwable) {
@@ -124,6 +170,66 @@ public class WebSocketClient {
         return handshakeFuture;
     }
 
+    /**
+     * Opens the WebSocket as a stream of a pooled HTTP/2 connection to the same host, if the server advertised the
+     * extended CONNECT method on it.
+     *
+     * @return true if the handshake was started over HTTP/2
+     */
+    private boolean handshakeOverHttp2(URI uri, String host, int port, boolean ssl,
+                                       DefaultClientHandshakeFuture handshakeFuture) {
+        HttpRoute httpRoute = new HttpRoute(ssl ? Constants.HTTPS_SCHEME : Constants.HTTP_SCHEME, host, port);
+        Http2ClientChannel http2ClientChannel = http2ConnectionManager.borrowChannel(httpRoute);
+        if (http2ClientChannel == null) {
+            return false;
+        }
+        if (!http2ClientChannel.isExtendedConnectEnabled()) {
+            http2ClientChannel.returnUnusedStream();
+            return false;
+        }
+        WebSocketHeartbeatHandler heartbeatHandler = heartbeatService != null ?
+                heartbeatService.newHandler(idleTimeout) : null;
+        Http2WebSocketClientHandshakeHandler http2HandshakeHandler = new Http2WebSocketClientHandshakeHandler(
+                handshakeFuture, subProtocols, ssl, autoRead, url, maxFrameSize, idleTimeout,
+                connectorConfig.getBufferMode(), heartbeatHandler);
+        Channel connectionChannel = http2ClientChannel.getChannel();
+        connectionChannel.eventLoop().execute(() -> {
+            try {
+                openWebSocketStream(uri, ssl, http2ClientChannel, http2HandshakeHandler, handshakeFuture);
+            } catch (Exception e) {
+                http2ClientChannel.returnUnusedStream();
+                handshakeFuture.notifyError(e, null);
+            }
+        });
+        return true;
+    }
+
+    private void openWebSocketStream(URI uri, boolean ssl, Http2ClientChannel http2ClientChannel,
+                                     Http2WebSocketClientHandshakeHandler http2HandshakeHandler,
+                                     DefaultClientHandshakeFuture handshakeFuture) throws Exception {
+        ChannelHandlerContext targetCtx = http2ClientChannel.getChannel().pipeline()
+                .context(Constants.HTTP2_TARGET_HANDLER);
+        Http2TargetHandler targetHandler = (Http2TargetHandler) targetCtx.handler();
+        Http2Connection connection = http2ClientChannel.getConnection();
+        int streamId = connection.local().incrementAndGetNextStreamId();
+        connection.local().createStream(streamId, false);
+
+        Http2WebSocketStreamChannel streamChannel = new Http2WebSocketStreamChannel(targetCtx,
+                                                                                    targetHandler.getEncoder(),
+                                                                                    streamId);
+        streamChannel.pipeline().addLast(Constants.WEBSOCKET_CLIENT_HANDSHAKE_HANDLER, http2HandshakeHandler);
+        streamChannel.registerWithConnection();
+        http2ClientChannel.getWebSocketStreams().add(streamChannel);
+        streamChannel.read();
+        streamChannel.writeHeaders(Http2WebSocketUtil.newRequestHeaders(uri, ssl, subProtocols, headers), null,
+                                   false).addListener(future -> {
+            if (!future.isSuccess()) {
+                handshakeFuture.notifyError(future.cause(), null);
+                streamChannel.close();
+            }
+        });
+    }
+
     private void handleHandshakeError(DefaultClientHandshakeFuture handshakeFuture, Throwable throwable) {
         if (clientHandshakeHandler != null) {
             handshakeFuture.notifyError(throwable, clientHandshakeHandler.getHttpCarbonResponse());
@@ -156,9 +262,12 @@ public class WebSocketClient {
         pipeline.addLast(new HttpClientCodec());
         // Assuming that WebSocket Handshake messages will not be large than 8KB
         pipeline.addLast(new HttpObjectAggregator(8192));
-        pipeline.addLast(WebSocketClientCompressionHandler.INSTANCE);
+        if (compressionHandler != null) {
+            pipeline.addLast(compressionHandler);
+        }
         pipeline.addLast(Utf8FrameValidator.class.getName(), new Utf8FrameValidator());
-        if (idleTimeout > 0) {
+        // With the heartbeat enabled, idle timeouts are handled by the heartbeat handler after the handshake.
+        if (idleTimeout > 0 && heartbeatService == null) {
             pipeline.addLast(new IdleStateHandler(0, 0, idleTimeout, TimeUnit.MILLISECONDS));
         }
         pipeline.addLast(Constants.WEBSOCKET_CLIENT_HANDSHAKE_HANDLER, clientHandshakeHandler);
@@ -19,12 +19,12 @@
 package org.wso2.transport.http.netty.contractimpl.sender.websocket;
 
 import io.netty.channel.ChannelHandler;
-import io.netty.handler.codec.compression.ZlibCodecFactory;
 import io.netty.handler.codec.http.websocketx.extensions.WebSocketClientExtensionHandler;
 import io.netty.handler.codec.http.websocketx.extensions.compression.DeflateFrameClientExtensionHandshaker;
-import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateClientExtensionHandshaker;
+import org.wso2.transport.http.netty.contract.config.WebSocketCompressionConfig;
+import org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateClientHandshaker;
 
-import static io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateServerExtensionHandshaker.MAX_WINDOW_SIZE;
+import java.util.concurrent.Executor;
 
 /**
  * Extends <tt>io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketClientExtensionHandler</tt> to
@@ -32,16 +32,16 @@ import static io.netty.handler.codec.http.websocketx.extensions.compression.PerM
  */
 @ChannelHandler.Sharable
 public class WebSocketClientCompressionHandler extends WebSocketClientExtensionHandler {
-    public static final WebSocketClientCompressionHandler INSTANCE = new WebSocketClientCompressionHandler();
+    public static final WebSocketClientCompressionHandler INSTANCE =
+            new WebSocketClientCompressionHandler(new WebSocketCompressionConfig(), null);
 
-    private WebSocketClientCompressionHandler() {
-        super(new PerMessageDeflateClientExtensionHandshaker(),
-              new PerMessageDeflateClientExtensionHandshaker(6, ZlibCodecFactory.isSupportingWindowSizeAndMemLevel(),
-                                                             MAX_WINDOW_SIZE, true, false),
-              new PerMessageDeflateClientExtensionHandshaker(6, ZlibCodecFactory.isSupportingWindowSizeAndMemLevel(),
-                                                             MAX_WINDOW_SIZE, false, true),
-              new PerMessageDeflateClientExtensionHandshaker(6, ZlibCodecFactory.isSupportingWindowSizeAndMemLevel(),
-                                                             MAX_WINDOW_SIZE, true, true),
+    /**
+     * @param compressionConfig compression configuration of the client connector.
+     * @param offloadExecutor   executor to compress large frames on, or null if compression is not offloaded.
+     */
+    public WebSocketClientCompressionHandler(WebSocketCompressionConfig compressionConfig,
+                                             Executor offloadExecutor) {
+        super(new PerMessageDeflateClientHandshaker(compressionConfig, offloadExecutor),
               new DeflateFrameClientExtensionHandshaker(false),
               new DeflateFrameClientExtensionHandshaker(true));
     }
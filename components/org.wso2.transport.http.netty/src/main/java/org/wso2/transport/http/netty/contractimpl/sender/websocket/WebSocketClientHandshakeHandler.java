@@ -30,11 +30,13 @@ import io.netty.handler.codec.http.websocketx.WebSocketFrameDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorFuture;
 import org.wso2.transport.http.netty.contractimpl.listener.MessageQueueHandler;
 import org.wso2.transport.http.netty.contractimpl.websocket.DefaultClientHandshakeFuture;
 import org.wso2.transport.http.netty.contractimpl.websocket.DefaultWebSocketConnection;
 import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketInboundFrameHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatHandler;
 import org.wso2.transport.http.netty.message.DefaultListener;
 import org.wso2.transport.http.netty.message.HttpCarbonResponse;
 
@@ -52,11 +54,14 @@ public class WebSocketClientHandshakeHandler extends ChannelInboundHandlerAdapte
     private final String requestedUri;
     private final DefaultClientHandshakeFuture handshakeFuture;
     private final WebSocketConnectorFuture connectorFuture;
+    private final WebSocketBufferMode bufferMode;
+    private final WebSocketHeartbeatHandler heartbeatHandler;
     private HttpCarbonResponse httpCarbonResponse;
 
     public WebSocketClientHandshakeHandler(WebSocketClientHandshaker handshaker,
             DefaultClientHandshakeFuture handshakeFuture, MessageQueueHandler messageQueueHandler,
-            boolean secure, boolean autoRead, String requestedUri, WebSocketConnectorFuture connectorFuture) {
+            boolean secure, boolean autoRead, String requestedUri, WebSocketConnectorFuture connectorFuture,
+            WebSocketBufferMode bufferMode, WebSocketHeartbeatHandler heartbeatHandler) {
         this.handshaker = handshaker;
         this.messageQueueHandler = messageQueueHandler;
         this.secure = secure;
@@ -64,6 +69,8 @@ public class WebSocketClientHandshakeHandler extends ChannelInboundHandlerAdapte
         this.requestedUri = requestedUri;
         this.connectorFuture = connectorFuture;
         this.handshakeFuture = handshakeFuture;
+        this.bufferMode = bufferMode;
+        this.heartbeatHandler = heartbeatHandler;
     }
 
     public HttpCarbonResponse getHttpCarbonResponse() {
@@ -95,7 +102,11 @@ public class WebSocketClientHandshakeHandler extends ChannelInboundHandlerAdapte
                                                                        false));
             }
             WebSocketInboundFrameHandler inboundFrameHandler = new WebSocketInboundFrameHandler(
-                    false, secure, requestedUri, handshaker.actualSubprotocol(), connectorFuture, messageQueueHandler);
+                    false, secure, requestedUri, handshaker.actualSubprotocol(), connectorFuture, messageQueueHandler,
+                    bufferMode);
+            if (heartbeatHandler != null) {
+                channel.pipeline().addLast(Constants.WEBSOCKET_HEARTBEAT_HANDLER, heartbeatHandler);
+            }
             channel.pipeline().addLast(Constants.WEBSOCKET_FRAME_HANDLER, inboundFrameHandler);
             channel.pipeline().remove(Constants.WEBSOCKET_CLIENT_HANDSHAKE_HANDLER);
             DefaultWebSocketConnection webSocketConnection = inboundFrameHandler.getWebSocketConnection();
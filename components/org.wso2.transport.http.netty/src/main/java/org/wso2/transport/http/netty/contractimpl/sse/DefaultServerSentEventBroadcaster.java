@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.sse;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.sse.ServerSentEvent;
+import org.wso2.transport.http.netty.contract.sse.ServerSentEventBroadcaster;
+import org.wso2.transport.http.netty.contract.sse.ServerSentEventStream;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broadcasts each event by encoding it once into a pooled buffer and handing a retained duplicate of it to every
+ * subscriber, so that the cost of encoding and the memory of the event do not grow with the number of subscribers.
+ */
+public class DefaultServerSentEventBroadcaster implements ServerSentEventBroadcaster, TimerTask {
+
+    private static final String HEARTBEAT_COMMENT = "";
+
+    private final Set<DefaultServerSentEventStream> subscribers = ConcurrentHashMap.newKeySet();
+    private final Timer timer;
+    private final long heartbeatIntervalInMillis;
+    private final int maxPendingEvents;
+    private volatile boolean closed;
+
+    /**
+     * Creates a broadcaster.
+     *
+     * @param timer                     the timer that drives the heartbeat
+     * @param heartbeatIntervalInMillis the interval of the heartbeat comments, or 0 to disable them
+     */
+    public DefaultServerSentEventBroadcaster(Timer timer, int heartbeatIntervalInMillis) {
+        this(timer, heartbeatIntervalInMillis, Constants.SSE_MAX_PENDING_EVENTS);
+    }
+
+    /**
+     * Creates a broadcaster.
+     *
+     * @param timer                     the timer that drives the heartbeat
+     * @param heartbeatIntervalInMillis the interval of the heartbeat comments, or 0 to disable them
+     * @param maxPendingEvents          the number of events a subscriber can fall behind before it is disconnected
+     */
+    public DefaultServerSentEventBroadcaster(Timer timer, int heartbeatIntervalInMillis, int maxPendingEvents) {
+        if (heartbeatIntervalInMillis < 0) {
+            throw new IllegalArgumentException("Heartbeat interval cannot be negative: " + heartbeatIntervalInMillis);
+        }
+        if (maxPendingEvents < 1) {
+            throw new IllegalArgumentException("Maximum pending events should be at least 1: " + maxPendingEvents);
+        }
+        this.timer = timer;
+        this.heartbeatIntervalInMillis = heartbeatIntervalInMillis;
+        this.maxPendingEvents = maxPendingEvents;
+        if (heartbeatIntervalInMillis > 0) {
+            timer.newTimeout(this, heartbeatIntervalInMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public ServerSentEventStream subscribe(HttpCarbonMessage request) throws ServerConnectorException {
+        if (closed) {
+            throw new ServerConnectorException("Broadcaster is closed");
+        }
+        DefaultServerSentEventStream stream = new DefaultServerSentEventStream(request, maxPendingEvents,
+                                                                               subscribers::remove);
+        subscribers.add(stream);
+        if (!stream.isOpen()) {
+            // The connection was closed before the stream was added
+            subscribers.remove(stream);
+        }
+        return stream;
+    }
+
+    @Override
+    public void broadcast(ServerSentEvent event) {
+        if (closed || subscribers.isEmpty()) {
+            return;
+        }
+        share(event.encode(ByteBufAllocator.DEFAULT));
+    }
+
+    private void share(ByteBuf encodedEvent) {
+        try {
+            for (DefaultServerSentEventStream subscriber : subscribers) {
+                subscriber.sendEncoded(encodedEvent.retainedDuplicate());
+            }
+        } finally {
+            encodedEvent.release();
+        }
+    }
+
+    @Override
+    public void run(Timeout timeout) {
+        if (closed) {
+            return;
+        }
+        if (!subscribers.isEmpty()) {
+            share(ServerSentEvent.encodeComment(ByteBufAllocator.DEFAULT, HEARTBEAT_COMMENT));
+        }
+        timer.newTimeout(this, heartbeatIntervalInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (DefaultServerSentEventStream subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+}
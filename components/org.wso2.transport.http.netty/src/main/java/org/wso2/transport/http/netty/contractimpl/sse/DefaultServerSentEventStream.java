@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.sse;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.HttpResponseFuture;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.config.ChunkConfig;
+import org.wso2.transport.http.netty.contract.sse.ServerSentEvent;
+import org.wso2.transport.http.netty.contract.sse.ServerSentEventStream;
+import org.wso2.transport.http.netty.contractimpl.common.WritabilityNotifier;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonResponse;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+/**
+ * Event stream of a single subscriber. Encoded events are handed to the event loop of the connection, which writes
+ * them to the response while the connection is writable and queues them while it is not. Flushes of the response are
+ * coalesced by the transport, see {@link Constants#EVENT_STREAM_RESPONSE}.
+ */
+public class DefaultServerSentEventStream implements ServerSentEventStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultServerSentEventStream.class);
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final Channel channel;
+    private final HttpCarbonMessage response;
+    private final HttpResponseFuture responseFuture;
+    private final String lastEventId;
+    private final int maxPendingEvents;
+    private final Consumer<DefaultServerSentEventStream> closeListener;
+    private final Queue<ByteBuf> pendingEvents = new ArrayDeque<>();
+    private final Runnable drainTask = this::drain;
+    private volatile boolean open = true;
+    private boolean waitingForWritability;
+
+    DefaultServerSentEventStream(HttpCarbonMessage request, int maxPendingEvents,
+                                 Consumer<DefaultServerSentEventStream> closeListener)
+            throws ServerConnectorException {
+        ChannelHandlerContext ctx = (ChannelHandlerContext) request.getProperty(Constants.CHNL_HNDLR_CTX);
+        if (ctx == null) {
+            throw new ServerConnectorException("Event streams can only be opened for inbound requests");
+        }
+        this.channel = ctx.channel();
+        this.lastEventId = request.getHeader(LAST_EVENT_ID);
+        this.maxPendingEvents = maxPendingEvents;
+        this.closeListener = closeListener;
+
+        response = new HttpCarbonResponse(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+        response.setHeader(HttpHeaderNames.CONTENT_TYPE.toString(), Constants.TEXT_EVENT_STREAM);
+        response.setHeader(HttpHeaderNames.CACHE_CONTROL.toString(), HttpHeaderValues.NO_CACHE.toString());
+        response.setProperty(Constants.HTTP_STATUS_CODE, HttpResponseStatus.OK.code());
+        response.setProperty(Constants.CHUNKING_CONFIG, ChunkConfig.ALWAYS);
+        response.setProperty(Constants.EVENT_STREAM_RESPONSE, Boolean.TRUE);
+        // An empty chunk gets the headers out before the first event
+        response.addHttpContent(new DefaultHttpContent(Unpooled.EMPTY_BUFFER));
+        responseFuture = request.respond(response);
+        channel.closeFuture().addListener(future -> channel.eventLoop().execute(this::onClosed));
+    }
+
+    @Override
+    public void send(ServerSentEvent event) {
+        sendEncoded(event.encode(channel.alloc()));
+    }
+
+    @Override
+    public void sendComment(String comment) {
+        sendEncoded(ServerSentEvent.encodeComment(channel.alloc(), comment));
+    }
+
+    /**
+     * Sends an encoded event, taking over the ownership of the buffer.
+     *
+     * @param encodedEvent the encoded event
+     */
+    void sendEncoded(ByteBuf encodedEvent) {
+        if (!open) {
+            encodedEvent.release();
+            return;
+        }
+        if (channel.eventLoop().inEventLoop()) {
+            enqueue(encodedEvent);
+        } else {
+            channel.eventLoop().execute(() -> enqueue(encodedEvent));
+        }
+    }
+
+    private void enqueue(ByteBuf encodedEvent) {
+        if (!open) {
+            encodedEvent.release();
+            return;
+        }
+        pendingEvents.add(encodedEvent);
+        if (pendingEvents.size() > maxPendingEvents) {
+            LOG.warn("Closing the event stream of channel {} as the subscriber is not keeping up", channel.id());
+            close();
+            return;
+        }
+        if (!waitingForWritability) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        waitingForWritability = false;
+        while (open && !pendingEvents.isEmpty() && channel.isWritable()) {
+            response.addHttpContent(new DefaultHttpContent(pendingEvents.poll()));
+        }
+        if (open && !pendingEvents.isEmpty() && channel.isActive()) {
+            waitingForWritability = true;
+            WritabilityNotifier.of(channel).onWritable(channel, drainTask);
+        }
+    }
+
+    @Override
+    public String getLastEventId() {
+        return lastEventId;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open && channel.isActive();
+    }
+
+    @Override
+    public void close() {
+        if (channel.eventLoop().inEventLoop()) {
+            end();
+        } else {
+            channel.eventLoop().execute(this::end);
+        }
+    }
+
+    private void end() {
+        if (!open) {
+            return;
+        }
+        // Events already handed to the response are written before the last chunk
+        releasePendingEvents();
+        response.addHttpContent(new DefaultLastHttpContent());
+        closeListener.accept(this);
+    }
+
+    private void onClosed() {
+        if (open) {
+            releasePendingEvents();
+            closeListener.accept(this);
+        }
+    }
+
+    private void releasePendingEvents() {
+        open = false;
+        ByteBuf pendingEvent;
+        while ((pendingEvent = pendingEvents.poll()) != null) {
+            pendingEvent.release();
+        }
+    }
+
+    @Override
+    public HttpResponseFuture getResponseFuture() {
+        return responseFuture;
+    }
+}
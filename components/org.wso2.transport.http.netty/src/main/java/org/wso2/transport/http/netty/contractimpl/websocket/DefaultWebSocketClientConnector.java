@@ -20,10 +20,12 @@
 package org.wso2.transport.http.netty.contractimpl.websocket;
 
 import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
 import org.wso2.transport.http.netty.contract.websocket.ClientHandshakeFuture;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketClientConnector;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketClientConnectorConfig;
 import org.wso2.transport.http.netty.contractimpl.sender.websocket.WebSocketClient;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatService;
 
 /**
  * Implementation of WebSocket client connector.
@@ -34,7 +36,14 @@ public class DefaultWebSocketClientConnector implements WebSocketClientConnector
 
     public DefaultWebSocketClientConnector(WebSocketClientConnectorConfig clientConnectorConfig,
             EventLoopGroup wsClientEventLoopGroup) {
-        this.webSocketClient = new WebSocketClient(wsClientEventLoopGroup, clientConnectorConfig);
+        this(clientConnectorConfig, wsClientEventLoopGroup, null, null);
+    }
+
+    public DefaultWebSocketClientConnector(WebSocketClientConnectorConfig clientConnectorConfig,
+            EventLoopGroup wsClientEventLoopGroup, EventExecutorGroup compressionGroup,
+            WebSocketHeartbeatService heartbeatService) {
+        this.webSocketClient = new WebSocketClient(wsClientEventLoopGroup, clientConnectorConfig, compressionGroup,
+                                                   heartbeatService);
     }
 
     @Override
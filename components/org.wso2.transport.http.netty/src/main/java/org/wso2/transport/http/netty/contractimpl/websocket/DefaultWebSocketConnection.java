@@ -6,19 +6,27 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.PingWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.PongWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketFragmentWriter;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketFrameType;
 import org.wso2.transport.http.netty.contractimpl.listener.MessageQueueHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatHandler;
 
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
 
 import static org.wso2.transport.http.netty.contract.Constants.MESSAGE_QUEUE_HANDLER;
 
@@ -33,10 +41,17 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
     private final InetSocketAddress localAddress;
     private MessageQueueHandler messageQueueHandler;
     private WebSocketFrameType continuationFrameType;
+    private volatile DefaultWebSocketFragmentWriter fragmentWriter;
+    private volatile boolean spliced;
     private boolean closeFrameSent;
     private int closeInitiatedStatusCode;
     private String id;
     private String negotiatedSubProtocol;
+    private final Runnable flushTask = this::flushPushedFrames;
+    // Accessed only in the I/O thread
+    private int unflushedFrames;
+    private boolean flushScheduled;
+    private final Queue<Runnable> writabilityCallbacks = new ArrayDeque<>();
 
     public DefaultWebSocketConnection(ChannelHandlerContext ctx, WebSocketInboundFrameHandler frameHandler,
                                       MessageQueueHandler messageQueueHandler, boolean secure,
@@ -80,6 +95,13 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
         return negotiatedSubProtocol;
     }
 
+    @Override
+    public long getRoundTripTimeInNanos() {
+        WebSocketHeartbeatHandler heartbeatHandler = (WebSocketHeartbeatHandler) ctx.pipeline().get(
+                Constants.WEBSOCKET_HEARTBEAT_HANDLER);
+        return heartbeatHandler != null ? heartbeatHandler.getRoundTripTimeInNanos() : -1;
+    }
+
     @Override
     public void readNextFrame() {
         messageQueueHandler.readNextFrame();
@@ -99,8 +121,54 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
         ctx.channel().config().setAutoRead(false);
         ChannelPipeline pipeline = ctx.pipeline();
         if (pipeline.get(MESSAGE_QUEUE_HANDLER) == null) {
-            ctx.pipeline().addBefore(Constants.WEBSOCKET_FRAME_HANDLER, MESSAGE_QUEUE_HANDLER, messageQueueHandler);
+            ctx.pipeline().addBefore(ctx.name(), MESSAGE_QUEUE_HANDLER, messageQueueHandler);
+        }
+    }
+
+    @Override
+    public void requestFrames(long count) {
+        ChannelPipeline pipeline = ctx.pipeline();
+        if (pipeline.get(MESSAGE_QUEUE_HANDLER) == null) {
+            pipeline.addBefore(ctx.name(), MESSAGE_QUEUE_HANDLER, messageQueueHandler);
         }
+        messageQueueHandler.requestFrames(count);
+    }
+
+    @Override
+    public boolean isWritable() {
+        return ctx.channel().isWritable();
+    }
+
+    @Override
+    public void onWritable(Runnable callback) {
+        if (!ctx.executor().inEventLoop()) {
+            ctx.executor().execute(() -> onWritable(callback));
+            return;
+        }
+        if (isWritable() || !ctx.channel().isActive()) {
+            callback.run();
+        } else {
+            writabilityCallbacks.add(callback);
+        }
+    }
+
+    @Override
+    public void setWriteBufferWaterMark(int lowWaterMark, int highWaterMark) {
+        ctx.channel().config().setWriteBufferWaterMark(new WriteBufferWaterMark(lowWaterMark, highWaterMark));
+    }
+
+    @Override
+    public WebSocketFragmentWriter createFragmentWriter(WebSocketFrameType frameType) {
+        if (continuationFrameType != null || isFragmentWriterActive()) {
+            throw new IllegalStateException("Cannot interrupt WebSocket frame continuation");
+        }
+        if (closeFrameSent) {
+            throw new IllegalStateException("Close frame already sent. Cannot push data.");
+        }
+        checkNotSpliced();
+        DefaultWebSocketFragmentWriter writer = new DefaultWebSocketFragmentWriter(ctx, frameType);
+        fragmentWriter = writer;
+        return writer;
     }
 
     @Override
@@ -113,19 +181,23 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
         if (continuationFrameType == WebSocketFrameType.BINARY) {
             throw new IllegalStateException("Cannot interrupt WebSocket binary frame continuation");
         }
+        if (isFragmentWriterActive()) {
+            throw new IllegalStateException("Cannot interrupt a message of an active fragment writer");
+        }
         if (closeFrameSent) {
             throw new IllegalStateException("Close frame already sent. Cannot push text data!");
         }
+        checkNotSpliced();
         if (continuationFrameType != null) {
             if (finalFrame) {
                 continuationFrameType = null;
             }
-            return ctx.writeAndFlush(new ContinuationWebSocketFrame(finalFrame, 0, text));
+            return pushFrame(new ContinuationWebSocketFrame(finalFrame, 0, text));
         }
         if (!finalFrame) {
             continuationFrameType = WebSocketFrameType.TEXT;
         }
-        return ctx.writeAndFlush(new TextWebSocketFrame(finalFrame, 0, text));
+        return pushFrame(new TextWebSocketFrame(finalFrame, 0, text));
     }
 
     @Override
@@ -138,29 +210,67 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
         if (continuationFrameType == WebSocketFrameType.TEXT) {
             throw new IllegalStateException("Cannot interrupt WebSocket text frame continuation");
         }
+        if (isFragmentWriterActive()) {
+            throw new IllegalStateException("Cannot interrupt a message of an active fragment writer");
+        }
         if (closeFrameSent) {
             throw new IllegalStateException("Close frame already sent. Cannot push binary data.");
         }
+        checkNotSpliced();
         if (continuationFrameType != null) {
             if (finalFrame) {
                 continuationFrameType = null;
             }
-            return ctx.writeAndFlush(new ContinuationWebSocketFrame(finalFrame, 0, getNettyByteBuf(data)));
+            return pushFrame(new ContinuationWebSocketFrame(finalFrame, 0, getNettyByteBuf(data)));
         }
         if (!finalFrame) {
             continuationFrameType = WebSocketFrameType.BINARY;
         }
-        return ctx.writeAndFlush(new BinaryWebSocketFrame(finalFrame, 0, getNettyByteBuf(data)));
+        return pushFrame(new BinaryWebSocketFrame(finalFrame, 0, getNettyByteBuf(data)));
+    }
+
+    void splice(DefaultWebSocketConnection peerConnection) {
+        if (spliced || peerConnection.spliced) {
+            throw new IllegalStateException("Connection is already spliced");
+        }
+        if (isFragmentWriterActive() || continuationFrameType != null || peerConnection.isFragmentWriterActive()
+                || peerConnection.continuationFrameType != null) {
+            throw new IllegalStateException("Cannot splice a connection while a message is being pushed");
+        }
+        WebSocketSpliceHandler spliceHandler = new WebSocketSpliceHandler(peerConnection.ctx, messageQueueHandler);
+        WebSocketSpliceHandler peerSpliceHandler = new WebSocketSpliceHandler(ctx,
+                                                                              peerConnection.messageQueueHandler);
+        spliceHandler.setPeerHandler(peerSpliceHandler);
+        peerSpliceHandler.setPeerHandler(spliceHandler);
+        addSpliceHandler(spliceHandler);
+        peerConnection.addSpliceHandler(peerSpliceHandler);
+    }
+
+    private void addSpliceHandler(WebSocketSpliceHandler spliceHandler) {
+        spliced = true;
+        ChannelPipeline pipeline = ctx.pipeline();
+        pipeline.addBefore(ctx.name(), Constants.WEBSOCKET_SPLICE_HANDLER, spliceHandler);
+        // Frames reach the splice handler through the demand of the message queue handler
+        if (pipeline.get(MESSAGE_QUEUE_HANDLER) == null) {
+            pipeline.addBefore(Constants.WEBSOCKET_SPLICE_HANDLER, MESSAGE_QUEUE_HANDLER, messageQueueHandler);
+        }
+        spliceHandler.start();
+    }
+
+    private void checkNotSpliced() {
+        if (spliced) {
+            throw new IllegalStateException("Connection is spliced. Cannot push data.");
+        }
     }
 
     @Override
     public ChannelFuture ping(ByteBuffer data) {
-        return ctx.writeAndFlush(new PingWebSocketFrame(getNettyByteBuf(data)));
+        return pushFrame(new PingWebSocketFrame(getNettyByteBuf(data)));
     }
 
     @Override
     public ChannelFuture pong(ByteBuffer data) {
-        return ctx.writeAndFlush(new PongWebSocketFrame(getNettyByteBuf(data)));
+        return pushFrame(new PongWebSocketFrame(getNettyByteBuf(data)));
     }
 
     @Override
@@ -251,6 +361,73 @@ public class DefaultWebSocketConnection implements WebSocketConnection {
         return closePromise;
     }
 
+    /**
+     * Writes a frame without flushing it right away. The frame is flushed together with the other frames pushed in
+     * the same I/O thread turn, or once {@link Constants#WEBSOCKET_MAX_FRAMES_PER_FLUSH} frames are pending.
+     */
+    private ChannelFuture pushFrame(WebSocketFrame frame) {
+        ChannelPromise promise = ctx.newPromise();
+        if (ctx.executor().inEventLoop()) {
+            writeFrame(frame, promise);
+        } else {
+            ctx.executor().execute(() -> writeFrame(frame, promise));
+        }
+        return promise;
+    }
+
+    private void writeFrame(WebSocketFrame frame, ChannelPromise promise) {
+        ctx.write(frame, promise);
+        if (++unflushedFrames >= Constants.WEBSOCKET_MAX_FRAMES_PER_FLUSH) {
+            flushPushedFrames();
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            ctx.executor().execute(flushTask);
+        }
+    }
+
+    private void flushPushedFrames() {
+        flushScheduled = false;
+        if (unflushedFrames > 0) {
+            unflushedFrames = 0;
+            ctx.flush();
+        }
+    }
+
+    void channelWritabilityChanged() {
+        DefaultWebSocketFragmentWriter writer = fragmentWriter;
+        if (writer != null) {
+            writer.channelWritabilityChanged();
+        }
+        if (isWritable() && !writabilityCallbacks.isEmpty()) {
+            runWritabilityCallbacks();
+        }
+    }
+
+    void channelInactive() {
+        DefaultWebSocketFragmentWriter writer = fragmentWriter;
+        if (writer != null) {
+            writer.channelInactive();
+        }
+        // Waiting producers are resumed so that their next write learns about the closure
+        if (!writabilityCallbacks.isEmpty()) {
+            runWritabilityCallbacks();
+        }
+    }
+
+    private void runWritabilityCallbacks() {
+        // Callbacks registered while these run wait for the next change
+        List<Runnable> callbacks = new ArrayList<>(writabilityCallbacks);
+        writabilityCallbacks.clear();
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    private boolean isFragmentWriterActive() {
+        DefaultWebSocketFragmentWriter writer = fragmentWriter;
+        return writer != null && !writer.isComplete();
+    }
+
     int getCloseInitiatedStatusCode() {
         return this.closeInitiatedStatusCode;
     }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketFragmentWriter;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketFrameType;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default implementation of {@link WebSocketFragmentWriter}. Fragments may be written from any thread, but the type
+ * of each frame and whether the message is complete are decided in the I/O thread, in the order the fragments were
+ * written. While the channel is not writable the fragments are queued here instead of in the outbound buffer of the
+ * channel.
+ */
+public class DefaultWebSocketFragmentWriter implements WebSocketFragmentWriter {
+
+    private static final String FINAL_FRAGMENT_WRITTEN = "Final fragment already written. Cannot write more fragments.";
+
+    private final ChannelHandlerContext ctx;
+    private final WebSocketFrameType frameType;
+    private final AtomicBoolean complete = new AtomicBoolean();
+    // Writes handed over to the I/O thread which did not run yet
+    private final AtomicInteger scheduledWrites = new AtomicInteger();
+    private volatile int pendingFragmentCount;
+
+    // Only accessed in the I/O thread
+    private final Queue<PendingFragment> pendingFragments = new ArrayDeque<>();
+    private final Queue<Runnable> writabilityCallbacks = new ArrayDeque<>();
+    private boolean started;
+    private boolean finalFragmentWritten;
+
+    DefaultWebSocketFragmentWriter(ChannelHandlerContext ctx, WebSocketFrameType frameType) {
+        this.ctx = ctx;
+        this.frameType = frameType;
+    }
+
+    @Override
+    public ChannelFuture write(ByteBuffer data, boolean finalFragment) {
+        // Only one final fragment is accepted, even when several threads write at once
+        if (finalFragment ? !complete.compareAndSet(false, true) : complete.get()) {
+            throw new IllegalStateException(FINAL_FRAGMENT_WRITTEN);
+        }
+        ByteBuf content = Unpooled.wrappedBuffer(data);
+        ChannelPromise promise = ctx.newPromise();
+        // A write made in the I/O thread must not overtake writes which are still on their way to it
+        if (ctx.executor().inEventLoop() && scheduledWrites.get() == 0) {
+            writeFragment(content, finalFragment, promise);
+        } else {
+            scheduledWrites.incrementAndGet();
+            ctx.executor().execute(() -> {
+                scheduledWrites.decrementAndGet();
+                writeFragment(content, finalFragment, promise);
+            });
+        }
+        return promise;
+    }
+
+    @Override
+    public boolean isWritable() {
+        return ctx.channel().isWritable() && pendingFragmentCount == 0;
+    }
+
+    @Override
+    public void onWritable(Runnable callback) {
+        if (!ctx.executor().inEventLoop()) {
+            ctx.executor().execute(() -> onWritable(callback));
+            return;
+        }
+        // A closed channel never becomes writable again, the next write of the producer fails instead
+        if (isWritable() || !ctx.channel().isActive()) {
+            callback.run();
+        } else {
+            writabilityCallbacks.add(callback);
+        }
+    }
+
+    @Override
+    public boolean isComplete() {
+        return complete.get();
+    }
+
+    private WebSocketFrame newFrame(ByteBuf content, boolean finalFragment) {
+        if (started) {
+            return new ContinuationWebSocketFrame(finalFragment, 0, content);
+        }
+        if (frameType == WebSocketFrameType.TEXT) {
+            return new TextWebSocketFrame(finalFragment, 0, content);
+        }
+        return new BinaryWebSocketFrame(finalFragment, 0, content);
+    }
+
+    private void writeFragment(ByteBuf content, boolean finalFragment, ChannelPromise promise) {
+        if (finalFragmentWritten) {
+            // The fragment was written concurrently with the final fragment and lost the race
+            content.release();
+            promise.tryFailure(new IllegalStateException(FINAL_FRAGMENT_WRITTEN));
+            return;
+        }
+        WebSocketFrame frame = newFrame(content, finalFragment);
+        started = true;
+        finalFragmentWritten = finalFragment;
+        // A closed channel is not writable either, but then the write should fail right away.
+        if (ctx.channel().isActive() && (!pendingFragments.isEmpty() || !ctx.channel().isWritable())) {
+            pendingFragments.add(new PendingFragment(frame, promise));
+            pendingFragmentCount = pendingFragments.size();
+            return;
+        }
+        ctx.writeAndFlush(frame, promise);
+    }
+
+    /**
+     * Writes the fragments held back while the channel was not writable. Called in the I/O thread when the
+     * writability of the channel changes.
+     */
+    void channelWritabilityChanged() {
+        boolean written = false;
+        while (!pendingFragments.isEmpty() && ctx.channel().isWritable()) {
+            PendingFragment pendingFragment = pendingFragments.poll();
+            ctx.write(pendingFragment.frame, pendingFragment.promise);
+            written = true;
+        }
+        pendingFragmentCount = pendingFragments.size();
+        if (written) {
+            ctx.flush();
+        }
+        if (isWritable() && !writabilityCallbacks.isEmpty()) {
+            runWritabilityCallbacks();
+        }
+    }
+
+    /**
+     * Fails the fragments held back when the channel is closed before they could be written, and releases the
+     * producers waiting for the channel to become writable so that they learn about the closure.
+     */
+    void channelInactive() {
+        PendingFragment pendingFragment;
+        while ((pendingFragment = pendingFragments.poll()) != null) {
+            pendingFragment.frame.release();
+            pendingFragment.promise.tryFailure(new ClosedChannelException());
+        }
+        pendingFragmentCount = 0;
+        if (!writabilityCallbacks.isEmpty()) {
+            runWritabilityCallbacks();
+        }
+    }
+
+    private void runWritabilityCallbacks() {
+        // Callbacks registered while these run wait for the next change
+        List<Runnable> callbacks = new ArrayList<>(writabilityCallbacks);
+        writabilityCallbacks.clear();
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    private static class PendingFragment {
+        private final WebSocketFrame frame;
+        private final ChannelPromise promise;
+
+        PendingFragment(WebSocketFrame frame, ChannelPromise promise) {
+            this.frame = frame;
+            this.promise = promise;
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketCloseMessage;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorException;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorFuture;
@@ -44,9 +45,12 @@ import org.wso2.transport.http.netty.contract.websocket.WebSocketControlSignal;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketFrameType;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketTextMessage;
 import org.wso2.transport.http.netty.contractimpl.listener.MessageQueueHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.message.DefaultWebSocketBinaryMessage;
 import org.wso2.transport.http.netty.contractimpl.websocket.message.DefaultWebSocketCloseMessage;
 import org.wso2.transport.http.netty.contractimpl.websocket.message.DefaultWebSocketControlMessage;
 
+import java.nio.ByteBuffer;
+
 /**
  * Abstract WebSocket frame handler for WebSocket server and client.
  */
@@ -60,6 +64,7 @@ public class WebSocketInboundFrameHandler extends ChannelInboundHandlerAdapter {
     private final String negotiatedSubProtocol;
     private final WebSocketConnectorFuture connectorFuture;
     private final MessageQueueHandler messageQueueHandler;
+    private final WebSocketBufferMode bufferMode;
     private boolean caughtException;
     private boolean closeFrameReceived;
     private boolean closeInitialized;
@@ -69,13 +74,14 @@ public class WebSocketInboundFrameHandler extends ChannelInboundHandlerAdapter {
 
     public WebSocketInboundFrameHandler(boolean isServer, boolean secureConnection, String target,
                                         String negotiatedSubProtocol, WebSocketConnectorFuture connectorFuture,
-                                        MessageQueueHandler messageQueueHandler) {
+                                        MessageQueueHandler messageQueueHandler, WebSocketBufferMode bufferMode) {
         this.isServer = isServer;
         this.secureConnection = secureConnection;
         this.target = target;
         this.negotiatedSubProtocol = negotiatedSubProtocol;
         this.connectorFuture = connectorFuture;
         this.messageQueueHandler = messageQueueHandler;
+        this.bufferMode = bufferMode;
         this.closeInitialized = false;
     }
 
@@ -126,8 +132,19 @@ public class WebSocketInboundFrameHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        if (webSocketConnection != null) {
+            webSocketConnection.channelWritabilityChanged();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws WebSocketConnectorException {
+        if (webSocketConnection != null) {
+            webSocketConnection.channelInactive();
+        }
         if (!caughtException && webSocketConnection != null && !closeFrameReceived && closePromise == null &&
                 !closeInitialized) {
             // Notify abnormal closure.
@@ -209,6 +226,17 @@ public class WebSocketInboundFrameHandler extends ChannelInboundHandlerAdapter {
 
     private void notifyBinaryMessage(WebSocketFrame frame, ByteBuf content, boolean finalFragment)
             throws WebSocketConnectorException {
+        if (bufferMode == WebSocketBufferMode.RETAINED) {
+            DefaultWebSocketBinaryMessage webSocketBinaryMessage = WebSocketUtil.getRetainedWebSocketMessage(
+                    content, finalFragment);
+            setupCommonProperties(webSocketBinaryMessage);
+            try {
+                connectorFuture.notifyWebSocketListener((WebSocketBinaryMessage) webSocketBinaryMessage);
+            } finally {
+                webSocketBinaryMessage.releaseIfNotRetained();
+            }
+            return;
+        }
         DefaultWebSocketMessage webSocketBinaryMessage = WebSocketUtil.getWebSocketMessage(frame, content,
                                                                                            finalFragment);
         setupCommonProperties(webSocketBinaryMessage);
@@ -240,6 +268,11 @@ public class WebSocketInboundFrameHandler extends ChannelInboundHandlerAdapter {
     }
 
     private void notifyPingMessage(PingWebSocketFrame pingWebSocketFrame) throws WebSocketConnectorException {
+        if (bufferMode == WebSocketBufferMode.RETAINED) {
+            notifyRetainedControlMessage(WebSocketUtil.getRetainedWebSocketControlMessage(
+                    pingWebSocketFrame, WebSocketControlSignal.PING));
+            return;
+        }
         WebSocketControlMessage webSocketControlMessage = WebSocketUtil.
                 getWebSocketControlMessage(pingWebSocketFrame, WebSocketControlSignal.PING);
         setupCommonProperties((DefaultWebSocketMessage) webSocketControlMessage);
@@ -247,15 +280,30 @@ public class WebSocketInboundFrameHandler extends ChannelInboundHandlerAdapter {
     }
 
     private void notifyPongMessage(PongWebSocketFrame pongWebSocketFrame) throws WebSocketConnectorException {
+        if (bufferMode == WebSocketBufferMode.RETAINED) {
+            notifyRetainedControlMessage(WebSocketUtil.getRetainedWebSocketControlMessage(
+                    pongWebSocketFrame, WebSocketControlSignal.PONG));
+            return;
+        }
         WebSocketControlMessage webSocketControlMessage = WebSocketUtil.
                 getWebSocketControlMessage(pongWebSocketFrame, WebSocketControlSignal.PONG);
         setupCommonProperties((DefaultWebSocketMessage) webSocketControlMessage);
         connectorFuture.notifyWebSocketListener(webSocketControlMessage);
     }
 
+    private void notifyRetainedControlMessage(DefaultWebSocketControlMessage webSocketControlMessage)
+            throws WebSocketConnectorException {
+        setupCommonProperties(webSocketControlMessage);
+        try {
+            connectorFuture.notifyWebSocketListener((WebSocketControlMessage) webSocketControlMessage);
+        } finally {
+            webSocketControlMessage.releaseIfNotRetained();
+        }
+    }
+
     private void notifyIdleTimeout() throws WebSocketConnectorException {
         DefaultWebSocketMessage webSocketControlMessage = new DefaultWebSocketControlMessage(
-                WebSocketControlSignal.IDLE_TIMEOUT, null);
+                WebSocketControlSignal.IDLE_TIMEOUT, (ByteBuffer) null);
         setupCommonProperties(webSocketControlMessage);
         connectorFuture.notifyWebSocketIdleTimeout((WebSocketControlMessage) webSocketControlMessage);
     }
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.contractimpl.websocket;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.wso2.transport.http.netty.contractimpl.listener.MessageQueueHandler;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Forwards the data frames read from a spliced WebSocket connection to its peer connection as they are, without
+ * turning them into messages for the listener. Control and close frames are passed on to the frame handler, hence the
+ * listener still sees them. Frames are requested one at a time from the {@link MessageQueueHandler} of the connection,
+ * and no further frame is requested while the peer connection is not writable, which pauses reading until it is.
+ */
+public class WebSocketSpliceHandler extends ChannelInboundHandlerAdapter {
+
+    private final ChannelHandlerContext peerCtx;
+    private final MessageQueueHandler messageQueueHandler;
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private WebSocketSpliceHandler peerHandler;
+    private boolean flushPending;
+
+    /**
+     * @param peerCtx             context of the frame handler of the peer connection, which frames are written to.
+     * @param messageQueueHandler handler that delivers the frames of the connection this handler reads from.
+     */
+    WebSocketSpliceHandler(ChannelHandlerContext peerCtx, MessageQueueHandler messageQueueHandler) {
+        this.peerCtx = peerCtx;
+        this.messageQueueHandler = messageQueueHandler;
+    }
+
+    /**
+     * Requests the first frame once the handler is in place.
+     */
+    void start() {
+        messageQueueHandler.requestFrames(1);
+    }
+
+    void setPeerHandler(WebSocketSpliceHandler peerHandler) {
+        this.peerHandler = peerHandler;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof TextWebSocketFrame || msg instanceof BinaryWebSocketFrame
+                || msg instanceof ContinuationWebSocketFrame) {
+            peerCtx.write(msg, peerCtx.voidPromise());
+            flushPending = true;
+        } else {
+            ctx.fireChannelRead(msg);
+        }
+        if (peerCtx.channel().isWritable()) {
+            messageQueueHandler.requestFrames(1);
+        } else {
+            pauseReading();
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) {
+        if (flushPending) {
+            flushPending = false;
+            peerCtx.flush();
+        }
+        ctx.fireChannelReadComplete();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        if (ctx.channel().isWritable() && peerHandler != null) {
+            peerHandler.resumeReading();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    private void pauseReading() {
+        paused.set(true);
+        // The peer might have become writable before reading was paused, in which case nobody would resume it.
+        if (peerCtx.channel().isWritable()) {
+            resumeReading();
+        }
+    }
+
+    private void resumeReading() {
+        if (paused.compareAndSet(true, false)) {
+            messageQueueHandler.requestFrames(1);
+        }
+    }
+}
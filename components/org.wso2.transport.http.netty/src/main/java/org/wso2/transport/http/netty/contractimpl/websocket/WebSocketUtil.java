@@ -21,6 +21,7 @@ package org.wso2.transport.http.netty.contractimpl.websocket;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketControlSignal;
 import org.wso2.transport.http.netty.contractimpl.websocket.message.DefaultWebSocketBinaryMessage;
@@ -67,6 +68,47 @@ public class WebSocketUtil {
         return webSocketBinaryMessage;
     }
 
+    /**
+     * Creates a control message that takes over the payload of the frame instead of copying it.
+     *
+     * @param webSocketFrame ping or pong frame.
+     * @param controlSignal  control signal of the frame.
+     * @return the control message which owns the payload of the frame.
+     */
+    public static DefaultWebSocketControlMessage getRetainedWebSocketControlMessage(
+            WebSocketFrame webSocketFrame, WebSocketControlSignal controlSignal) {
+        return new DefaultWebSocketControlMessage(controlSignal, webSocketFrame.content());
+    }
+
+    /**
+     * Creates a binary message that takes over the payload of the frame instead of copying it.
+     *
+     * @param content       payload of a binary or continuation frame.
+     * @param finalFragment true if the frame is the final fragment of the message.
+     * @return the binary message which owns the payload of the frame.
+     */
+    public static DefaultWebSocketBinaryMessage getRetainedWebSocketMessage(ByteBuf content, boolean finalFragment) {
+        return new DefaultWebSocketBinaryMessage(content, finalFragment);
+    }
+
+    /**
+     * Splices two connections of the transport, typically the server and the client connections of a proxy. From
+     * then on the data frames read from either connection are written to the other one as they are, without being
+     * handed to the listener, and reading from a connection is paused while the other one is not writable. Control
+     * and close frames are still delivered to the listeners, which stay responsible for closing both connections.
+     * Data can no longer be pushed to spliced connections.
+     *
+     * @param connection connection to splice.
+     * @param peer       connection to splice with.
+     */
+    public static void splice(WebSocketConnection connection, WebSocketConnection peer) {
+        if (!(connection instanceof DefaultWebSocketConnection) || !(peer instanceof DefaultWebSocketConnection)
+                || connection == peer) {
+            throw new IllegalArgumentException("Only two distinct connections of the transport can be spliced");
+        }
+        ((DefaultWebSocketConnection) connection).splice((DefaultWebSocketConnection) peer);
+    }
+
     private static ByteBuffer getClonedByteBuf(ByteBuf buf) {
         ByteBuffer originalContent = buf.nioBuffer();
         ByteBuffer clonedContent = ByteBuffer.allocate(originalContent.capacity());
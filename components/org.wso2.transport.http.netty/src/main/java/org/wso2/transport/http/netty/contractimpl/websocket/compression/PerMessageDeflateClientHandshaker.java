@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.websocket.compression;
+
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketClientExtension;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketClientExtensionHandshaker;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtension;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionDecoder;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionEncoder;
+import org.wso2.transport.http.netty.contract.config.WebSocketCompressionConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateSettings.CLIENT_MAX_WINDOW;
+import static org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateSettings.CLIENT_NO_CONTEXT;
+import static org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateSettings.MAX_WINDOW_BITS;
+import static org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateSettings.PERMESSAGE_DEFLATE_EXTENSION;
+import static org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateSettings.SERVER_MAX_WINDOW;
+import static org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateSettings.SERVER_NO_CONTEXT;
+
+/**
+ * Offers permessage-deflate to servers according to a {@link WebSocketCompressionConfig}. The handshaker is
+ * stateless and can be shared by all connections of a client connector.
+ */
+public class PerMessageDeflateClientHandshaker implements WebSocketClientExtensionHandshaker {
+
+    private final PerMessageDeflateSettings settings;
+
+    /**
+     * @param config          compression configuration of the client connector.
+     * @param offloadExecutor executor to compress large frames on, or null if compression is not offloaded.
+     */
+    public PerMessageDeflateClientHandshaker(WebSocketCompressionConfig config, Executor offloadExecutor) {
+        this.settings = new PerMessageDeflateSettings(config, offloadExecutor);
+    }
+
+    @Override
+    public WebSocketExtensionData newRequestData() {
+        Map<String, String> parameters = new HashMap<>(4);
+        if (settings.windowSizeSupported) {
+            parameters.put(CLIENT_MAX_WINDOW, null);
+        }
+        if (settings.peerWindowBits != MAX_WINDOW_BITS) {
+            parameters.put(SERVER_MAX_WINDOW, Integer.toString(settings.peerWindowBits));
+        }
+        if (settings.noContextTakeover) {
+            parameters.put(CLIENT_NO_CONTEXT, null);
+        }
+        if (settings.peerNoContextTakeover) {
+            parameters.put(SERVER_NO_CONTEXT, null);
+        }
+        return new WebSocketExtensionData(PERMESSAGE_DEFLATE_EXTENSION, parameters);
+    }
+
+    @Override
+    public WebSocketClientExtension handshakeExtension(WebSocketExtensionData extensionData) {
+        if (!PERMESSAGE_DEFLATE_EXTENSION.equals(extensionData.name())) {
+            return null;
+        }
+        int serverWindowBits = MAX_WINDOW_BITS;
+        int clientWindowBits = MAX_WINDOW_BITS;
+        boolean serverNoContext = false;
+        boolean clientNoContext = false;
+
+        for (Map.Entry<String, String> parameter : extensionData.parameters().entrySet()) {
+            switch (parameter.getKey()) {
+            case CLIENT_MAX_WINDOW:
+                clientWindowBits = PerMessageDeflateSettings.parseWindowBits(parameter.getValue());
+                if (clientWindowBits == -1 || (clientWindowBits < MAX_WINDOW_BITS && !settings.windowSizeSupported)) {
+                    return null;
+                }
+                break;
+            case SERVER_MAX_WINDOW:
+                serverWindowBits = PerMessageDeflateSettings.parseWindowBits(parameter.getValue());
+                if (serverWindowBits == -1) {
+                    return null;
+                }
+                break;
+            case CLIENT_NO_CONTEXT:
+                clientNoContext = true;
+                break;
+            case SERVER_NO_CONTEXT:
+                serverNoContext = true;
+                break;
+            default:
+                return null;
+            }
+        }
+        if ((settings.peerNoContextTakeover && !serverNoContext) || serverWindowBits > settings.peerWindowBits) {
+            return null;
+        }
+        return new PerMessageDeflateClientExtension(clientWindowBits, clientNoContext || settings.noContextTakeover,
+                                                    serverNoContext);
+    }
+
+    /**
+     * The permessage-deflate extension as negotiated with a server.
+     */
+    private class PerMessageDeflateClientExtension implements WebSocketClientExtension {
+
+        private final int clientWindowBits;
+        private final boolean clientNoContext;
+        private final boolean serverNoContext;
+
+        private PerMessageDeflateClientExtension(int clientWindowBits, boolean clientNoContext,
+                                                 boolean serverNoContext) {
+            this.clientWindowBits = clientWindowBits;
+            this.clientNoContext = clientNoContext;
+            this.serverNoContext = serverNoContext;
+        }
+
+        @Override
+        public int rsv() {
+            return WebSocketExtension.RSV1;
+        }
+
+        @Override
+        public WebSocketExtensionEncoder newExtensionEncoder() {
+            return settings.newEncoder(clientWindowBits, clientNoContext);
+        }
+
+        @Override
+        public WebSocketExtensionDecoder newExtensionDecoder() {
+            return new PerMessageDeflateDecoder(serverNoContext);
+        }
+    }
+}
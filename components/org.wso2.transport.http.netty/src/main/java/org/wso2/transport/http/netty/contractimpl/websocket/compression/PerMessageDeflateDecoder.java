@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.websocket.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CodecException;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtension;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionDecoder;
+
+import java.util.List;
+
+/**
+ * Decompresses inbound messages of the permessage-deflate extension. The decompressor is created with the first
+ * compressed message and, when the peer does not take over its context, discarded after each message.
+ */
+public class PerMessageDeflateDecoder extends WebSocketExtensionDecoder {
+
+    static final byte[] FRAME_TAIL = new byte[] {0x00, 0x00, (byte) 0xff, (byte) 0xff};
+
+    private final boolean noContext;
+    private EmbeddedChannel decompressor;
+    private boolean compressing;
+
+    PerMessageDeflateDecoder(boolean noContext) {
+        this.noContext = noContext;
+    }
+
+    @Override
+    public boolean acceptInboundMessage(Object msg) throws Exception {
+        if (msg instanceof TextWebSocketFrame || msg instanceof BinaryWebSocketFrame) {
+            return (((WebSocketFrame) msg).rsv() & WebSocketExtension.RSV1) > 0;
+        }
+        return msg instanceof ContinuationWebSocketFrame && compressing;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, WebSocketFrame msg, List<Object> out) {
+        if (msg instanceof ContinuationWebSocketFrame) {
+            if (msg.isFinalFragment()) {
+                compressing = false;
+            }
+        } else {
+            compressing = !msg.isFinalFragment();
+        }
+        if (decompressor == null) {
+            decompressor = new EmbeddedChannel(ZlibCodecFactory.newZlibDecoder(ZlibWrapper.NONE));
+        }
+
+        boolean readable = msg.content().isReadable();
+        decompressor.writeInbound(msg.content().retain());
+        if (msg.isFinalFragment()) {
+            decompressor.writeInbound(Unpooled.wrappedBuffer(FRAME_TAIL));
+        }
+        CompositeByteBuf content = ctx.alloc().compositeBuffer();
+        for (;;) {
+            ByteBuf partial = decompressor.readInbound();
+            if (partial == null) {
+                break;
+            }
+            if (!partial.isReadable()) {
+                partial.release();
+                continue;
+            }
+            content.addComponent(true, partial);
+        }
+        if (readable && content.numComponents() <= 0) {
+            content.release();
+            throw new CodecException("Cannot read uncompressed buffer");
+        }
+        if (msg.isFinalFragment() && noContext) {
+            cleanup();
+        }
+
+        int rsv = (msg.rsv() & WebSocketExtension.RSV1) > 0 ? msg.rsv() ^ WebSocketExtension.RSV1 : msg.rsv();
+        if (msg instanceof TextWebSocketFrame) {
+            out.add(new TextWebSocketFrame(msg.isFinalFragment(), rsv, content));
+        } else if (msg instanceof BinaryWebSocketFrame) {
+            out.add(new BinaryWebSocketFrame(msg.isFinalFragment(), rsv, content));
+        } else {
+            out.add(new ContinuationWebSocketFrame(msg.isFinalFragment(), rsv, content));
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        cleanup();
+        super.handlerRemoved(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        cleanup();
+        super.channelInactive(ctx);
+    }
+
+    private void cleanup() {
+        if (decompressor != null) {
+            if (decompressor.finish()) {
+                for (;;) {
+                    ByteBuf buf = decompressor.readInbound();
+                    if (buf == null) {
+                        break;
+                    }
+                    buf.release();
+                }
+            }
+            decompressor = null;
+        }
+    }
+}
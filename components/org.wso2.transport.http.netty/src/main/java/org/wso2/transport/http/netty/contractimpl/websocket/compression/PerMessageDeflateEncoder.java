@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.websocket.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CodecException;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtension;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionEncoder;
+import io.netty.util.ReferenceCountUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Compresses outbound messages of the permessage-deflate extension.
+ * <p>
+ * Messages smaller than the minimum compression size are sent as they are. Frames of at least the offload threshold
+ * are compressed on the offload executor; writes that follow are held back until the compressed frame is written so
+ * that the order of frames on the connection is preserved. The compressor is created with the first compressed
+ * message and, when context takeover is disabled, discarded after each message.
+ */
+public class PerMessageDeflateEncoder extends WebSocketExtensionEncoder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PerMessageDeflateEncoder.class);
+
+    private final int compressionLevel;
+    private final int windowBits;
+    private final int memLevel;
+    private final boolean noContext;
+    private final int minCompressionSize;
+    private final int offloadThreshold;
+    private final Executor offloadExecutor;
+
+    private EmbeddedChannel compressor;
+    private boolean compressing;
+    private boolean offloading;
+    private boolean flushPending;
+    private boolean removed;
+    private final ArrayDeque<PendingWrite> pendingWrites = new ArrayDeque<>();
+
+    PerMessageDeflateEncoder(int compressionLevel, int windowBits, int memLevel, boolean noContext,
+                             int minCompressionSize, int offloadThreshold, Executor offloadExecutor) {
+        this.compressionLevel = compressionLevel;
+        this.windowBits = windowBits;
+        this.memLevel = memLevel;
+        this.noContext = noContext;
+        this.minCompressionSize = minCompressionSize;
+        this.offloadThreshold = offloadThreshold;
+        this.offloadExecutor = offloadThreshold > -1 ? offloadExecutor : null;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        if (offloading) {
+            pendingWrites.add(new PendingWrite(msg, promise));
+            return;
+        }
+        if (!(msg instanceof WebSocketFrame) || !shouldCompress((WebSocketFrame) msg)) {
+            ctx.write(msg, promise);
+            return;
+        }
+        WebSocketFrame frame = (WebSocketFrame) msg;
+        if (offloadExecutor != null && frame.content().readableBytes() >= offloadThreshold) {
+            try {
+                offloadExecutor.execute(() -> compressOffTheEventLoop(ctx, frame, promise));
+                offloading = true;
+                return;
+            } catch (RejectedExecutionException e) {
+                LOG.debug("Offload executor rejected the frame, hence compressing on the event loop", e);
+            }
+        }
+        WebSocketFrame compressedFrame;
+        try {
+            compressedFrame = compress(ctx.alloc(), frame);
+        } catch (Throwable cause) {
+            promise.tryFailure(cause);
+            return;
+        } finally {
+            frame.release();
+        }
+        ctx.write(compressedFrame, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+        if (offloading) {
+            flushPending = true;
+        } else {
+            ctx.flush();
+        }
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, WebSocketFrame msg, List<Object> out) {
+        // Writes are handled in write(), this is only reached if the encoder is invoked directly
+        out.add(shouldCompress(msg) ? compress(ctx.alloc(), msg) : msg.retain());
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        removed = true;
+        if (!offloading) {
+            cleanup();
+        }
+        super.handlerRemoved(ctx);
+    }
+
+    /**
+     * Decides whether the frame is compressed and tracks whether the continuation frames of the current message are.
+     */
+    private boolean shouldCompress(WebSocketFrame frame) {
+        if (frame instanceof ContinuationWebSocketFrame) {
+            boolean compress = compressing;
+            if (frame.isFinalFragment()) {
+                compressing = false;
+            }
+            return compress;
+        }
+        if ((frame instanceof TextWebSocketFrame || frame instanceof BinaryWebSocketFrame)
+                && (frame.rsv() & WebSocketExtension.RSV1) == 0) {
+            boolean compress = frame.content().readableBytes() >= minCompressionSize;
+            compressing = compress && !frame.isFinalFragment();
+            return compress;
+        }
+        return false;
+    }
+
+    private void compressOffTheEventLoop(ChannelHandlerContext ctx, WebSocketFrame frame, ChannelPromise promise) {
+        WebSocketFrame compressedFrame = null;
+        Throwable cause = null;
+        try {
+            compressedFrame = compress(ctx.alloc(), frame);
+        } catch (Throwable t) {
+            cause = t;
+        } finally {
+            frame.release();
+        }
+        WebSocketFrame result = compressedFrame;
+        Throwable failure = cause;
+        ctx.executor().execute(() -> onOffloadComplete(ctx, result, failure, promise));
+    }
+
+    private void onOffloadComplete(ChannelHandlerContext ctx, WebSocketFrame compressedFrame, Throwable cause,
+                                   ChannelPromise promise) {
+        offloading = false;
+        if (removed) {
+            cleanup();
+            ReferenceCountUtil.release(compressedFrame);
+            promise.tryFailure(new IllegalStateException("Compression handler was removed from the pipeline"));
+            failPendingWrites();
+            return;
+        }
+        if (cause != null) {
+            promise.tryFailure(cause);
+        } else {
+            ctx.write(compressedFrame, promise);
+        }
+        PendingWrite pendingWrite;
+        while (!offloading && (pendingWrite = pendingWrites.poll()) != null) {
+            write(ctx, pendingWrite.msg, pendingWrite.promise);
+        }
+        if (!offloading && flushPending) {
+            flushPending = false;
+            ctx.flush();
+        }
+    }
+
+    private void failPendingWrites() {
+        PendingWrite pendingWrite;
+        while ((pendingWrite = pendingWrites.poll()) != null) {
+            ReferenceCountUtil.release(pendingWrite.msg);
+            pendingWrite.promise.tryFailure(
+                    new IllegalStateException("Compression handler was removed from the pipeline"));
+        }
+    }
+
+    private WebSocketFrame compress(ByteBufAllocator alloc, WebSocketFrame frame) {
+        if (compressor == null) {
+            compressor = new EmbeddedChannel(ZlibCodecFactory.newZlibEncoder(ZlibWrapper.NONE, compressionLevel,
+                                                                             windowBits, memLevel));
+        }
+        compressor.writeOutbound(frame.content().retain());
+        CompositeByteBuf compressedContent = alloc.compositeBuffer();
+        for (;;) {
+            ByteBuf partial = compressor.readOutbound();
+            if (partial == null) {
+                break;
+            }
+            if (!partial.isReadable()) {
+                partial.release();
+                continue;
+            }
+            compressedContent.addComponent(true, partial);
+        }
+        if (compressedContent.numComponents() <= 0) {
+            compressedContent.release();
+            throw new CodecException("Cannot read compressed buffer");
+        }
+        if (frame.isFinalFragment() && noContext) {
+            cleanup();
+        }
+
+        ByteBuf content = compressedContent;
+        if (frame.isFinalFragment()) {
+            // The empty deflate block that ends a message is not sent, as the peer appends it back
+            content = compressedContent.slice(0, compressedContent.readableBytes()
+                    - PerMessageDeflateDecoder.FRAME_TAIL.length);
+        }
+        if (frame instanceof TextWebSocketFrame) {
+            return new TextWebSocketFrame(frame.isFinalFragment(), frame.rsv() | WebSocketExtension.RSV1, content);
+        } else if (frame instanceof BinaryWebSocketFrame) {
+            return new BinaryWebSocketFrame(frame.isFinalFragment(), frame.rsv() | WebSocketExtension.RSV1, content);
+        }
+        return new ContinuationWebSocketFrame(frame.isFinalFragment(), frame.rsv(), content);
+    }
+
+    private void cleanup() {
+        if (compressor != null) {
+            if (compressor.finish()) {
+                for (;;) {
+                    ByteBuf buf = compressor.readOutbound();
+                    if (buf == null) {
+                        break;
+                    }
+                    buf.release();
+                }
+            }
+            compressor = null;
+        }
+    }
+
+    private static class PendingWrite {
+        private final Object msg;
+        private final ChannelPromise promise;
+
+        private PendingWrite(Object msg, ChannelPromise promise) {
+            this.msg = msg;
+            this.promise = promise;
+        }
+    }
+}
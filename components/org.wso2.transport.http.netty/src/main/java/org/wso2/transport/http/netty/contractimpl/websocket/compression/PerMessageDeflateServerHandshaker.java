@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.websocket.compression;
+
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtension;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionDecoder;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionEncoder;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtension;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandshaker;
+import org.wso2.transport.http.netty.contract.config.WebSocketCompressionConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateSettings.CLIENT_MAX_WINDOW;
+import static org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateSettings.CLIENT_NO_CONTEXT;
+import static org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateSettings.MAX_WINDOW_BITS;
+import static org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateSettings.PERMESSAGE_DEFLATE_EXTENSION;
+import static org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateSettings.SERVER_MAX_WINDOW;
+import static org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateSettings.SERVER_NO_CONTEXT;
+
+/**
+ * Accepts permessage-deflate offers of clients according to a {@link WebSocketCompressionConfig}. The handshaker is
+ * stateless and can be shared by all connections of a listener.
+ */
+public class PerMessageDeflateServerHandshaker implements WebSocketServerExtensionHandshaker {
+
+    private final PerMessageDeflateSettings settings;
+
+    /**
+     * @param config          compression configuration of the listener.
+     * @param offloadExecutor executor to compress large frames on, or null if compression is not offloaded.
+     */
+    public PerMessageDeflateServerHandshaker(WebSocketCompressionConfig config, Executor offloadExecutor) {
+        this.settings = new PerMessageDeflateSettings(config, offloadExecutor);
+    }
+
+    @Override
+    public WebSocketServerExtension handshakeExtension(WebSocketExtensionData extensionData) {
+        if (!PERMESSAGE_DEFLATE_EXTENSION.equals(extensionData.name())) {
+            return null;
+        }
+        int serverWindowBits = MAX_WINDOW_BITS;
+        boolean serverWindowRequested = false;
+        boolean clientWindowAllowed = false;
+        boolean serverNoContext = settings.noContextTakeover;
+        boolean clientNoContext = settings.peerNoContextTakeover;
+
+        for (Map.Entry<String, String> parameter : extensionData.parameters().entrySet()) {
+            switch (parameter.getKey()) {
+            case CLIENT_MAX_WINDOW:
+                clientWindowAllowed = true;
+                break;
+            case SERVER_MAX_WINDOW:
+                serverWindowBits = PerMessageDeflateSettings.parseWindowBits(parameter.getValue());
+                if (serverWindowBits == -1 || (serverWindowBits < MAX_WINDOW_BITS && !settings.windowSizeSupported)) {
+                    return null;
+                }
+                serverWindowRequested = true;
+                break;
+            case CLIENT_NO_CONTEXT:
+                // The client is not going to take over its context regardless of the response
+                clientNoContext = true;
+                break;
+            case SERVER_NO_CONTEXT:
+                serverNoContext = true;
+                break;
+            default:
+                return null;
+            }
+        }
+        int clientWindowBits = clientWindowAllowed ? settings.peerWindowBits : MAX_WINDOW_BITS;
+        return new PerMessageDeflateServerExtension(serverWindowBits, serverWindowRequested, serverNoContext,
+                                                    clientWindowBits, clientNoContext);
+    }
+
+    /**
+     * The permessage-deflate extension as negotiated with a client.
+     */
+    private class PerMessageDeflateServerExtension implements WebSocketServerExtension {
+
+        private final int serverWindowBits;
+        private final boolean serverWindowRequested;
+        private final boolean serverNoContext;
+        private final int clientWindowBits;
+        private final boolean clientNoContext;
+
+        private PerMessageDeflateServerExtension(int serverWindowBits, boolean serverWindowRequested,
+                                                 boolean serverNoContext, int clientWindowBits,
+                                                 boolean clientNoContext) {
+            this.serverWindowBits = serverWindowBits;
+            this.serverWindowRequested = serverWindowRequested;
+            this.serverNoContext = serverNoContext;
+            this.clientWindowBits = clientWindowBits;
+            this.clientNoContext = clientNoContext;
+        }
+
+        @Override
+        public int rsv() {
+            return WebSocketExtension.RSV1;
+        }
+
+        @Override
+        public WebSocketExtensionEncoder newExtensionEncoder() {
+            return settings.newEncoder(serverWindowBits, serverNoContext);
+        }
+
+        @Override
+        public WebSocketExtensionDecoder newExtensionDecoder() {
+            return new PerMessageDeflateDecoder(clientNoContext);
+        }
+
+        @Override
+        public WebSocketExtensionData newReponseData() {
+            Map<String, String> parameters = new HashMap<>(4);
+            if (serverNoContext) {
+                parameters.put(SERVER_NO_CONTEXT, null);
+            }
+            if (clientNoContext) {
+                parameters.put(CLIENT_NO_CONTEXT, null);
+            }
+            if (serverWindowRequested) {
+                parameters.put(SERVER_MAX_WINDOW, Integer.toString(Math.min(serverWindowBits, settings.windowBits)));
+            }
+            if (clientWindowBits != MAX_WINDOW_BITS) {
+                parameters.put(CLIENT_MAX_WINDOW, Integer.toString(clientWindowBits));
+            }
+            return new WebSocketExtensionData(PERMESSAGE_DEFLATE_EXTENSION, parameters);
+        }
+    }
+}
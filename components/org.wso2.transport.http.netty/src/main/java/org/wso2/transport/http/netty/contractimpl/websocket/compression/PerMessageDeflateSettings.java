@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.websocket.compression;
+
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.config.WebSocketCompressionConfig;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Validated permessage-deflate settings shared by the server and client extension handshakers.
+ */
+final class PerMessageDeflateSettings {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PerMessageDeflateSettings.class);
+
+    static final String PERMESSAGE_DEFLATE_EXTENSION = "permessage-deflate";
+    static final String CLIENT_MAX_WINDOW = "client_max_window_bits";
+    static final String SERVER_MAX_WINDOW = "server_max_window_bits";
+    static final String CLIENT_NO_CONTEXT = "client_no_context_takeover";
+    static final String SERVER_NO_CONTEXT = "server_no_context_takeover";
+    static final int MIN_WINDOW_BITS = 9;
+    static final int MAX_WINDOW_BITS = 15;
+    private static final int DEFAULT_MEM_LEVEL = 8;
+
+    final int compressionLevel;
+    final int windowBits;
+    final int peerWindowBits;
+    final int memLevel;
+    final boolean noContextTakeover;
+    final boolean peerNoContextTakeover;
+    final boolean windowSizeSupported;
+    private final int minCompressionSize;
+    private final int offloadThreshold;
+    private final Executor offloadExecutor;
+
+    PerMessageDeflateSettings(WebSocketCompressionConfig config, Executor offloadExecutor) {
+        if (config.getCompressionLevel() < 0 || config.getCompressionLevel() > 9) {
+            throw new IllegalArgumentException(
+                    "Compression level must be between 0 and 9, found " + config.getCompressionLevel());
+        }
+        validateWindowBits(config.getWindowBits());
+        validateWindowBits(config.getPeerWindowBits());
+        if (config.getMemLevel() < 1 || config.getMemLevel() > 9) {
+            throw new IllegalArgumentException("Memory level must be between 1 and 9, found " + config.getMemLevel());
+        }
+        if (config.getMinCompressionSize() < 0) {
+            throw new IllegalArgumentException(
+                    "Minimum compression size cannot be negative, found " + config.getMinCompressionSize());
+        }
+        if (config.getOffloadThreshold() < -1) {
+            throw new IllegalArgumentException(
+                    "Offload threshold must be -1 or a non negative size, found " + config.getOffloadThreshold());
+        }
+        if (config.getOffloadThreshold() > -1 && offloadExecutor == null) {
+            throw new IllegalArgumentException("Offload threshold is set but there is no executor to offload to");
+        }
+
+        this.windowSizeSupported = isWindowSizeAndMemLevelSupported();
+        boolean customised = config.getWindowBits() != MAX_WINDOW_BITS || config.getMemLevel() != DEFAULT_MEM_LEVEL;
+        if (customised && !windowSizeSupported) {
+            LOG.warn("Window bits and memory level of WebSocket compression need JZlib, using the defaults instead");
+        }
+        this.compressionLevel = config.getCompressionLevel();
+        this.windowBits = windowSizeSupported ? config.getWindowBits() : MAX_WINDOW_BITS;
+        this.memLevel = windowSizeSupported ? config.getMemLevel() : DEFAULT_MEM_LEVEL;
+        this.peerWindowBits = config.getPeerWindowBits();
+        this.noContextTakeover = config.isNoContextTakeover();
+        this.peerNoContextTakeover = config.isPeerNoContextTakeover();
+        this.minCompressionSize = config.getMinCompressionSize();
+        this.offloadThreshold = config.getOffloadThreshold();
+        this.offloadExecutor = offloadExecutor;
+    }
+
+    /**
+     * Creates the encoder of a connection. A negotiated window below the maximum is only accepted when JZlib is
+     * available, hence the encoder never needs a window size that the JDK compressor cannot provide.
+     */
+    PerMessageDeflateEncoder newEncoder(int negotiatedWindowBits, boolean noContext) {
+        return new PerMessageDeflateEncoder(compressionLevel, Math.min(windowBits, negotiatedWindowBits), memLevel,
+                                            noContext, minCompressionSize, offloadThreshold, offloadExecutor);
+    }
+
+    static int parseWindowBits(String value) {
+        try {
+            int bits = Integer.parseInt(value);
+            return bits >= MIN_WINDOW_BITS && bits <= MAX_WINDOW_BITS ? bits : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void validateWindowBits(int bits) {
+        if (bits < MIN_WINDOW_BITS || bits > MAX_WINDOW_BITS) {
+            throw new IllegalArgumentException(
+                    "Window bits must be between " + MIN_WINDOW_BITS + " and " + MAX_WINDOW_BITS + ", found " + bits);
+        }
+    }
+
+    private static boolean isWindowSizeAndMemLevelSupported() {
+        if (!ZlibCodecFactory.isSupportingWindowSizeAndMemLevel()) {
+            return false;
+        }
+        try {
+            Class.forName("com.jcraft.jzlib.Deflater", false, PerMessageDeflateSettings.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
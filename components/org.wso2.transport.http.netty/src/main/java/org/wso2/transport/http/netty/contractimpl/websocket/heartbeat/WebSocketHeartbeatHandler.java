@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.websocket.heartbeat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.PingWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.PongWebSocketFrame;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contract.Constants;
+
+/**
+ * Sends the heartbeat pings of a WebSocket connection, closes the connection when too many of them are left
+ * unanswered and fires idle state events in place of an {@link io.netty.handler.timeout.IdleStateHandler}.
+ * <p>
+ * Pongs that answer a heartbeat ping are consumed here and are not counted as activity of the connection, nor are
+ * the pings written by this handler. This includes late pongs that answer an earlier heartbeat ping.
+ */
+public class WebSocketHeartbeatHandler extends ChannelDuplexHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WebSocketHeartbeatHandler.class);
+    private static final int PING_PAYLOAD_LENGTH = 8;
+
+    private final WebSocketHeartbeatService heartbeatService;
+    private final long idleTimeoutNanos;
+    private final Runnable pingTask = this::ping;
+    private final Runnable idleCheckTask = this::checkIdle;
+    private final TimerTask pingTimerTask = timeout -> this.batch.add(pingTask);
+    private final TimerTask idleTimerTask = timeout -> this.batch.add(idleCheckTask);
+
+    private ChannelHandlerContext ctx;
+    private volatile WebSocketHeartbeatService.TaskBatch batch;
+    private Timeout pingTimeout;
+    private Timeout idleTimeout;
+    private boolean removed;
+    private boolean awaitingPong;
+    private int missedPongs;
+    private boolean pingSent;
+    private long firstPingPayload;
+    private long pingPayload;
+    private long lastActivityNanos;
+    private boolean firstIdleEvent = true;
+    private volatile long roundTripTimeNanos = -1;
+
+    WebSocketHeartbeatHandler(WebSocketHeartbeatService heartbeatService, long idleTimeoutNanos) {
+        this.heartbeatService = heartbeatService;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+    }
+
+    /**
+     * @return the round trip time measured with the last answered heartbeat ping, or -1 if none has been answered
+     */
+    public long getRoundTripTimeInNanos() {
+        return roundTripTimeNanos;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.ctx = ctx;
+        this.batch = heartbeatService.batchOf(ctx.executor());
+        lastActivityNanos = System.nanoTime();
+        if (heartbeatService.isPingEnabled()) {
+            pingTimeout = heartbeatService.schedule(pingTimerTask, heartbeatService.nextPingDelayNanos());
+        }
+        if (idleTimeoutNanos > 0) {
+            idleTimeout = heartbeatService.schedule(idleTimerTask, idleTimeoutNanos);
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        cancelTimeouts();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        cancelTimeouts();
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof PongWebSocketFrame && isHeartbeatPong(((PongWebSocketFrame) msg).content())) {
+            PongWebSocketFrame pongFrame = (PongWebSocketFrame) msg;
+            if (awaitingPong && pongFrame.content().getLong(pongFrame.content().readerIndex()) == pingPayload) {
+                roundTripTimeNanos = System.nanoTime() - pingPayload;
+                awaitingPong = false;
+                missedPongs = 0;
+            }
+            pongFrame.release();
+            return;
+        }
+        markActivity();
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        markActivity();
+        ctx.write(msg, promise);
+    }
+
+    /**
+     * A pong is a heartbeat pong when it carries the send time of one of the pings of this handler. Pongs that answer
+     * an earlier ping arrive after the next ping was sent and only the pong of the last ping resets the missed pongs.
+     */
+    private boolean isHeartbeatPong(ByteBuf content) {
+        if (!pingSent || content.readableBytes() != PING_PAYLOAD_LENGTH) {
+            return false;
+        }
+        long payload = content.getLong(content.readerIndex());
+        return payload - firstPingPayload >= 0 && pingPayload - payload >= 0;
+    }
+
+    private void markActivity() {
+        lastActivityNanos = System.nanoTime();
+        firstIdleEvent = true;
+    }
+
+    private void ping() {
+        if (removed) {
+            return;
+        }
+        if (awaitingPong && ++missedPongs >= heartbeatService.getMaxMissedPongs()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Closing WebSocket connection {} after {} unanswered pings", ctx.channel().id(),
+                          missedPongs);
+            }
+            cancelTimeouts();
+            ctx.writeAndFlush(new CloseWebSocketFrame(Constants.WEBSOCKET_STATUS_CODE_GOING_AWAY,
+                                                      "Heartbeat timed out")).addListener(ChannelFutureListener.CLOSE);
+            return;
+        }
+        // The payload is the time the ping is sent, which gives the round trip time once the pong arrives.
+        pingPayload = System.nanoTime();
+        if (!pingSent) {
+            firstPingPayload = pingPayload;
+            pingSent = true;
+        }
+        awaitingPong = true;
+        ctx.writeAndFlush(new PingWebSocketFrame(ctx.alloc().buffer(PING_PAYLOAD_LENGTH).writeLong(pingPayload)));
+        pingTimeout = heartbeatService.schedule(pingTimerTask, heartbeatService.nextPingDelayNanos());
+    }
+
+    private void checkIdle() {
+        if (removed) {
+            return;
+        }
+        long idleNanos = System.nanoTime() - lastActivityNanos;
+        if (idleNanos < idleTimeoutNanos) {
+            idleTimeout = heartbeatService.schedule(idleTimerTask, idleTimeoutNanos - idleNanos);
+            return;
+        }
+        // As with the IdleStateHandler, the next event is fired after another full timeout.
+        idleTimeout = heartbeatService.schedule(idleTimerTask, idleTimeoutNanos);
+        IdleStateEvent event = firstIdleEvent ? IdleStateEvent.FIRST_ALL_IDLE_STATE_EVENT
+                : IdleStateEvent.ALL_IDLE_STATE_EVENT;
+        firstIdleEvent = false;
+        lastActivityNanos = System.nanoTime();
+        ctx.fireUserEventTriggered(event);
+    }
+
+    private void cancelTimeouts() {
+        if (!removed && batch != null) {
+            heartbeatService.releaseBatch(batch);
+        }
+        removed = true;
+        if (pingTimeout != null) {
+            pingTimeout.cancel();
+            pingTimeout = null;
+        }
+        if (idleTimeout != null) {
+            idleTimeout.cancel();
+            idleTimeout = null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.websocket.heartbeat;
+
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.EventExecutor;
+import org.wso2.transport.http.netty.contract.config.WebSocketHeartbeatConfig;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drives the pings and idle timeouts of the WebSocket connections of a connector from a shared hashed-wheel timer.
+ * <p>
+ * Scheduling on the wheel costs the same however many connections are registered, unlike a scheduled task per
+ * connection on the event loop. Expired timeouts are not run in the timer thread; they are handed to the event loop
+ * of their connection in batches, so that each event loop is woken up once per tick however many of its connections
+ * are due.
+ */
+public class WebSocketHeartbeatService {
+
+    private final Timer timer;
+    private final long pingIntervalNanos;
+    private final long pingJitterNanos;
+    private final int maxMissedPongs;
+    private final ConcurrentMap<EventExecutor, TaskBatch> batches = new ConcurrentHashMap<>();
+
+    public WebSocketHeartbeatService(WebSocketHeartbeatConfig heartbeatConfig, Timer timer) {
+        if (heartbeatConfig.getPingIntervalInMillis() < 0) {
+            throw new IllegalArgumentException(
+                    "Ping interval cannot be negative: " + heartbeatConfig.getPingIntervalInMillis());
+        }
+        if (heartbeatConfig.getPingJitterInMillis() < 0) {
+            throw new IllegalArgumentException(
+                    "Ping jitter cannot be negative: " + heartbeatConfig.getPingJitterInMillis());
+        }
+        if (heartbeatConfig.getMaxMissedPongs() < 1) {
+            throw new IllegalArgumentException(
+                    "Maximum missed pongs should be at least 1: " + heartbeatConfig.getMaxMissedPongs());
+        }
+        this.timer = timer;
+        this.pingIntervalNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatConfig.getPingIntervalInMillis());
+        this.pingJitterNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatConfig.getPingJitterInMillis());
+        this.maxMissedPongs = heartbeatConfig.getMaxMissedPongs();
+    }
+
+    /**
+     * Creates the handler that keeps a single connection alive.
+     *
+     * @param idleTimeoutInMillis idle timeout of the connection, or 0 if the connection never times out
+     * @return the heartbeat handler of the connection
+     */
+    public WebSocketHeartbeatHandler newHandler(int idleTimeoutInMillis) {
+        return new WebSocketHeartbeatHandler(this, TimeUnit.MILLISECONDS.toNanos(Math.max(idleTimeoutInMillis, 0)));
+    }
+
+    boolean isPingEnabled() {
+        return pingIntervalNanos > 0;
+    }
+
+    int getMaxMissedPongs() {
+        return maxMissedPongs;
+    }
+
+    long nextPingDelayNanos() {
+        if (pingJitterNanos == 0) {
+            return pingIntervalNanos;
+        }
+        return pingIntervalNanos + ThreadLocalRandom.current().nextLong(pingJitterNanos + 1);
+    }
+
+    /**
+     * Gets the batch of the given event loop for a new connection. Must be called from the event loop, which is the
+     * only thread that counts the connections of its batch.
+     */
+    TaskBatch batchOf(EventExecutor executor) {
+        TaskBatch batch = batches.computeIfAbsent(executor, TaskBatch::new);
+        batch.connections++;
+        return batch;
+    }
+
+    /**
+     * Gives up the batch of a connection that is removed, dropping the batch once its event loop has no connections
+     * left. Must be called from the event loop of the batch.
+     */
+    void releaseBatch(TaskBatch batch) {
+        if (--batch.connections == 0) {
+            batches.remove(batch.executor, batch);
+        }
+    }
+
+    Timeout schedule(TimerTask task, long delayNanos) {
+        return timer.newTimeout(task, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Tasks of the connections of one event loop that are due, run together in a single task of the event loop.
+     */
+    static final class TaskBatch implements Runnable {
+
+        private final EventExecutor executor;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Only updated from the event loop
+        private int connections;
+
+        TaskBatch(EventExecutor executor) {
+            this.executor = executor;
+        }
+
+        void add(Runnable task) {
+            tasks.add(task);
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // The event loop is shutting down along with its connections.
+                    tasks.clear();
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            scheduled.set(false);
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
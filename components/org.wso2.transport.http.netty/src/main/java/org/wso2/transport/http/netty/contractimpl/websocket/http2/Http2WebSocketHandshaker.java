@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.websocket.http2;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.websocketx.WebSocketVersion;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.HttpConversionUtil;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.websocket.ServerHandshakeFuture;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketHandshaker;
+import org.wso2.transport.http.netty.contractimpl.listener.MessageQueueHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.DefaultServerHandshakeFuture;
+import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketInboundFrameHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatService;
+import org.wso2.transport.http.netty.message.HttpCarbonRequest;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link WebSocketHandshaker} of a WebSocket opened over a HTTP/2 stream with the extended CONNECT method. The
+ * handshake is accepted with a 200 response instead of a 101 response and the stream stays open for the frames.
+ */
+public class Http2WebSocketHandshaker implements WebSocketHandshaker {
+
+    private static final int DEFAULT_MAX_FRAME_PAYLOAD_LENGTH = 65536;
+
+    private final Http2WebSocketStreamChannel streamChannel;
+    private final ServerConnectorFuture connectorFuture;
+    private final HttpRequest httpRequest;
+    private final boolean secureConnection;
+    private final WebSocketBufferMode bufferMode;
+    private final WebSocketHeartbeatService heartbeatService;
+    private boolean cancelled = false;
+    private boolean handshakeStarted = false;
+    private HttpCarbonRequest request;
+
+    public Http2WebSocketHandshaker(Http2WebSocketStreamChannel streamChannel, ServerConnectorFuture connectorFuture,
+                                    HttpRequest httpRequest, boolean secureConnection,
+                                    WebSocketBufferMode bufferMode, WebSocketHeartbeatService heartbeatService) {
+        this.streamChannel = streamChannel;
+        this.connectorFuture = connectorFuture;
+        this.httpRequest = httpRequest;
+        this.secureConnection = secureConnection;
+        this.bufferMode = bufferMode;
+        this.heartbeatService = heartbeatService;
+    }
+
+    @Override
+    public String getTarget() {
+        return httpRequest.uri();
+    }
+
+    @Override
+    public ServerHandshakeFuture handshake() {
+        return handleHandshake(null, 0, null, DEFAULT_MAX_FRAME_PAYLOAD_LENGTH);
+    }
+
+    @Override
+    public ServerHandshakeFuture handshake(String[] subProtocols) {
+        return handleHandshake(subProtocols, 0, null, DEFAULT_MAX_FRAME_PAYLOAD_LENGTH);
+    }
+
+    @Override
+    public ServerHandshakeFuture handshake(String[] subProtocols, int idleTimeout) {
+        return handleHandshake(subProtocols, idleTimeout, null, DEFAULT_MAX_FRAME_PAYLOAD_LENGTH);
+    }
+
+    @Override
+    public ServerHandshakeFuture handshake(String[] subProtocols, int idleTimeout, HttpHeaders responseHeaders) {
+        return handleHandshake(subProtocols, idleTimeout, responseHeaders, DEFAULT_MAX_FRAME_PAYLOAD_LENGTH);
+    }
+
+    @Override
+    public ServerHandshakeFuture handshake(String[] subProtocols, int idleTimeout, HttpHeaders responseHeaders,
+                                           int maxFramePayloadLength) {
+        return handleHandshake(subProtocols, idleTimeout, responseHeaders, maxFramePayloadLength);
+    }
+
+    @Override
+    public ChannelFuture cancelHandshake(int statusCode, String closeReason) {
+        if (cancelled) {
+            throw new IllegalStateException("Cannot cancel the handshake: handshake already cancelled");
+        }
+
+        if (handshakeStarted) {
+            throw new IllegalStateException("Cannot cancel the handshake: handshake already started");
+        }
+
+        try {
+            int responseStatusCode = statusCode >= 400 && statusCode < 600 ? statusCode : 400;
+            Http2Headers headers = new DefaultHttp2Headers().status(String.valueOf(responseStatusCode));
+            ByteBuf content = closeReason != null ?
+                    Unpooled.wrappedBuffer(closeReason.getBytes(StandardCharsets.UTF_8)) : null;
+            // Only the stream is closed, the connection stays open for the other streams
+            return streamChannel.writeHeaders(headers, content, true).addListener(ChannelFutureListener.CLOSE);
+        } finally {
+            cancelled = true;
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isHandshakeStarted() {
+        return handshakeStarted;
+    }
+
+    @Override
+    public boolean isSecure() {
+        return secureConnection;
+    }
+
+    @Override
+    public boolean isServerMessage() {
+        return true;
+    }
+
+    @Override
+    public WebSocketConnection getWebSocketConnection() {
+        throw new IllegalStateException("Cannot get WebSocket connection without handshake completion");
+    }
+
+    @Override
+    public String getChannelId() {
+        return streamChannel.id().asLongText();
+    }
+
+    private ServerHandshakeFuture handleHandshake(String[] subProtocols, int idleTimeout, HttpHeaders headers,
+                                                  int maxFramePayloadLength) {
+        DefaultServerHandshakeFuture handshakeFuture = new DefaultServerHandshakeFuture();
+        if (cancelled) {
+            Throwable e = new IllegalAccessException("Handshake is already cancelled.");
+            handshakeFuture.notifyError(e);
+            return handshakeFuture;
+        }
+        String version = WebSocketVersion.V13.toHttpHeaderValue();
+        if (!version.equals(httpRequest.headers().get(HttpHeaderNames.SEC_WEBSOCKET_VERSION))) {
+            Http2Headers unsupportedVersionHeaders = new DefaultHttp2Headers()
+                    .status(HttpResponseStatus.UPGRADE_REQUIRED.codeAsText());
+            unsupportedVersionHeaders.set(HttpHeaderNames.SEC_WEBSOCKET_VERSION, version);
+            streamChannel.writeHeaders(unsupportedVersionHeaders, null, true).addListener(ChannelFutureListener.CLOSE);
+            handshakeFuture.notifyError(new UnsupportedOperationException("Unsupported WebSocket version"));
+            return handshakeFuture;
+        }
+
+        String selectedSubProtocol = selectSubProtocol(subProtocols);
+        Http2Headers responseHeaders = headers != null ?
+                HttpConversionUtil.toHttp2Headers(headers, true) : new DefaultHttp2Headers();
+        responseHeaders.status(HttpResponseStatus.OK.codeAsText());
+        if (selectedSubProtocol != null) {
+            responseHeaders.set(HttpHeaderNames.SEC_WEBSOCKET_PROTOCOL, selectedSubProtocol);
+        }
+        streamChannel.writeHeaders(responseHeaders, null, false).addListener(future -> {
+            if (future.isSuccess()) {
+                WebSocketInboundFrameHandler frameHandler = new WebSocketInboundFrameHandler(
+                        true, secureConnection, getTarget(), selectedSubProtocol, connectorFuture,
+                        new MessageQueueHandler(), bufferMode);
+                WebSocketHeartbeatHandler heartbeatHandler = heartbeatService != null ?
+                        heartbeatService.newHandler(idleTimeout) : null;
+                Http2WebSocketUtil.configureFramePipeline(streamChannel, true, maxFramePayloadLength, idleTimeout,
+                                                          heartbeatHandler, frameHandler);
+                frameHandler.getWebSocketConnection().stopReadingFrames();
+                handshakeFuture.notifySuccess(frameHandler.getWebSocketConnection());
+            } else {
+                streamChannel.close();
+                handshakeFuture.notifyError(future.cause());
+            }
+        });
+        handshakeStarted = true;
+        return handshakeFuture;
+    }
+
+    /* Select the first sub protocol requested by the client which is supported by the service */
+    private String selectSubProtocol(String[] subProtocols) {
+        String requestedSubProtocols = httpRequest.headers().get(HttpHeaderNames.SEC_WEBSOCKET_PROTOCOL);
+        if (requestedSubProtocols == null || subProtocols == null) {
+            return null;
+        }
+        for (String requestedSubProtocol : requestedSubProtocols.split(",")) {
+            String candidate = requestedSubProtocol.trim();
+            for (String subProtocol : subProtocols) {
+                if ("*".equals(subProtocol) || candidate.equals(subProtocol)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    public HttpCarbonRequest getHttpCarbonRequest() {
+        return request;
+    }
+
+    public void setHttpCarbonRequest(HttpCarbonRequest request) {
+        this.request = request;
+    }
+}
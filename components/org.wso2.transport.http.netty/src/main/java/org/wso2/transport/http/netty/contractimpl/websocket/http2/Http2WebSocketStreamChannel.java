@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.websocket.http2;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelMetadata;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultChannelConfig;
+import io.netty.channel.EventLoop;
+import io.netty.handler.codec.http2.Http2ConnectionEncoder;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2Stream;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+import io.netty.util.internal.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.contractimpl.common.Http2StreamWritabilityTracker;
+import org.wso2.transport.http.netty.message.OutboundWritability;
+
+import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * A WebSocket carried by a single HTTP/2 stream as described in RFC 8441.
+ * <p>
+ * The stream is exposed as a channel of its own, so that the frame codec, the heartbeat and the
+ * {@link org.wso2.transport.http.netty.contractimpl.websocket.WebSocketInboundFrameHandler} work on it the same way
+ * they work on a dedicated connection. Frames read for the stream are handed over by the HTTP/2 connection and read out
+ * of this channel, while bytes written to it are sent as DATA frames through the encoder of the connection. The channel
+ * is registered with the event loop of the connection, so no extra thread hops are involved.
+ * <p>
+ * The channel follows HTTP/2 flow control in both directions. Data read for the stream is only returned to the flow
+ * controller of the connection once it is read out of the channel, so the peer stops sending while the application
+ * does not read. Data written to the channel stays in its outbound buffer until the connection has actually written
+ * it, and the channel is not writable while the flow control window of the stream is exhausted.
+ */
+public class Http2WebSocketStreamChannel extends AbstractChannel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Http2WebSocketStreamChannel.class);
+    private static final ChannelMetadata METADATA = new ChannelMetadata(false);
+
+    private final ChannelHandlerContext connectionCtx;
+    private final Http2ConnectionEncoder encoder;
+    private final int streamId;
+    private final ChannelConfig config;
+    private final OutboundWritability streamWritability;
+    private final Queue<Object> inboundQueue = new ArrayDeque<>();
+    private volatile boolean open = true;
+    private boolean readPending;
+    private boolean inReadLoop;
+    private boolean inputShutdown;
+    // Messages handed over to the encoder whose write is not complete yet. They are the head of the outbound buffer.
+    private int writesInProgress;
+    private boolean awaitingStreamWritability;
+
+    /**
+     * @param connectionCtx context of the handler which writes to the HTTP/2 connection.
+     * @param encoder       encoder of the HTTP/2 connection.
+     * @param streamId      id of the stream which carries the WebSocket.
+     */
+    public Http2WebSocketStreamChannel(ChannelHandlerContext connectionCtx, Http2ConnectionEncoder encoder,
+                                       int streamId) {
+        super(connectionCtx.channel());
+        this.connectionCtx = connectionCtx;
+        this.encoder = encoder;
+        this.streamId = streamId;
+        this.config = new DefaultChannelConfig(this);
+        // Nothing is read from the stream until the handshake asks for it
+        this.config.setAutoRead(false);
+        this.streamWritability = Http2StreamWritabilityTracker.streamWritability(connectionCtx.channel(), streamId);
+    }
+
+    public int getStreamId() {
+        return streamId;
+    }
+
+    /**
+     * Registers the channel with the event loop of the HTTP/2 connection.
+     *
+     * @return the future of the registration
+     */
+    public ChannelFuture registerWithConnection() {
+        return parent().eventLoop().register(this);
+    }
+
+    /**
+     * Writes the headers of the stream, followed by the given data if any. The headers are not part of the WebSocket
+     * byte stream, hence they are written straight to the connection rather than through the pipeline.
+     *
+     * @param headers     headers of the stream.
+     * @param data        data to send after the headers, or null.
+     * @param endOfStream whether the stream ends with this write.
+     * @return the future of the write
+     */
+    public ChannelFuture writeHeaders(Http2Headers headers, ByteBuf data, boolean endOfStream) {
+        ChannelPromise promise = newPromise();
+        EventLoop eventLoop = parent().eventLoop();
+        if (eventLoop.inEventLoop()) {
+            writeHeaders(headers, data, endOfStream, promise);
+        } else {
+            eventLoop.execute(() -> writeHeaders(headers, data, endOfStream, promise));
+        }
+        return promise;
+    }
+
+    private void writeHeaders(Http2Headers headers, ByteBuf data, boolean endOfStream, ChannelPromise promise) {
+        ChannelFuture future;
+        if (data == null) {
+            future = encoder.writeHeaders(connectionCtx, streamId, headers, 0, endOfStream,
+                                          connectionCtx.newPromise());
+        } else {
+            encoder.writeHeaders(connectionCtx, streamId, headers, 0, false, connectionCtx.newPromise());
+            future = encoder.writeData(connectionCtx, streamId, data, 0, endOfStream, connectionCtx.newPromise());
+        }
+        connectionCtx.flush();
+        future.addListener(writeFuture -> {
+            if (writeFuture.isSuccess()) {
+                promise.trySuccess();
+            } else {
+                promise.tryFailure(writeFuture.cause());
+            }
+        });
+    }
+
+    /**
+     * Hands over a frame read for the stream. Data is retained until it is read out of the channel.
+     *
+     * @param msg         payload of a DATA frame or the headers of the stream.
+     * @param endOfStream whether the remote endpoint ended the stream with this frame.
+     */
+    void streamRead(Object msg, boolean endOfStream) {
+        if (!open) {
+            if (msg instanceof ByteBuf) {
+                consumeBytes(((ByteBuf) msg).readableBytes());
+            }
+            return;
+        }
+        if (msg instanceof ByteBuf) {
+            ByteBuf data = (ByteBuf) msg;
+            if (data.isReadable()) {
+                inboundQueue.add(data.retain());
+            }
+        } else {
+            inboundQueue.add(msg);
+        }
+        inputShutdown |= endOfStream;
+        readInbound();
+    }
+
+    /**
+     * Closes the channel once the stream is closed or reset.
+     */
+    void streamClosed() {
+        if (open) {
+            unsafe().close(unsafe().voidPromise());
+        }
+    }
+
+    void connectionWritabilityChanged() {
+        if (isRegistered()) {
+            pipeline().fireChannelWritabilityChanged();
+        }
+    }
+
+    private void readInbound() {
+        if (inReadLoop) {
+            // A handler asked for more while the queue is being drained, which the loop already takes care of
+            return;
+        }
+        if (readPending && !inboundQueue.isEmpty()) {
+            inReadLoop = true;
+            readPending = false;
+            try {
+                // Everything received so far is read at once, the same way a socket read drains its receive buffer
+                int readBytes = 0;
+                Object msg;
+                while ((msg = inboundQueue.poll()) != null) {
+                    if (msg instanceof ByteBuf) {
+                        readBytes += ((ByteBuf) msg).readableBytes();
+                    }
+                    pipeline().fireChannelRead(msg);
+                }
+                pipeline().fireChannelReadComplete();
+                // Only now the peer may send more
+                consumeBytes(readBytes);
+            } finally {
+                inReadLoop = false;
+            }
+        }
+        if (inputShutdown && inboundQueue.isEmpty() && open) {
+            // The remote endpoint ended the stream, which ends the WebSocket the same way a FIN ends a connection
+            unsafe().close(unsafe().voidPromise());
+        }
+    }
+
+    /**
+     * Returns the given number of bytes read for the stream to the flow controller of the connection, which lets the
+     * peer send as much again.
+     */
+    private void consumeBytes(int numBytes) {
+        if (numBytes == 0) {
+            return;
+        }
+        Http2Stream stream = encoder.connection().stream(streamId);
+        if (stream == null) {
+            // The bytes of a closed stream are returned by the flow controller itself
+            return;
+        }
+        try {
+            if (encoder.connection().local().flowController().consumeBytes(stream, numBytes)) {
+                connectionCtx.flush();
+            }
+        } catch (Http2Exception e) {
+            LOG.warn("Couldn't return the bytes read for HTTP/2 stream {}", streamId, e);
+        }
+    }
+
+    @Override
+    public boolean isWritable() {
+        // All streams share the socket of the connection, hence a stream is writable only while the connection is and
+        // while the flow control window of the stream has room
+        return super.isWritable() && parent().isWritable()
+                && (streamWritability == null || streamWritability.isWritable());
+    }
+
+    @Override
+    protected AbstractUnsafe newUnsafe() {
+        return new StreamUnsafe();
+    }
+
+    @Override
+    protected boolean isCompatible(EventLoop loop) {
+        return loop == parent().eventLoop();
+    }
+
+    @Override
+    protected SocketAddress localAddress0() {
+        return parent().localAddress();
+    }
+
+    @Override
+    protected SocketAddress remoteAddress0() {
+        return parent().remoteAddress();
+    }
+
+    @Override
+    protected void doBind(SocketAddress localAddress) {
+        throw new UnsupportedOperationException("HTTP/2 stream channels cannot be bound");
+    }
+
+    @Override
+    protected void doDisconnect() {
+        doClose();
+    }
+
+    @Override
+    protected void doClose() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        writesInProgress = 0;
+        int unreadBytes = 0;
+        Object msg;
+        while ((msg = inboundQueue.poll()) != null) {
+            if (msg instanceof ByteBuf) {
+                unreadBytes += ((ByteBuf) msg).readableBytes();
+            }
+            ReferenceCountUtil.release(msg);
+        }
+        // The peer may still send until it sees the end of the stream
+        consumeBytes(unreadBytes);
+        Http2Stream stream = encoder.connection().stream(streamId);
+        if (stream != null && stream.state().localSideOpen()) {
+            encoder.writeData(connectionCtx, streamId, Unpooled.EMPTY_BUFFER, 0, true, connectionCtx.newPromise());
+            connectionCtx.flush();
+        }
+    }
+
+    @Override
+    protected void doBeginRead() {
+        readPending = true;
+        readInbound();
+    }
+
+    @Override
+    protected void doWrite(ChannelOutboundBuffer in) throws Exception {
+        // The messages stay in the outbound buffer until the connection has written them, so that the writability of
+        // the channel reflects what is still queued up in the flow controller
+        List<ByteBuf> newMessages = new ArrayList<>();
+        in.forEachFlushedMessage(new ChannelOutboundBuffer.MessageProcessor() {
+            private int skipped;
+
+            @Override
+            public boolean processMessage(Object msg) {
+                if (skipped < writesInProgress) {
+                    skipped++;
+                } else {
+                    newMessages.add((ByteBuf) msg);
+                }
+                return true;
+            }
+        });
+        for (ByteBuf data : newMessages) {
+            if (!open) {
+                break;
+            }
+            writesInProgress++;
+            encoder.writeData(connectionCtx, streamId, data.retain(), 0, false, connectionCtx.newPromise())
+                    .addListener(this::writeComplete);
+        }
+        if (!newMessages.isEmpty()) {
+            connectionCtx.flush();
+            checkStreamWritability();
+        }
+    }
+
+    /**
+     * Removes a message from the outbound buffer once the connection wrote it. The writes of a stream complete in
+     * the order they were made, hence the message is always the head of the buffer.
+     */
+    private void writeComplete(Future<? super Void> future) {
+        ChannelOutboundBuffer in = unsafe().outboundBuffer();
+        if (in == null || writesInProgress == 0) {
+            // The channel is closed and its outbound buffer failed the pending writes already
+            return;
+        }
+        writesInProgress--;
+        if (future.isSuccess()) {
+            in.remove();
+        } else {
+            in.remove(future.cause());
+            if (open) {
+                LOG.debug("Couldn't write to HTTP/2 stream {}, closing it", streamId, future.cause());
+                unsafe().close(unsafe().voidPromise());
+            }
+        }
+    }
+
+    private void checkStreamWritability() {
+        if (streamWritability == null || awaitingStreamWritability || streamWritability.isWritable()) {
+            return;
+        }
+        awaitingStreamWritability = true;
+        pipeline().fireChannelWritabilityChanged();
+        streamWritability.notifyWhenWritable(() -> {
+            awaitingStreamWritability = false;
+            if (isRegistered()) {
+                pipeline().fireChannelWritabilityChanged();
+            }
+        });
+    }
+
+    @Override
+    protected Object filterOutboundMessage(Object msg) {
+        if (msg instanceof ByteBuf) {
+            return msg;
+        }
+        throw new UnsupportedOperationException("Unsupported message type: " + StringUtil.simpleClassName(msg));
+    }
+
+    @Override
+    public ChannelConfig config() {
+        return config;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public boolean isActive() {
+        return open;
+    }
+
+    @Override
+    public ChannelMetadata metadata() {
+        return METADATA;
+    }
+
+    /**
+     * Streams are opened by their HTTP/2 connection, hence there is nothing to connect.
+     */
+    private final class StreamUnsafe extends AbstractUnsafe {
+
+        @Override
+        public void connect(SocketAddress remoteAddress, SocketAddress localAddress, ChannelPromise promise) {
+            promise.setFailure(new UnsupportedOperationException("HTTP/2 stream channels cannot be connected"));
+        }
+    }
+}
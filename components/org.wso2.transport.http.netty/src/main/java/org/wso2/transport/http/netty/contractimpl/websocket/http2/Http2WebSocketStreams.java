@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.websocket.http2;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http2.Http2Headers;
+import org.wso2.transport.http.netty.contractimpl.sender.http2.Http2DataEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the WebSocket streams of a HTTP/2 connection and routes the frames read for them to their channels, away from
+ * the HTTP message flow. Every method is called on the event loop of the connection.
+ */
+public class Http2WebSocketStreams implements Http2DataEventListener {
+
+    private final Map<Integer, Http2WebSocketStreamChannel> streams = new HashMap<>();
+
+    /**
+     * Adds a registered stream channel. The channel is forgotten once it is closed.
+     *
+     * @param streamChannel channel of the WebSocket stream.
+     */
+    public void add(Http2WebSocketStreamChannel streamChannel) {
+        int streamId = streamChannel.getStreamId();
+        streams.put(streamId, streamChannel);
+        streamChannel.closeFuture().addListener(future -> streams.remove(streamId));
+    }
+
+    public boolean contains(int streamId) {
+        return streams.containsKey(streamId);
+    }
+
+    /**
+     * Lets the streams know that the writability of the connection changed.
+     */
+    public void channelWritabilityChanged() {
+        for (Http2WebSocketStreamChannel streamChannel : new ArrayList<>(streams.values())) {
+            streamChannel.connectionWritabilityChanged();
+        }
+    }
+
+    @Override
+    public boolean onStreamInit(ChannelHandlerContext ctx, int streamId) {
+        return true;
+    }
+
+    @Override
+    public boolean onHeadersRead(ChannelHandlerContext ctx, int streamId, Http2Headers headers, boolean endOfStream) {
+        Http2WebSocketStreamChannel streamChannel = streams.get(streamId);
+        if (streamChannel == null) {
+            return true;
+        }
+        streamChannel.streamRead(headers, endOfStream);
+        return false;
+    }
+
+    @Override
+    public boolean onDataRead(ChannelHandlerContext ctx, int streamId, ByteBuf data, boolean endOfStream) {
+        Http2WebSocketStreamChannel streamChannel = streams.get(streamId);
+        if (streamChannel == null) {
+            return true;
+        }
+        streamChannel.streamRead(data, endOfStream);
+        return false;
+    }
+
+    @Override
+    public boolean onPushPromiseRead(ChannelHandlerContext ctx, int streamId, Http2Headers headers,
+                                     boolean endOfStream) {
+        return true;
+    }
+
+    @Override
+    public boolean onHeadersWrite(ChannelHandlerContext ctx, int streamId, Http2Headers headers, boolean endOfStream) {
+        return true;
+    }
+
+    @Override
+    public boolean onDataWrite(ChannelHandlerContext ctx, int streamId, ByteBuf data, boolean endOfStream) {
+        return true;
+    }
+
+    @Override
+    public void onStreamReset(int streamId) {
+        onStreamClose(streamId);
+    }
+
+    @Override
+    public void onStreamClose(int streamId) {
+        Http2WebSocketStreamChannel streamChannel = streams.get(streamId);
+        if (streamChannel != null) {
+            streamChannel.streamClosed();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (Http2WebSocketStreamChannel streamChannel : new ArrayList<>(streams.values())) {
+            streamChannel.streamClosed();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.contractimpl.websocket.http2;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.websocketx.Utf8FrameValidator;
+import io.netty.handler.codec.http.websocketx.WebSocket13FrameDecoder;
+import io.netty.handler.codec.http.websocketx.WebSocket13FrameEncoder;
+import io.netty.handler.codec.http.websocketx.WebSocketVersion;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.HttpConversionUtil;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.AsciiString;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketInboundFrameHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatHandler;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utilities for WebSockets bootstrapped with the extended CONNECT method of HTTP/2 (RFC 8441).
+ */
+public class Http2WebSocketUtil {
+
+    private static final String WEBSOCKET_FRAME_DECODER = "ws-decoder";
+    private static final String WEBSOCKET_FRAME_ENCODER = "ws-encoder";
+
+    private Http2WebSocketUtil() {
+    }
+
+    /**
+     * Check whether the headers open a WebSocket with the extended CONNECT method.
+     *
+     * @param headers headers of a HTTP/2 request.
+     * @return true if the method is CONNECT and the :protocol pseudo-header is websocket.
+     */
+    public static boolean isWebSocketConnect(Http2Headers headers) {
+        return AsciiString.contentEquals(HttpMethod.CONNECT.asciiName(), headers.method())
+                && AsciiString.contentEqualsIgnoreCase(Constants.WEBSOCKET_UPGRADE,
+                                                       headers.get(Constants.HTTP2_PROTOCOL));
+    }
+
+    /**
+     * Creates the headers of an extended CONNECT request which opens a WebSocket.
+     *
+     * @param uri          WebSocket URI.
+     * @param secure       whether the connection is secured.
+     * @param subProtocols comma separated sub protocols or null.
+     * @param headers      custom headers of the request or null.
+     * @return the headers of the request
+     */
+    public static Http2Headers newRequestHeaders(URI uri, boolean secure, String subProtocols, HttpHeaders headers) {
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            path = path + "?" + uri.getRawQuery();
+        }
+        String authority = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+        // Header validation of Netty does not know the :protocol pseudo-header yet
+        Http2Headers requestHeaders = new DefaultHttp2Headers(false)
+                .method(HttpMethod.CONNECT.asciiName())
+                .scheme(secure ? Constants.HTTPS_SCHEME : Constants.HTTP_SCHEME)
+                .authority(authority)
+                .path(path);
+        requestHeaders.set(Constants.HTTP2_PROTOCOL, Constants.WEBSOCKET_UPGRADE);
+        requestHeaders.set(HttpHeaderNames.SEC_WEBSOCKET_VERSION, WebSocketVersion.V13.toHttpHeaderValue());
+        if (subProtocols != null) {
+            requestHeaders.set(HttpHeaderNames.SEC_WEBSOCKET_PROTOCOL, subProtocols);
+        }
+        if (headers != null && !headers.isEmpty()) {
+            // Added after the pseudo-headers, which must come first
+            requestHeaders.add(HttpConversionUtil.toHttp2Headers(headers, false));
+        }
+        return requestHeaders;
+    }
+
+    /**
+     * Configures the pipeline of a stream channel to exchange WebSocket frames. Extensions are not negotiated over
+     * HTTP/2 streams, hence frames with reserved bits set are rejected.
+     *
+     * @param streamChannel         channel of the stream.
+     * @param server                whether this is the server side of the stream.
+     * @param maxFramePayloadLength maximum payload length of an inbound frame.
+     * @param idleTimeout           idle timeout in milliseconds, which is handled by the heartbeat handler if present.
+     * @param heartbeatHandler      heartbeat handler of the connection or null.
+     * @param frameHandler          frame handler of the connection.
+     */
+    public static void configureFramePipeline(Channel streamChannel, boolean server, int maxFramePayloadLength,
+                                              int idleTimeout, WebSocketHeartbeatHandler heartbeatHandler,
+                                              WebSocketInboundFrameHandler frameHandler) {
+        ChannelPipeline pipeline = streamChannel.pipeline();
+        pipeline.addLast(WEBSOCKET_FRAME_DECODER, new WebSocket13FrameDecoder(server, false, maxFramePayloadLength));
+        pipeline.addLast(WEBSOCKET_FRAME_ENCODER, new WebSocket13FrameEncoder(!server));
+        pipeline.addLast(Utf8FrameValidator.class.getName(), new Utf8FrameValidator());
+        if (heartbeatHandler != null) {
+            pipeline.addLast(Constants.WEBSOCKET_HEARTBEAT_HANDLER, heartbeatHandler);
+        } else if (idleTimeout > 0) {
+            pipeline.addLast(Constants.IDLE_STATE_HANDLER,
+                             new IdleStateHandler(0, 0, idleTimeout, TimeUnit.MILLISECONDS));
+        }
+        pipeline.addLast(Constants.WEBSOCKET_FRAME_HANDLER, frameHandler);
+    }
+}
@@ -19,10 +19,12 @@
 
 package org.wso2.transport.http.netty.contractimpl.websocket.message;
 
+import io.netty.buffer.ByteBuf;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
 import org.wso2.transport.http.netty.contractimpl.websocket.DefaultWebSocketMessage;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Implementation of {@link WebSocketBinaryMessage}.
@@ -31,10 +33,29 @@ public class DefaultWebSocketBinaryMessage extends DefaultWebSocketMessage imple
 
     private final ByteBuffer buffer;
     private final boolean isFinalFragment;
+    private final ByteBuf content;
+    private final AtomicBoolean released;
+    private volatile boolean retained;
 
     public DefaultWebSocketBinaryMessage(ByteBuffer buffer, boolean isFinalFragment) {
         this.buffer = buffer;
         this.isFinalFragment = isFinalFragment;
+        this.content = null;
+        this.released = null;
+    }
+
+    /**
+     * Creates a message backed by the given buffer without copying it. The message takes over the reference held by
+     * the caller, which is released by {@link #release()} or {@link #releaseIfNotRetained()}.
+     *
+     * @param content         payload of the frame.
+     * @param isFinalFragment true if the frame is the final fragment of the message.
+     */
+    public DefaultWebSocketBinaryMessage(ByteBuf content, boolean isFinalFragment) {
+        this.buffer = content.nioBuffer().asReadOnlyBuffer();
+        this.isFinalFragment = isFinalFragment;
+        this.content = content;
+        this.released = new AtomicBoolean(false);
     }
 
     @Override
@@ -49,7 +70,7 @@ public class DefaultWebSocketBinaryMessage extends DefaultWebSocketMessage imple
             bytes = buffer.array();
         } else {
             bytes = new byte[buffer.remaining()];
-            buffer.get(bytes);
+            buffer.duplicate().get(bytes);
         }
         return bytes;
     }
@@ -58,4 +79,26 @@ public class DefaultWebSocketBinaryMessage extends DefaultWebSocketMessage imple
     public boolean isFinalFragment() {
         return isFinalFragment;
     }
+
+    @Override
+    public WebSocketBinaryMessage retain() {
+        retained = true;
+        return this;
+    }
+
+    @Override
+    public void release() {
+        if (content != null && released.compareAndSet(false, true)) {
+            content.release();
+        }
+    }
+
+    /**
+     * Releases the payload unless the listener retained the message. Called once the listener callback returns.
+     */
+    public void releaseIfNotRetained() {
+        if (!retained) {
+            release();
+        }
+    }
 }
@@ -19,6 +19,7 @@
 
 package org.wso2.transport.http.netty.contractimpl.websocket.message;
 
+import io.netty.buffer.ByteBuf;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketControlSignal;
 
@@ -36,6 +37,11 @@ public class DefaultWebSocketControlMessage extends DefaultWebSocketBinaryMessag
         this.controlSignal = controlSignal;
     }
 
+    public DefaultWebSocketControlMessage(WebSocketControlSignal controlSignal, ByteBuf content) {
+        super(content, true);
+        this.controlSignal = controlSignal;
+    }
+
     @Override
     public WebSocketControlSignal getControlSignal() {
         return controlSignal;
@@ -37,14 +37,17 @@ import io.netty.handler.timeout.IdleStateHandler;
 import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
 import org.wso2.transport.http.netty.contract.websocket.ServerHandshakeFuture;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketHandshaker;
+import org.wso2.transport.http.netty.contractimpl.common.Util;
 import org.wso2.transport.http.netty.contractimpl.listener.MaxEntityBodyValidator;
 import org.wso2.transport.http.netty.contractimpl.listener.MessageQueueHandler;
 import org.wso2.transport.http.netty.contractimpl.listener.UriAndHeaderLengthValidator;
 import org.wso2.transport.http.netty.contractimpl.websocket.DefaultServerHandshakeFuture;
 import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketInboundFrameHandler;
 import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketUtil;
+import org.wso2.transport.http.netty.contractimpl.websocket.heartbeat.WebSocketHeartbeatService;
 import org.wso2.transport.http.netty.message.HttpCarbonRequest;
 
 import java.nio.charset.StandardCharsets;
@@ -64,15 +67,20 @@ public class DefaultWebSocketHandshaker implements WebSocketHandshaker {
     private boolean handshakeStarted = false;
     private HttpCarbonRequest request;
     private boolean allowExtensions;
+    private final WebSocketBufferMode bufferMode;
+    private final WebSocketHeartbeatService heartbeatService;
 
     public DefaultWebSocketHandshaker(ChannelHandlerContext ctx, ServerConnectorFuture connectorFuture,
-                                      FullHttpRequest httpRequest, String target, boolean allowExtensions) {
+                                      FullHttpRequest httpRequest, String target, boolean allowExtensions,
+                                      WebSocketBufferMode bufferMode, WebSocketHeartbeatService heartbeatService) {
         this.ctx = ctx;
         this.connectorFuture = connectorFuture;
         this.secureConnection = ctx.channel().pipeline().get(Constants.SSL_HANDLER) != null;
         this.httpRequest = httpRequest;
         this.target = target;
         this.allowExtensions = allowExtensions;
+        this.bufferMode = bufferMode;
+        this.heartbeatService = heartbeatService;
     }
 
     @Override
@@ -202,7 +210,8 @@ public class DefaultWebSocketHandshaker implements WebSocketHandshaker {
         channelFuture.addListener(future -> {
             if (future.isSuccess() && future.cause() == null) {
                 WebSocketInboundFrameHandler frameHandler = new WebSocketInboundFrameHandler(true, secureConnection,
-                        target, handshaker.selectedSubprotocol(), connectorFuture, new MessageQueueHandler());
+                        target, handshaker.selectedSubprotocol(), connectorFuture, new MessageQueueHandler(),
+                        bufferMode);
                 configureFrameHandlingPipeline(idleTimeout, frameHandler);
                 handshakeFuture.notifySuccess(frameHandler.getWebSocketConnection());
             } else {
@@ -216,14 +225,18 @@ public class DefaultWebSocketHandshaker implements WebSocketHandshaker {
     private void configureFrameHandlingPipeline(int idleTimeout, WebSocketInboundFrameHandler frameHandler) {
         ChannelPipeline pipeline = ctx.pipeline();
         pipeline.remove(Constants.WEBSOCKET_SERVER_HANDSHAKE_HANDLER);
-        pipeline.remove(Constants.HTTP_CHUNK_WRITER);
+        Util.safelyRemoveHandlers(pipeline, Constants.HTTP_CHUNK_WRITER, Constants.LAZY_PIPELINE_ASSEMBLER,
+                                  Constants.ADMISSION_CONTROL_HANDLER);
         if (pipeline.get(UriAndHeaderLengthValidator.class) == null) {
             pipeline.remove(UriAndHeaderLengthValidator.class);
         }
         if (pipeline.get(MaxEntityBodyValidator.class) != null) {
             pipeline.remove(MaxEntityBodyValidator.class);
         }
-        if (idleTimeout > 0) {
+        if (heartbeatService != null) {
+            Util.safelyRemoveHandlers(pipeline, Constants.IDLE_STATE_HANDLER);
+            pipeline.addLast(Constants.WEBSOCKET_HEARTBEAT_HANDLER, heartbeatService.newHandler(idleTimeout));
+        } else if (idleTimeout > 0) {
             pipeline.replace(Constants.IDLE_STATE_HANDLER, Constants.IDLE_STATE_HANDLER,
                              new IdleStateHandler(0, 0, idleTimeout, TimeUnit.MILLISECONDS));
         } else {
@@ -28,10 +28,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -39,6 +40,10 @@ import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Blocking entity collector.
+ * <p>
+ * All access to the content is guarded by a single lock, hence the content is kept in a plain queue. Bodies which
+ * arrive as a single chunk, such as empty bodies and full requests or responses, are kept in a field and do not need
+ * a queue at all. The queue and the read condition are only created when they are needed.
  */
 public class BlockingEntityCollector implements EntityCollector {
 
@@ -47,24 +52,25 @@ public class BlockingEntityCollector implements EntityCollector {
     private int soTimeOut;
     private EntityBodyState state;
 
-    private BlockingQueue<HttpContent> httpContentQueue;
-    private Lock readWriteLock;
+    private HttpContent firstHttpContent;
+    private Queue<HttpContent> httpContentQueue;
+    private final Lock readWriteLock;
     private Condition readCondition;
 
     BlockingEntityCollector(int soTimeOut) {
         this.soTimeOut = soTimeOut;
         this.state = EntityBodyState.EXPECTING;
         this.readWriteLock = new ReentrantLock();
-        this.httpContentQueue = new LinkedBlockingQueue<>();
-        this.readCondition = readWriteLock.newCondition();
     }
 
     public void addHttpContent(HttpContent httpContent) {
         try {
             readWriteLock.lock();
             state = EntityBodyState.CONSUMABLE;
-            httpContentQueue.add(httpContent);
-            readCondition.signalAll();
+            offerContent(httpContent);
+            if (readCondition != null) {
+                readCondition.signalAll();
+            }
         } catch (Exception e) {
             LOG.error("Cannot put content to queue", e);
         } finally {
@@ -81,11 +87,11 @@ public class BlockingEntityCollector implements EntityCollector {
             readWriteLock.lock();
             if (state == EntityBodyState.CONSUMABLE || state == EntityBodyState.EXPECTING) {
                 waitForEntity();
-                HttpContent httpContent = httpContentQueue.poll();
+                HttpContent httpContent = pollContent();
 
                 if (httpContent instanceof LastHttpContent) {
                     state = EntityBodyState.CONSUMED;
-                    httpContentQueue.clear();
+                    clearContent();
                 }
 
                 return httpContent;
@@ -113,14 +119,14 @@ public class BlockingEntityCollector implements EntityCollector {
             List<HttpContent> contentList = new ArrayList<>();
             while (state == EntityBodyState.CONSUMABLE || state == EntityBodyState.EXPECTING) {
                 waitForEntity();
-                HttpContent httpContent = httpContentQueue.poll();
+                HttpContent httpContent = pollContent();
                 size += httpContent.content().readableBytes();
                 contentList.add(httpContent);
                 if ((httpContent instanceof LastHttpContent)) {
                     state = EntityBodyState.CONSUMED;
                 }
             }
-            httpContentQueue.addAll(contentList);
+            contentList.forEach(this::offerContent);
             state = EntityBodyState.CONSUMABLE;
         } catch (InterruptedException e) {
             LOG.warn("Error while getting full message length", e);
@@ -140,19 +146,19 @@ public class BlockingEntityCollector implements EntityCollector {
             List<HttpContent> contentList = new ArrayList<>();
             while (state == EntityBodyState.CONSUMABLE || state == EntityBodyState.EXPECTING) {
                 waitForEntity();
-                HttpContent httpContent = httpContentQueue.poll();
+                HttpContent httpContent = pollContent();
                 size += httpContent.content().readableBytes();
                 contentList.add(httpContent);
                 if (size >= maxSize) {
-                    while (!httpContentQueue.isEmpty()) {
-                        contentList.add(httpContentQueue.poll());
+                    while (!isContentEmpty()) {
+                        contentList.add(pollContent());
                     }
                     break;
                 } else if ((httpContent instanceof LastHttpContent)) {
                     state = EntityBodyState.CONSUMED;
                 }
             }
-            httpContentQueue.addAll(contentList);
+            contentList.forEach(this::offerContent);
             state = EntityBodyState.CONSUMABLE;
         } catch (InterruptedException e) {
             LOG.warn("Error while getting full message length", e);
@@ -166,7 +172,10 @@ public class BlockingEntityCollector implements EntityCollector {
     }
 
     private void waitForEntity() throws InterruptedException {
-        while (httpContentQueue.isEmpty()) {
+        while (isContentEmpty()) {
+            if (readCondition == null) {
+                readCondition = readWriteLock.newCondition();
+            }
             if (!readCondition.await(soTimeOut, TimeUnit.SECONDS)) {
                 break;
             }
@@ -180,11 +189,11 @@ public class BlockingEntityCollector implements EntityCollector {
                 boolean isEndOfMessageProcessed = false;
                 while (!isEndOfMessageProcessed) {
                     waitForEntity();
-                    HttpContent httpContent = httpContentQueue.poll();
+                    HttpContent httpContent = pollContent();
                     if (httpContent instanceof LastHttpContent) {
                         isEndOfMessageProcessed = true;
                         state = EntityBodyState.CONSUMED;
-                        httpContentQueue.clear();
+                        clearContent();
                     }
                     httpContent.release();
                 }
@@ -202,7 +211,7 @@ public class BlockingEntityCollector implements EntityCollector {
     public boolean isEmpty() {
         try {
             readWriteLock.lock();
-            return this.httpContentQueue.isEmpty();
+            return isContentEmpty();
         } finally {
             readWriteLock.unlock();
         }
@@ -218,4 +227,37 @@ public class BlockingEntityCollector implements EntityCollector {
             readWriteLock.unlock();
         }
     }
+
+    // The content helpers below must only be called while holding the lock
+    private void offerContent(HttpContent httpContent) {
+        Objects.requireNonNull(httpContent, "httpContent");
+        if (httpContentQueue == null) {
+            if (firstHttpContent == null) {
+                firstHttpContent = httpContent;
+                return;
+            }
+            httpContentQueue = new ArrayDeque<>();
+        }
+        httpContentQueue.add(httpContent);
+    }
+
+    private HttpContent pollContent() {
+        if (firstHttpContent != null) {
+            HttpContent httpContent = firstHttpContent;
+            firstHttpContent = null;
+            return httpContent;
+        }
+        return httpContentQueue != null ? httpContentQueue.poll() : null;
+    }
+
+    private boolean isContentEmpty() {
+        return firstHttpContent == null && (httpContentQueue == null || httpContentQueue.isEmpty());
+    }
+
+    private void clearContent() {
+        firstHttpContent = null;
+        if (httpContentQueue != null) {
+            httpContentQueue.clear();
+        }
+    }
 }
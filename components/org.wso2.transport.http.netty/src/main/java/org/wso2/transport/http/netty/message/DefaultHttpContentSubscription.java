@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.message;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Delivers the content of a message to a {@link HttpContentSubscriber} according to its demand. Content arriving
+ * while there is no demand is held, and reading from the connection is paused until more content is requested.
+ * Delivery runs on whichever thread makes content available, either the I/O thread adding content or the thread
+ * requesting it, and is serialized so that the subscriber is never called concurrently.
+ */
+class DefaultHttpContentSubscription implements HttpContentSubscription, MessageListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultHttpContentSubscription.class);
+
+    private final HttpCarbonMessage httpCarbonMessage;
+    private final HttpContentSubscriber subscriber;
+    private final Queue<HttpContent> pendingContent = new ArrayDeque<>();
+    private long demand;
+    private boolean delivering;
+    private boolean readPaused;
+    private boolean done;
+
+    DefaultHttpContentSubscription(HttpCarbonMessage httpCarbonMessage, HttpContentSubscriber subscriber) {
+        this.httpCarbonMessage = httpCarbonMessage;
+        this.subscriber = subscriber;
+    }
+
+    @Override
+    public void onMessage(HttpContent httpContent) {
+        synchronized (this) {
+            if (done) {
+                httpContent.release();
+                return;
+            }
+            if (httpContent.decoderResult().isFailure()) {
+                // A failure is notified right away, dropping the content held for lack of demand
+                releasePendingContent();
+            }
+            pendingContent.add(httpContent);
+            // The held content takes up the demand, so reading is paused as soon as it covers all of it
+            if (pendingContent.size() >= demand && !readPaused && !(httpContent instanceof LastHttpContent)) {
+                readPaused = true;
+                httpCarbonMessage.pauseReadInterest();
+            }
+        }
+        deliver();
+    }
+
+    @Override
+    public void request(long chunks) {
+        if (chunks <= 0) {
+            fail(new IllegalArgumentException("Requested chunks should be positive: " + chunks));
+            return;
+        }
+        boolean resumeRead;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            demand = demand + chunks < 0 ? Long.MAX_VALUE : demand + chunks;
+            resumeRead = readPaused;
+            readPaused = false;
+        }
+        if (resumeRead) {
+            httpCarbonMessage.resumeReadInterest();
+        }
+        deliver();
+    }
+
+    @Override
+    public void cancel() {
+        boolean resumeRead;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            releasePendingContent();
+            resumeRead = readPaused;
+            readPaused = false;
+        }
+        if (resumeRead) {
+            httpCarbonMessage.resumeReadInterest();
+        }
+    }
+
+    private void deliver() {
+        synchronized (this) {
+            if (delivering) {
+                // The thread already delivering picks up the new content or demand
+                return;
+            }
+            delivering = true;
+        }
+        try {
+            HttpContent httpContent;
+            while ((httpContent = nextDeliverableContent()) != null) {
+                ByteBuf content = httpContent.content();
+                if (httpContent.decoderResult().isFailure()) {
+                    httpContent.release();
+                    subscriber.onError(httpContent.decoderResult().cause());
+                } else if (httpContent instanceof LastHttpContent) {
+                    if (content.isReadable()) {
+                        subscriber.onContent(content);
+                    } else {
+                        content.release();
+                    }
+                    subscriber.onComplete(((LastHttpContent) httpContent).trailingHeaders());
+                } else {
+                    subscriber.onContent(content);
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Content subscriber failed", e);
+            synchronized (this) {
+                delivering = false;
+            }
+            cancel();
+        }
+    }
+
+    /**
+     * Takes the next content that can be delivered. When there is none, delivery ends in the same step so that
+     * content or demand added concurrently is not missed. The last content is delivered even without demand when it
+     * carries nothing but the end of the message or a failure.
+     */
+    private synchronized HttpContent nextDeliverableContent() {
+        HttpContent httpContent = done ? null : pendingContent.peek();
+        boolean failed = httpContent != null && httpContent.decoderResult().isFailure();
+        boolean readable = httpContent != null && httpContent.content().isReadable() && !failed;
+        if (httpContent == null || (readable && demand == 0)) {
+            delivering = false;
+            return null;
+        }
+        pendingContent.poll();
+        if (readable && demand != Long.MAX_VALUE) {
+            demand--;
+        }
+        if (failed || httpContent instanceof LastHttpContent) {
+            done = true;
+            releasePendingContent();
+        }
+        return httpContent;
+    }
+
+    private void fail(Throwable throwable) {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+        }
+        cancel();
+        subscriber.onError(throwable);
+    }
+
+    private void releasePendingContent() {
+        HttpContent httpContent;
+        while ((httpContent = pendingContent.poll()) != null) {
+            httpContent.release();
+        }
+    }
+}
@@ -18,26 +18,69 @@
 
 package org.wso2.transport.http.netty.message;
 
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.HttpContent;
+import org.wso2.transport.http.netty.contract.config.InboundBufferConfig;
+import org.wso2.transport.http.netty.contractimpl.common.memory.InboundMemoryAccountant;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.wso2.transport.http.netty.contractimpl.common.Util.isLastHttpContent;
 
 /**
- * Default implementation of the message Listener.
+ * Default implementation of the message Listener. The connection is read one chunk at a time while the content of
+ * the message that is not yet consumed stays below the high water mark, and while the transport wide
+ * {@link InboundMemoryAccountant} does not pause the message.
  */
 public class DefaultListener implements Listener {
 
-    private static final int MAXIMUM_BYTE_SIZE = 2097152; //Maximum threshold of reading bytes(2MB)
-    private AtomicInteger cumulativeByteQuantity = new AtomicInteger(0);
-    private ChannelHandlerContext ctx;
-    private boolean readCompleted = false;
+    private static final InboundBufferConfig DEFAULT_BUFFER_CONFIG = new InboundBufferConfig();
+
+    private final AtomicInteger cumulativeByteQuantity = new AtomicInteger(0);
+    private final int highWaterMark;
+    private final int lowWaterMark;
+    private final InboundMemoryAccountant memoryAccountant;
+    private volatile ChannelHandlerContext ctx;
+    private volatile boolean readPaused;
+    private volatile boolean readCompleted = false;
     private boolean first = true;
+    private volatile InboundMemoryAccountant.Account account;
+    private Channel channel;
+    private ChannelFutureListener closeListener;
 
     public DefaultListener(ChannelHandlerContext ctx) {
+        this(ctx, DEFAULT_BUFFER_CONFIG);
+    }
+
+    public DefaultListener(ChannelHandlerContext ctx, InboundBufferConfig inboundBufferConfig) {
+        this(ctx, inboundBufferConfig, InboundMemoryAccountant.getInstance());
+    }
+
+    public DefaultListener(ChannelHandlerContext ctx, InboundBufferConfig inboundBufferConfig,
+                           InboundMemoryAccountant memoryAccountant) {
         this.ctx = ctx;
+        this.highWaterMark = inboundBufferConfig.getHighWaterMark();
+        this.lowWaterMark = inboundBufferConfig.getLowWaterMark();
+        this.memoryAccountant = memoryAccountant;
+    }
+
+    /**
+     * Validates the water marks of an inbound buffer configuration.
+     *
+     * @param inboundBufferConfig the configuration
+     */
+    public static void validate(InboundBufferConfig inboundBufferConfig) {
+        if (inboundBufferConfig.getHighWaterMark() <= 0) {
+            throw new IllegalArgumentException("Inbound buffer high water mark must be positive : "
+                                                       + inboundBufferConfig.getHighWaterMark());
+        }
+        if (inboundBufferConfig.getLowWaterMark() < 0
+                || inboundBufferConfig.getLowWaterMark() > inboundBufferConfig.getHighWaterMark()) {
+            throw new IllegalArgumentException("Inbound buffer low water mark must be between 0 and the high water "
+                                                       + "mark : " + inboundBufferConfig.getLowWaterMark());
+        }
     }
 
     @Override
@@ -46,30 +89,122 @@ public class DefaultListener implements Listener {
             this.ctx.channel().config().setAutoRead(false);
             first = false;
         }
-        int count = this.cumulativeByteQuantity.addAndGet(httpContent.content().readableBytes());
-        if (count < MAXIMUM_BYTE_SIZE && !readCompleted) {
-            if (isLastHttpContent(httpContent)) {
-                readCompleted = true;
-                this.ctx.channel().config().setAutoRead(true);
-                this.ctx = null;
-            } else {
-                this.ctx.channel().read();
+        int bytes = httpContent.content().readableBytes();
+        if (bytes > 0) {
+            openAccount().allocate(bytes);
+        }
+        int count = this.cumulativeByteQuantity.addAndGet(bytes);
+        if (readCompleted) {
+            return;
+        }
+        if (isLastHttpContent(httpContent)) {
+            readCompleted = true;
+            this.ctx.channel().config().setAutoRead(true);
+            this.ctx = null;
+            if (count <= 0) {
+                closeAccount();
             }
+        } else if (count < highWaterMark && !readPaused && !isBudgetPaused()) {
+            this.ctx.channel().read();
         }
     }
 
     @Override
     public void onRemove(HttpContent httpContent) {
-        int count = this.cumulativeByteQuantity.addAndGet(-(httpContent.content().readableBytes()));
-        if (count < MAXIMUM_BYTE_SIZE && !readCompleted) {
-            this.ctx.channel().read();
+        int bytes = httpContent.content().readableBytes();
+        int count = this.cumulativeByteQuantity.addAndGet(-bytes);
+        InboundMemoryAccountant.Account currentAccount = account;
+        if (currentAccount != null) {
+            currentAccount.release(bytes);
+        }
+        if (readCompleted) {
+            if (count <= 0) {
+                closeAccount();
+            }
+            return;
+        }
+        ChannelHandlerContext context = this.ctx;
+        if (context != null && count <= lowWaterMark && !readPaused && !isBudgetPaused()) {
+            context.channel().read();
         }
     }
 
+    /**
+     * Reads the next chunk only, as reading goes on one chunk at a time through {@link #onAdd(HttpContent)}.
+     */
     @Override
     public void resumeReadInterest() {
-        if (this.ctx != null) {
-            ctx.channel().config().setAutoRead(true);
+        readPaused = false;
+        readNextChunk();
+    }
+
+    @Override
+    public void pauseReadInterest() {
+        readPaused = true;
+        ChannelHandlerContext context = this.ctx;
+        if (context != null) {
+            context.channel().config().setAutoRead(false);
+        }
+    }
+
+    @Override
+    public void detach() {
+        // Without the listener nothing reads the rest of the message chunk by chunk
+        ChannelHandlerContext context = this.ctx;
+        if (context != null) {
+            context.channel().config().setAutoRead(true);
+        }
+        closeAccount();
+    }
+
+    private boolean isBudgetPaused() {
+        InboundMemoryAccountant.Account currentAccount = account;
+        return currentAccount != null && currentAccount.isPaused();
+    }
+
+    /**
+     * Opens the memory account of the message with its first content. The account is closed once the content is
+     * consumed, the listener is detached or the connection closes, whichever happens first.
+     */
+    private InboundMemoryAccountant.Account openAccount() {
+        InboundMemoryAccountant.Account currentAccount = account;
+        if (currentAccount == null) {
+            currentAccount = memoryAccountant.newAccount(this::pauseForBudget, this::resumeAfterBudgetPause);
+            channel = ctx.channel();
+            closeListener = future -> closeAccount();
+            channel.closeFuture().addListener(closeListener);
+            account = currentAccount;
+        }
+        return currentAccount;
+    }
+
+    private void closeAccount() {
+        InboundMemoryAccountant.Account currentAccount = account;
+        if (currentAccount != null) {
+            currentAccount.close();
+            Channel accountChannel = channel;
+            ChannelFutureListener accountCloseListener = closeListener;
+            if (accountChannel != null && accountCloseListener != null) {
+                accountChannel.closeFuture().removeListener(accountCloseListener);
+            }
+        }
+    }
+
+    private void pauseForBudget() {
+        ChannelHandlerContext context = this.ctx;
+        if (context != null) {
+            context.channel().config().setAutoRead(false);
+        }
+    }
+
+    private void resumeAfterBudgetPause() {
+        readNextChunk();
+    }
+
+    private void readNextChunk() {
+        ChannelHandlerContext context = this.ctx;
+        if (context != null && !readCompleted && !readPaused && cumulativeByteQuantity.get() < highWaterMark) {
+            context.channel().read();
         }
     }
 }
@@ -36,6 +36,7 @@ public class DefaultObservable implements Observable {
     public void removeListener() {
         if (listener != null) {
             listener.resumeReadInterest();
+            listener.detach();
             listener = null;
         }
     }
@@ -53,4 +54,18 @@ public class DefaultObservable implements Observable {
             listener.onRemove(httpContent);
         }
     }
+
+    @Override
+    public void pauseReadInterest() {
+        if (listener != null) {
+            listener.pauseReadInterest();
+        }
+    }
+
+    @Override
+    public void resumeReadInterest() {
+        if (listener != null) {
+            listener.resumeReadInterest();
+        }
+    }
 }
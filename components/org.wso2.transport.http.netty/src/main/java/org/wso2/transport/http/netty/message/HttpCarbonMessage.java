@@ -41,23 +41,37 @@ import org.wso2.transport.http.netty.contractimpl.common.states.MessageStateCont
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * HTTP based representation for HttpCarbonMessage.
  */
 public class HttpCarbonMessage {
 
+    private static final AtomicReferenceFieldUpdater<HttpCarbonMessage, ServerConnectorFuture>
+            OUTBOUND_RESP_FUTURE_UPDATER = AtomicReferenceFieldUpdater.newUpdater(
+            HttpCarbonMessage.class, ServerConnectorFuture.class, "httpOutboundRespFuture");
+    private static final AtomicReferenceFieldUpdater<HttpCarbonMessage, DefaultHttpResponseFuture>
+            OUTBOUND_RESP_STATUS_FUTURE_UPDATER = AtomicReferenceFieldUpdater.newUpdater(
+            HttpCarbonMessage.class, DefaultHttpResponseFuture.class, "httpOutboundRespStatusFuture");
+
     protected HttpMessage httpMessage;
     private EntityCollector blockingEntityCollector;
-    private Map<String, Object> properties = new HashMap<>(Constants.HTTP_CARBON_MESSAGE_PROPERTIES_MAP_DEFAULT_SIZE);
+    // Created on first use, as many messages never carry a property
+    private Map<String, Object> properties;
 
     private MessageFuture messageFuture;
-    private final ServerConnectorFuture httpOutboundRespFuture = new HttpWsServerConnectorFuture();
-    private final DefaultHttpResponseFuture httpOutboundRespStatusFuture = new DefaultHttpResponseFuture();
-    private final Observable contentObservable = new DefaultObservable();
+    // The response futures are only used by inbound requests, hence they are created on first use
+    private volatile ServerConnectorFuture httpOutboundRespFuture;
+    private volatile DefaultHttpResponseFuture httpOutboundRespStatusFuture;
+    // Only set when the message has a content listener
+    private final Observable contentObservable;
     private IOException ioException;
     private MessageStateContext httpMessageStateContext;
     private Http2MessageStateContext http2MessageStateContext;
@@ -70,23 +84,27 @@ public class HttpCarbonMessage {
     private boolean keepAlive;
     private boolean pipeliningEnabled;
     private boolean passthrough = false;
+    private volatile boolean nonBlockingWrites;
+    private volatile OutboundWritability outboundWritability;
     private boolean lastHttpContentArrived = false;
 
     public HttpCarbonMessage(HttpMessage httpMessage, Listener contentListener) {
-        this.httpMessage = httpMessage;
-        setBlockingEntityCollector(new BlockingEntityCollector(Constants.ENDPOINT_TIMEOUT));
-        this.contentObservable.setListener(contentListener);
+        this(httpMessage, Constants.ENDPOINT_TIMEOUT, contentListener);
     }
 
     public HttpCarbonMessage(HttpMessage httpMessage, int maxWaitTime, Listener contentListener) {
         this.httpMessage = httpMessage;
         setBlockingEntityCollector(new BlockingEntityCollector(maxWaitTime));
-        this.contentObservable.setListener(contentListener);
+        if (contentListener != null) {
+            this.contentObservable = new DefaultObservable();
+            this.contentObservable.setListener(contentListener);
+        } else {
+            this.contentObservable = null;
+        }
     }
 
     public HttpCarbonMessage(HttpMessage httpMessage) {
-        this.httpMessage = httpMessage;
-        setBlockingEntityCollector(new BlockingEntityCollector(Constants.ENDPOINT_TIMEOUT));
+        this(httpMessage, Constants.ENDPOINT_TIMEOUT, null);
     }
 
     /**
@@ -95,7 +113,9 @@ public class HttpCarbonMessage {
      * @param httpContent chunks of the payload.
      */
     public synchronized void addHttpContent(HttpContent httpContent) {
-        contentObservable.notifyAddListener(httpContent);
+        if (contentObservable != null) {
+            contentObservable.notifyAddListener(httpContent);
+        }
         if (messageFuture != null) {
             if (ioException != null) {
                 blockingEntityCollector.addHttpContent(new DefaultLastHttpContent());
@@ -103,7 +123,9 @@ public class HttpCarbonMessage {
                 removeMessageFuture();
                 throw new RuntimeException(this.getIoException());
             }
-            contentObservable.notifyGetListener(httpContent);
+            if (contentObservable != null) {
+                contentObservable.notifyGetListener(httpContent);
+            }
             blockingEntityCollector.addHttpContent(httpContent);
             if (messageFuture.isMessageListenerSet()) {
                 messageFuture.notifyMessageListener(blockingEntityCollector.getHttpContent());
@@ -131,7 +153,9 @@ public class HttpCarbonMessage {
      */
     public HttpContent getHttpContent() {
         HttpContent httpContent = this.blockingEntityCollector.getHttpContent();
-        this.contentObservable.notifyGetListener(httpContent);
+        if (contentObservable != null) {
+            contentObservable.notifyGetListener(httpContent);
+        }
         return httpContent;
     }
 
@@ -140,6 +164,31 @@ public class HttpCarbonMessage {
         return this.messageFuture;
     }
 
+    /**
+     * Subscribes to the content of the message. Unlike {@link #getHttpContent()}, no thread waits for the content;
+     * the subscriber is notified as chunks arrive, as far as it has requested them, and the connection is not read
+     * while it has no outstanding demand.
+     *
+     * @param subscriber the subscriber of the content
+     */
+    public void subscribe(HttpContentSubscriber subscriber) {
+        DefaultHttpContentSubscription subscription = new DefaultHttpContentSubscription(this, subscriber);
+        getHttpContentAsync().setMessageListener(subscription);
+        subscriber.onSubscribe(subscription);
+    }
+
+    void pauseReadInterest() {
+        if (contentObservable != null) {
+            contentObservable.pauseReadInterest();
+        }
+    }
+
+    void resumeReadInterest() {
+        if (contentObservable != null) {
+            contentObservable.resumeReadInterest();
+        }
+    }
+
     /**
      * @deprecated
      * @return the message body.
@@ -249,10 +298,30 @@ public class HttpCarbonMessage {
 
     public Object getProperty(String key) {
         if (properties != null) {
-            return properties.get(key);
-        } else {
-            return null;
+            Object value = properties.get(key);
+            if (value != null || properties.containsKey(key)) {
+                return value;
+            }
         }
+        return getDerivedProperty(key);
+    }
+
+    /**
+     * Returns the value of a property which is not stored in the properties map but derived on demand, for
+     * instance from the connection the message arrived on. Properties set explicitly take precedence.
+     *
+     * @param key the property key
+     * @return the derived value or null if the property is not derived
+     */
+    protected Object getDerivedProperty(String key) {
+        return null;
+    }
+
+    /**
+     * @return the keys of the properties which are derived on demand
+     */
+    protected Collection<String> getDerivedPropertyKeys() {
+        return Collections.emptyList();
     }
 
     public synchronized void removeMessageFuture() {
@@ -261,16 +330,40 @@ public class HttpCarbonMessage {
         passthrough = false;
     }
 
+    /**
+     * Returns the properties of the message. Derived properties are copied into the map the first time it is
+     * requested, so that the map is complete.
+     *
+     * @return the properties of the message
+     */
     public Map<String, Object> getProperties() {
+        Map<String, Object> properties = getOrCreateProperties();
+        for (String key : getDerivedPropertyKeys()) {
+            if (!properties.containsKey(key)) {
+                properties.put(key, getDerivedProperty(key));
+            }
+        }
         return properties;
     }
 
     public void setProperty(String key, Object value) {
-        properties.put(key, value);
+        getOrCreateProperties().put(key, value);
     }
 
     public void removeProperty(String key) {
-        properties.remove(key);
+        if (getDerivedPropertyKeys().contains(key)) {
+            // A null entry hides the derived value
+            getOrCreateProperties().put(key, null);
+        } else if (properties != null) {
+            properties.remove(key);
+        }
+    }
+
+    private Map<String, Object> getOrCreateProperties() {
+        if (properties == null) {
+            properties = new HashMap<>(Constants.HTTP_CARBON_MESSAGE_PROPERTIES_MAP_DEFAULT_SIZE);
+        }
+        return properties;
     }
 
     private void setBlockingEntityCollector(BlockingEntityCollector blockingEntityCollector) {
@@ -283,7 +376,13 @@ public class HttpCarbonMessage {
      * @return httpOutboundRespFuture.
      */
     public ServerConnectorFuture getHttpResponseFuture() {
-        return this.httpOutboundRespFuture;
+        ServerConnectorFuture future = httpOutboundRespFuture;
+        if (future == null) {
+            // The listener and the application may ask for the future concurrently, both must get the same one
+            OUTBOUND_RESP_FUTURE_UPDATER.compareAndSet(this, null, new HttpWsServerConnectorFuture());
+            future = httpOutboundRespFuture;
+        }
+        return future;
     }
 
     /**
@@ -292,12 +391,21 @@ public class HttpCarbonMessage {
      * @return httpOutboundRespStatusFuture.
      */
     public HttpResponseFuture getHttpOutboundRespStatusFuture() {
-        return httpOutboundRespStatusFuture;
+        return getOutboundRespStatusFuture();
+    }
+
+    private DefaultHttpResponseFuture getOutboundRespStatusFuture() {
+        DefaultHttpResponseFuture future = httpOutboundRespStatusFuture;
+        if (future == null) {
+            OUTBOUND_RESP_STATUS_FUTURE_UPDATER.compareAndSet(this, null, new DefaultHttpResponseFuture());
+            future = httpOutboundRespStatusFuture;
+        }
+        return future;
     }
 
     public HttpResponseFuture respond(HttpCarbonMessage httpCarbonMessage) throws ServerConnectorException {
-        httpOutboundRespFuture.notifyHttpListener(httpCarbonMessage);
-        return httpOutboundRespStatusFuture;
+        getHttpResponseFuture().notifyHttpListener(httpCarbonMessage);
+        return getOutboundRespStatusFuture();
     }
 
     /**
@@ -310,8 +418,8 @@ public class HttpCarbonMessage {
      */
     public HttpResponseFuture pushResponse(HttpCarbonMessage httpCarbonMessage, Http2PushPromise pushPromise)
             throws ServerConnectorException {
-        httpOutboundRespFuture.notifyHttpListener(httpCarbonMessage, pushPromise);
-        return httpOutboundRespStatusFuture;
+        getHttpResponseFuture().notifyHttpListener(httpCarbonMessage, pushPromise);
+        return getOutboundRespStatusFuture();
     }
 
     /**
@@ -323,8 +431,8 @@ public class HttpCarbonMessage {
      */
     public HttpResponseFuture pushPromise(Http2PushPromise pushPromise)
             throws ServerConnectorException {
-        httpOutboundRespFuture.notifyHttpListener(pushPromise);
-        return httpOutboundRespStatusFuture;
+        getHttpResponseFuture().notifyHttpListener(pushPromise);
+        return getOutboundRespStatusFuture();
     }
 
     /**
@@ -374,6 +482,8 @@ public class HttpCarbonMessage {
      * Before a set a new set of payload, we need remove the existing ones.
      */
     public void waitAndReleaseAllEntities() {
+        // The content is released without being consumed, hence the content listener is not needed any more
+        removeInboundContentListener();
         blockingEntityCollector.waitAndReleaseAllEntities();
     }
 
@@ -471,7 +581,9 @@ public class HttpCarbonMessage {
      * Removes the content listener that is set for handling Inbound throttling.
      */
     public void removeInboundContentListener() {
-        this.contentObservable.removeListener();
+        if (contentObservable != null) {
+            contentObservable.removeListener();
+        }
     }
 
     /**
@@ -493,6 +605,85 @@ public class HttpCarbonMessage {
         this.passthrough = passthrough;
     }
 
+    /**
+     * Whether the producer of this outbound message waits on {@link #whenWritable()} instead of being blocked by
+     * the transport while the connection or stream is not writable.
+     *
+     * @return true if writes to the message do not block
+     */
+    public boolean isNonBlockingWrites() {
+        return nonBlockingWrites;
+    }
+
+    /**
+     * Sets whether the producer of this outbound message handles back-pressure itself through
+     * {@link #whenWritable()} and {@link #addHttpContentAsync(HttpContent)}. When set, the transport never blocks the
+     * thread that adds content to the message. Must be set before the message is sent.
+     *
+     * @param nonBlockingWrites true if writes to the message must not block
+     */
+    public void setNonBlockingWrites(boolean nonBlockingWrites) {
+        this.nonBlockingWrites = nonBlockingWrites;
+    }
+
+    /**
+     * Sets the writability of the connection or stream that this message is written to. Set by the transport once
+     * the message is bound to a connection or stream.
+     *
+     * @param outboundWritability the outbound writability
+     */
+    public void setOutboundWritability(OutboundWritability outboundWritability) {
+        this.outboundWritability = outboundWritability;
+    }
+
+    /**
+     * Returns whether the connection or stream this message is written to can take more content. A message that is
+     * not yet bound to a connection or stream is considered writable.
+     *
+     * @return true if more content can be added without being queued up in the transport
+     */
+    public boolean isWritable() {
+        OutboundWritability writability = outboundWritability;
+        return writability == null || writability.isWritable();
+    }
+
+    /**
+     * Returns a future which completes once the connection or stream this message is written to can take more
+     * content, or once it is closed. The future is completed right away if the message is not yet bound to a
+     * connection or stream.
+     *
+     * @return the future which completes once the message is writable
+     */
+    public CompletableFuture<Void> whenWritable() {
+        OutboundWritability writability = outboundWritability;
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (writability == null) {
+            future.complete(null);
+        } else {
+            writability.notifyWhenWritable(() -> future.complete(null));
+        }
+        return future;
+    }
+
+    /**
+     * Adds the content to the message without blocking and returns a future which completes once the content is
+     * handed to the connection or stream and it can take more. Producers should wait for the future before adding
+     * further content.
+     *
+     * @param httpContent chunk of the payload
+     * @return the future which completes once more content can be added
+     */
+    public CompletableFuture<Void> addHttpContentAsync(HttpContent httpContent) {
+        try {
+            addHttpContent(httpContent);
+        } catch (RuntimeException e) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return whenWritable();
+    }
+
     /**
      * @param targetContext The target handler context.
      */
@@ -514,7 +705,7 @@ public class HttpCarbonMessage {
      * @return the default implementation of the {@link FullHttpMessageFuture}.
      */
     public synchronized FullHttpMessageFuture getFullHttpCarbonMessage() {
-        contentObservable.removeListener();
+        removeInboundContentListener();
         fullHttpMessageFuture = new DefaultFullHttpMessageFuture(this);
         return fullHttpMessageFuture;
     }
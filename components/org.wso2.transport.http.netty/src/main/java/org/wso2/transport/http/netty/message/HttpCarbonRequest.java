@@ -18,17 +18,41 @@
 
 package org.wso2.transport.http.netty.message;
 
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpVersion;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contractimpl.listener.SourceHandler;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Contains information specific to http request.
  */
 public class HttpCarbonRequest extends HttpCarbonMessage {
 
+    private static final List<String> INBOUND_PROPERTY_KEYS = Collections.unmodifiableList(Arrays.asList(
+            Constants.POOLED_BYTE_BUFFER_FACTORY, Constants.CHNL_HNDLR_CTX, Constants.SRC_HANDLER,
+            Constants.HTTP_VERSION, Constants.HTTP_METHOD, Constants.LISTENER_PORT, Constants.LISTENER_INTERFACE_ID,
+            Constants.PROTOCOL, Constants.IS_SECURED_CONNECTION, Constants.LOCAL_ADDRESS, Constants.REMOTE_ADDRESS,
+            Constants.REQUEST_URL, Constants.TO, Constants.MUTUAL_SSL_HANDSHAKE_RESULT));
+
     private HttpRequest httpRequest;
 
+    // Metadata of a request received by a listener, from which the inbound properties are derived on demand
+    private ChannelHandlerContext inboundContext;
+    private SourceHandler sourceHandler;
+    private HttpVersion inboundVersion;
+    private HttpMethod inboundMethod;
+    private String inboundUri;
+    private PooledDataStreamerFactory pooledDataStreamerFactory;
+
     public HttpCarbonRequest(HttpRequest httpRequest) {
         super(httpRequest);
         this.httpRequest = (HttpRequest) this.httpMessage;
@@ -50,4 +74,120 @@ public class HttpCarbonRequest extends HttpCarbonMessage {
     public void setUri(String uri) {
         this.httpRequest.setUri(uri);
     }
+
+    /**
+     * Binds the request to the listener connection it was received on. The inbound properties such as the local and
+     * remote addresses are derived from the connection when they are first asked for, instead of being stored in the
+     * properties map for every request.
+     *
+     * @param ctx           the context of the source handler
+     * @param sourceHandler the source handler which received the request
+     */
+    public void setInboundConnection(ChannelHandlerContext ctx, SourceHandler sourceHandler) {
+        this.inboundContext = ctx;
+        this.sourceHandler = sourceHandler;
+        // The request line is captured as received, as it may be modified before the properties are read
+        this.inboundVersion = httpRequest.protocolVersion();
+        this.inboundMethod = httpRequest.method();
+        this.inboundUri = httpRequest.uri();
+    }
+
+    public ChannelHandlerContext getInboundContext() {
+        return inboundContext;
+    }
+
+    public SourceHandler getSourceHandler() {
+        return sourceHandler;
+    }
+
+    /**
+     * @return the HTTP version the request was received with, such as 1.1
+     */
+    public String getInboundHttpVersion() {
+        return inboundVersion != null ? inboundVersion.majorVersion() + "." + inboundVersion.minorVersion() : null;
+    }
+
+    public String getInboundHttpMethod() {
+        return inboundMethod != null ? inboundMethod.name() : null;
+    }
+
+    public String getRequestUrl() {
+        return inboundUri;
+    }
+
+    /**
+     * @return the port of the listener the request was received on, or null if it is not bound to a socket
+     */
+    public Integer getListenerPort() {
+        SocketAddress localAddress = getLocalAddress();
+        // In case of netty embedded channel, this could be of type 'EmbeddedSocketAddress'.
+        return localAddress instanceof InetSocketAddress ? ((InetSocketAddress) localAddress).getPort() : null;
+    }
+
+    public String getListenerInterfaceId() {
+        return sourceHandler != null ? sourceHandler.getInterfaceId() : null;
+    }
+
+    public boolean isSecuredConnection() {
+        return inboundContext != null && inboundContext.channel().pipeline().get(Constants.SSL_HANDLER) != null;
+    }
+
+    public SocketAddress getLocalAddress() {
+        return inboundContext != null ? inboundContext.channel().localAddress() : null;
+    }
+
+    public SocketAddress getRemoteAddress() {
+        return sourceHandler != null ? sourceHandler.getRemoteAddress() : null;
+    }
+
+    public String getMutualSslHandshakeResult() {
+        return inboundContext != null ? inboundContext.channel().attr(Constants.MUTUAL_SSL_RESULT_ATTRIBUTE).get()
+                : null;
+    }
+
+    @Override
+    protected Object getDerivedProperty(String key) {
+        if (inboundContext == null || key == null) {
+            return null;
+        }
+        switch (key) {
+            case Constants.POOLED_BYTE_BUFFER_FACTORY:
+                if (pooledDataStreamerFactory == null) {
+                    pooledDataStreamerFactory = new PooledDataStreamerFactory(inboundContext.alloc());
+                }
+                return pooledDataStreamerFactory;
+            case Constants.CHNL_HNDLR_CTX:
+                return inboundContext;
+            case Constants.SRC_HANDLER:
+                return sourceHandler;
+            case Constants.HTTP_VERSION:
+                return getInboundHttpVersion();
+            case Constants.HTTP_METHOD:
+                return getInboundHttpMethod();
+            case Constants.LISTENER_PORT:
+                return getListenerPort();
+            case Constants.LISTENER_INTERFACE_ID:
+                return getListenerInterfaceId();
+            case Constants.PROTOCOL:
+                return Constants.HTTP_SCHEME;
+            case Constants.IS_SECURED_CONNECTION:
+                return isSecuredConnection();
+            case Constants.LOCAL_ADDRESS:
+                return getLocalAddress();
+            case Constants.REMOTE_ADDRESS:
+                return getRemoteAddress();
+            case Constants.REQUEST_URL:
+            case Constants.TO:
+                return getRequestUrl();
+            case Constants.MUTUAL_SSL_HANDSHAKE_RESULT:
+                return getMutualSslHandshakeResult();
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    protected Collection<String> getDerivedPropertyKeys() {
+        return inboundContext != null ? INBOUND_PROPERTY_KEYS : Collections.emptyList();
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.message;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpHeaders;
+
+/**
+ * Consumes the content of a message as it arrives, without blocking a thread while waiting for it. Content is only
+ * delivered as much as requested through the {@link HttpContentSubscription}, and the connection is not read while
+ * there is no outstanding demand. The callbacks of a subscriber are never invoked concurrently.
+ */
+public interface HttpContentSubscriber {
+
+    /**
+     * Invoked once, before any other callback, with the subscription through which content is requested.
+     *
+     * @param subscription the subscription to the content of the message
+     */
+    void onSubscribe(HttpContentSubscription subscription);
+
+    /**
+     * Invoked for each requested chunk of content. The subscriber owns the buffer and must release it.
+     *
+     * @param content a chunk of the content
+     */
+    void onContent(ByteBuf content);
+
+    /**
+     * Invoked once all the content is delivered.
+     *
+     * @param trailingHeaders the trailing headers of the message, which might be empty
+     */
+    void onComplete(HttpHeaders trailingHeaders);
+
+    /**
+     * Invoked if the content cannot be received completely, for instance when the connection is closed midway.
+     *
+     * @param throwable the cause of the failure
+     */
+    void onError(Throwable throwable);
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.message;
+
+/**
+ * Demand of an {@link HttpContentSubscriber} for the content of a message. Both methods can be called from any thread,
+ * including from within the callbacks of the subscriber.
+ */
+public interface HttpContentSubscription {
+
+    /**
+     * Requests more chunks of content. The connection is read again if it was paused for lack of demand.
+     *
+     * @param chunks the number of chunks requested, or {@link Long#MAX_VALUE} for all the content
+     */
+    void request(long chunks);
+
+    /**
+     * Stops the delivery of content. Content that arrives later is released, and the connection is read to the end
+     * of the message so that it can be reused.
+     */
+    void cancel();
+}
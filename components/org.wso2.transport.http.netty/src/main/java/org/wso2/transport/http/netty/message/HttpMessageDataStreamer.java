@@ -35,7 +35,7 @@ import org.wso2.transport.http.netty.contract.Constants;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.InflaterInputStream;
 
@@ -65,40 +65,106 @@ public class HttpMessageDataStreamer {
      * A class which represents the InputStream of the ByteBuffers
      * No need to worry about thread safety of this class this is called only once by
      * for a message instance from one thread.
+     * <p>
+     * Bulk reads copy directly from the content of the current chunk, which is released as soon as it is consumed.
      */
-    protected class ByteBufferInputStream extends InputStream {
+    public class ByteBufferInputStream extends InputStream {
 
-        private int count;
-        private boolean chunkFinished = true;
-        private int limit;
-        private ByteBuffer byteBuffer;
         private HttpContent httpContent;
+        private ByteBuf content;
 
         @Override
         public int read() {
-            if ((httpContent instanceof LastHttpContent) && chunkFinished) {
+            if (content == null && !nextContent()) {
                 return -1;
-            } else if (chunkFinished) {
-                httpContent = httpCarbonMessage.getHttpContent();
-                validateHttpContent();
-                byteBuffer = httpContent.content().nioBuffer();
-                count = 0;
-                limit = byteBuffer.limit();
-                if (limit == 0) {
-                    return -1;
-                }
-                chunkFinished = false;
             }
-            count++;
-            if (count == limit) {
-                int value = byteBuffer.get() & 0xff;
-                chunkFinished = true;
-                byteBuffer = null;
-                httpContent.release();
+            int value = content.readByte() & 0xff;
+            releaseIfConsumed();
+            return value;
+        }
 
-                return value;
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (offset < 0 || length < 0 || length > bytes.length - offset) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (length == 0) {
+                return 0;
             }
-            return byteBuffer.get() & 0xff;
+            if (content == null && !nextContent()) {
+                return -1;
+            }
+            int readLength = Math.min(length, content.readableBytes());
+            content.readBytes(bytes, offset, readLength);
+            releaseIfConsumed();
+            return readLength;
+        }
+
+        @Override
+        public long skip(long length) {
+            long skipped = 0;
+            while (skipped < length && (content != null || nextContent())) {
+                int skipLength = (int) Math.min(length - skipped, content.readableBytes());
+                content.skipBytes(skipLength);
+                skipped += skipLength;
+                releaseIfConsumed();
+            }
+            return skipped;
+        }
+
+        /**
+         * Returns the bytes left in the chunk being read, which can be read without waiting for more content.
+         */
+        @Override
+        public int available() {
+            return content == null ? 0 : content.readableBytes();
+        }
+
+        /**
+         * Writes the rest of the content to the given stream chunk by chunk, without copying it to an intermediate
+         * array when the content is backed by one.
+         *
+         * @param outputStream the stream to be written to
+         * @return the number of bytes transferred
+         * @throws IOException if writing to the stream fails
+         */
+        public long transferTo(OutputStream outputStream) throws IOException {
+            long transferred = 0;
+            while (content != null || nextContent()) {
+                int length = content.readableBytes();
+                content.readBytes(outputStream, length);
+                transferred += length;
+                releaseIfConsumed();
+            }
+            return transferred;
+        }
+
+        /**
+         * Takes the next chunk of content. Returns false at the end of the content, or when an empty chunk arrives.
+         */
+        private boolean nextContent() {
+            if (httpContent instanceof LastHttpContent) {
+                return false;
+            }
+            httpContent = httpCarbonMessage.getHttpContent();
+            validateHttpContent();
+            content = httpContent.content();
+            if (!content.isReadable()) {
+                releaseContent();
+                return false;
+            }
+            return true;
+        }
+
+        private void releaseIfConsumed() {
+            if (!content.isReadable()) {
+                releaseContent();
+            }
+        }
+
+        private void releaseContent() {
+            content = null;
+            httpContent.release();
         }
 
         private void validateHttpContent() {
@@ -124,14 +190,46 @@ public class HttpMessageDataStreamer {
         public void write(int b) {
             if (dataHolder == null) {
                 dataHolder = getBuffer();
+            } else if (!dataHolder.isWritable()) {
+                addDataHolder();
             }
-            if (dataHolder.writableBytes() != 0) {
-                dataHolder.writeByte((byte) b);
-            } else {
-                try {
-                    httpCarbonMessage.addHttpContent(new DefaultHttpContent(dataHolder));
+            dataHolder.writeByte((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            if (offset < 0 || length < 0 || length > bytes.length - offset) {
+                throw new IndexOutOfBoundsException();
+            }
+            while (length > 0) {
+                if (dataHolder == null) {
                     dataHolder = getBuffer();
-                    dataHolder.writeByte((byte) b);
+                } else if (!dataHolder.isWritable()) {
+                    addDataHolder();
+                }
+                int writeLength = Math.min(length, dataHolder.writableBytes());
+                dataHolder.writeBytes(bytes, offset, writeLength);
+                offset += writeLength;
+                length -= writeLength;
+            }
+        }
+
+        private void addDataHolder() {
+            try {
+                httpCarbonMessage.addHttpContent(new DefaultHttpContent(dataHolder));
+                dataHolder = getBuffer();
+            } catch (RuntimeException ex) {
+                throw new EncoderException(httpCarbonMessage.getIoException());
+            }
+        }
+
+        private void addBufferedContent() {
+            if (dataHolder != null && dataHolder.isReadable()) {
+                ByteBuf content = dataHolder;
+                // The next buffer is only allocated if more bytes are written
+                dataHolder = null;
+                try {
+                    httpCarbonMessage.addHttpContent(new DefaultHttpContent(content));
                 } catch (RuntimeException ex) {
                     throw new EncoderException(httpCarbonMessage.getIoException());
                 }
@@ -169,6 +267,26 @@ public class HttpMessageDataStreamer {
         }
     }
 
+    /**
+     * Hands the bytes written to the output stream so far to the transport without blocking, and returns a future
+     * which completes once the connection or stream the message is written to can take more. Producers that set
+     * {@link HttpCarbonMessage#setNonBlockingWrites(boolean)} should wait for the future before writing further.
+     *
+     * @return the future which completes once more content can be written
+     */
+    public CompletableFuture<Void> flushAsync() {
+        if (byteBufferOutputStream != null) {
+            try {
+                byteBufferOutputStream.addBufferedContent();
+            } catch (RuntimeException e) {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+                return future;
+            }
+        }
+        return httpCarbonMessage.whenWritable();
+    }
+
     public OutputStream getOutputStream() {
         if (byteBufferOutputStream == null) {
             byteBufferOutputStream = new HttpMessageDataStreamer.ByteBufferOutputStream();
@@ -41,4 +41,18 @@ public interface Listener {
      * Since the listener removes readInterest this method resumes it if required.
      */
     void resumeReadInterest();
+
+    /**
+     * Stops reading content from the connection until {@link #resumeReadInterest()} is called. Used by consumers
+     * that read the content on demand.
+     */
+    default void pauseReadInterest() {
+    }
+
+    /**
+     * Get notified when the listener is removed from the message. The listener is not notified about the content of
+     * the message afterwards.
+     */
+    default void detach() {
+    }
 }
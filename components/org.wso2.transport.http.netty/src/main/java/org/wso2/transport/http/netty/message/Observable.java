@@ -47,4 +47,16 @@ public interface Observable {
      * @param content of the message
      */
     void notifyGetListener(HttpContent content);
+
+    /**
+     * Ask the listener to stop reading content until the read interest is resumed.
+     */
+    default void pauseReadInterest() {
+    }
+
+    /**
+     * Ask the listener to resume reading content.
+     */
+    default void resumeReadInterest() {
+    }
 }
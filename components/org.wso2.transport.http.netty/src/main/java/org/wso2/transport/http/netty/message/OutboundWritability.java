@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.message;
+
+/**
+ * Tells whether the connection or stream that an outbound message is written to can take more content, so that
+ * producers can suspend instead of blocking a thread while the peer is slow to read.
+ */
+public interface OutboundWritability {
+
+    /**
+     * Returns whether more content can be written without being queued up in the transport. The value may be
+     * stale by the time it is read, hence it is meant as a hint.
+     *
+     * @return true if the connection or stream is writable
+     */
+    boolean isWritable();
+
+    /**
+     * Runs the callback once the connection or stream is writable again, or once it is closed so that the
+     * producer gets to release what it holds. The callback is run right away if it already is writable.
+     *
+     * @param callback the callback to be run, possibly in the event loop of the connection
+     */
+    void notifyWhenWritable(Runnable callback);
+}
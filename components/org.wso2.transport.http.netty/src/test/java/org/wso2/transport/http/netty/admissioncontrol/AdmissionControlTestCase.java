@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.admissioncontrol;
+
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.AdmissionControlConfig;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonResponse;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.client.http.HttpClient;
+
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests that requests exceeding the in-flight limit of the listener are rejected with a 503 response.
+ */
+public class AdmissionControlTestCase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdmissionControlTestCase.class);
+
+    private HttpWsConnectorFactory httpWsConnectorFactory;
+    private ServerConnector serverConnector;
+    private SlowResponseListener slowResponseListener;
+
+    @BeforeClass
+    public void setUp() throws InterruptedException {
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        listenerConfiguration.setServerHeader(TestUtil.TEST_SERVER);
+        AdmissionControlConfig admissionControlConfig = listenerConfiguration.getAdmissionControlConfig();
+        admissionControlConfig.setEnabled(true);
+        admissionControlConfig.setMaxInFlightRequests(1);
+        admissionControlConfig.setRetryAfter(2);
+
+        httpWsConnectorFactory = new DefaultHttpWsConnectorFactory();
+        serverConnector = httpWsConnectorFactory.createServerConnector(
+                new ServerBootstrapConfiguration(new HashMap<>()), listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        slowResponseListener = new SlowResponseListener();
+        serverConnectorFuture.setHttpConnectorListener(slowResponseListener);
+        serverConnectorFuture.sync();
+    }
+
+    @Test
+    public void testRejectionWhenInFlightLimitExceeded() throws Exception {
+        CompletableFuture<FullHttpResponse> admittedResponse = CompletableFuture.supplyAsync(
+                () -> new HttpClient(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT).sendRequest(newRequest()));
+        assertTrue(slowResponseListener.requestReceived.await(10, TimeUnit.SECONDS));
+
+        FullHttpResponse rejectedResponse = new HttpClient(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT)
+                .sendRequest(newRequest());
+        assertEquals(rejectedResponse.status(), HttpResponseStatus.SERVICE_UNAVAILABLE);
+        assertEquals(rejectedResponse.headers().get(HttpHeaderNames.RETRY_AFTER), "2");
+        assertEquals(rejectedResponse.headers().get(HttpHeaderNames.SERVER), TestUtil.TEST_SERVER);
+
+        slowResponseListener.respond.countDown();
+        assertEquals(admittedResponse.get(10, TimeUnit.SECONDS).status(), HttpResponseStatus.OK);
+
+        FullHttpResponse laterResponse = new HttpClient(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT)
+                .sendRequest(newRequest());
+        assertEquals(laterResponse.status(), HttpResponseStatus.OK);
+    }
+
+    private static DefaultFullHttpRequest newRequest() {
+        return new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/");
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException, InterruptedException {
+        slowResponseListener.respond.countDown();
+        serverConnector.stop();
+        httpWsConnectorFactory.shutdown();
+    }
+
+    /**
+     * Holds the responses until the test lets them go.
+     */
+    private static class SlowResponseListener implements HttpConnectorListener {
+
+        private final CountDownLatch requestReceived = new CountDownLatch(1);
+        private final CountDownLatch respond = new CountDownLatch(1);
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpRequest) {
+            requestReceived.countDown();
+            new Thread(() -> {
+                try {
+                    respond.await(10, TimeUnit.SECONDS);
+                    HttpCarbonMessage httpResponse = new HttpCarbonResponse(
+                            new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+                    httpResponse.setHeader(HttpHeaderNames.CONTENT_LENGTH.toString(), "0");
+                    httpResponse.addHttpContent(new DefaultLastHttpContent());
+                    httpRequest.respond(httpResponse);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ServerConnectorException e) {
+                    LOG.error("Error occurred while sending the response", e);
+                }
+            }).start();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            LOG.error("Error in the server connector", throwable);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Helpers shared by the benchmarks. Benchmarks are not part of the regular test suite and are run with
+ * {@code mvn test -Pbenchmark}.
+ */
+public class BenchmarkUtil {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BenchmarkUtil.class);
+
+    private static final MemoryMXBean MEMORY_BEAN = ManagementFactory.getMemoryMXBean();
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+    private static final int GC_ROUNDS = 5;
+
+    private BenchmarkUtil() {
+    }
+
+    /**
+     * Returns the used heap after a best effort attempt to collect all garbage.
+     *
+     * @return used heap in bytes
+     */
+    public static long usedHeapAfterGc() {
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return MEMORY_BEAN.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread, or -1 if the JVM cannot report it.
+     *
+     * @return allocated bytes of the current thread
+     */
+    public static long allocatedBytesOfCurrentThread() {
+        if (THREAD_BEAN instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREAD_BEAN).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    public static int getIntProperty(String name, int defaultValue) {
+        return Integer.getInteger(name, defaultValue);
+    }
+
+    public static void report(String benchmark, String metric, double value, String unit) {
+        LOG.info(String.format("[%s] %s: %.2f %s", benchmark, metric, value, unit));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.benchmark;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpMessageDataStreamer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Compares reading and writing message bodies through the {@link HttpMessageDataStreamer} streams a byte at a time
+ * with the bulk operations used by parsers and serializers, for 1 KiB, 64 KiB and 10 MiB payloads. Inbound bodies are
+ * split in 8 KiB chunks, the same way they arrive from the decoder.
+ */
+public class HttpMessageDataStreamerBenchmark {
+
+    private static final String BENCHMARK = "http-message-data-streamer";
+    private static final int[] PAYLOAD_SIZES = { 1024, 64 * 1024, 10 * 1024 * 1024 };
+    private static final int CHUNK_SIZE = 8192;
+    private static final int COPY_BUFFER_SIZE = 4096;
+
+    private enum Mode { BYTE, BULK, TRANSFER }
+
+    @Test
+    public void compareByteAndBulkOperations() throws IOException {
+        long bytesPerMeasurement = BenchmarkUtil.getIntProperty("benchmark.streamer.megabytes", 256) * 1024L * 1024;
+        for (int payloadSize : PAYLOAD_SIZES) {
+            byte[] payload = new byte[payloadSize];
+            int messages = (int) Math.max(1, bytesPerMeasurement / payloadSize);
+            for (Mode mode : Mode.values()) {
+                // Warm up before measuring
+                read(mode, payload, Math.max(1, messages / 10));
+                long start = System.nanoTime();
+                long readBytes = read(mode, payload, messages);
+                report("read " + mode.name().toLowerCase(), payloadSize, readBytes, System.nanoTime() - start);
+            }
+            for (Mode mode : new Mode[]{ Mode.BYTE, Mode.BULK }) {
+                write(mode, payload, Math.max(1, messages / 10));
+                long start = System.nanoTime();
+                long writtenBytes = write(mode, payload, messages);
+                report("write " + mode.name().toLowerCase(), payloadSize, writtenBytes, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static void report(String operation, int payloadSize, long bytes, long elapsed) {
+        BenchmarkUtil.report(BENCHMARK, operation + " " + payloadSize + " byte payloads",
+                             bytes * 1e9 / elapsed / (1024 * 1024), "MiB/s");
+    }
+
+    private static long read(Mode mode, byte[] payload, int messages) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        DiscardingOutputStream sink = new DiscardingOutputStream();
+        long readBytes = 0;
+        for (int i = 0; i < messages; i++) {
+            InputStream inputStream = new HttpMessageDataStreamer(newInboundMessage(payload)).getInputStream();
+            switch (mode) {
+                case BYTE:
+                    while (inputStream.read() != -1) {
+                        readBytes++;
+                    }
+                    break;
+                case BULK:
+                    int read;
+                    while ((read = inputStream.read(buffer, 0, buffer.length)) != -1) {
+                        readBytes += read;
+                    }
+                    break;
+                default:
+                    readBytes += ((HttpMessageDataStreamer.ByteBufferInputStream) inputStream).transferTo(sink);
+                    break;
+            }
+        }
+        assertEquals(readBytes, (long) payload.length * messages);
+        return readBytes;
+    }
+
+    private static long write(Mode mode, byte[] payload, int messages) {
+        long writtenBytes = 0;
+        for (int i = 0; i < messages; i++) {
+            HttpCarbonMessage message = newMessage();
+            OutputStream outputStream = new HttpMessageDataStreamer(message).getOutputStream();
+            if (mode == Mode.BYTE) {
+                for (byte b : payload) {
+                    outputStream.write(b);
+                }
+            } else {
+                for (int offset = 0; offset < payload.length; offset += COPY_BUFFER_SIZE) {
+                    outputStream.write(payload, offset, Math.min(COPY_BUFFER_SIZE, payload.length - offset));
+                }
+            }
+            outputStream.close();
+            writtenBytes += drain(message);
+        }
+        assertEquals(writtenBytes, (long) payload.length * messages);
+        return writtenBytes;
+    }
+
+    private static HttpCarbonMessage newInboundMessage(byte[] payload) {
+        HttpCarbonMessage message = newMessage();
+        int offset = 0;
+        while (payload.length - offset > CHUNK_SIZE) {
+            message.addHttpContent(new DefaultHttpContent(Unpooled.wrappedBuffer(payload, offset, CHUNK_SIZE)));
+            offset += CHUNK_SIZE;
+        }
+        message.addHttpContent(new DefaultLastHttpContent(
+                Unpooled.wrappedBuffer(payload, offset, payload.length - offset)));
+        return message;
+    }
+
+    private static long drain(HttpCarbonMessage message) {
+        long drained = 0;
+        HttpContent httpContent;
+        do {
+            httpContent = message.getHttpContent();
+            drained += httpContent.content().readableBytes();
+            httpContent.release();
+        } while (!(httpContent instanceof LastHttpContent));
+        return drained;
+    }
+
+    private static HttpCarbonMessage newMessage() {
+        return new HttpCarbonMessage(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"));
+    }
+
+    /**
+     * Discards the bytes written to it.
+     */
+    private static class DiscardingOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+            // Discarded
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            // Discarded
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.benchmark;
+
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonResponse;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Reports the heap retained by the server for each idle keep-alive connection. Each connection sends one request and
+ * then stays idle. The cost of a plain socket pair is measured the same way and subtracted, so the reported figure is
+ * what the transport pipeline adds on top of the socket itself.
+ */
+public class IdleConnectionMemoryBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IdleConnectionMemoryBenchmark.class);
+    private static final String BENCHMARK = "idle-connection-memory";
+    private static final byte[] REQUEST = ("GET / HTTP/1.1\r\nHost: localhost\r\nConnection: keep-alive\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private HttpWsConnectorFactory httpWsConnectorFactory;
+    private ServerConnector serverConnector;
+    private int connectionCount;
+
+    @BeforeClass
+    public void setUp() throws InterruptedException {
+        connectionCount = BenchmarkUtil.getIntProperty("benchmark.connections", 500);
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        httpWsConnectorFactory = new DefaultHttpWsConnectorFactory();
+        serverConnector = httpWsConnectorFactory.createServerConnector(
+                new ServerBootstrapConfiguration(new HashMap<>()), listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        serverConnectorFuture.setHttpConnectorListener(new EmptyResponseListener());
+        serverConnectorFuture.sync();
+    }
+
+    @Test
+    public void measureRetainedBytesPerIdleConnection() throws IOException {
+        long socketPairBytes = measurePlainSocketPairs();
+        long transportBytes = measureTransportConnections();
+
+        BenchmarkUtil.report(BENCHMARK, "plain socket pair", socketPairBytes, "bytes/connection");
+        BenchmarkUtil.report(BENCHMARK, "transport connection", transportBytes, "bytes/connection");
+        BenchmarkUtil.report(BENCHMARK, "retained by transport pipeline", transportBytes - socketPairBytes,
+                             "bytes/connection");
+        assertTrue(transportBytes > 0);
+    }
+
+    private long measurePlainSocketPairs() throws IOException {
+        List<Socket> sockets = new ArrayList<>(connectionCount * 2);
+        try (ServerSocket serverSocket = new ServerSocket(0, connectionCount)) {
+            long before = BenchmarkUtil.usedHeapAfterGc();
+            for (int i = 0; i < connectionCount; i++) {
+                sockets.add(new Socket(TestUtil.TEST_HOST, serverSocket.getLocalPort()));
+                sockets.add(serverSocket.accept());
+            }
+            long after = BenchmarkUtil.usedHeapAfterGc();
+            return (after - before) / connectionCount;
+        } finally {
+            closeAll(sockets);
+        }
+    }
+
+    private long measureTransportConnections() throws IOException {
+        List<Socket> sockets = new ArrayList<>(connectionCount);
+        try {
+            long before = BenchmarkUtil.usedHeapAfterGc();
+            for (int i = 0; i < connectionCount; i++) {
+                Socket socket = new Socket(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT);
+                sockets.add(socket);
+                sendRequestAndReadResponse(socket);
+            }
+            long after = BenchmarkUtil.usedHeapAfterGc();
+            return (after - before) / connectionCount;
+        } finally {
+            closeAll(sockets);
+        }
+    }
+
+    private static void sendRequestAndReadResponse(Socket socket) throws IOException {
+        OutputStream outputStream = socket.getOutputStream();
+        outputStream.write(REQUEST);
+        outputStream.flush();
+        // The response has no body, hence reading until the end of the headers is enough
+        InputStream inputStream = socket.getInputStream();
+        int matched = 0;
+        int read;
+        while (matched < 4 && (read = inputStream.read()) != -1) {
+            matched = (read == '\r' || read == '\n') ? matched + 1 : 0;
+        }
+    }
+
+    private static void closeAll(List<Socket> sockets) {
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOG.warn("Couldn't close socket", e);
+            }
+        }
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException, InterruptedException {
+        serverConnector.stop();
+        httpWsConnectorFactory.shutdown();
+    }
+
+    /**
+     * Responds to every request with an empty 200 response.
+     */
+    private static class EmptyResponseListener implements HttpConnectorListener {
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpRequest) {
+            try {
+                HttpCarbonMessage httpResponse = new HttpCarbonResponse(
+                        new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+                httpResponse.setHeader(HttpHeaderNames.CONTENT_LENGTH.toString(), "0");
+                httpResponse.addHttpContent(new DefaultLastHttpContent());
+                httpRequest.respond(httpResponse);
+            } catch (ServerConnectorException e) {
+                LOG.error("Error occurred while sending the response", e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            LOG.error("Error in the server connector", throwable);
+        }
+    }
+}
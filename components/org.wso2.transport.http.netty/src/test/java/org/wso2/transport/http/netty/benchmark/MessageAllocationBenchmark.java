@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.benchmark;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonRequest;
+import org.wso2.transport.http.netty.message.HttpCarbonResponse;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Reports the bytes allocated per message for the life cycle of a message: an inbound GET request without a body
+ * that is answered right away, a response with a single chunk body and a request with a body of several chunks. Run
+ * it against two revisions to compare the allocation profile of a change.
+ */
+public class MessageAllocationBenchmark {
+
+    private static final String BENCHMARK = "message-allocation";
+    private static final byte[] PAYLOAD = new byte[256];
+    private static final int CHUNKS = 4;
+
+    private enum Scenario { EMPTY_GET_REQUEST, SINGLE_CHUNK_RESPONSE, MULTI_CHUNK_REQUEST }
+
+    @Test
+    public void measureAllocatedBytesPerMessage() throws ServerConnectorException {
+        int messages = BenchmarkUtil.getIntProperty("benchmark.messages", 1000000);
+        if (BenchmarkUtil.allocatedBytesOfCurrentThread() < 0) {
+            return;
+        }
+        HttpConnectorListener responseListener = new DiscardingListener();
+        for (Scenario scenario : Scenario.values()) {
+            // Warm up before measuring
+            run(scenario, responseListener, Math.max(1, messages / 10));
+            long before = BenchmarkUtil.allocatedBytesOfCurrentThread();
+            run(scenario, responseListener, messages);
+            long allocated = BenchmarkUtil.allocatedBytesOfCurrentThread() - before;
+            BenchmarkUtil.report(BENCHMARK, scenario.name().toLowerCase().replace('_', ' '),
+                                 (double) allocated / messages, "bytes/message");
+        }
+    }
+
+    private static void run(Scenario scenario, HttpConnectorListener responseListener, int messages)
+            throws ServerConnectorException {
+        long readBytes = 0;
+        for (int i = 0; i < messages; i++) {
+            switch (scenario) {
+                case EMPTY_GET_REQUEST:
+                    HttpCarbonMessage request = new HttpCarbonRequest(
+                            new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/"));
+                    request.addHttpContent(LastHttpContent.EMPTY_LAST_CONTENT);
+                    request.getHttpResponseFuture().setHttpConnectorListener(responseListener);
+                    request.respond(new HttpCarbonResponse(
+                            new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK)));
+                    break;
+                case SINGLE_CHUNK_RESPONSE:
+                    HttpCarbonMessage response = new HttpCarbonResponse(
+                            new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+                    response.addHttpContent(new DefaultLastHttpContent(Unpooled.wrappedBuffer(PAYLOAD)));
+                    readBytes += drain(response);
+                    break;
+                default:
+                    HttpCarbonMessage chunkedRequest = new HttpCarbonRequest(
+                            new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"));
+                    for (int chunk = 1; chunk < CHUNKS; chunk++) {
+                        chunkedRequest.addHttpContent(new DefaultHttpContent(Unpooled.wrappedBuffer(PAYLOAD)));
+                    }
+                    chunkedRequest.addHttpContent(new DefaultLastHttpContent(Unpooled.wrappedBuffer(PAYLOAD)));
+                    readBytes += drain(chunkedRequest);
+                    break;
+            }
+        }
+        int chunksPerMessage = scenario == Scenario.MULTI_CHUNK_REQUEST ? CHUNKS :
+                scenario == Scenario.SINGLE_CHUNK_RESPONSE ? 1 : 0;
+        assertEquals(readBytes, (long) PAYLOAD.length * chunksPerMessage * messages);
+    }
+
+    private static long drain(HttpCarbonMessage message) {
+        long drained = 0;
+        HttpContent httpContent;
+        do {
+            httpContent = message.getHttpContent();
+            drained += httpContent.content().readableBytes();
+            httpContent.release();
+        } while (!(httpContent instanceof LastHttpContent));
+        return drained;
+    }
+
+    /**
+     * Discards the responses.
+     */
+    private static class DiscardingListener implements HttpConnectorListener {
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpMessage) {
+            // Discarded
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // Not expected
+        }
+    }
+}
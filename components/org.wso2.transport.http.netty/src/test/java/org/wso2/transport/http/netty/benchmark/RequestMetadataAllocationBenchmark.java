@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.benchmark;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonRequest;
+import org.wso2.transport.http.netty.message.PooledDataStreamerFactory;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Reports the bytes allocated to create an inbound request message, with the connection related properties stored
+ * in the properties map of every request and with them derived from the connection on demand. The latter is also
+ * measured when a single property is read, which is the common case for a service.
+ */
+public class RequestMetadataAllocationBenchmark {
+
+    private static final String BENCHMARK = "request-metadata-allocation";
+
+    private enum Mode { EAGER, LAZY, LAZY_READ_ONE }
+
+    @Test
+    public void compareEagerAndLazyProperties() {
+        int requests = BenchmarkUtil.getIntProperty("benchmark.requests", 1000000);
+        if (BenchmarkUtil.allocatedBytesOfCurrentThread() < 0) {
+            return;
+        }
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ChannelHandlerContext ctx = channel.pipeline().firstContext();
+        try {
+            for (Mode mode : Mode.values()) {
+                // Warm up before measuring
+                createRequests(mode, ctx, Math.max(1, requests / 10));
+                long before = BenchmarkUtil.allocatedBytesOfCurrentThread();
+                createRequests(mode, ctx, requests);
+                long allocated = BenchmarkUtil.allocatedBytesOfCurrentThread() - before;
+                BenchmarkUtil.report(BENCHMARK, mode.name().toLowerCase().replace('_', ' '),
+                                     (double) allocated / requests, "bytes/request");
+            }
+        } finally {
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    private static void createRequests(Mode mode, ChannelHandlerContext ctx, int requests) {
+        int found = 0;
+        for (int i = 0; i < requests; i++) {
+            HttpRequest httpRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/hello");
+            HttpCarbonRequest request = new HttpCarbonRequest(httpRequest);
+            if (mode == Mode.EAGER) {
+                setPropertiesEagerly(request, httpRequest, ctx);
+            } else {
+                request.setInboundConnection(ctx, null);
+            }
+            if (mode == Mode.LAZY_READ_ONE && request.getProperty(Constants.REQUEST_URL) != null) {
+                found++;
+            }
+        }
+        assertEquals(found, mode == Mode.LAZY_READ_ONE ? requests : 0);
+    }
+
+    /**
+     * Populates the properties the way inbound requests were populated before they were derived on demand.
+     */
+    private static void setPropertiesEagerly(HttpCarbonMessage request, HttpRequest httpRequest,
+                                             ChannelHandlerContext ctx) {
+        request.setProperty(Constants.POOLED_BYTE_BUFFER_FACTORY, new PooledDataStreamerFactory(ctx.alloc()));
+        request.setProperty(Constants.CHNL_HNDLR_CTX, ctx);
+        request.setProperty(Constants.SRC_HANDLER, null);
+        HttpVersion protocolVersion = httpRequest.protocolVersion();
+        request.setProperty(Constants.HTTP_VERSION, protocolVersion.majorVersion() + "." + protocolVersion
+                .minorVersion());
+        request.setProperty(Constants.HTTP_METHOD, httpRequest.method().name());
+        request.setProperty(Constants.LISTENER_PORT, null);
+        request.setProperty(Constants.LISTENER_INTERFACE_ID, null);
+        request.setProperty(Constants.PROTOCOL, Constants.HTTP_SCHEME);
+        request.setProperty(Constants.IS_SECURED_CONNECTION, ctx.channel().pipeline().get(Constants.SSL_HANDLER)
+                != null);
+        request.setProperty(Constants.LOCAL_ADDRESS, ctx.channel().localAddress());
+        request.setProperty(Constants.REMOTE_ADDRESS, ctx.channel().remoteAddress());
+        request.setProperty(Constants.REQUEST_URL, httpRequest.uri());
+        request.setProperty(Constants.TO, httpRequest.uri());
+        request.setProperty(Constants.MUTUAL_SSL_HANDSHAKE_RESULT,
+                            ctx.channel().attr(Constants.MUTUAL_SSL_RESULT_ATTRIBUTE).get());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
+import org.wso2.transport.http.netty.contractimpl.websocket.DefaultWebSocketMessage;
+import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketUtil;
+import org.wso2.transport.http.netty.contractimpl.websocket.message.DefaultWebSocketBinaryMessage;
+
+import java.nio.ByteBuffer;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Compares the throughput and the allocations of handing inbound WebSocket binary frames to the listener in
+ * {@link org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode#COPY} and
+ * {@link org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode#RETAINED} mode. Frames are taken from
+ * the pooled direct allocator, the same way they arrive from the frame decoder, and the listener reads every byte of
+ * the payload.
+ */
+public class WebSocketBinaryThroughputBenchmark {
+
+    private static final String BENCHMARK = "websocket-binary-throughput";
+    private static final int[] PAYLOAD_SIZES = { 128, 16 * 1024, 64 * 1024 };
+
+    @Test
+    public void compareCopyAndRetainedModes() {
+        int frames = BenchmarkUtil.getIntProperty("benchmark.frames", 100000);
+        for (int payloadSize : PAYLOAD_SIZES) {
+            // Warm up both paths before measuring
+            run(false, payloadSize, frames / 10);
+            run(true, payloadSize, frames / 10);
+
+            measure("copy", false, payloadSize, frames);
+            measure("retained", true, payloadSize, frames);
+        }
+    }
+
+    private static void measure(String mode, boolean retained, int payloadSize, int frames) {
+        long allocatedBefore = BenchmarkUtil.allocatedBytesOfCurrentThread();
+        long start = System.nanoTime();
+        long readBytes = run(retained, payloadSize, frames);
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = BenchmarkUtil.allocatedBytesOfCurrentThread();
+
+        assertEquals(readBytes, (long) payloadSize * frames);
+        String metric = mode + " " + payloadSize + " byte frames";
+        BenchmarkUtil.report(BENCHMARK, metric, frames * 1e9 / elapsed, "frames/s");
+        BenchmarkUtil.report(BENCHMARK, metric, readBytes * 1e9 / elapsed / (1024 * 1024), "MiB/s");
+        if (allocatedBefore >= 0) {
+            BenchmarkUtil.report(BENCHMARK, metric, (double) (allocatedAfter - allocatedBefore) / frames,
+                                 "allocated bytes/frame");
+        }
+    }
+
+    private static long run(boolean retained, int payloadSize, int frames) {
+        long readBytes = 0;
+        for (int i = 0; i < frames; i++) {
+            ByteBuf content = PooledByteBufAllocator.DEFAULT.directBuffer(payloadSize);
+            content.writerIndex(payloadSize);
+            BinaryWebSocketFrame frame = new BinaryWebSocketFrame(content);
+            if (retained) {
+                DefaultWebSocketBinaryMessage message = WebSocketUtil.getRetainedWebSocketMessage(frame.content(),
+                                                                                                  true);
+                try {
+                    readBytes += consume(message);
+                } finally {
+                    message.releaseIfNotRetained();
+                }
+            } else {
+                DefaultWebSocketMessage message = WebSocketUtil.getWebSocketMessage(frame, frame.content(), true);
+                readBytes += consume((WebSocketBinaryMessage) message);
+            }
+        }
+        return readBytes;
+    }
+
+    /**
+     * Stands in for a listener which reads the whole payload.
+     */
+    private static int consume(WebSocketBinaryMessage message) {
+        ByteBuffer buffer = message.getByteBuffer();
+        int count = 0;
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            buffer.get(i);
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contract.config.WebSocketCompressionConfig;
+import org.wso2.transport.http.netty.contract.websocket.ServerHandshakeListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketCloseMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketHandshaker;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketTextMessage;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Reports the memory the server holds for each idle WebSocket connection with and without permessage-deflate. Every
+ * connection exchanges one message, so that a connection taking over its compression context keeps both its
+ * compressor and decompressor. The heap is measured; the native memory of zlib is not visible to the heap, hence it
+ * is estimated from the zlib memory formula for the negotiated parameters.
+ */
+public class WebSocketCompressionMemoryBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WebSocketCompressionMemoryBenchmark.class);
+    private static final String BENCHMARK = "websocket-compression-memory";
+    private static final byte[] MESSAGE = new String(new char[100]).replace('\0', 'a')
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MASK = {1, 2, 3, 4};
+    // zlib needs (1 << (windowBits + 2)) + (1 << (memLevel + 9)) bytes to deflate and 1 << windowBits to inflate,
+    // each with a few kilobytes of state on top.
+    private static final int ZLIB_DEFLATE_BYTES = (1 << 17) + (1 << 17) + 6 * 1024;
+    private static final int ZLIB_INFLATE_BYTES = (1 << 15) + 7 * 1024;
+
+    private HttpWsConnectorFactory httpWsConnectorFactory;
+    private int connectionCount;
+
+    @BeforeClass
+    public void setUp() {
+        connectionCount = BenchmarkUtil.getIntProperty("benchmark.connections", 500);
+        httpWsConnectorFactory = new DefaultHttpWsConnectorFactory();
+    }
+
+    @Test
+    public void measureRetainedBytesPerConnection() throws IOException, InterruptedException {
+        WebSocketCompressionConfig disabled = new WebSocketCompressionConfig();
+        disabled.setEnabled(false);
+        WebSocketCompressionConfig contextTakeover = new WebSocketCompressionConfig();
+        WebSocketCompressionConfig noContextTakeover = new WebSocketCompressionConfig();
+        noContextTakeover.setNoContextTakeover(true);
+        noContextTakeover.setPeerNoContextTakeover(true);
+
+        long uncompressed = measure(disabled, false);
+        long withContext = measure(contextTakeover, true);
+        long withoutContext = measure(noContextTakeover, true);
+
+        BenchmarkUtil.report(BENCHMARK, "uncompressed heap", uncompressed, "bytes/connection");
+        BenchmarkUtil.report(BENCHMARK, "permessage-deflate heap", withContext, "bytes/connection");
+        BenchmarkUtil.report(BENCHMARK, "permessage-deflate estimated zlib native",
+                             ZLIB_DEFLATE_BYTES + ZLIB_INFLATE_BYTES, "bytes/connection");
+        BenchmarkUtil.report(BENCHMARK, "permessage-deflate without context takeover heap", withoutContext,
+                             "bytes/connection");
+        BenchmarkUtil.report(BENCHMARK, "permessage-deflate without context takeover estimated zlib native", 0,
+                             "bytes/connection");
+        assertTrue(uncompressed > 0);
+    }
+
+    private long measure(WebSocketCompressionConfig compressionConfig, boolean compressed)
+            throws IOException, InterruptedException {
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        listenerConfiguration.setWebSocketCompressionConfig(compressionConfig);
+        ServerConnector serverConnector = httpWsConnectorFactory.createServerConnector(
+                new ServerBootstrapConfiguration(new HashMap<>()), listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        serverConnectorFuture.setWebSocketConnectorListener(new EchoListener());
+        serverConnectorFuture.sync();
+
+        List<Socket> sockets = new ArrayList<>(connectionCount);
+        byte[] frame = compressed ? compressedFrame() : uncompressedFrame();
+        try {
+            long before = BenchmarkUtil.usedHeapAfterGc();
+            for (int i = 0; i < connectionCount; i++) {
+                Socket socket = new Socket(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT);
+                sockets.add(socket);
+                handshake(socket, compressed);
+                exchangeMessage(socket, frame);
+            }
+            long after = BenchmarkUtil.usedHeapAfterGc();
+            return (after - before) / connectionCount;
+        } finally {
+            closeAll(sockets);
+            serverConnector.stop();
+        }
+    }
+
+    private static void handshake(Socket socket, boolean compressed) throws IOException {
+        String request = "GET /benchmark HTTP/1.1\r\nHost: localhost\r\nConnection: Upgrade\r\nUpgrade: websocket\r\n"
+                + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\nSec-WebSocket-Version: 13\r\n"
+                + (compressed ? "Sec-WebSocket-Extensions: permessage-deflate\r\n" : "") + "\r\n";
+        OutputStream outputStream = socket.getOutputStream();
+        outputStream.write(request.getBytes(StandardCharsets.US_ASCII));
+        outputStream.flush();
+        InputStream inputStream = socket.getInputStream();
+        int matched = 0;
+        int read;
+        while (matched < 4 && (read = inputStream.read()) != -1) {
+            matched = (read == '\r' || read == '\n') ? matched + 1 : 0;
+        }
+    }
+
+    /**
+     * Sends a message and reads the echo, whose payload is shorter than 126 bytes.
+     */
+    private static void exchangeMessage(Socket socket, byte[] frame) throws IOException {
+        OutputStream outputStream = socket.getOutputStream();
+        outputStream.write(frame);
+        outputStream.flush();
+        InputStream inputStream = socket.getInputStream();
+        inputStream.read();
+        int length = inputStream.read() & 0x7f;
+        for (int i = 0; i < length; i++) {
+            inputStream.read();
+        }
+    }
+
+    private static void closeAll(List<Socket> sockets) {
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOG.warn("Couldn't close socket", e);
+            }
+        }
+    }
+
+    private static byte[] uncompressedFrame() {
+        return maskedFrame(0x82, MESSAGE, MESSAGE.length);
+    }
+
+    private static byte[] compressedFrame() {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(MESSAGE);
+        byte[] compressed = new byte[MESSAGE.length + 64];
+        int length = deflater.deflate(compressed, 0, compressed.length, Deflater.SYNC_FLUSH);
+        deflater.end();
+        // The empty block that ends a message is not sent
+        return maskedFrame(0xC2, compressed, length - 4);
+    }
+
+    private static byte[] maskedFrame(int firstByte, byte[] payload, int length) {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(length + 6);
+        frame.write(firstByte);
+        frame.write(0x80 | length);
+        frame.write(MASK, 0, MASK.length);
+        byte[] masked = Arrays.copyOf(payload, length);
+        for (int i = 0; i < length; i++) {
+            masked[i] ^= MASK[i % MASK.length];
+        }
+        frame.write(masked, 0, length);
+        return frame.toByteArray();
+    }
+
+    @AfterClass
+    public void cleanUp() throws InterruptedException {
+        httpWsConnectorFactory.shutdown();
+    }
+
+    /**
+     * Accepts every handshake and echoes binary messages.
+     */
+    private static class EchoListener implements WebSocketConnectorListener {
+
+        @Override
+        public void onHandshake(WebSocketHandshaker webSocketHandshaker) {
+            webSocketHandshaker.handshake().setHandshakeListener(new ServerHandshakeListener() {
+                @Override
+                public void onSuccess(WebSocketConnection webSocketConnection) {
+                    webSocketConnection.startReadingFrames();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    LOG.error("Error in handshake", t);
+                }
+            });
+        }
+
+        @Override
+        public void onMessage(WebSocketTextMessage textMessage) {
+        }
+
+        @Override
+        public void onMessage(WebSocketBinaryMessage binaryMessage) {
+            byte[] payload = binaryMessage.getByteArray();
+            binaryMessage.getWebSocketConnection().pushBinary(ByteBuffer.wrap(payload));
+        }
+
+        @Override
+        public void onMessage(WebSocketControlMessage controlMessage) {
+        }
+
+        @Override
+        public void onMessage(WebSocketCloseMessage closeMessage) {
+        }
+
+        @Override
+        public void onError(WebSocketConnection webSocketConnection, Throwable throwable) {
+            LOG.error("Error in WebSocket connection", throwable);
+        }
+
+        @Override
+        public void onIdleTimeout(WebSocketControlMessage controlMessage) {
+        }
+
+        @Override
+        public void onClose(WebSocketConnection webSocketConnection) {
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contract.config.WebSocketHeartbeatConfig;
+import org.wso2.transport.http.netty.contract.websocket.ServerHandshakeListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketCloseMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketHandshaker;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketTextMessage;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Reports the cost of the built-in heartbeat for many mostly idle WebSocket connections: the heap per connection,
+ * the CPU time while only pings and pongs are exchanged, and the round trip time measured by the heartbeat. The
+ * remote endpoints are plain sockets served by a single selector thread that answers the pings, whose CPU time is
+ * included in the process CPU time that is reported.
+ */
+public class WebSocketHeartbeatBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WebSocketHeartbeatBenchmark.class);
+    private static final String BENCHMARK = "websocket-heartbeat";
+    private static final byte[] HANDSHAKE = ("GET /benchmark HTTP/1.1\r\nHost: localhost\r\nConnection: Upgrade\r\n"
+            + "Upgrade: websocket\r\nSec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\nSec-WebSocket-Version: 13\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MASK = {1, 2, 3, 4};
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+
+    private final List<WebSocketConnection> serverConnections = new CopyOnWriteArrayList<>();
+    private final AtomicLong pongsSent = new AtomicLong();
+    private HttpWsConnectorFactory httpWsConnectorFactory;
+    private ServerConnector serverConnector;
+    private int connectionCount;
+    private int durationInSeconds;
+    private volatile boolean running = true;
+
+    @BeforeClass
+    public void setUp() throws InterruptedException {
+        connectionCount = BenchmarkUtil.getIntProperty("benchmark.connections", 2000);
+        durationInSeconds = BenchmarkUtil.getIntProperty("benchmark.durationSeconds", 10);
+        WebSocketHeartbeatConfig heartbeatConfig = new WebSocketHeartbeatConfig();
+        heartbeatConfig.setPingIntervalInMillis(BenchmarkUtil.getIntProperty("benchmark.pingIntervalMillis", 1000));
+        heartbeatConfig.setPingJitterInMillis(heartbeatConfig.getPingIntervalInMillis() / 10);
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        listenerConfiguration.setWebSocketHeartbeatConfig(heartbeatConfig);
+        httpWsConnectorFactory = new DefaultHttpWsConnectorFactory();
+        serverConnector = httpWsConnectorFactory.createServerConnector(
+                new ServerBootstrapConfiguration(new HashMap<>()), listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        serverConnectorFuture.setWebSocketConnectorListener(new ReadingListener());
+        serverConnectorFuture.sync();
+    }
+
+    @Test
+    public void measureHeartbeatAtScale() throws IOException, InterruptedException {
+        List<SocketChannel> channels = new ArrayList<>(connectionCount);
+        Selector selector = Selector.open();
+        Thread responder = new Thread(() -> answerPings(selector), "heartbeat-benchmark-responder");
+        try {
+            long heapBefore = BenchmarkUtil.usedHeapAfterGc();
+            for (int i = 0; i < connectionCount; i++) {
+                channels.add(handshake());
+            }
+            long heapAfter = BenchmarkUtil.usedHeapAfterGc();
+            for (SocketChannel channel : channels) {
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, ByteBuffer.allocate(256));
+            }
+            responder.start();
+
+            com.sun.management.OperatingSystemMXBean osBean =
+                    (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            long cpuBefore = osBean.getProcessCpuTime();
+            long pongsBefore = pongsSent.get();
+            long start = System.nanoTime();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(durationInSeconds));
+            long elapsed = System.nanoTime() - start;
+            long cpuTime = osBean.getProcessCpuTime() - cpuBefore;
+            long pongs = pongsSent.get() - pongsBefore;
+
+            BenchmarkUtil.report(BENCHMARK, "connections", serverConnections.size(), "connections");
+            BenchmarkUtil.report(BENCHMARK, "heap", (double) (heapAfter - heapBefore) / connectionCount,
+                                 "bytes/connection");
+            BenchmarkUtil.report(BENCHMARK, "process CPU", 100.0 * cpuTime / elapsed, "% of one core");
+            BenchmarkUtil.report(BENCHMARK, "heartbeats", pongs * 1e9 / elapsed, "pings/s");
+            BenchmarkUtil.report(BENCHMARK, "CPU per heartbeat", pongs > 0 ? (double) cpuTime / pongs : 0,
+                                 "ns/ping");
+            BenchmarkUtil.report(BENCHMARK, "mean round trip time", meanRoundTripTimeNanos() / 1000.0, "us");
+            assertTrue(pongs > 0);
+        } finally {
+            running = false;
+            selector.wakeup();
+            responder.join(TimeUnit.SECONDS.toMillis(5));
+            selector.close();
+            for (SocketChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
+    private static SocketChannel handshake() throws IOException {
+        SocketChannel channel = SocketChannel.open(
+                new InetSocketAddress(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT));
+        channel.write(ByteBuffer.wrap(HANDSHAKE));
+        // Reads the response one byte at a time so that no frame is consumed along with it.
+        ByteBuffer single = ByteBuffer.allocate(1);
+        int matched = 0;
+        while (matched < 4 && channel.read(single) != -1) {
+            single.flip();
+            byte read = single.get();
+            single.clear();
+            matched = (read == '\r' || read == '\n') ? matched + 1 : 0;
+        }
+        return channel;
+    }
+
+    private void answerPings(Selector selector) {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isReadable()) {
+                        readFrames((SocketChannel) key.channel(), (ByteBuffer) key.attachment());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                LOG.error("Error while answering pings", e);
+            }
+        }
+    }
+
+    /**
+     * Server frames are not masked and the pings carry an 8 byte payload, hence the short length form is enough.
+     */
+    private void readFrames(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        if (channel.read(buffer) == -1) {
+            channel.close();
+            return;
+        }
+        buffer.flip();
+        while (buffer.remaining() >= 2) {
+            int opcode = buffer.get(buffer.position()) & 0x0F;
+            int length = buffer.get(buffer.position() + 1) & 0x7F;
+            if (buffer.remaining() < 2 + length) {
+                break;
+            }
+            buffer.position(buffer.position() + 2);
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            if (opcode == OPCODE_PING) {
+                channel.write(maskedFrame(OPCODE_PONG, payload));
+                pongsSent.incrementAndGet();
+            }
+        }
+        buffer.compact();
+    }
+
+    private static ByteBuffer maskedFrame(int opcode, byte[] payload) {
+        ByteBuffer frame = ByteBuffer.allocate(6 + payload.length);
+        frame.put((byte) (0x80 | opcode));
+        frame.put((byte) (0x80 | payload.length));
+        frame.put(MASK);
+        for (int i = 0; i < payload.length; i++) {
+            frame.put((byte) (payload[i] ^ MASK[i % MASK.length]));
+        }
+        frame.flip();
+        return frame;
+    }
+
+    private double meanRoundTripTimeNanos() {
+        long total = 0;
+        int measured = 0;
+        for (WebSocketConnection connection : serverConnections) {
+            long roundTripTime = connection.getRoundTripTimeInNanos();
+            if (roundTripTime >= 0) {
+                total += roundTripTime;
+                measured++;
+            }
+        }
+        return measured > 0 ? (double) total / measured : 0;
+    }
+
+    @AfterClass
+    public void cleanUp() throws InterruptedException {
+        serverConnector.stop();
+        httpWsConnectorFactory.shutdown();
+    }
+
+    /**
+     * Accepts every handshake and reads frames, so that pongs reach the heartbeat.
+     */
+    private class ReadingListener implements WebSocketConnectorListener {
+
+        @Override
+        public void onHandshake(WebSocketHandshaker webSocketHandshaker) {
+            webSocketHandshaker.handshake().setHandshakeListener(new ServerHandshakeListener() {
+                @Override
+                public void onSuccess(WebSocketConnection webSocketConnection) {
+                    serverConnections.add(webSocketConnection);
+                    webSocketConnection.startReadingFrames();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    LOG.error("Error in handshake", t);
+                }
+            });
+        }
+
+        @Override
+        public void onMessage(WebSocketTextMessage textMessage) {
+        }
+
+        @Override
+        public void onMessage(WebSocketBinaryMessage binaryMessage) {
+        }
+
+        @Override
+        public void onMessage(WebSocketControlMessage controlMessage) {
+        }
+
+        @Override
+        public void onMessage(WebSocketCloseMessage closeMessage) {
+        }
+
+        @Override
+        public void onError(WebSocketConnection webSocketConnection, Throwable throwable) {
+            LOG.error("Error in WebSocket connection", throwable);
+        }
+
+        @Override
+        public void onIdleTimeout(WebSocketControlMessage controlMessage) {
+        }
+
+        @Override
+        public void onClose(WebSocketConnection webSocketConnection) {
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contract.websocket.ClientHandshakeFuture;
+import org.wso2.transport.http.netty.contract.websocket.ClientHandshakeListener;
+import org.wso2.transport.http.netty.contract.websocket.ServerHandshakeListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketClientConnectorConfig;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketCloseMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnectorListener;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketHandshaker;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketTextMessage;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketUtil;
+import org.wso2.transport.http.netty.message.HttpCarbonResponse;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Compares the throughput of a WebSocket proxy which relays messages, where each frame is turned into a message for
+ * the listener and pushed again on the peer connection, with a proxy which splices the two connections. A plain
+ * socket sends binary frames to the proxy, which forwards them to a back end that counts the received bytes.
+ */
+public class WebSocketProxyThroughputBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WebSocketProxyThroughputBenchmark.class);
+    private static final String BENCHMARK = "websocket-proxy-throughput";
+    private static final int[] PAYLOAD_SIZES = { 128, 16 * 1024 };
+    private static final byte[] HANDSHAKE = ("GET /proxy HTTP/1.1\r\nHost: localhost\r\nConnection: Upgrade\r\n"
+            + "Upgrade: websocket\r\nSec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\nSec-WebSocket-Version: 13\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MASK = {1, 2, 3, 4};
+    private static final int OPCODE_BINARY = 0x2;
+
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final Map<WebSocketConnection, WebSocketConnection> peers = new ConcurrentHashMap<>();
+    private HttpWsConnectorFactory httpWsConnectorFactory;
+    private ServerConnector backEndConnector;
+    private ServerConnector proxyConnector;
+    private volatile boolean splice;
+
+    @BeforeClass
+    public void setUp() throws InterruptedException {
+        httpWsConnectorFactory = new DefaultHttpWsConnectorFactory();
+        backEndConnector = startServer(TestUtil.WEBSOCKET_REMOTE_SERVER_PORT, new CountingListener());
+        proxyConnector = startServer(TestUtil.SERVER_CONNECTOR_PORT, new ProxyListener());
+    }
+
+    private ServerConnector startServer(int port, WebSocketConnectorListener listener) throws InterruptedException {
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(port);
+        ServerConnector serverConnector = httpWsConnectorFactory.createServerConnector(
+                new ServerBootstrapConfiguration(new HashMap<>()), listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        serverConnectorFuture.setWebSocketConnectorListener(listener);
+        serverConnectorFuture.sync();
+        return serverConnector;
+    }
+
+    @Test
+    public void compareRelayAndSplice() throws IOException, InterruptedException {
+        int frames = BenchmarkUtil.getIntProperty("benchmark.frames", 50000);
+        for (int payloadSize : PAYLOAD_SIZES) {
+            // Warm up both paths before measuring
+            run(false, payloadSize, frames / 10);
+            run(true, payloadSize, frames / 10);
+
+            measure("relay", false, payloadSize, frames);
+            measure("splice", true, payloadSize, frames);
+        }
+    }
+
+    private void measure(String mode, boolean splice, int payloadSize, int frames)
+            throws IOException, InterruptedException {
+        com.sun.management.OperatingSystemMXBean osBean =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuBefore = osBean.getProcessCpuTime();
+        long start = System.nanoTime();
+        long forwardedBytes = run(splice, payloadSize, frames);
+        long elapsed = System.nanoTime() - start;
+        long cpuTime = osBean.getProcessCpuTime() - cpuBefore;
+
+        assertEquals(forwardedBytes, (long) payloadSize * frames);
+        String metric = mode + " " + payloadSize + " byte frames";
+        BenchmarkUtil.report(BENCHMARK, metric, frames * 1e9 / elapsed, "frames/s");
+        BenchmarkUtil.report(BENCHMARK, metric, forwardedBytes * 1e9 / elapsed / (1024 * 1024), "MiB/s");
+        BenchmarkUtil.report(BENCHMARK, metric, (double) cpuTime / frames, "CPU ns/frame");
+    }
+
+    /**
+     * Sends the frames through the proxy and waits until the back end received all of them.
+     *
+     * @return the number of payload bytes received by the back end
+     */
+    private long run(boolean splice, int payloadSize, int frames) throws IOException, InterruptedException {
+        this.splice = splice;
+        receivedBytes.set(0);
+        long expectedBytes = (long) payloadSize * frames;
+        byte[] frame = maskedBinaryFrame(payloadSize);
+        try (Socket socket = handshake()) {
+            OutputStream outputStream = socket.getOutputStream();
+            for (int i = 0; i < frames; i++) {
+                outputStream.write(frame);
+            }
+            outputStream.flush();
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+            while (receivedBytes.get() < expectedBytes && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+        return receivedBytes.get();
+    }
+
+    private static Socket handshake() throws IOException {
+        Socket socket = new Socket(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT);
+        socket.setTcpNoDelay(true);
+        socket.getOutputStream().write(HANDSHAKE);
+        InputStream inputStream = socket.getInputStream();
+        int matched = 0;
+        int read;
+        while (matched < 4 && (read = inputStream.read()) != -1) {
+            matched = (read == '\r' || read == '\n') ? matched + 1 : 0;
+        }
+        return socket;
+    }
+
+    /**
+     * Payloads are at most 64KiB, hence the 16 bit length form is enough.
+     */
+    private static byte[] maskedBinaryFrame(int payloadSize) {
+        boolean extendedLength = payloadSize > 125;
+        int headerLength = 2 + (extendedLength ? 2 : 0) + MASK.length;
+        byte[] frame = new byte[headerLength + payloadSize];
+        frame[0] = (byte) (0x80 | OPCODE_BINARY);
+        if (extendedLength) {
+            frame[1] = (byte) (0x80 | 126);
+            frame[2] = (byte) (payloadSize >>> 8);
+            frame[3] = (byte) payloadSize;
+        } else {
+            frame[1] = (byte) (0x80 | payloadSize);
+        }
+        System.arraycopy(MASK, 0, frame, headerLength - MASK.length, MASK.length);
+        // The payload is all zeros, hence the masked payload is the mask itself.
+        for (int i = 0; i < payloadSize; i++) {
+            frame[headerLength + i] = MASK[i % MASK.length];
+        }
+        return frame;
+    }
+
+    @AfterClass
+    public void cleanUp() throws InterruptedException {
+        proxyConnector.stop();
+        backEndConnector.stop();
+        httpWsConnectorFactory.shutdown();
+    }
+
+    /**
+     * Connects each client to the back end and then either relays the messages or splices the connections.
+     */
+    private class ProxyListener extends NoOpListener {
+
+        @Override
+        public void onHandshake(WebSocketHandshaker webSocketHandshaker) {
+            boolean spliceConnections = splice;
+            WebSocketClientConnectorConfig clientConfig = new WebSocketClientConnectorConfig(
+                    String.format("ws://%s:%d/backend", TestUtil.TEST_HOST, TestUtil.WEBSOCKET_REMOTE_SERVER_PORT));
+            ClientHandshakeFuture clientHandshakeFuture = httpWsConnectorFactory.createWsClientConnector(
+                    clientConfig).connect();
+            clientHandshakeFuture.setWebSocketConnectorListener(new NoOpListener());
+            clientHandshakeFuture.setClientHandshakeListener(new ClientHandshakeListener() {
+                @Override
+                public void onSuccess(WebSocketConnection clientConnection, HttpCarbonResponse response) {
+                    webSocketHandshaker.handshake().setHandshakeListener(new ServerHandshakeListener() {
+                        @Override
+                        public void onSuccess(WebSocketConnection serverConnection) {
+                            peers.put(serverConnection, clientConnection);
+                            if (spliceConnections) {
+                                WebSocketUtil.splice(serverConnection, clientConnection);
+                            } else {
+                                serverConnection.startReadingFrames();
+                            }
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            LOG.error("Error in proxy handshake", t);
+                        }
+                    });
+                }
+
+                @Override
+                public void onError(Throwable t, HttpCarbonResponse response) {
+                    LOG.error("Error while connecting to the back end", t);
+                }
+            });
+        }
+
+        @Override
+        public void onMessage(WebSocketBinaryMessage binaryMessage) {
+            WebSocketConnection peer = peers.get(binaryMessage.getWebSocketConnection());
+            // Spliced connections never get here, as their data frames do not reach the listener.
+            if (peer != null) {
+                peer.pushBinary(binaryMessage.getByteBuffer(), binaryMessage.isFinalFragment());
+            }
+        }
+
+        @Override
+        public void onClose(WebSocketConnection webSocketConnection) {
+            WebSocketConnection peer = peers.remove(webSocketConnection);
+            if (peer != null) {
+                peer.terminateConnection();
+            }
+        }
+    }
+
+    /**
+     * Back end which counts the payload bytes it receives.
+     */
+    private class CountingListener extends NoOpListener {
+
+        @Override
+        public void onHandshake(WebSocketHandshaker webSocketHandshaker) {
+            webSocketHandshaker.handshake().setHandshakeListener(new ServerHandshakeListener() {
+                @Override
+                public void onSuccess(WebSocketConnection webSocketConnection) {
+                    webSocketConnection.startReadingFrames();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    LOG.error("Error in back end handshake", t);
+                }
+            });
+        }
+
+        @Override
+        public void onMessage(WebSocketBinaryMessage binaryMessage) {
+            receivedBytes.addAndGet(binaryMessage.getByteBuffer().remaining());
+        }
+    }
+
+    /**
+     * Ignores every event.
+     */
+    private static class NoOpListener implements WebSocketConnectorListener {
+
+        @Override
+        public void onHandshake(WebSocketHandshaker webSocketHandshaker) {
+        }
+
+        @Override
+        public void onMessage(WebSocketTextMessage textMessage) {
+        }
+
+        @Override
+        public void onMessage(WebSocketBinaryMessage binaryMessage) {
+        }
+
+        @Override
+        public void onMessage(WebSocketControlMessage controlMessage) {
+        }
+
+        @Override
+        public void onMessage(WebSocketCloseMessage closeMessage) {
+        }
+
+        @Override
+        public void onError(WebSocketConnection webSocketConnection, Throwable throwable) {
+            LOG.error("Error in WebSocket connection", throwable);
+        }
+
+        @Override
+        public void onIdleTimeout(WebSocketControlMessage controlMessage) {
+        }
+
+        @Override
+        public void onClose(WebSocketConnection webSocketConnection) {
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.chunkdisable;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.ChunkConfig;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonResponse;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests when the first content of a streamed response reaches the client under {@link ChunkConfig#AUTO}.
+ */
+public class ChunkAutoStreamingServerTestCase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChunkAutoStreamingServerTestCase.class);
+    private static final String FIRST_CONTENT = "first";
+    private static final int REST_LENGTH = 2048;
+
+    private HttpWsConnectorFactory httpWsConnectorFactory;
+    private ServerConnector serverConnector;
+    private HeldStreamingListener listener;
+
+    @Test(description = "By default the first content of a streamed response is sent chunked right away")
+    public void testFirstContentFlushedByDefault() throws IOException, InterruptedException {
+        startServer(new ListenerConfiguration());
+
+        try (Socket socket = sendRequest()) {
+            InputStream inputStream = socket.getInputStream();
+            String headers = readUntil(inputStream, "\r\n\r\n");
+            assertTrue(headers.toLowerCase(Locale.ENGLISH).contains("transfer-encoding: chunked"), headers);
+            // The producer is still holding the rest of the body back
+            readUntil(inputStream, FIRST_CONTENT + "\r\n");
+
+            listener.release.countDown();
+            readUntil(inputStream, "0\r\n\r\n");
+        }
+    }
+
+    @Test(description = "With a chunking threshold the first content is held back until the threshold is reached")
+    public void testFirstContentHeldWithThreshold() throws IOException, InterruptedException {
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setChunkConfig(ChunkConfig.AUTO);
+        listenerConfiguration.setChunkingThreshold(1024);
+        startServer(listenerConfiguration);
+
+        try (Socket socket = sendRequest()) {
+            InputStream inputStream = socket.getInputStream();
+            try {
+                int read = inputStream.read();
+                fail("Response was sent before the chunking threshold was reached: " + read);
+            } catch (SocketTimeoutException e) {
+                // Expected, as the body is buffered until it reaches the threshold
+            }
+
+            listener.release.countDown();
+            String headers = readUntil(inputStream, "\r\n\r\n");
+            assertTrue(headers.toLowerCase(Locale.ENGLISH).contains("transfer-encoding: chunked"), headers);
+            String body = readUntil(inputStream, "0\r\n\r\n");
+            assertTrue(body.contains(FIRST_CONTENT), body);
+        }
+    }
+
+    private void startServer(ListenerConfiguration listenerConfiguration) throws InterruptedException {
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        httpWsConnectorFactory = new DefaultHttpWsConnectorFactory();
+        serverConnector = httpWsConnectorFactory.createServerConnector(
+                new ServerBootstrapConfiguration(new HashMap<>()), listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        listener = new HeldStreamingListener();
+        serverConnectorFuture.setHttpConnectorListener(listener);
+        serverConnectorFuture.sync();
+    }
+
+    private static Socket sendRequest() throws IOException {
+        Socket socket = new Socket(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT);
+        socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(1));
+        OutputStream outputStream = socket.getOutputStream();
+        outputStream.write("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        outputStream.flush();
+        return socket;
+    }
+
+    private static String readUntil(InputStream inputStream, String terminator) throws IOException {
+        StringBuilder received = new StringBuilder();
+        while (received.indexOf(terminator) < 0) {
+            int read = inputStream.read();
+            if (read == -1) {
+                fail("Connection closed before receiving " + terminator.trim() + ": " + received);
+            }
+            received.append((char) read);
+        }
+        return received.toString();
+    }
+
+    @AfterMethod
+    public void cleanUp() throws ServerConnectorException, InterruptedException {
+        listener.release.countDown();
+        serverConnector.stop();
+        httpWsConnectorFactory.shutdown();
+    }
+
+    /**
+     * Streams a response whose first content is written right away, and the rest once the test releases it.
+     */
+    private static class HeldStreamingListener implements HttpConnectorListener {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpRequest) {
+            new Thread(() -> {
+                try {
+                    HttpCarbonMessage httpResponse = new HttpCarbonResponse(
+                            new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+                    httpRequest.respond(httpResponse);
+                    httpResponse.addHttpContent(new DefaultHttpContent(
+                            Unpooled.wrappedBuffer(FIRST_CONTENT.getBytes(StandardCharsets.US_ASCII))));
+                    release.await(10, TimeUnit.SECONDS);
+                    httpResponse.addHttpContent(
+                            new DefaultLastHttpContent(Unpooled.wrappedBuffer(new byte[REST_LENGTH])));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ServerConnectorException e) {
+                    LOG.error("Error occurred while sending the response", e);
+                }
+            }).start();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            LOG.error("Error in the server connector", throwable);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.compression;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.HttpCompressionConfig;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonResponse;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.client.http.HttpClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Tests the compression policy of a listener: size threshold, content types, additional encoders and pre-compressed
+ * responses.
+ */
+public class ServerRespCompressionPolicyTestCase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServerRespCompressionPolicyTestCase.class);
+    private static final String TEST_ENCODING = "x-test";
+
+    private HttpWsConnectorFactory httpWsConnectorFactory;
+    private ServerConnector serverConnector;
+    private byte[] precompressedEntity;
+
+    @BeforeClass
+    public void setUp() throws InterruptedException, IOException {
+        precompressedEntity = gzip(TestUtil.largeEntity.getBytes(StandardCharsets.UTF_8));
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        listenerConfiguration.setServerHeader(TestUtil.TEST_SERVER);
+        HttpCompressionConfig compressionConfig = listenerConfiguration.getHttpCompressionConfig();
+        compressionConfig.setMinResponseSize(1024);
+        compressionConfig.addContentEncoder(TEST_ENCODING, () -> ZlibCodecFactory.newZlibEncoder(ZlibWrapper.GZIP));
+
+        httpWsConnectorFactory = new DefaultHttpWsConnectorFactory();
+        serverConnector = httpWsConnectorFactory.createServerConnector(
+                new ServerBootstrapConfiguration(new HashMap<>()), listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        serverConnectorFuture.setHttpConnectorListener(new ContentTypeListener());
+        serverConnectorFuture.sync();
+    }
+
+    @Test
+    public void testLargeTextResponseIsCompressed() throws IOException {
+        FullHttpResponse response = sendRequest("/text/large", "gzip");
+        assertEquals(response.headers().get(HttpHeaderNames.CONTENT_ENCODING), Constants.ENCODING_GZIP);
+        assertEquals(gunzip(ByteBufUtil.getBytes(response.content())), TestUtil.largeEntity);
+    }
+
+    @Test
+    public void testResponseBelowMinimumSizeIsNotCompressed() {
+        FullHttpResponse response = sendRequest("/text/small", "gzip");
+        assertNull(response.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+        assertEquals(response.content().toString(StandardCharsets.UTF_8), TestUtil.smallEntity);
+    }
+
+    @Test
+    public void testExcludedContentTypeIsNotCompressed() {
+        FullHttpResponse response = sendRequest("/image/large", "gzip, deflate");
+        assertNull(response.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+        assertEquals(response.content().toString(StandardCharsets.UTF_8), TestUtil.largeEntity);
+    }
+
+    @Test
+    public void testAdditionalEncoderIsPreferred() throws IOException {
+        FullHttpResponse response = sendRequest("/text/large", "gzip, " + TEST_ENCODING);
+        assertEquals(response.headers().get(HttpHeaderNames.CONTENT_ENCODING), TEST_ENCODING);
+        assertEquals(gunzip(ByteBufUtil.getBytes(response.content())), TestUtil.largeEntity);
+
+        response = sendRequest("/text/large", "gzip, " + TEST_ENCODING + ";q=0.5");
+        assertEquals(response.headers().get(HttpHeaderNames.CONTENT_ENCODING), Constants.ENCODING_GZIP);
+    }
+
+    @Test
+    public void testPrecompressedResponseIsSentAsItIs() {
+        FullHttpResponse response = sendRequest("/precompressed", "gzip");
+        assertEquals(response.headers().get(HttpHeaderNames.CONTENT_ENCODING), Constants.ENCODING_GZIP);
+        assertEquals(ByteBufUtil.getBytes(response.content()), precompressedEntity);
+
+        response = sendRequest("/precompressed", null);
+        assertEquals(response.headers().get(HttpHeaderNames.CONTENT_ENCODING), Constants.ENCODING_GZIP);
+        assertEquals(ByteBufUtil.getBytes(response.content()), precompressedEntity);
+    }
+
+    private static FullHttpResponse sendRequest(String path, String acceptEncoding) {
+        HttpClient httpClient = new HttpClient(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT);
+        FullHttpRequest httpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, path,
+                                                                 Unpooled.EMPTY_BUFFER);
+        if (acceptEncoding != null) {
+            httpRequest.headers().set(HttpHeaderNames.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return httpClient.sendRequest(httpRequest);
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(content);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String gunzip(byte[] content) throws IOException {
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                decompressed.write(buffer, 0, read);
+            }
+        }
+        return new String(decompressed.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException, InterruptedException {
+        serverConnector.stop();
+        httpWsConnectorFactory.shutdown();
+    }
+
+    /**
+     * Responds with a body and content type chosen by the request path.
+     */
+    private class ContentTypeListener implements HttpConnectorListener {
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpRequest) {
+            String path = (String) httpRequest.getProperty(Constants.TO);
+            HttpCarbonMessage httpResponse = new HttpCarbonResponse(
+                    new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+            byte[] entity;
+            if (path.startsWith("/precompressed")) {
+                entity = precompressedEntity;
+                httpResponse.setHeader(HttpHeaderNames.CONTENT_TYPE.toString(), "text/plain");
+                httpResponse.setHeader(HttpHeaderNames.CONTENT_ENCODING.toString(), Constants.ENCODING_GZIP);
+                httpResponse.setProperty(Constants.PRECOMPRESSED_CONTENT, Boolean.TRUE);
+            } else {
+                String entityString = path.endsWith("/small") ? TestUtil.smallEntity : TestUtil.largeEntity;
+                entity = entityString.getBytes(StandardCharsets.UTF_8);
+                httpResponse.setHeader(HttpHeaderNames.CONTENT_TYPE.toString(),
+                                       path.startsWith("/image") ? "image/png" : "text/plain; charset=utf-8");
+            }
+            httpResponse.setHeader(HttpHeaderNames.CONTENT_LENGTH.toString(), String.valueOf(entity.length));
+            httpResponse.addHttpContent(new DefaultLastHttpContent(Unpooled.wrappedBuffer(entity)));
+            try {
+                httpRequest.respond(httpResponse);
+            } catch (ServerConnectorException e) {
+                LOG.error("Error occurred while sending the response", e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            LOG.error("Error in the server connector", throwable);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.connectionpool;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.ConcurrencyLimitExceededException;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.AdaptiveConcurrencyLimiter;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.ConcurrencyLimitConfiguration;
+import org.wso2.transport.http.netty.util.DefaultHttpConnectorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.server.HttpServer;
+import org.wso2.transport.http.netty.util.server.initializers.SendChannelIDServerInitializer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the adaptive concurrency limit of outbound requests.
+ */
+public class AdaptiveConcurrencyLimitTestCase {
+
+    private HttpServer httpServer;
+    private HttpClientConnector httpClientConnector;
+    private HttpWsConnectorFactory connectorFactory;
+
+    @BeforeClass
+    public void setup() {
+        // The first request to the backend is delayed, which keeps its concurrency slot occupied
+        httpServer = TestUtil.startHTTPServer(TestUtil.HTTP_SERVER_PORT, new SendChannelIDServerInitializer(3000));
+
+        connectorFactory = new DefaultHttpWsConnectorFactory();
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        ConcurrencyLimitConfiguration limitConfiguration =
+                senderConfiguration.getPoolConfiguration().getConcurrencyLimitConfiguration();
+        limitConfiguration.setEnabled(true);
+        limitConfiguration.setInitialLimit(1);
+        limitConfiguration.setMinLimit(1);
+        limitConfiguration.setMaxLimit(1);
+        httpClientConnector = connectorFactory.createHttpClientConnector(new HashMap<>(), senderConfiguration);
+    }
+
+    @Test
+    public void testFailFastWhenLimitReached() throws InterruptedException {
+        int noOfRequests = 3;
+        List<CountDownLatch> latches = new ArrayList<>();
+        List<DefaultHttpConnectorListener> listeners = new ArrayList<>();
+        for (int i = 0; i < noOfRequests; i++) {
+            CountDownLatch latch = new CountDownLatch(1);
+            latches.add(latch);
+            listeners.add(TestUtil.sendRequestAsync(latch, httpClientConnector));
+        }
+        for (CountDownLatch latch : latches) {
+            latch.await(10, TimeUnit.SECONDS);
+        }
+
+        int rejected = 0;
+        for (DefaultHttpConnectorListener listener : listeners) {
+            Throwable error = listener.getHttpErrorMessage();
+            if (error != null) {
+                Assert.assertTrue(error instanceof ConcurrencyLimitExceededException);
+                Assert.assertEquals(((ConcurrencyLimitExceededException) error).getHttpStatusCode(),
+                                    HttpResponseStatus.SERVICE_UNAVAILABLE.code());
+                rejected++;
+            } else {
+                Assert.assertNotNull(listener.getHttpResponseMessage());
+            }
+        }
+        Assert.assertEquals(rejected, noOfRequests - 1);
+
+        // Once the slow request completes the slot is available again
+        CountDownLatch latch = new CountDownLatch(1);
+        DefaultHttpConnectorListener listener = TestUtil.sendRequestAsync(latch, httpClientConnector);
+        latch.await(10, TimeUnit.SECONDS);
+        Assert.assertNull(listener.getHttpErrorMessage());
+        Assert.assertNotNull(listener.getHttpResponseMessage());
+    }
+
+    @Test
+    public void testLimitAdaptation() {
+        ConcurrencyLimitConfiguration limitConfiguration = new ConcurrencyLimitConfiguration();
+        limitConfiguration.setInitialLimit(10);
+        limitConfiguration.setMinLimit(1);
+        limitConfiguration.setMaxLimit(20);
+        limitConfiguration.setBackoffRatio(0.5);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test-route", limitConfiguration);
+
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            permits.add(limiter.tryAcquire());
+        }
+        // More than half of the limit was in use, hence the limit grows
+        permits.get(5).onResponse(HttpResponseStatus.OK.code());
+        Assert.assertEquals(limiter.getLimit(), 11);
+        // A completed permit is not counted twice
+        permits.get(5).onResponse(HttpResponseStatus.OK.code());
+        Assert.assertEquals(limiter.getLimit(), 11);
+
+        permits.get(4).onResponse(HttpResponseStatus.SERVICE_UNAVAILABLE.code());
+        Assert.assertEquals(limiter.getLimit(), 5);
+        permits.get(3).onError();
+        Assert.assertEquals(limiter.getLimit(), 2);
+        Assert.assertEquals(limiter.getInFlightRequests(), 3);
+
+        Assert.assertNull(limiter.tryAcquire());
+        Assert.assertEquals(limiter.getRejectedRequestCount(), 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidConfiguration() {
+        ConcurrencyLimitConfiguration limitConfiguration = new ConcurrencyLimitConfiguration();
+        limitConfiguration.setBackoffRatio(1.5);
+        new AdaptiveConcurrencyLimiter("test-route", limitConfiguration);
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException, InterruptedException {
+        TestUtil.cleanUp(new ArrayList<>(), httpServer);
+        connectorFactory.shutdown();
+    }
+}
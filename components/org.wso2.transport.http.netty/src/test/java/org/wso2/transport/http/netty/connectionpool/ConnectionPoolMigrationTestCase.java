@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.connectionpool;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.ConnectionManager;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.ConnectionPoolMetrics;
+import org.wso2.transport.http.netty.passthrough.PassthroughMessageProcessorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.server.HttpServer;
+import org.wso2.transport.http.netty.util.server.initializers.SendChannelIDServerInitializer;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.HashMap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests that the backend connections of a closed inbound connection are reused by the next inbound connection
+ * served by the same event loop.
+ */
+public class ConnectionPoolMigrationTestCase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPoolMigrationTestCase.class);
+
+    private HttpWsConnectorFactory httpWsConnectorFactory;
+    private ServerConnector serverConnector;
+    private HttpServer httpServer;
+    private ConnectionManager connectionManager;
+
+    @BeforeClass
+    public void setup() throws InterruptedException {
+        httpServer = TestUtil.startHTTPServer(TestUtil.HTTP_SERVER_PORT, new SendChannelIDServerInitializer(0));
+
+        // A single worker thread makes both inbound connections share the event loop
+        httpWsConnectorFactory = new DefaultHttpWsConnectorFactory(1, 1, 1);
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        serverConnector = httpWsConnectorFactory
+                .createServerConnector(new ServerBootstrapConfiguration(new HashMap<>()), listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        connectionManager = new ConnectionManager(senderConfiguration.getPoolConfiguration());
+        serverConnectorFuture.setHttpConnectorListener(
+                new PassthroughMessageProcessorListener(senderConfiguration, connectionManager));
+        serverConnectorFuture.sync();
+    }
+
+    @Test
+    public void testBackendConnectionReuseAfterClientDisconnect() throws IOException, InterruptedException {
+        String firstChannelId = sendRequestAndClose();
+        // Let the server side of the first inbound connection close before the next one is opened
+        Thread.sleep(500);
+        String secondChannelId = sendRequestAndClose();
+
+        assertEquals(secondChannelId, firstChannelId);
+        ConnectionPoolMetrics poolMetrics = connectionManager.getPoolMetrics();
+        assertEquals(poolMetrics.getNewConnectionCount(), 1);
+        assertTrue(poolMetrics.getReusedConnectionCount() >= 1);
+        assertTrue(poolMetrics.getMigratedConnectionCount() >= 1);
+    }
+
+    private static String sendRequestAndClose() throws IOException {
+        URI baseURI = URI.create(String.format("http://%s:%d", "localhost", TestUtil.SERVER_CONNECTOR_PORT));
+        HttpURLConnection urlConn = TestUtil.request(baseURI, "/", HttpMethod.POST.name(), false);
+        urlConn.getOutputStream().write(TestUtil.smallEntity.getBytes());
+        String response = TestUtil.getContent(urlConn);
+        urlConn.disconnect();
+        return response;
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException {
+        try {
+            serverConnector.stop();
+            httpServer.shutdown();
+            httpWsConnectorFactory.shutdown();
+        } catch (Exception e) {
+            LOG.warn("Interrupted while shutting down the test", e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.connectionpool;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.ConnectionWarmUpFuture;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contract.HttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contract.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.ConnectionManager;
+import org.wso2.transport.http.netty.util.DefaultHttpConnectorListener;
+import org.wso2.transport.http.netty.util.TestUtil;
+import org.wso2.transport.http.netty.util.server.HttpServer;
+import org.wso2.transport.http.netty.util.server.initializers.SendChannelIDServerInitializer;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests connection warm up and the minimum idle connections of a route.
+ */
+public class ConnectionWarmUpTestCase {
+
+    private HttpServer httpServer;
+    private HttpWsConnectorFactory connectorFactory;
+
+    @BeforeClass
+    public void setup() {
+        httpServer = TestUtil.startHTTPServer(TestUtil.HTTP_SERVER_PORT, new SendChannelIDServerInitializer(0));
+        connectorFactory = new DefaultHttpWsConnectorFactory();
+    }
+
+    @Test
+    public void testWarmUpConnections() throws InterruptedException {
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        ConnectionManager connectionManager = new ConnectionManager(senderConfiguration.getPoolConfiguration());
+        HttpClientConnector httpClientConnector = connectorFactory.createHttpClientConnector(
+                new HashMap<>(), senderConfiguration, connectionManager);
+
+        ConnectionWarmUpFuture warmUpFuture = httpClientConnector.warmUp(Collections.singletonList(
+                new InetSocketAddress(TestUtil.TEST_HOST, TestUtil.HTTP_SERVER_PORT)), 2);
+        AtomicInteger notifiedConnections = new AtomicInteger();
+        CountDownLatch listenerLatch = new CountDownLatch(1);
+        warmUpFuture.setConnectionWarmUpListener((established, failed) -> {
+            notifiedConnections.set(established);
+            listenerLatch.countDown();
+        });
+        warmUpFuture.sync();
+        listenerLatch.await(10, TimeUnit.SECONDS);
+
+        assertEquals(warmUpFuture.getEstablishedConnectionCount(), 2);
+        assertEquals(warmUpFuture.getFailedConnectionCount(), 0);
+        assertEquals(notifiedConnections.get(), 2);
+
+        // The request is served by a warmed up connection
+        CountDownLatch latch = new CountDownLatch(1);
+        DefaultHttpConnectorListener responseListener = TestUtil.sendRequestAsync(latch, httpClientConnector);
+        latch.await(10, TimeUnit.SECONDS);
+        assertNotNull(responseListener.getHttpResponseMessage());
+        assertEquals(connectionManager.getPoolMetrics().getNewConnectionCount(), 2);
+    }
+
+    @Test
+    public void testWarmUpFailure() throws InterruptedException {
+        HttpClientConnector httpClientConnector = connectorFactory.createHttpClientConnector(
+                new HashMap<>(), new SenderConfiguration());
+        ConnectionWarmUpFuture warmUpFuture = httpClientConnector.warmUp(Collections.singletonList(
+                new InetSocketAddress(TestUtil.TEST_HOST, TestUtil.SERVER_PORT3)), 2);
+        warmUpFuture.sync();
+
+        assertEquals(warmUpFuture.getEstablishedConnectionCount(), 0);
+        assertEquals(warmUpFuture.getFailedConnectionCount(), 2);
+    }
+
+    @Test
+    public void testMinIdleConnectionsKeptByEviction() throws InterruptedException {
+        SenderConfiguration senderConfiguration = new SenderConfiguration();
+        senderConfiguration.getPoolConfiguration().setMinIdlePerPool(2);
+        senderConfiguration.getPoolConfiguration().setTimeBetweenEvictionRuns(100);
+        ConnectionManager connectionManager = new ConnectionManager(senderConfiguration.getPoolConfiguration());
+        HttpClientConnector httpClientConnector = connectorFactory.createHttpClientConnector(
+                new HashMap<>(), senderConfiguration, connectionManager);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        DefaultHttpConnectorListener responseListener = TestUtil.sendRequestAsync(latch, httpClientConnector);
+        latch.await(10, TimeUnit.SECONDS);
+        assertNotNull(responseListener.getHttpResponseMessage());
+
+        // The eviction task tops the idle connections of the route up to the minimum
+        Thread.sleep(1000);
+        assertTrue(connectionManager.getPoolMetrics().getNewConnectionCount() >= 2);
+    }
+
+    @AfterClass
+    public void cleanUp() {
+        TestUtil.cleanUp(new ArrayList<>(), httpServer, connectorFactory);
+    }
+}
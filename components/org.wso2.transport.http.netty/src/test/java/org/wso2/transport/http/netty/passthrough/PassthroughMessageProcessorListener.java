@@ -71,6 +71,14 @@ public class PassthroughMessageProcessorListener implements HttpConnectorListene
         }
     }
 
+    public PassthroughMessageProcessorListener(SenderConfiguration senderConfiguration,
+                                               ConnectionManager connectionManager) {
+        this.httpWsConnectorFactory = new DefaultHttpWsConnectorFactory();
+        this.senderConfiguration = senderConfiguration;
+        this.shareConnectionPool = true;
+        this.connectionManager = connectionManager;
+    }
+
     @Override
     public void onMessage(HttpCarbonMessage httpRequestMessage) {
         executor.execute(() -> {
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.pipeline;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonResponse;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests that the optional handlers of the server pipeline are only added once a request needs them, and that the
+ * requests of the connection are processed through them from then on.
+ */
+public class LazyPipelineAssemblyTestCase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LazyPipelineAssemblyTestCase.class);
+    private static final int MAX_ENTITY_BODY_SIZE = 1024;
+
+    private DefaultHttpWsConnectorFactory httpConnectorFactory;
+    private ServerConnector serverConnector;
+    private PipelineRecordingListener listener;
+
+    @BeforeClass
+    public void setup() throws InterruptedException {
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        listenerConfiguration.getRequestSizeValidationConfig().setMaxEntityBodySize(MAX_ENTITY_BODY_SIZE);
+        httpConnectorFactory = new DefaultHttpWsConnectorFactory();
+        serverConnector = httpConnectorFactory.createServerConnector(new ServerBootstrapConfiguration(new HashMap<>()),
+                                                                     listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        listener = new PipelineRecordingListener();
+        serverConnectorFuture.setHttpConnectorListener(listener);
+        serverConnectorFuture.sync();
+    }
+
+    @Test(description = "Test the deferred handlers are added to the connection when a request first needs them")
+    public void testHandlersAddedOnFirstNeed() throws IOException, InterruptedException {
+        try (Socket socket = new Socket(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT)) {
+            socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(10));
+            OutputStream outputStream = socket.getOutputStream();
+            InputStream inputStream = socket.getInputStream();
+
+            // Neither a body nor an accepted encoding, hence nothing is added
+            write(outputStream, "GET / HTTP/1.1\r\nHost: localhost\r\n\r\n");
+            assertEquals(readResponseBody(inputStream), "");
+            List<String> handlers = listener.nextPipeline();
+            assertTrue(handlers.contains(Constants.LAZY_PIPELINE_ASSEMBLER), handlers.toString());
+            assertFalse(handlers.contains(Constants.HTTP_COMPRESSOR), handlers.toString());
+            assertFalse(handlers.contains(Constants.MAX_ENTITY_BODY_VALIDATOR), handlers.toString());
+            assertFalse(handlers.contains(Constants.HTTP_CHUNK_WRITER), handlers.toString());
+            assertFalse(handlers.contains(Constants.WEBSOCKET_SERVER_HANDSHAKE_HANDLER), handlers.toString());
+
+            write(outputStream, "POST / HTTP/1.1\r\nHost: localhost\r\nAccept-Encoding: identity\r\n"
+                    + "Content-Length: 5\r\n\r\nhello");
+            assertEquals(readResponseBody(inputStream), "hello");
+            handlers = listener.nextPipeline();
+            assertTrue(handlers.contains(Constants.HTTP_COMPRESSOR), handlers.toString());
+            assertTrue(handlers.contains(Constants.MAX_ENTITY_BODY_VALIDATOR), handlers.toString());
+            assertFalse(handlers.contains(Constants.WEBSOCKET_SERVER_HANDSHAKE_HANDLER), handlers.toString());
+
+            // Once added the handlers stay, and the validator now guards the bodies of the connection
+            write(outputStream, "POST / HTTP/1.1\r\nHost: localhost\r\nContent-Length: 5\r\n\r\nagain");
+            assertEquals(readResponseBody(inputStream), "again");
+            handlers = listener.nextPipeline();
+            assertTrue(handlers.contains(Constants.HTTP_COMPRESSOR), handlers.toString());
+            assertTrue(handlers.contains(Constants.MAX_ENTITY_BODY_VALIDATOR), handlers.toString());
+
+            write(outputStream, "POST / HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + (MAX_ENTITY_BODY_SIZE + 1)
+                    + "\r\n\r\n" + new String(new char[MAX_ENTITY_BODY_SIZE + 1]).replace('\0', 'a'));
+            String statusLine = readUntil(inputStream, "\r\n");
+            assertTrue(statusLine.contains(String.valueOf(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE.code())),
+                       statusLine);
+        }
+    }
+
+    private static void write(OutputStream outputStream, String request) throws IOException {
+        outputStream.write(request.getBytes(StandardCharsets.US_ASCII));
+        outputStream.flush();
+    }
+
+    private static String readResponseBody(InputStream inputStream) throws IOException {
+        String headers = readUntil(inputStream, "\r\n\r\n");
+        assertTrue(headers.startsWith("HTTP/1.1 200"), headers);
+        String contentLengthHeader = HttpHeaderNames.CONTENT_LENGTH + ": ";
+        int start = headers.toLowerCase(Locale.ENGLISH).indexOf(contentLengthHeader);
+        assertTrue(start >= 0, headers);
+        start += contentLengthHeader.length();
+        int contentLength = Integer.parseInt(headers.substring(start, headers.indexOf("\r\n", start)).trim());
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < contentLength; i++) {
+            int read = inputStream.read();
+            if (read == -1) {
+                fail("Connection closed before receiving the body: " + body);
+            }
+            body.append((char) read);
+        }
+        return body.toString();
+    }
+
+    private static String readUntil(InputStream inputStream, String terminator) throws IOException {
+        StringBuilder received = new StringBuilder();
+        while (received.indexOf(terminator) < 0) {
+            int read = inputStream.read();
+            if (read == -1) {
+                fail("Connection closed before receiving " + terminator.trim() + ": " + received);
+            }
+            received.append((char) read);
+        }
+        return received.toString();
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException, InterruptedException {
+        serverConnector.stop();
+        httpConnectorFactory.shutdown();
+        listener.executor.shutdownNow();
+    }
+
+    /**
+     * Records the handlers in the pipeline of the connection of each request, and echoes the request body.
+     */
+    private static class PipelineRecordingListener implements HttpConnectorListener {
+
+        private final BlockingQueue<List<String>> pipelines = new LinkedBlockingQueue<>();
+        private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpRequest) {
+            pipelines.add(httpRequest.getSourceContext().pipeline().names());
+            executor.execute(() -> {
+                try {
+                    ByteBuf body = Unpooled.buffer();
+                    HttpContent httpContent;
+                    do {
+                        httpContent = httpRequest.getHttpContent();
+                        body.writeBytes(httpContent.content());
+                        httpContent.release();
+                    } while (!(httpContent instanceof LastHttpContent));
+
+                    HttpCarbonMessage httpResponse = new HttpCarbonResponse(
+                            new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+                    httpResponse.setHeader(HttpHeaderNames.CONTENT_LENGTH.toString(),
+                                           String.valueOf(body.readableBytes()));
+                    httpResponse.addHttpContent(new DefaultLastHttpContent(body));
+                    httpRequest.respond(httpResponse);
+                } catch (ServerConnectorException e) {
+                    LOG.error("Error occurred while sending the response", e);
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            LOG.error("Error in the server connector", throwable);
+        }
+
+        private List<String> nextPipeline() throws InterruptedException {
+            List<String> handlers = pipelines.poll(10, TimeUnit.SECONDS);
+            assertNotNull(handlers, "No request reached the listener");
+            return handlers;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.sse;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.util.CharsetUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorException;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contract.sse.ServerSentEvent;
+import org.wso2.transport.http.netty.contract.sse.ServerSentEventBroadcaster;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the encoding of Server-Sent Events and their fan-out to many subscribers.
+ */
+public class ServerSentEventTestCase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServerSentEventTestCase.class);
+    private static final int SUBSCRIBERS = 5;
+    private static final byte[] REQUEST = ("GET /events HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private DefaultHttpWsConnectorFactory httpWsConnectorFactory;
+    private ServerConnector serverConnector;
+    private ServerSentEventBroadcaster broadcaster;
+
+    @BeforeClass
+    public void setUp() throws InterruptedException {
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        httpWsConnectorFactory = new DefaultHttpWsConnectorFactory();
+        broadcaster = httpWsConnectorFactory.createServerSentEventBroadcaster(100);
+        serverConnector = httpWsConnectorFactory.createServerConnector(
+                new ServerBootstrapConfiguration(new HashMap<>()), listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        serverConnectorFuture.setHttpConnectorListener(new SubscribingListener(broadcaster));
+        serverConnectorFuture.sync();
+    }
+
+    @Test
+    public void testEventEncoding() {
+        ServerSentEvent event = new ServerSentEvent("first\nsecond");
+        event.setId("42");
+        event.setEvent("update");
+        event.setRetryInMillis(1000);
+        ByteBuf encoded = event.encode(UnpooledByteBufAllocator.DEFAULT);
+        try {
+            assertEquals(encoded.toString(CharsetUtil.UTF_8),
+                         "id: 42\nevent: update\nretry: 1000\ndata: first\ndata: second\n\n");
+        } finally {
+            encoded.release();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMultilineIdRejected() {
+        new ServerSentEvent("data").setId("4\n2");
+    }
+
+    @Test
+    public void testBroadcastReachesAllSubscribers() throws IOException, InterruptedException {
+        List<Socket> sockets = new ArrayList<>(SUBSCRIBERS);
+        try {
+            List<BufferedReader> readers = new ArrayList<>(SUBSCRIBERS);
+            for (int i = 0; i < SUBSCRIBERS; i++) {
+                Socket socket = new Socket(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT);
+                socket.setSoTimeout(10000);
+                sockets.add(socket);
+                OutputStream outputStream = socket.getOutputStream();
+                outputStream.write(REQUEST);
+                outputStream.flush();
+                readers.add(new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                                                                     StandardCharsets.UTF_8)));
+            }
+            for (BufferedReader reader : readers) {
+                assertEquals(reader.readLine(), "HTTP/1.1 200 OK");
+            }
+            while (broadcaster.getSubscriberCount() < SUBSCRIBERS) {
+                Thread.sleep(10);
+            }
+
+            for (int i = 0; i < 3; i++) {
+                ServerSentEvent event = new ServerSentEvent("event-" + i);
+                event.setId(Integer.toString(i));
+                broadcaster.broadcast(event);
+            }
+            for (BufferedReader reader : readers) {
+                assertTrue(readUntil(reader, "content-type: text/event-stream"));
+                for (int i = 0; i < 3; i++) {
+                    assertTrue(readUntil(reader, "id: " + i));
+                    assertEquals(reader.readLine(), "data: event-" + i);
+                }
+                // The heartbeat keeps the stream alive while there are no events
+                assertTrue(readUntil(reader, ":"));
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+        long deadline = System.currentTimeMillis() + 10000;
+        while (broadcaster.getSubscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(broadcaster.getSubscriberCount(), 0);
+    }
+
+    private static boolean readUntil(BufferedReader reader, String expectedLine) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.equalsIgnoreCase(expectedLine)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @AfterClass
+    public void cleanUp() throws ServerConnectorException, InterruptedException {
+        broadcaster.close();
+        serverConnector.stop();
+        httpWsConnectorFactory.shutdown();
+    }
+
+    /**
+     * Subscribes every request to the broadcaster.
+     */
+    private static class SubscribingListener implements HttpConnectorListener {
+
+        private final ServerSentEventBroadcaster broadcaster;
+
+        SubscribingListener(ServerSentEventBroadcaster broadcaster) {
+            this.broadcaster = broadcaster;
+        }
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpRequest) {
+            try {
+                broadcaster.subscribe(httpRequest);
+            } catch (ServerConnectorException e) {
+                LOG.error("Error occurred while subscribing", e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            LOG.error("Error in the server connector", throwable);
+        }
+    }
+}
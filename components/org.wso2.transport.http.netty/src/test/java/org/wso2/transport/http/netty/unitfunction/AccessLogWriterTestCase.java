@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.unitfunction;
+
+import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.EventExecutor;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.config.AccessLogConfig;
+import org.wso2.transport.http.netty.contract.config.AccessLogOverflowPolicy;
+import org.wso2.transport.http.netty.contractimpl.listener.accesslog.AccessLogWriter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A unit test class for the buffering and the overflow policies of contractimpl/listener/accesslog/AccessLogWriter.
+ */
+public class AccessLogWriterTestCase {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    @Test(description = "Test records beyond the buffer capacity are dropped and counted")
+    public void testDropWhenBufferIsFull() throws InterruptedException {
+        AccessLogWriter writer = new AccessLogWriter(newConfig(2, AccessLogOverflowPolicy.DROP, 1));
+        logRecords(writer, 5);
+        Assert.assertEquals(writer.getPendingRecordCount(), 2);
+        Assert.assertEquals(writer.getDroppedRecordCount(), 3);
+
+        writer.start();
+        try {
+            awaitWrittenRecords(writer, 2);
+            logRecords(writer, 2);
+            awaitWrittenRecords(writer, 4);
+            Assert.assertEquals(writer.getDroppedRecordCount(), 3);
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test(description = "Test the caller waits for a free slot when the buffer is full")
+    public void testBlockWhenBufferIsFull() throws Exception {
+        AccessLogWriter writer = new AccessLogWriter(newConfig(2, AccessLogOverflowPolicy.BLOCK, 1));
+        CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> logRecords(writer, 5));
+        Thread.sleep(200);
+        Assert.assertFalse(producer.isDone());
+        Assert.assertEquals(writer.getPendingRecordCount(), 2);
+
+        writer.start();
+        try {
+            producer.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            awaitWrittenRecords(writer, 5);
+            Assert.assertEquals(writer.getDroppedRecordCount(), 0);
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test(description = "Test an event loop does not wait for a free slot even when the caller is to block")
+    public void testEventLoopDoesNotBlockWhenBufferIsFull() throws Exception {
+        AccessLogWriter writer = new AccessLogWriter(newConfig(2, AccessLogOverflowPolicy.BLOCK, 1));
+        EventExecutor eventLoop = new DefaultEventExecutor();
+        try {
+            eventLoop.submit(() -> logRecords(writer, 5)).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            Assert.assertEquals(writer.getPendingRecordCount(), 2);
+            Assert.assertEquals(writer.getDroppedRecordCount(), 3);
+        } finally {
+            eventLoop.shutdownGracefully();
+        }
+    }
+
+    @Test(description = "Test records are sampled once the buffer is half full")
+    public void testSampleWhenBufferIsUnderPressure() {
+        AccessLogWriter writer = new AccessLogWriter(newConfig(8, AccessLogOverflowPolicy.SAMPLE,
+                                                               Integer.MAX_VALUE));
+        logRecords(writer, 20);
+        Assert.assertEquals(writer.getPendingRecordCount(), 4);
+        Assert.assertEquals(writer.getDroppedRecordCount(), 16);
+    }
+
+    @Test(description = "Test a buffer without capacity is rejected",
+          expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBufferSize() {
+        new AccessLogWriter(newConfig(0, AccessLogOverflowPolicy.DROP, 1));
+    }
+
+    private static AccessLogConfig newConfig(int bufferSize, AccessLogOverflowPolicy overflowPolicy,
+                                             int sampleRate) {
+        AccessLogConfig config = new AccessLogConfig();
+        config.setBufferSize(bufferSize);
+        config.setOverflowPolicy(overflowPolicy);
+        config.setSampleRate(sampleRate);
+        return config;
+    }
+
+    private static void logRecords(AccessLogWriter writer, int count) {
+        for (int i = 0; i < count; i++) {
+            writer.log("127.0.0.1", System.currentTimeMillis(), "GET", "/" + i, "HTTP/1.1", 200, 0, "-", "-");
+        }
+    }
+
+    private static void awaitWrittenRecords(AccessLogWriter writer, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (writer.getWrittenRecordCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(writer.getWrittenRecordCount(), count);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.unitfunction;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.config.ServerBootstrapConfiguration;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.BootstrapConfiguration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A unit test class for the buffer allocator and socket options of the server and client bootstrap configurations.
+ */
+public class BootstrapChannelOptionsTestCase {
+
+    @Test(description = "Test the defaults keep Netty's allocators and water marks")
+    public void testDefaults() {
+        ServerBootstrapConfiguration serverConfig = new ServerBootstrapConfiguration(new HashMap<>());
+        Assert.assertSame(serverConfig.getByteBufAllocator(), ByteBufAllocator.DEFAULT);
+        Assert.assertTrue(serverConfig.getRecvByteBufAllocator() instanceof AdaptiveRecvByteBufAllocator);
+        Assert.assertNull(serverConfig.getWriteBufferWaterMark());
+        Assert.assertEquals(serverConfig.getSoLinger(), -1);
+        Assert.assertEquals(serverConfig.getTcpFastOpen(), 0);
+        Assert.assertFalse(serverConfig.isTcpQuickAck());
+
+        BootstrapConfiguration clientConfig = new BootstrapConfiguration(new HashMap<>());
+        Assert.assertSame(clientConfig.getByteBufAllocator(), ByteBufAllocator.DEFAULT);
+        Assert.assertNull(clientConfig.getWriteBufferWaterMark());
+        Assert.assertFalse(clientConfig.isTcpFastOpen());
+    }
+
+    @Test(description = "Test the configured allocators, water marks and socket options are picked")
+    public void testConfiguredOptions() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(Constants.SERVER_BOOTSTRAP_ALLOCATOR, "pooled");
+        properties.put(Constants.SERVER_BOOTSTRAP_ALLOCATOR_PREFER_DIRECT, false);
+        properties.put(Constants.SERVER_BOOTSTRAP_RECEIVE_ALLOCATOR, "fixed");
+        properties.put(Constants.SERVER_BOOTSTRAP_RECEIVE_BUFFER_INITIAL, 2048);
+        properties.put(Constants.SERVER_BOOTSTRAP_WRITE_BUFFER_LOW_MARK, 8192);
+        properties.put(Constants.SERVER_BOOTSTRAP_WRITE_BUFFER_HIGH_MARK, 16384);
+        properties.put(Constants.SERVER_BOOTSTRAP_SO_LINGER, 0);
+        properties.put(Constants.SERVER_BOOTSTRAP_TCP_FASTOPEN, 256);
+        ServerBootstrapConfiguration serverConfig = new ServerBootstrapConfiguration(properties);
+
+        Assert.assertTrue(serverConfig.getByteBufAllocator() instanceof PooledByteBufAllocator);
+        ByteBuf buffer = serverConfig.getByteBufAllocator().buffer();
+        try {
+            Assert.assertFalse(buffer.isDirect());
+        } finally {
+            buffer.release();
+        }
+        Assert.assertTrue(serverConfig.getRecvByteBufAllocator() instanceof FixedRecvByteBufAllocator);
+        Assert.assertEquals(serverConfig.getWriteBufferWaterMark().low(), 8192);
+        Assert.assertEquals(serverConfig.getWriteBufferWaterMark().high(), 16384);
+        Assert.assertEquals(serverConfig.getSoLinger(), 0);
+        Assert.assertEquals(serverConfig.getTcpFastOpen(), 256);
+
+        Map<String, Object> clientProperties = new HashMap<>();
+        clientProperties.put(Constants.CLIENT_BOOTSTRAP_ALLOCATOR, "unpooled");
+        clientProperties.put(Constants.CLIENT_BOOTSTRAP_TCP_FASTOPEN, true);
+        BootstrapConfiguration clientConfig = new BootstrapConfiguration(clientProperties);
+        Assert.assertTrue(clientConfig.getByteBufAllocator() instanceof UnpooledByteBufAllocator);
+        Assert.assertTrue(clientConfig.isTcpFastOpen());
+    }
+
+    @Test(description = "Test an unknown allocator type is rejected",
+          expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidAllocator() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(Constants.CLIENT_BOOTSTRAP_ALLOCATOR, "arena");
+        new BootstrapConfiguration(properties);
+    }
+
+    @Test(description = "Test receive buffer sizes out of order are rejected",
+          expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidReceiveBufferSizes() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(Constants.SERVER_BOOTSTRAP_RECEIVE_BUFFER_MINIMUM, 4096);
+        properties.put(Constants.SERVER_BOOTSTRAP_RECEIVE_BUFFER_INITIAL, 1024);
+        new ServerBootstrapConfiguration(properties);
+    }
+
+    @Test(description = "Test a high water mark below the low water mark is rejected",
+          expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidWaterMarks() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(Constants.SERVER_BOOTSTRAP_WRITE_BUFFER_LOW_MARK, 65536);
+        properties.put(Constants.SERVER_BOOTSTRAP_WRITE_BUFFER_HIGH_MARK, 1024);
+        new ServerBootstrapConfiguration(properties);
+    }
+
+    @Test(description = "Test a negative socket linger other than -1 is rejected",
+          expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSoLinger() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(Constants.CLIENT_BOOTSTRAP_SO_LINGER, -5);
+        new BootstrapConfiguration(properties);
+    }
+}
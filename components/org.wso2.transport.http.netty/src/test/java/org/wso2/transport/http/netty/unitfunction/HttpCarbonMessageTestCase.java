@@ -18,6 +18,27 @@
 
 package org.wso2.transport.http.netty.unitfunction;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
 /**
  * A unit test class for message/HttpCarbonMessage functions.
  */
@@ -59,4 +80,134 @@ public class HttpCarbonMessageTestCase {
 //        Assert.assertEquals(clonedMsg.getHeaders().getAll("aaa").get(0), "123");
 //        Assert.assertEquals(clonedMsg.getHeaders().getAll("aaa").get(1), "xyz");
 //    }
+
+    @Test(description = "Test that a single chunk body is read back as added")
+    public void readSingleChunkBody() {
+        HttpCarbonMessage message = newMessage();
+        message.addHttpContent(new DefaultLastHttpContent(content("single")));
+
+        Assert.assertFalse(message.isEmpty());
+        Assert.assertEquals(message.getFullMessageLength(), 6);
+        HttpContent httpContent = message.getHttpContent();
+        Assert.assertTrue(httpContent instanceof LastHttpContent);
+        Assert.assertEquals(httpContent.content().toString(StandardCharsets.UTF_8), "single");
+        httpContent.release();
+        Assert.assertTrue(message.isEmpty());
+    }
+
+    @Test(description = "Test that chunks are read back in the order they were added")
+    public void readMultipleChunksInOrder() {
+        HttpCarbonMessage message = newMessage();
+        message.addHttpContent(new DefaultHttpContent(content("a")));
+        message.addHttpContent(new DefaultHttpContent(content("bb")));
+
+        Assert.assertEquals(readContent(message), "a");
+        message.addHttpContent(new DefaultHttpContent(content("ccc")));
+        message.addHttpContent(new DefaultLastHttpContent(content("dddd")));
+
+        Assert.assertEquals(message.countMessageLengthTill(3), 5);
+        Assert.assertEquals(readContent(message), "bb");
+        Assert.assertEquals(readContent(message), "ccc");
+        Assert.assertEquals(readContent(message), "dddd");
+        Assert.assertTrue(message.isEmpty());
+    }
+
+    @Test(description = "Test that the response futures are created once and shared")
+    public void getResponseFutures() {
+        HttpCarbonMessage message = newMessage();
+
+        Assert.assertSame(message.getHttpResponseFuture(), message.getHttpResponseFuture());
+        Assert.assertSame(message.getHttpOutboundRespStatusFuture(), message.getHttpOutboundRespStatusFuture());
+    }
+
+    @Test(description = "Test properties of a message which has none set")
+    public void getPropertiesOfMessageWithoutProperties() {
+        HttpCarbonMessage message = newMessage();
+
+        Assert.assertNull(message.getProperty("key"));
+        message.removeProperty("key");
+        Assert.assertTrue(message.getProperties().isEmpty());
+        message.setProperty("key", "value");
+        Assert.assertEquals(message.getProperty("key"), "value");
+    }
+
+    @Test(description = "Test that inbound properties are derived from the connection when asked for")
+    public void getDerivedProperties() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ChannelHandlerContext ctx = channel.pipeline().firstContext();
+        HttpCarbonRequest request = newInboundRequest(ctx);
+        // The request line is derived as received, even when the request is modified afterwards
+        request.setHttpMethod(HttpMethod.PUT);
+
+        Assert.assertSame(request.getProperty(Constants.CHNL_HNDLR_CTX), ctx);
+        Assert.assertEquals(request.getProperty(Constants.HTTP_METHOD), "POST");
+        Assert.assertEquals(request.getProperty(Constants.HTTP_VERSION), "1.1");
+        Assert.assertEquals(request.getProperty(Constants.REQUEST_URL), "/path");
+        Assert.assertEquals(request.getProperty(Constants.PROTOCOL), Constants.HTTP_SCHEME);
+        Assert.assertSame(request.getProperty(Constants.POOLED_BYTE_BUFFER_FACTORY),
+                          request.getProperty(Constants.POOLED_BYTE_BUFFER_FACTORY));
+        Assert.assertNull(request.getProperty(null));
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Test that explicitly set properties take precedence over derived ones")
+    public void setDerivedProperty() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        HttpCarbonRequest request = newInboundRequest(channel.pipeline().firstContext());
+
+        request.setProperty(Constants.HTTP_METHOD, "GET");
+        Assert.assertEquals(request.getProperty(Constants.HTTP_METHOD), "GET");
+        Assert.assertEquals(request.getProperties().get(Constants.HTTP_METHOD), "GET");
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Test that a removed derived property is no longer derived")
+    public void removeDerivedProperty() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        HttpCarbonRequest request = newInboundRequest(channel.pipeline().firstContext());
+
+        request.removeProperty(Constants.REQUEST_URL);
+        Assert.assertNull(request.getProperty(Constants.REQUEST_URL));
+        Assert.assertNull(request.getProperties().get(Constants.REQUEST_URL));
+        Assert.assertEquals(request.getProperty(Constants.TO), "/path");
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Test that the properties map holds the derived properties")
+    public void getPropertiesWithDerivedProperties() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ChannelHandlerContext ctx = channel.pipeline().firstContext();
+        HttpCarbonRequest request = newInboundRequest(ctx);
+        request.setProperty("key", "value");
+
+        Map<String, Object> properties = request.getProperties();
+        Assert.assertEquals(properties.get("key"), "value");
+        Assert.assertSame(properties.get(Constants.CHNL_HNDLR_CTX), ctx);
+        Assert.assertEquals(properties.get(Constants.HTTP_METHOD), "POST");
+        Assert.assertEquals(properties.get(Constants.REQUEST_URL), "/path");
+        Assert.assertTrue(properties.containsKey(Constants.REMOTE_ADDRESS));
+        channel.finishAndReleaseAll();
+    }
+
+    private static HttpCarbonRequest newInboundRequest(ChannelHandlerContext ctx) {
+        HttpCarbonRequest request = new HttpCarbonRequest(
+                new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/path"));
+        request.setInboundConnection(ctx, null);
+        return request;
+    }
+
+    private static HttpCarbonMessage newMessage() {
+        return new HttpCarbonMessage(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"));
+    }
+
+    private static ByteBuf content(String value) {
+        return Unpooled.wrappedBuffer(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readContent(HttpCarbonMessage message) {
+        HttpContent httpContent = message.getHttpContent();
+        String value = httpContent.content().toString(StandardCharsets.UTF_8);
+        httpContent.release();
+        return value;
+    }
 }
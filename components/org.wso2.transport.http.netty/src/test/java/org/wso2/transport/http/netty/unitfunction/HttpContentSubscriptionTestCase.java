@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.unitfunction;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.message.DefaultListener;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpContentSubscriber;
+import org.wso2.transport.http.netty.message.HttpContentSubscription;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A unit test class for the demand-driven content subscription of message/HttpCarbonMessage.
+ */
+public class HttpContentSubscriptionTestCase {
+
+    @Test(description = "Test content delivered on demand with reading paused while there is no demand")
+    public void testDemandControlsDeliveryAndReading() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        HttpCarbonMessage message = new HttpCarbonMessage(
+                new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"),
+                new DefaultListener(channel.pipeline().firstContext()));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        message.subscribe(subscriber);
+
+        message.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("first", StandardCharsets.UTF_8)));
+        Assert.assertTrue(subscriber.contents.isEmpty());
+        Assert.assertFalse(channel.config().isAutoRead());
+
+        subscriber.subscription.request(1);
+        Assert.assertEquals(subscriber.contents, listOf("first"));
+        Assert.assertFalse(channel.config().isAutoRead());
+
+        LastHttpContent lastContent = new DefaultLastHttpContent(
+                Unpooled.copiedBuffer("last", StandardCharsets.UTF_8));
+        lastContent.trailingHeaders().add("checksum", "abc");
+        message.addHttpContent(lastContent);
+        Assert.assertEquals(subscriber.contents, listOf("first"));
+        Assert.assertNull(subscriber.trailingHeaders);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        Assert.assertEquals(subscriber.contents, listOf("first", "last"));
+        Assert.assertEquals(subscriber.trailingHeaders.get("checksum"), "abc");
+        Assert.assertTrue(channel.config().isAutoRead());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Test resuming reads one chunk at a time and no more chunks than requested are delivered")
+    public void testResumeReadsInLineWithDemand() {
+        ReadCounter readCounter = new ReadCounter();
+        EmbeddedChannel channel = new EmbeddedChannel(readCounter, new ChannelInboundHandlerAdapter());
+        HttpCarbonMessage message = new HttpCarbonMessage(
+                new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"),
+                new DefaultListener(channel.pipeline().context(readCounter)));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        message.subscribe(subscriber);
+        subscriber.subscription.request(2);
+
+        message.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("first", StandardCharsets.UTF_8)));
+        message.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("second", StandardCharsets.UTF_8)));
+        Assert.assertEquals(subscriber.contents, listOf("first", "second"));
+
+        // A chunk already in flight is held, and nothing more is read while there is no demand
+        int readsWhenPaused = readCounter.reads;
+        message.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("third", StandardCharsets.UTF_8)));
+        Assert.assertEquals(subscriber.contents, listOf("first", "second"));
+        Assert.assertEquals(readCounter.reads, readsWhenPaused);
+
+        subscriber.subscription.request(1);
+        Assert.assertEquals(subscriber.contents, listOf("first", "second", "third"));
+        Assert.assertEquals(readCounter.reads, readsWhenPaused + 1);
+        Assert.assertFalse(channel.config().isAutoRead());
+
+        message.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("fourth", StandardCharsets.UTF_8)));
+        Assert.assertEquals(subscriber.contents, listOf("first", "second", "third"));
+        Assert.assertFalse(channel.config().isAutoRead());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Test a failed message notified without demand and releasing the held content")
+    public void testFailureNotifiedWithoutDemand() {
+        HttpCarbonMessage message = new HttpCarbonMessage(
+                new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"));
+        ByteBuf held = Unpooled.copiedBuffer("held", StandardCharsets.UTF_8);
+        message.addHttpContent(new DefaultHttpContent(held));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        message.subscribe(subscriber);
+
+        LastHttpContent failedContent = new DefaultLastHttpContent();
+        failedContent.setDecoderResult(DecoderResult.failure(new DecoderException("closed")));
+        message.addHttpContent(failedContent);
+        Assert.assertTrue(subscriber.contents.isEmpty());
+        Assert.assertTrue(subscriber.error instanceof DecoderException);
+        Assert.assertEquals(held.refCnt(), 0);
+    }
+
+    @Test(description = "Test a failure after the delivered content")
+    public void testFailureAfterContent() {
+        HttpCarbonMessage message = new HttpCarbonMessage(
+                new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        message.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        message.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("first", StandardCharsets.UTF_8)));
+
+        LastHttpContent failedContent = new DefaultLastHttpContent();
+        failedContent.setDecoderResult(DecoderResult.failure(new DecoderException("closed")));
+        message.addHttpContent(failedContent);
+        Assert.assertEquals(subscriber.contents, listOf("first"));
+        Assert.assertTrue(subscriber.error instanceof DecoderException);
+        Assert.assertNull(subscriber.trailingHeaders);
+    }
+
+    private static List<String> listOf(String... values) {
+        List<String> list = new ArrayList<>();
+        for (String value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    /**
+     * Counts the reads issued on the connection.
+     */
+    private static class ReadCounter extends ChannelOutboundHandlerAdapter {
+
+        private int reads;
+
+        @Override
+        public void read(ChannelHandlerContext ctx) {
+            reads++;
+            ctx.read();
+        }
+    }
+
+    /**
+     * Records what the subscription delivers.
+     */
+    private static class RecordingSubscriber implements HttpContentSubscriber {
+
+        private HttpContentSubscription subscription;
+        private final List<String> contents = new ArrayList<>();
+        private HttpHeaders trailingHeaders;
+        private Throwable error;
+
+        @Override
+        public void onSubscribe(HttpContentSubscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onContent(ByteBuf content) {
+            contents.add(content.toString(StandardCharsets.UTF_8));
+            content.release();
+        }
+
+        @Override
+        public void onComplete(HttpHeaders trailingHeaders) {
+            this.trailingHeaders = trailingHeaders;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+    }
+}
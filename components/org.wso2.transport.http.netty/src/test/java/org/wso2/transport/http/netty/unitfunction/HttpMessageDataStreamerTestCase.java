@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.unitfunction;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpMessageDataStreamer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A unit test class for the bulk operations of the message/HttpMessageDataStreamer streams.
+ */
+public class HttpMessageDataStreamerTestCase {
+
+    @Test(description = "Test bulk reads spanning chunks and releasing each chunk once consumed")
+    public void testBulkReadAcrossChunks() throws IOException {
+        ByteBuf first = Unpooled.wrappedBuffer(new byte[]{1, 2, 3});
+        ByteBuf last = Unpooled.wrappedBuffer(new byte[]{4, 5});
+        HttpCarbonMessage message = newMessage();
+        message.addHttpContent(new DefaultHttpContent(first));
+        message.addHttpContent(new DefaultLastHttpContent(last));
+        InputStream inputStream = new HttpMessageDataStreamer(message).getInputStream();
+
+        byte[] bytes = new byte[8];
+        Assert.assertEquals(inputStream.read(bytes, 0, 2), 2);
+        Assert.assertEquals(inputStream.available(), 1);
+        Assert.assertEquals(inputStream.read(bytes, 2, 6), 1);
+        Assert.assertEquals(first.refCnt(), 0);
+        Assert.assertEquals(inputStream.read(bytes, 3, 5), 2);
+        Assert.assertEquals(last.refCnt(), 0);
+        Assert.assertEquals(inputStream.read(bytes, 5, 3), -1);
+        Assert.assertEquals(inputStream.read(), -1);
+        Assert.assertEquals(bytes, new byte[]{1, 2, 3, 4, 5, 0, 0, 0});
+    }
+
+    @Test(description = "Test skipping and transferring the content of a message")
+    public void testSkipAndTransfer() throws IOException {
+        HttpCarbonMessage message = newMessage();
+        message.addHttpContent(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[]{1, 2, 3})));
+        message.addHttpContent(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[]{4, 5, 6})));
+        message.addHttpContent(new DefaultLastHttpContent(Unpooled.wrappedBuffer(new byte[]{7})));
+        HttpMessageDataStreamer dataStreamer = new HttpMessageDataStreamer(message);
+        InputStream inputStream = dataStreamer.getInputStream();
+
+        Assert.assertEquals(inputStream.skip(4), 4);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long transferred = ((HttpMessageDataStreamer.ByteBufferInputStream) inputStream).transferTo(outputStream);
+        Assert.assertEquals(transferred, 3);
+        Assert.assertEquals(outputStream.toByteArray(), new byte[]{5, 6, 7});
+        Assert.assertEquals(inputStream.skip(1), 0);
+    }
+
+    @Test(description = "Test bulk writes filling each chunk before the next is added")
+    public void testBulkWriteChunking() {
+        HttpCarbonMessage message = newMessage();
+        OutputStream outputStream = new HttpMessageDataStreamer(message).getOutputStream();
+        byte[] payload = new byte[20000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        outputStream.write(payload, 0, 10000);
+        outputStream.write(payload[10000]);
+        outputStream.write(payload, 10001, payload.length - 10001);
+        outputStream.close();
+
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        int chunks = 0;
+        HttpContent httpContent;
+        do {
+            httpContent = message.getHttpContent();
+            ByteBuf content = httpContent.content();
+            byte[] bytes = new byte[content.readableBytes()];
+            content.readBytes(bytes);
+            written.write(bytes, 0, bytes.length);
+            httpContent.release();
+            chunks++;
+        } while (!(httpContent instanceof LastHttpContent));
+        Assert.assertEquals(chunks, 3);
+        Assert.assertEquals(written.toByteArray(), payload);
+    }
+
+    private static HttpCarbonMessage newMessage() {
+        return new HttpCarbonMessage(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.unitfunction;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.config.InboundBufferConfig;
+import org.wso2.transport.http.netty.contractimpl.common.memory.InboundMemoryAccountant;
+import org.wso2.transport.http.netty.message.DefaultListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A unit test class for the transport wide accounting of inbound content in
+ * contractimpl/common/memory/InboundMemoryAccountant.
+ */
+public class InboundMemoryAccountantTestCase {
+
+    @Test(description = "Test the largest holders are paused over the budget and resumed once it recovers")
+    public void testPauseAndResume() {
+        InboundMemoryAccountant accountant = new InboundMemoryAccountant(100);
+        AtomicInteger smallPauses = new AtomicInteger();
+        AtomicInteger largePauses = new AtomicInteger();
+        AtomicInteger largeResumes = new AtomicInteger();
+        InboundMemoryAccountant.Account small = accountant.newAccount(smallPauses::incrementAndGet, () -> { });
+        InboundMemoryAccountant.Account large = accountant.newAccount(largePauses::incrementAndGet,
+                                                                      largeResumes::incrementAndGet);
+
+        small.allocate(30);
+        large.allocate(60);
+        Assert.assertEquals(accountant.getBufferedBytes(), 90);
+        Assert.assertEquals(accountant.getPausedAccountCount(), 0);
+
+        large.allocate(20);
+        Assert.assertTrue(large.isPaused());
+        Assert.assertFalse(small.isPaused());
+        Assert.assertEquals(largePauses.get(), 1);
+        Assert.assertEquals(smallPauses.get(), 0);
+        Assert.assertEquals(accountant.getBudgetPauseCount(), 1);
+        Assert.assertEquals(accountant.getPeakBufferedBytes(), 110);
+
+        large.release(15);
+        Assert.assertTrue(large.isPaused());
+        large.release(10);
+        Assert.assertFalse(large.isPaused());
+        Assert.assertEquals(largeResumes.get(), 1);
+        Assert.assertEquals(accountant.getPausedAccountCount(), 0);
+    }
+
+    @Test(description = "Test the accounts are looked through again only once the total grew by another step")
+    public void testPressureReliefIsRateLimited() {
+        // A step of 100 bytes
+        InboundMemoryAccountant accountant = new InboundMemoryAccountant(6400);
+        InboundMemoryAccountant.Account[] accounts = new InboundMemoryAccountant.Account[20];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = accountant.newAccount(() -> { }, () -> { });
+            accounts[i].allocate(300);
+        }
+        InboundMemoryAccountant.Account growing = accountant.newAccount(() -> { }, () -> { });
+        growing.allocate(350);
+        growing.allocate(60);
+        Assert.assertTrue(growing.isPaused());
+
+        // Still over the resume threshold, so the next look waits until the total reaches 6510 bytes
+        growing.release(400);
+        accounts[0].allocate(450);
+        Assert.assertEquals(accountant.getBufferedBytes(), 6460);
+        Assert.assertFalse(accounts[0].isPaused());
+
+        accounts[0].allocate(60);
+        Assert.assertTrue(accounts[0].isPaused());
+        Assert.assertEquals(accountant.getPausedAccountCount(), 2);
+    }
+
+    @Test(description = "Test closing an account releases what it still holds")
+    public void testCloseReleasesRemainingBytes() {
+        InboundMemoryAccountant accountant = new InboundMemoryAccountant(1000);
+        InboundMemoryAccountant.Account account = accountant.newAccount(() -> { }, () -> { });
+        account.allocate(40);
+        account.release(10);
+        Assert.assertEquals(accountant.getAccountCount(), 1);
+
+        account.close();
+        account.release(30);
+        Assert.assertEquals(accountant.getBufferedBytes(), 0);
+        Assert.assertEquals(accountant.getAccountCount(), 0);
+    }
+
+    @Test(description = "Test the listener accounts the content of a message until it is consumed")
+    public void testListenerAccountsContent() {
+        InboundMemoryAccountant accountant = new InboundMemoryAccountant(1000);
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ChannelHandlerContext ctx = channel.pipeline().firstContext();
+        DefaultListener listener = new DefaultListener(ctx, new InboundBufferConfig(), accountant);
+
+        HttpContent first = new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[100]));
+        HttpContent last = new DefaultLastHttpContent(Unpooled.wrappedBuffer(new byte[50]));
+        listener.onAdd(first);
+        listener.onAdd(last);
+        Assert.assertEquals(accountant.getBufferedBytes(), 150);
+        Assert.assertTrue(channel.config().isAutoRead());
+
+        listener.onRemove(first);
+        Assert.assertEquals(accountant.getBufferedBytes(), 50);
+        listener.onRemove(last);
+        Assert.assertEquals(accountant.getBufferedBytes(), 0);
+        Assert.assertEquals(accountant.getAccountCount(), 0);
+
+        first.release();
+        last.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Test closing the connection releases the content accounted by its messages")
+    public void testChannelCloseReleasesAccount() {
+        InboundMemoryAccountant accountant = new InboundMemoryAccountant(1000);
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        DefaultListener listener = new DefaultListener(channel.pipeline().firstContext(), new InboundBufferConfig(),
+                                                       accountant);
+        HttpContent content = new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[64]));
+        listener.onAdd(content);
+        Assert.assertEquals(accountant.getBufferedBytes(), 64);
+
+        channel.close();
+        Assert.assertEquals(accountant.getBufferedBytes(), 0);
+        Assert.assertEquals(accountant.getAccountCount(), 0);
+        content.release();
+    }
+
+    @Test(description = "Test a low water mark above the high water mark is rejected",
+          expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidWaterMarks() {
+        InboundBufferConfig config = new InboundBufferConfig();
+        config.setHighWaterMark(1024);
+        config.setLowWaterMark(2048);
+        DefaultListener.validate(config);
+    }
+
+    @Test(description = "Test a budget that is not positive is rejected",
+          expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBudget() {
+        new InboundMemoryAccountant(0);
+    }
+}
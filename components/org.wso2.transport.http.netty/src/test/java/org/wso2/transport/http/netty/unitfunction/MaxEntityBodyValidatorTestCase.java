@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.unitfunction;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.ReferenceCountUtil;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contractimpl.listener.MaxEntityBodyValidator;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+/**
+ * A unit test class for the entity body size validation of requests that stream their content.
+ */
+public class MaxEntityBodyValidatorTestCase {
+
+    private static final int MAX_ENTITY_BODY_SIZE = 16;
+
+    @Test(description = "Test a chunked body exceeding the limit after dispatch is answered with 413 and closed")
+    public void testChunkedBodyExceedingLimitAfterDispatch() {
+        EmbeddedChannel channel = createChannel();
+        HttpRequest request = createChunkedRequest();
+        channel.writeInbound(request);
+        Assert.assertSame(channel.readInbound(), request);
+        channel.writeInbound(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[MAX_ENTITY_BODY_SIZE / 2])));
+        releaseInbound(channel.readInbound());
+
+        channel.writeInbound(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[MAX_ENTITY_BODY_SIZE])));
+        Assert.assertNull(channel.readInbound());
+        HttpResponse response = channel.readOutbound();
+        Assert.assertEquals(response.status(), HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE);
+        Assert.assertEquals(response.headers().get(HttpHeaderNames.CONNECTION), Constants.CONNECTION_CLOSE);
+        Assert.assertEquals(response.headers().get(HttpHeaderNames.SERVER), TestUtil.TEST_SERVER);
+        Assert.assertFalse(channel.isOpen());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Test the connection is only closed when the application has already started its response")
+    public void testBodyExceedingLimitAfterResponseStarted() {
+        EmbeddedChannel channel = createChannel();
+        HttpRequest request = createChunkedRequest();
+        channel.writeInbound(request);
+        Assert.assertSame(channel.readInbound(), request);
+        HttpResponse applicationResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        channel.writeOutbound(applicationResponse);
+
+        channel.writeInbound(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[MAX_ENTITY_BODY_SIZE + 1])));
+        Assert.assertNull(channel.readInbound());
+        Assert.assertSame(channel.readOutbound(), applicationResponse);
+        Assert.assertNull(channel.readOutbound());
+        Assert.assertFalse(channel.isOpen());
+        channel.finishAndReleaseAll();
+    }
+
+    private static EmbeddedChannel createChannel() {
+        return new EmbeddedChannel(new MaxEntityBodyValidator(TestUtil.TEST_SERVER, MAX_ENTITY_BODY_SIZE));
+    }
+
+    private static HttpRequest createChunkedRequest() {
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/");
+        request.headers().set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+        return request;
+    }
+
+    private static void releaseInbound(Object msg) {
+        Assert.assertNotNull(msg);
+        ReferenceCountUtil.release(msg);
+    }
+}
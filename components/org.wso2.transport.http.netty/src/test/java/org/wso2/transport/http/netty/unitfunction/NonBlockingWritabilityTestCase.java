@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.unitfunction;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contractimpl.common.ChannelWritability;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+import org.wso2.transport.http.netty.message.HttpCarbonResponse;
+import org.wso2.transport.http.netty.message.HttpMessageDataStreamer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A unit test class for the non-blocking outbound writability of HttpCarbonMessage.
+ */
+public class NonBlockingWritabilityTestCase {
+
+    @Test(description = "Test a message which is not yet bound to a connection is writable")
+    public void testUnboundMessageIsWritable() {
+        HttpCarbonMessage message = createResponse();
+        Assert.assertTrue(message.isWritable());
+        Assert.assertTrue(message.whenWritable().isDone());
+        CompletableFuture<Void> future = message.addHttpContentAsync(LastHttpContent.EMPTY_LAST_CONTENT);
+        Assert.assertTrue(future.isDone());
+        Assert.assertFalse(future.isCompletedExceptionally());
+    }
+
+    @Test(description = "Test the future completes once the channel becomes writable again")
+    public void testFutureCompletesOnWritable() {
+        EmbeddedChannel channel = createChannel();
+        HttpCarbonMessage message = createResponse();
+        message.setOutboundWritability(new ChannelWritability(channel));
+
+        channel.write(Unpooled.wrappedBuffer(new byte[32]));
+        Assert.assertFalse(message.isWritable());
+        CompletableFuture<Void> future = message.whenWritable();
+        channel.runPendingTasks();
+        Assert.assertFalse(future.isDone());
+
+        channel.flush();
+        channel.runPendingTasks();
+        Assert.assertTrue(message.isWritable());
+        Assert.assertTrue(future.isDone());
+        releaseOutbound(channel);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Test a waiting producer is released when the channel closes")
+    public void testFutureCompletesOnClose() {
+        EmbeddedChannel channel = createChannel();
+        HttpCarbonMessage message = createResponse();
+        message.setOutboundWritability(new ChannelWritability(channel));
+
+        channel.write(Unpooled.wrappedBuffer(new byte[32]));
+        CompletableFuture<Void> future = message.whenWritable();
+        channel.runPendingTasks();
+        Assert.assertFalse(future.isDone());
+
+        channel.close();
+        channel.runPendingTasks();
+        Assert.assertTrue(future.isDone());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Test flushAsync hands the buffered bytes of the output stream to the message")
+    public void testFlushAsyncAddsBufferedContent() throws IOException {
+        HttpCarbonMessage message = createResponse();
+        HttpMessageDataStreamer streamer = new HttpMessageDataStreamer(message);
+        OutputStream outputStream = streamer.getOutputStream();
+        outputStream.write(new byte[10]);
+        Assert.assertTrue(message.isEmpty());
+
+        Assert.assertTrue(streamer.flushAsync().isDone());
+        HttpContent httpContent = message.getHttpContent();
+        Assert.assertEquals(httpContent.content().readableBytes(), 10);
+        httpContent.release();
+
+        outputStream.close();
+        Assert.assertTrue(message.getHttpContent() instanceof LastHttpContent);
+    }
+
+    private static EmbeddedChannel createChannel() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(8, 16));
+        return channel;
+    }
+
+    private static HttpCarbonMessage createResponse() {
+        return new HttpCarbonResponse(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+    }
+
+    private static void releaseOutbound(EmbeddedChannel channel) {
+        ByteBuf outbound;
+        while ((outbound = channel.readOutbound()) != null) {
+            ReferenceCountUtil.release(outbound);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.unitfunction;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.config.TraceLogConfig;
+import org.wso2.transport.http.netty.contractimpl.common.tracelog.TraceLogSampler;
+
+/**
+ * A unit test class for the connection and request sampling of contractimpl/common/tracelog/TraceLogSampler.
+ */
+public class TraceLogSamplerTestCase {
+
+    @Test(description = "Test every connection is traced with the default configuration")
+    public void testDefaultConfigTracesAllConnections() {
+        TraceLogSampler sampler = new TraceLogSampler(new TraceLogConfig());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(sampler.isSampled(new EmbeddedChannel()));
+        }
+        Assert.assertFalse(sampler.hasRequestFilter());
+    }
+
+    @Test(description = "Test one in every N connections is traced and the decision sticks to the connection")
+    public void testConnectionSampleRate() {
+        TraceLogConfig config = new TraceLogConfig();
+        config.setConnectionSampleRate(3);
+        TraceLogSampler sampler = new TraceLogSampler(config);
+
+        int sampledCount = 0;
+        for (int i = 0; i < 9; i++) {
+            EmbeddedChannel channel = new EmbeddedChannel();
+            boolean sampled = sampler.isSampled(channel);
+            Assert.assertEquals(sampler.isSampled(channel), sampled);
+            if (sampled) {
+                sampledCount++;
+            }
+        }
+        Assert.assertEquals(sampledCount, 3);
+    }
+
+    @Test(description = "Test no connection is traced when the sampling percentage is zero")
+    public void testZeroSamplingPercentage() {
+        TraceLogConfig config = new TraceLogConfig();
+        config.setSamplingPercentage(0);
+        TraceLogSampler sampler = new TraceLogSampler(config);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertFalse(sampler.isSampled(new EmbeddedChannel()));
+        }
+    }
+
+    @Test(description = "Test requests are matched against the configured header and URI prefix")
+    public void testRequestFilter() {
+        TraceLogConfig config = new TraceLogConfig();
+        config.setSampleHeaderName("x-trace");
+        config.setSampleHeaderValue("on");
+        config.setSampleUriPrefix("/orders");
+        TraceLogSampler sampler = new TraceLogSampler(config);
+        Assert.assertTrue(sampler.hasRequestFilter());
+
+        Assert.assertTrue(sampler.matches(newRequest("/orders/1", "ON")));
+        Assert.assertFalse(sampler.matches(newRequest("/orders/1", "off")));
+        Assert.assertFalse(sampler.matches(newRequest("/orders/1", null)));
+        Assert.assertFalse(sampler.matches(newRequest("/customers/1", "on")));
+    }
+
+    @Test(description = "Test invalid sampling configuration is rejected",
+          expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidConnectionSampleRate() {
+        TraceLogConfig config = new TraceLogConfig();
+        config.setConnectionSampleRate(0);
+        new TraceLogSampler(config);
+    }
+
+    @Test(description = "Test a sampling percentage above 100 is rejected",
+          expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSamplingPercentage() {
+        TraceLogConfig config = new TraceLogConfig();
+        config.setSamplingPercentage(101);
+        new TraceLogSampler(config);
+    }
+
+    private static HttpRequest newRequest(String uri, String headerValue) {
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+        if (headerValue != null) {
+            request.headers().set("x-trace", headerValue);
+        }
+        return request;
+    }
+}
@@ -18,12 +18,32 @@
 
 package org.wso2.transport.http.netty.websocket;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import org.junit.Assert;
 import org.testng.annotations.Test;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketBinaryMessage;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketBufferMode;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketFragmentWriter;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketFrameType;
+import org.wso2.transport.http.netty.contractimpl.listener.MessageQueueHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.DefaultWebSocketConnectorFuture;
+import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketInboundFrameHandler;
+import org.wso2.transport.http.netty.contractimpl.websocket.WebSocketUtil;
 import org.wso2.transport.http.netty.contractimpl.websocket.message.DefaultWebSocketBinaryMessage;
 
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Unit test for WebSocket.
@@ -40,4 +60,217 @@ public class WebSocketUnitTestCase {
         Assert.assertArrayEquals(textByteArray, binaryMessage.getByteArray());
     }
 
+    @Test(description = "Payload of a retained-buffer message is released once the callback returns.")
+    public void testRetainedBinaryMessageReleasedAfterCallback() {
+        byte[] textByteArray = "Hello World!".getBytes();
+        ByteBuf content = Unpooled.directBuffer().writeBytes(textByteArray);
+        DefaultWebSocketBinaryMessage binaryMessage = new DefaultWebSocketBinaryMessage(content, true);
+
+        Assert.assertTrue(binaryMessage.getByteBuffer().isReadOnly());
+        Assert.assertArrayEquals(textByteArray, binaryMessage.getByteArray());
+        Assert.assertEquals(textByteArray.length, binaryMessage.getByteBuffer().remaining());
+        binaryMessage.releaseIfNotRetained();
+        Assert.assertEquals(0, content.refCnt());
+    }
+
+    @Test(description = "Payload of a retained-buffer message is kept until the listener releases it.")
+    public void testRetainedBinaryMessageKeptWhenListenerRetains() {
+        ByteBuf content = Unpooled.directBuffer().writeBytes("Hello World!".getBytes());
+        DefaultWebSocketBinaryMessage binaryMessage = new DefaultWebSocketBinaryMessage(content, true);
+
+        binaryMessage.retain();
+        binaryMessage.releaseIfNotRetained();
+        Assert.assertEquals(1, content.refCnt());
+        binaryMessage.release();
+        binaryMessage.release();
+        Assert.assertEquals(0, content.refCnt());
+    }
+
+    @Test(description = "Frames are delivered against the requested demand and autoRead follows the demand.")
+    public void testFramesDeliveredAgainstDemand() {
+        MessageQueueHandler messageQueueHandler = new MessageQueueHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(messageQueueHandler);
+        channel.config().setAutoRead(false);
+        channel.writeInbound(new TextWebSocketFrame("1"), new TextWebSocketFrame("2"), new TextWebSocketFrame("3"));
+        Assert.assertNull(channel.readInbound());
+
+        messageQueueHandler.requestFrames(2);
+        assertTextFrame(channel.readInbound(), "1");
+        assertTextFrame(channel.readInbound(), "2");
+        Assert.assertNull(channel.readInbound());
+        Assert.assertFalse(channel.config().isAutoRead());
+
+        messageQueueHandler.requestFrames(2);
+        assertTextFrame(channel.readInbound(), "3");
+        Assert.assertTrue(channel.config().isAutoRead());
+        channel.writeInbound(new TextWebSocketFrame("4"));
+        assertTextFrame(channel.readInbound(), "4");
+        Assert.assertFalse(channel.config().isAutoRead());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Frames pushed in the same event loop turn are flushed together.")
+    public void testPushedFramesFlushedTogether() {
+        WebSocketInboundFrameHandler frameHandler = newFrameHandler();
+        EmbeddedChannel channel = newChannel(frameHandler);
+        WebSocketConnection webSocketConnection = frameHandler.getWebSocketConnection();
+        webSocketConnection.pushText("1");
+        webSocketConnection.pushText("2");
+        Assert.assertNull(channel.readOutbound());
+
+        channel.runPendingTasks();
+        assertTextFrame(channel.readOutbound(), "1");
+        assertTextFrame(channel.readOutbound(), "2");
+        Assert.assertNull(channel.readOutbound());
+        webSocketConnection.terminateConnection();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "The connection is not writable beyond the high water mark until the frames are flushed.")
+    public void testWritabilityFollowsWaterMarks() {
+        WebSocketInboundFrameHandler frameHandler = newFrameHandler();
+        EmbeddedChannel channel = newChannel(frameHandler);
+        WebSocketConnection webSocketConnection = frameHandler.getWebSocketConnection();
+        webSocketConnection.setWriteBufferWaterMark(8, 16);
+        Assert.assertTrue(webSocketConnection.isWritable());
+
+        webSocketConnection.pushBinary(ByteBuffer.wrap(new byte[32]));
+        Assert.assertFalse(webSocketConnection.isWritable());
+        AtomicBoolean writable = new AtomicBoolean();
+        webSocketConnection.onWritable(() -> writable.set(true));
+        Assert.assertFalse(writable.get());
+
+        channel.runPendingTasks();
+        Assert.assertTrue(writable.get());
+        Assert.assertTrue(webSocketConnection.isWritable());
+        Object frame = channel.readOutbound();
+        Assert.assertTrue(frame instanceof BinaryWebSocketFrame);
+        ((BinaryWebSocketFrame) frame).release();
+        webSocketConnection.terminateConnection();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Every producer waiting for writability resumes, also when the connection closes.")
+    public void testWritabilityCallbacksQueued() {
+        WebSocketInboundFrameHandler frameHandler = newFrameHandler();
+        EmbeddedChannel channel = newChannel(frameHandler);
+        WebSocketConnection webSocketConnection = frameHandler.getWebSocketConnection();
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        Assert.assertFalse(webSocketConnection.isWritable());
+
+        AtomicInteger resumedProducers = new AtomicInteger();
+        webSocketConnection.onWritable(resumedProducers::incrementAndGet);
+        webSocketConnection.onWritable(resumedProducers::incrementAndGet);
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, true);
+        Assert.assertEquals(2, resumedProducers.get());
+
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        webSocketConnection.onWritable(resumedProducers::incrementAndGet);
+        webSocketConnection.terminateConnection();
+        Assert.assertEquals(3, resumedProducers.get());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Data frames of a spliced connection are forwarded and reading pauses with the peer.")
+    public void testSplicedFramesForwardedWithBackPressure() {
+        WebSocketInboundFrameHandler serverFrameHandler = newFrameHandler();
+        WebSocketInboundFrameHandler clientFrameHandler = newFrameHandler();
+        EmbeddedChannel serverChannel = newChannel(serverFrameHandler);
+        EmbeddedChannel clientChannel = newChannel(clientFrameHandler);
+        WebSocketConnection serverConnection = serverFrameHandler.getWebSocketConnection();
+        WebSocketConnection clientConnection = clientFrameHandler.getWebSocketConnection();
+        WebSocketUtil.splice(serverConnection, clientConnection);
+        clientChannel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+
+        BinaryWebSocketFrame frame = new BinaryWebSocketFrame(Unpooled.wrappedBuffer(new byte[32]));
+        serverChannel.writeInbound(frame);
+        Assert.assertSame(frame, clientChannel.readOutbound());
+        Assert.assertFalse(serverChannel.config().isAutoRead());
+
+        // A frame already read while the peer is not writable waits until the peer is writable again
+        BinaryWebSocketFrame pendingFrame = new BinaryWebSocketFrame(Unpooled.wrappedBuffer(new byte[4]));
+        serverChannel.writeInbound(pendingFrame);
+        Assert.assertNull(clientChannel.readOutbound());
+
+        clientChannel.unsafe().outboundBuffer().setUserDefinedWritability(1, true);
+        Assert.assertSame(pendingFrame, clientChannel.readOutbound());
+        Assert.assertTrue(serverChannel.config().isAutoRead());
+        frame.release();
+        pendingFrame.release();
+        serverConnection.terminateConnection();
+        clientConnection.terminateConnection();
+        serverChannel.finishAndReleaseAll();
+        clientChannel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Fragments are sent as one data frame followed by continuation frames, up to the final one.")
+    public void testFragmentWriterFrameTypes() {
+        WebSocketInboundFrameHandler frameHandler = newFrameHandler();
+        EmbeddedChannel channel = newChannel(frameHandler);
+        WebSocketConnection webSocketConnection = frameHandler.getWebSocketConnection();
+        WebSocketFragmentWriter writer = webSocketConnection.createFragmentWriter(WebSocketFrameType.TEXT);
+        writer.write(ByteBuffer.wrap("Hello ".getBytes()), false);
+        writer.write(ByteBuffer.wrap("World!".getBytes()), true);
+        Assert.assertTrue(writer.isComplete());
+        try {
+            writer.write(ByteBuffer.wrap("!".getBytes()), true);
+            Assert.fail("A fragment was accepted after the final fragment");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        WebSocketFrame first = channel.readOutbound();
+        Assert.assertTrue(first instanceof TextWebSocketFrame);
+        Assert.assertFalse(first.isFinalFragment());
+        first.release();
+        WebSocketFrame last = channel.readOutbound();
+        Assert.assertTrue(last instanceof ContinuationWebSocketFrame);
+        Assert.assertTrue(last.isFinalFragment());
+        last.release();
+        Assert.assertNull(channel.readOutbound());
+        webSocketConnection.terminateConnection();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test(description = "Producers waiting for a fragment writer are released when the connection closes.")
+    public void testFragmentWriterReleasesWaitersOnClose() {
+        WebSocketInboundFrameHandler frameHandler = newFrameHandler();
+        EmbeddedChannel channel = newChannel(frameHandler);
+        WebSocketConnection webSocketConnection = frameHandler.getWebSocketConnection();
+        WebSocketFragmentWriter writer = webSocketConnection.createFragmentWriter(WebSocketFrameType.BINARY);
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+
+        ChannelFuture pendingWrite = writer.write(ByteBuffer.wrap(new byte[32]), false);
+        Assert.assertFalse(writer.isWritable());
+        AtomicInteger releasedProducers = new AtomicInteger();
+        writer.onWritable(releasedProducers::incrementAndGet);
+        writer.onWritable(releasedProducers::incrementAndGet);
+        Assert.assertEquals(0, releasedProducers.get());
+
+        webSocketConnection.terminateConnection();
+        Assert.assertEquals(2, releasedProducers.get());
+        Assert.assertFalse(pendingWrite.isSuccess());
+        channel.finishAndReleaseAll();
+    }
+
+    private static WebSocketInboundFrameHandler newFrameHandler() {
+        return new WebSocketInboundFrameHandler(true, false, "/", null, new DefaultWebSocketConnectorFuture(),
+                                                new MessageQueueHandler(), WebSocketBufferMode.COPY);
+    }
+
+    private static EmbeddedChannel newChannel(WebSocketInboundFrameHandler frameHandler) {
+        return new EmbeddedChannel(frameHandler) {
+            @Override
+            protected SocketAddress localAddress0() {
+                return new InetSocketAddress("localhost", 9090);
+            }
+        };
+    }
+
+    private static void assertTextFrame(Object frame, String expectedText) {
+        Assert.assertTrue(frame instanceof TextWebSocketFrame);
+        TextWebSocketFrame textFrame = (TextWebSocketFrame) frame;
+        Assert.assertEquals(expectedText, textFrame.text());
+        textFrame.release();
+    }
 }
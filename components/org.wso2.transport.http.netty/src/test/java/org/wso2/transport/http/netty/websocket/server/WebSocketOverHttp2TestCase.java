@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.transport.http.netty.websocket.server;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocket13FrameDecoder;
+import io.netty.handler.codec.http.websocketx.WebSocket13FrameEncoder;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.Http2ConnectionHandler;
+import io.netty.handler.codec.http2.Http2ConnectionHandlerBuilder;
+import io.netty.handler.codec.http2.Http2Error;
+import io.netty.handler.codec.http2.Http2FrameAdapter;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.util.AsciiString;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests WebSockets bootstrapped over HTTP/2 streams with the extended CONNECT method of RFC 8441.
+ */
+public class WebSocketOverHttp2TestCase {
+
+    private DefaultHttpWsConnectorFactory httpConnectorFactory;
+    private ServerConnector serverConnector;
+    private EventLoopGroup clientGroup;
+
+    @BeforeClass
+    public void setup() throws InterruptedException {
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setHost(Constants.LOCALHOST);
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        listenerConfiguration.setVersion(String.valueOf(Constants.HTTP_2_0));
+        listenerConfiguration.setWebSocketOverHttp2Enabled(true);
+        httpConnectorFactory = new DefaultHttpWsConnectorFactory();
+        serverConnector = httpConnectorFactory.createServerConnector(TestUtil.getDefaultServerBootstrapConfig(),
+                                                                     listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        serverConnectorFuture.setWebSocketConnectorListener(new WebSocketTestServerConnectorListener());
+        serverConnectorFuture.sync();
+        clientGroup = new NioEventLoopGroup(1);
+    }
+
+    @Test(description = "Text frames are echoed over a WebSocket opened on a HTTP/2 stream")
+    public void testEchoOverStream() throws Exception {
+        Http2TestClient client = new Http2TestClient();
+        Channel channel = client.connect();
+        try {
+            Assert.assertTrue(client.settingsLatch.await(TestUtil.WEBSOCKET_TEST_IDLE_TIMEOUT, TimeUnit.SECONDS));
+            Assert.assertEquals(client.enableConnectProtocol, Long.valueOf(1));
+
+            Http2Headers requestHeaders = new DefaultHttp2Headers(false)
+                    .method(HttpMethod.CONNECT.asciiName())
+                    .scheme("http")
+                    .authority(TestUtil.TEST_HOST + ":" + TestUtil.SERVER_CONNECTOR_PORT)
+                    .path("/websocket");
+            requestHeaders.set(AsciiString.of(Constants.HTTP2_PROTOCOL), "websocket");
+            requestHeaders.set("sec-websocket-version", "13");
+            client.write(channel, requestHeaders, null);
+
+            Http2Headers responseHeaders = client.headers.poll(TestUtil.WEBSOCKET_TEST_IDLE_TIMEOUT,
+                                                               TimeUnit.SECONDS);
+            Assert.assertNotNull(responseHeaders);
+            Assert.assertEquals(responseHeaders.status().toString(), "200");
+
+            client.write(channel, null, encodeMaskedText("Hello over HTTP/2"));
+            TextWebSocketFrame echo = client.frames.poll(TestUtil.WEBSOCKET_TEST_IDLE_TIMEOUT, TimeUnit.SECONDS);
+            Assert.assertNotNull(echo);
+            Assert.assertEquals(echo.text(), "Hello over HTTP/2");
+            echo.release();
+        } finally {
+            channel.close().sync();
+        }
+    }
+
+    @Test(description = "A WebSocket request without the expected version is refused with a 426 response")
+    public void testUnsupportedVersion() throws Exception {
+        Http2TestClient client = new Http2TestClient();
+        Channel channel = client.connect();
+        try {
+            Assert.assertTrue(client.settingsLatch.await(TestUtil.WEBSOCKET_TEST_IDLE_TIMEOUT, TimeUnit.SECONDS));
+            Http2Headers requestHeaders = new DefaultHttp2Headers(false)
+                    .method(HttpMethod.CONNECT.asciiName())
+                    .scheme("http")
+                    .authority(TestUtil.TEST_HOST + ":" + TestUtil.SERVER_CONNECTOR_PORT)
+                    .path("/websocket");
+            requestHeaders.set(AsciiString.of(Constants.HTTP2_PROTOCOL), "websocket");
+            requestHeaders.set("sec-websocket-version", "8");
+            client.write(channel, requestHeaders, null);
+
+            Http2Headers responseHeaders = client.headers.poll(TestUtil.WEBSOCKET_TEST_IDLE_TIMEOUT,
+                                                               TimeUnit.SECONDS);
+            Assert.assertNotNull(responseHeaders);
+            Assert.assertEquals(responseHeaders.status().toString(), "426");
+        } finally {
+            channel.close().sync();
+        }
+    }
+
+    @Test(description = "Header validation stays on for all streams, only :protocol of CONNECT requests is accepted")
+    public void testInvalidPseudoHeadersRefused() throws Exception {
+        Http2Headers protocolOnGet = new DefaultHttp2Headers(false)
+                .method(HttpMethod.GET.asciiName())
+                .scheme("http")
+                .authority(TestUtil.TEST_HOST + ":" + TestUtil.SERVER_CONNECTOR_PORT)
+                .path("/websocket");
+        protocolOnGet.set(AsciiString.of(Constants.HTTP2_PROTOCOL), "websocket");
+        assertStreamRefused(protocolOnGet);
+
+        Http2Headers unknownPseudoHeader = new DefaultHttp2Headers(false)
+                .method(HttpMethod.CONNECT.asciiName())
+                .scheme("http")
+                .authority(TestUtil.TEST_HOST + ":" + TestUtil.SERVER_CONNECTOR_PORT)
+                .path("/websocket");
+        unknownPseudoHeader.set(AsciiString.of(Constants.HTTP2_PROTOCOL), "websocket");
+        unknownPseudoHeader.set(AsciiString.of(":unknown"), "value");
+        assertStreamRefused(unknownPseudoHeader);
+    }
+
+    private void assertStreamRefused(Http2Headers requestHeaders) throws Exception {
+        Http2TestClient client = new Http2TestClient();
+        Channel channel = client.connect();
+        try {
+            Assert.assertTrue(client.settingsLatch.await(TestUtil.WEBSOCKET_TEST_IDLE_TIMEOUT, TimeUnit.SECONDS));
+            client.write(channel, requestHeaders, null);
+            Long errorCode = client.resetErrorCodes.poll(TestUtil.WEBSOCKET_TEST_IDLE_TIMEOUT, TimeUnit.SECONDS);
+            Assert.assertEquals(errorCode, Long.valueOf(Http2Error.PROTOCOL_ERROR.code()));
+            Assert.assertTrue(client.headers.isEmpty());
+        } finally {
+            channel.close().sync();
+        }
+    }
+
+    private static ByteBuf encodeMaskedText(String text) {
+        EmbeddedChannel encoder = new EmbeddedChannel(new WebSocket13FrameEncoder(true));
+        encoder.writeOutbound(new TextWebSocketFrame(text));
+        CompositeByteBuf frame = Unpooled.compositeBuffer();
+        ByteBuf part;
+        while ((part = encoder.readOutbound()) != null) {
+            frame.addComponent(true, part);
+        }
+        encoder.finish();
+        return frame;
+    }
+
+    @AfterClass
+    public void cleanup() throws InterruptedException {
+        clientGroup.shutdownGracefully().sync();
+        serverConnector.stop();
+        httpConnectorFactory.shutdown();
+    }
+
+    /**
+     * Minimal HTTP/2 client, with prior knowledge, which opens a single WebSocket stream.
+     */
+    private class Http2TestClient extends Http2FrameAdapter {
+
+        private static final int STREAM_ID = 3;
+
+        private final CountDownLatch settingsLatch = new CountDownLatch(1);
+        private final BlockingQueue<Http2Headers> headers = new LinkedBlockingQueue<>();
+        private final BlockingQueue<TextWebSocketFrame> frames = new LinkedBlockingQueue<>();
+        private final BlockingQueue<Long> resetErrorCodes = new LinkedBlockingQueue<>();
+        private final EmbeddedChannel decoder = new EmbeddedChannel(new WebSocket13FrameDecoder(false, false, 65536));
+        private volatile Long enableConnectProtocol;
+        private Http2ConnectionHandler connectionHandler;
+
+        Channel connect() throws InterruptedException {
+            connectionHandler = new Http2ConnectionHandlerBuilder().frameListener(this).build();
+            return new Bootstrap().group(clientGroup).channel(NioSocketChannel.class).handler(connectionHandler)
+                    .connect(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT).sync().channel();
+        }
+
+        void write(Channel channel, Http2Headers requestHeaders, ByteBuf data) throws InterruptedException {
+            channel.eventLoop().submit(() -> {
+                ChannelHandlerContext ctx = channel.pipeline().firstContext();
+                if (requestHeaders != null) {
+                    connectionHandler.encoder().writeHeaders(ctx, STREAM_ID, requestHeaders, 0, false,
+                                                             ctx.newPromise());
+                } else {
+                    connectionHandler.encoder().writeData(ctx, STREAM_ID, data, 0, false, ctx.newPromise());
+                }
+                ctx.flush();
+            }).sync();
+        }
+
+        @Override
+        public void onSettingsRead(ChannelHandlerContext ctx, Http2Settings settings) {
+            enableConnectProtocol = settings.get(Constants.HTTP2_SETTINGS_ENABLE_CONNECT_PROTOCOL);
+            settingsLatch.countDown();
+        }
+
+        @Override
+        public void onHeadersRead(ChannelHandlerContext ctx, int streamId, Http2Headers headers, int padding,
+                                  boolean endOfStream) {
+            this.headers.add(headers);
+        }
+
+        @Override
+        public void onRstStreamRead(ChannelHandlerContext ctx, int streamId, long errorCode) {
+            resetErrorCodes.add(errorCode);
+        }
+
+        @Override
+        public int onDataRead(ChannelHandlerContext ctx, int streamId, ByteBuf data, int padding,
+                              boolean endOfStream) {
+            int processed = data.readableBytes() + padding;
+            decoder.writeInbound(data.retain());
+            Object frame;
+            while ((frame = decoder.readInbound()) != null) {
+                if (frame instanceof TextWebSocketFrame) {
+                    frames.add((TextWebSocketFrame) frame);
+                }
+            }
+            return processed;
+        }
+    }
+}
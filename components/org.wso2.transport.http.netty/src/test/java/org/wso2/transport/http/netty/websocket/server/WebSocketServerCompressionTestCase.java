@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.websocket.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtension;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtension;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.config.WebSocketCompressionConfig;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contractimpl.websocket.compression.PerMessageDeflateServerHandshaker;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the configurable permessage-deflate extension of the WebSocket server.
+ */
+public class WebSocketServerCompressionTestCase {
+
+    private static final String DEFLATE_OFFER = "permessage-deflate; client_max_window_bits";
+
+    private DefaultHttpWsConnectorFactory httpConnectorFactory;
+    private ServerConnector compressingServerConnector;
+    private ServerConnector plainServerConnector;
+    private EventExecutorGroup offloadGroup;
+
+    @BeforeClass
+    public void setup() throws InterruptedException {
+        httpConnectorFactory = new DefaultHttpWsConnectorFactory();
+
+        WebSocketCompressionConfig compressionConfig = new WebSocketCompressionConfig();
+        compressionConfig.setNoContextTakeover(true);
+        compressionConfig.setPeerNoContextTakeover(true);
+        compressingServerConnector = startServerConnector(TestUtil.SERVER_CONNECTOR_PORT, compressionConfig);
+
+        WebSocketCompressionConfig disabledConfig = new WebSocketCompressionConfig();
+        disabledConfig.setEnabled(false);
+        plainServerConnector = startServerConnector(TestUtil.SERVER_PORT1, disabledConfig);
+
+        offloadGroup = new DefaultEventExecutorGroup(1);
+    }
+
+    private ServerConnector startServerConnector(int port, WebSocketCompressionConfig compressionConfig)
+            throws InterruptedException {
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setHost(Constants.LOCALHOST);
+        listenerConfiguration.setPort(port);
+        listenerConfiguration.setWebSocketCompressionConfig(compressionConfig);
+        ServerConnector serverConnector = httpConnectorFactory.createServerConnector(
+                TestUtil.getDefaultServerBootstrapConfig(), listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        serverConnectorFuture.setWebSocketConnectorListener(new WebSocketServerHandshakeFunctionalityListener());
+        serverConnectorFuture.sync();
+        return serverConnector;
+    }
+
+    @Test(description = "Negotiates the configured context takeover parameters")
+    public void testNegotiatedParameters() throws IOException {
+        String extensions = handshakeAndGetExtensions(TestUtil.SERVER_CONNECTOR_PORT);
+        Assert.assertNotNull(extensions);
+        Assert.assertTrue(extensions.startsWith("permessage-deflate"));
+        Assert.assertTrue(extensions.contains("server_no_context_takeover"));
+        Assert.assertTrue(extensions.contains("client_no_context_takeover"));
+    }
+
+    @Test(description = "Does not negotiate compression when it is disabled")
+    public void testCompressionDisabled() throws IOException {
+        Assert.assertNull(handshakeAndGetExtensions(TestUtil.SERVER_PORT1));
+    }
+
+    @Test(description = "Sends messages below the minimum size uncompressed and compresses the rest")
+    public void testMinCompressionSize() {
+        WebSocketCompressionConfig config = new WebSocketCompressionConfig();
+        config.setMinCompressionSize(64);
+        WebSocketServerExtension extension = negotiate(config, null);
+        EmbeddedChannel encoder = new EmbeddedChannel(extension.newExtensionEncoder());
+        EmbeddedChannel decoder = new EmbeddedChannel(extension.newExtensionDecoder());
+
+        encoder.writeOutbound(new BinaryWebSocketFrame(payload(32)));
+        WebSocketFrame smallFrame = encoder.readOutbound();
+        Assert.assertEquals(smallFrame.rsv() & WebSocketExtension.RSV1, 0);
+        Assert.assertEquals(smallFrame.content().readableBytes(), 32);
+        smallFrame.release();
+
+        encoder.writeOutbound(new BinaryWebSocketFrame(payload(4096)));
+        WebSocketFrame compressedFrame = encoder.readOutbound();
+        Assert.assertEquals(compressedFrame.rsv() & WebSocketExtension.RSV1, WebSocketExtension.RSV1);
+        Assert.assertTrue(compressedFrame.content().readableBytes() < 4096);
+
+        decoder.writeInbound(compressedFrame);
+        WebSocketFrame decompressedFrame = decoder.readInbound();
+        Assert.assertEquals(decompressedFrame.content(), payload(4096));
+        decompressedFrame.release();
+        encoder.finishAndReleaseAll();
+        decoder.finishAndReleaseAll();
+    }
+
+    @Test(description = "Compresses large frames off the event loop without reordering the frames that follow")
+    public void testOffloadedCompression() throws InterruptedException {
+        WebSocketCompressionConfig config = new WebSocketCompressionConfig();
+        config.setOffloadThreshold(1024);
+        WebSocketServerExtension extension = negotiate(config, offloadGroup);
+        EmbeddedChannel encoder = new EmbeddedChannel(extension.newExtensionEncoder());
+        EmbeddedChannel decoder = new EmbeddedChannel(extension.newExtensionDecoder());
+
+        encoder.writeOneOutbound(new BinaryWebSocketFrame(payload(64 * 1024)));
+        encoder.writeOneOutbound(new BinaryWebSocketFrame(payload(16)));
+        encoder.flushOutbound();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (encoder.outboundMessages().size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            encoder.runPendingTasks();
+        }
+
+        WebSocketFrame first = encoder.readOutbound();
+        WebSocketFrame second = encoder.readOutbound();
+        Assert.assertNotNull(second);
+        decoder.writeInbound(first, second);
+        WebSocketFrame firstDecompressed = decoder.readInbound();
+        WebSocketFrame secondDecompressed = decoder.readInbound();
+        Assert.assertEquals(firstDecompressed.content(), payload(64 * 1024));
+        Assert.assertEquals(secondDecompressed.content(), payload(16));
+        firstDecompressed.release();
+        secondDecompressed.release();
+        encoder.finishAndReleaseAll();
+        decoder.finishAndReleaseAll();
+    }
+
+    @Test(description = "Rejects invalid compression settings",
+          expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidConfig() {
+        WebSocketCompressionConfig config = new WebSocketCompressionConfig();
+        config.setCompressionLevel(10);
+        new PerMessageDeflateServerHandshaker(config, null);
+    }
+
+    private static WebSocketServerExtension negotiate(WebSocketCompressionConfig config,
+                                                      EventExecutorGroup offloadGroup) {
+        PerMessageDeflateServerHandshaker handshaker = new PerMessageDeflateServerHandshaker(config, offloadGroup);
+        WebSocketServerExtension extension = handshaker.handshakeExtension(
+                new WebSocketExtensionData("permessage-deflate", Collections.emptyMap()));
+        Assert.assertNotNull(extension);
+        return extension;
+    }
+
+    private static ByteBuf payload(int size) {
+        ByteBuf payload = Unpooled.buffer(size);
+        for (int i = 0; i < size; i++) {
+            payload.writeByte('a' + i % 8);
+        }
+        return payload;
+    }
+
+    private static String handshakeAndGetExtensions(int port) throws IOException {
+        System.setProperty("sun.net.http.allowRestrictedHeaders", "true");
+        URL url = URI.create(String.format("http://%s:%d/%s", TestUtil.TEST_HOST, port, "test")).toURL();
+        HttpURLConnection urlConn = (HttpURLConnection) url.openConnection();
+        urlConn.setRequestMethod("GET");
+        urlConn.setRequestProperty("Connection", "Upgrade");
+        urlConn.setRequestProperty("Upgrade", "websocket");
+        urlConn.setRequestProperty("Sec-WebSocket-Key", "dGhlIHNhbXBsZSBub25jZQ==");
+        urlConn.setRequestProperty("Sec-WebSocket-Version", "13");
+        urlConn.setRequestProperty("Sec-WebSocket-Extensions", DEFLATE_OFFER);
+        urlConn.setRequestProperty("x-handshake", "true");
+        try {
+            Assert.assertEquals(urlConn.getResponseCode(), 101);
+            return urlConn.getHeaderField("Sec-WebSocket-Extensions");
+        } finally {
+            urlConn.disconnect();
+        }
+    }
+
+    @AfterClass
+    public void cleanup() throws InterruptedException {
+        compressingServerConnector.stop();
+        plainServerConnector.stop();
+        offloadGroup.shutdownGracefully().sync();
+        httpConnectorFactory.shutdown();
+    }
+}
@@ -31,6 +31,8 @@ import org.wso2.transport.http.netty.contract.websocket.WebSocketControlMessage;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketHandshaker;
 import org.wso2.transport.http.netty.contract.websocket.WebSocketTextMessage;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 
 public class WebSocketServerHandshakeFunctionalityListener implements WebSocketConnectorListener {
@@ -40,6 +42,7 @@ public class WebSocketServerHandshakeFunctionalityListener implements WebSocketC
     private WebSocketConnection currentWebSocketConnection;
     private Throwable handshakeError;
     private CountDownLatch handshakeCompleteCountDownLatch;
+    private final Queue<WebSocketControlMessage> controlMessages = new ConcurrentLinkedQueue<>();
 
     private static final String[] supportingSubProtocols = {"json", "xml"};
 
@@ -47,6 +50,10 @@ public class WebSocketServerHandshakeFunctionalityListener implements WebSocketC
         return currentWebSocketConnection;
     }
 
+    public Queue<WebSocketControlMessage> getControlMessages() {
+        return controlMessages;
+    }
+
     public Throwable getHandshakeError() {
         return handshakeError;
     }
@@ -126,7 +133,7 @@ public class WebSocketServerHandshakeFunctionalityListener implements WebSocketC
 
     @Override
     public void onMessage(WebSocketControlMessage controlMessage) {
-
+        controlMessages.add(controlMessage);
     }
 
     @Override
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.transport.http.netty.websocket.server;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.ServerConnector;
+import org.wso2.transport.http.netty.contract.ServerConnectorFuture;
+import org.wso2.transport.http.netty.contract.config.ListenerConfiguration;
+import org.wso2.transport.http.netty.contract.config.WebSocketHeartbeatConfig;
+import org.wso2.transport.http.netty.contract.websocket.WebSocketConnection;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.util.TestUtil;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.wso2.transport.http.netty.util.TestUtil.WEBSOCKET_TEST_IDLE_TIMEOUT;
+
+/**
+ * Tests the built-in heartbeat of WebSocket server connections.
+ */
+public class WebSocketServerHeartbeatTestCase {
+
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+    private static final byte[] MASK = {1, 2, 3, 4};
+
+    private DefaultHttpWsConnectorFactory httpConnectorFactory;
+    private ServerConnector serverConnector;
+    private WebSocketServerHandshakeFunctionalityListener listener;
+
+    @BeforeClass
+    public void setup() throws InterruptedException {
+        WebSocketHeartbeatConfig heartbeatConfig = new WebSocketHeartbeatConfig();
+        heartbeatConfig.setPingIntervalInMillis(200);
+        heartbeatConfig.setPingJitterInMillis(0);
+        heartbeatConfig.setMaxMissedPongs(2);
+        ListenerConfiguration listenerConfiguration = new ListenerConfiguration();
+        listenerConfiguration.setHost(Constants.LOCALHOST);
+        listenerConfiguration.setPort(TestUtil.SERVER_CONNECTOR_PORT);
+        listenerConfiguration.setWebSocketHeartbeatConfig(heartbeatConfig);
+        httpConnectorFactory = new DefaultHttpWsConnectorFactory();
+        serverConnector = httpConnectorFactory.createServerConnector(TestUtil.getDefaultServerBootstrapConfig(),
+                                                                     listenerConfiguration);
+        ServerConnectorFuture serverConnectorFuture = serverConnector.start();
+        serverConnectorFuture.setWebSocketConnectorListener(
+                listener = new WebSocketServerHandshakeFunctionalityListener());
+        serverConnectorFuture.sync();
+    }
+
+    @Test(description = "Answered pings give the round trip time of the connection")
+    public void testRoundTripTime() throws IOException, InterruptedException {
+        try (Socket socket = handshake()) {
+            WebSocketConnection webSocketConnection = listener.getCurrentWebSocketConnection();
+            Assert.assertEquals(webSocketConnection.getRoundTripTimeInNanos(), -1);
+            webSocketConnection.startReadingFrames();
+
+            DataInputStream inputStream = new DataInputStream(socket.getInputStream());
+            Assert.assertEquals(inputStream.readUnsignedByte() & 0x0F, OPCODE_PING);
+            byte[] payload = new byte[inputStream.readUnsignedByte()];
+            inputStream.readFully(payload);
+            writeMaskedFrame(socket.getOutputStream(), OPCODE_PONG, payload);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WEBSOCKET_TEST_IDLE_TIMEOUT);
+            while (webSocketConnection.getRoundTripTimeInNanos() < 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue(webSocketConnection.getRoundTripTimeInNanos() > 0);
+        }
+    }
+
+    @Test(description = "Late pongs of earlier heartbeat pings are not delivered to the listener")
+    public void testLatePongsConsumed() throws IOException {
+        try (Socket socket = handshake()) {
+            WebSocketConnection webSocketConnection = listener.getCurrentWebSocketConnection();
+            webSocketConnection.startReadingFrames();
+            listener.getControlMessages().clear();
+
+            DataInputStream inputStream = new DataInputStream(socket.getInputStream());
+            byte[] firstPayload = readPing(inputStream);
+            byte[] secondPayload = readPing(inputStream);
+            OutputStream outputStream = socket.getOutputStream();
+            writeMaskedFrame(outputStream, OPCODE_PONG, firstPayload);
+            writeMaskedFrame(outputStream, OPCODE_PONG, secondPayload);
+            writeMaskedFrame(outputStream, OPCODE_TEXT, "echo".getBytes(StandardCharsets.UTF_8));
+
+            int opcode;
+            byte[] payload;
+            do {
+                opcode = inputStream.readUnsignedByte() & 0x0F;
+                payload = new byte[inputStream.readUnsignedByte()];
+                inputStream.readFully(payload);
+            } while (opcode != OPCODE_TEXT);
+            Assert.assertEquals(new String(payload, StandardCharsets.UTF_8), "echo");
+            Assert.assertTrue(listener.getControlMessages().isEmpty());
+            Assert.assertTrue(webSocketConnection.getRoundTripTimeInNanos() > 0);
+        }
+    }
+
+    @Test(description = "Connection is closed once the configured number of pings is left unanswered")
+    public void testClosedAfterMissedPongs() throws IOException, InterruptedException {
+        try (Socket socket = handshake()) {
+            listener.getCurrentWebSocketConnection().startReadingFrames();
+            DataInputStream inputStream = new DataInputStream(socket.getInputStream());
+            int pings = 0;
+            int opcode;
+            byte[] payload;
+            do {
+                opcode = inputStream.readUnsignedByte() & 0x0F;
+                payload = new byte[inputStream.readUnsignedByte()];
+                inputStream.readFully(payload);
+                if (opcode == OPCODE_PING) {
+                    pings++;
+                }
+            } while (opcode != OPCODE_CLOSE);
+
+            Assert.assertEquals(pings, 2);
+            Assert.assertEquals(((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF),
+                                Constants.WEBSOCKET_STATUS_CODE_GOING_AWAY);
+            Assert.assertEquals(inputStream.read(), -1);
+        }
+    }
+
+    private static byte[] readPing(DataInputStream inputStream) throws IOException {
+        Assert.assertEquals(inputStream.readUnsignedByte() & 0x0F, OPCODE_PING);
+        byte[] payload = new byte[inputStream.readUnsignedByte()];
+        inputStream.readFully(payload);
+        return payload;
+    }
+
+    private Socket handshake() throws IOException, InterruptedException {
+        CountDownLatch handshakeLatch = new CountDownLatch(1);
+        listener.setHandshakeCompleteCountDownLatch(handshakeLatch);
+        Socket socket = new Socket(TestUtil.TEST_HOST, TestUtil.SERVER_CONNECTOR_PORT);
+        socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(WEBSOCKET_TEST_IDLE_TIMEOUT));
+        String request = "GET /test HTTP/1.1\r\nHost: localhost\r\nConnection: Upgrade\r\nUpgrade: websocket\r\n"
+                + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\nSec-WebSocket-Version: 13\r\nx-handshake: true\r\n\r\n";
+        OutputStream outputStream = socket.getOutputStream();
+        outputStream.write(request.getBytes(StandardCharsets.US_ASCII));
+        outputStream.flush();
+        InputStream inputStream = socket.getInputStream();
+        int matched = 0;
+        int read;
+        while (matched < 4 && (read = inputStream.read()) != -1) {
+            matched = (read == '\r' || read == '\n') ? matched + 1 : 0;
+        }
+        handshakeLatch.await(WEBSOCKET_TEST_IDLE_TIMEOUT, TimeUnit.SECONDS);
+        return socket;
+    }
+
+    private static void writeMaskedFrame(OutputStream outputStream, int opcode, byte[] payload) throws IOException {
+        outputStream.write(0x80 | opcode);
+        outputStream.write(0x80 | payload.length);
+        outputStream.write(MASK);
+        for (int i = 0; i < payload.length; i++) {
+            outputStream.write(payload[i] ^ MASK[i % MASK.length]);
+        }
+        outputStream.flush();
+    }
+
+    @AfterClass
+    public void cleanup() throws InterruptedException {
+        serverConnector.stop();
+        httpConnectorFactory.shutdown();
+    }
+}